@@ -0,0 +1,165 @@
+package com.openclassrooms.starterjwt.archive;
+
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import com.openclassrooms.starterjwt.invalidation.InvalidationType;
+import com.openclassrooms.starterjwt.invalidation.LocalCacheEvictor;
+import com.openclassrooms.starterjwt.scheduling.JobLocks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves sessions that took place more than oc.app.archive.horizonDays ago, with their
+ * participations, from SESSIONS and PARTICIPATE to SESSIONS_ARCHIVE and PARTICIPATE_ARCHIVE,
+ * so the live tables stop growing with history. Each batch of at most oc.app.archive.batchSize
+ * sessions is copied and deleted in its own transaction: a failure leaves every session
+ * either live or archived, and locks stay short. One node runs the job at a time.
+ */
+@Component
+public class SessionArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(SessionArchiver.class);
+
+    static final String LOCK = "session-archiver";
+
+    static final String SELECT_SQL = "SELECT id FROM SESSIONS WHERE date < ? ORDER BY date, id LIMIT ? FOR UPDATE";
+
+    static final String ARCHIVE_SESSIONS_SQL =
+            "INSERT INTO SESSIONS_ARCHIVE (id, name, description, date, teacher_id, capacity, created_at, updated_at, archived_at) "
+                    + "SELECT id, name, description, date, teacher_id, capacity, created_at, updated_at, :archivedAt "
+                    + "FROM SESSIONS WHERE id IN (:ids)";
+
+    // PARTICIPATE has no key of its own: a pair stored twice is archived once
+    static final String ARCHIVE_PARTICIPATIONS_SQL =
+            "INSERT INTO PARTICIPATE_ARCHIVE (session_id, user_id) "
+                    + "SELECT DISTINCT session_id, user_id FROM PARTICIPATE WHERE session_id IN (:ids)";
+
+    static final String DELETE_PARTICIPATIONS_SQL = "DELETE FROM PARTICIPATE WHERE session_id IN (:ids)";
+
+    static final String DELETE_WAITLIST_SQL = "DELETE FROM WAITLIST WHERE session_id IN (:ids)";
+
+    static final String DELETE_SESSIONS_SQL = "DELETE FROM SESSIONS WHERE id IN (:ids)";
+
+    private record Batch(List<Long> ids, int participations) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLocks jobLocks;
+    private final InvalidationBus invalidationBus;
+    private final LocalCacheEvictor localCacheEvictor;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int batchSize;
+    private final Duration lockLease;
+    private final Counter archivedSessions;
+    private final Counter archivedParticipations;
+    private final Counter skippedRuns;
+
+    public SessionArchiver(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           JobLocks jobLocks,
+                           InvalidationBus invalidationBus,
+                           LocalCacheEvictor localCacheEvictor,
+                           MeterRegistry meterRegistry,
+                           @Value("${oc.app.archive.enabled:true}") boolean enabled,
+                           @Value("${oc.app.archive.horizonDays:365}") int horizonDays,
+                           @Value("${oc.app.archive.batchSize:500}") int batchSize,
+                           @Value("${oc.app.archive.lockLeaseMs:600000}") long lockLeaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobLocks = jobLocks;
+        this.invalidationBus = invalidationBus;
+        this.localCacheEvictor = localCacheEvictor;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        this.lockLease = Duration.ofMillis(lockLeaseMs);
+
+        this.archivedSessions = Counter.builder("yoga.archive.sessions")
+                .description("Sessions moved to SESSIONS_ARCHIVE")
+                .register(meterRegistry);
+        this.archivedParticipations = Counter.builder("yoga.archive.participations")
+                .description("Participations moved to PARTICIPATE_ARCHIVE")
+                .register(meterRegistry);
+        this.skippedRuns = Counter.builder("yoga.archive.skipped")
+                .description("Archival runs skipped because another node held the job")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${oc.app.archive.initialDelayMs:60000}",
+            fixedDelayString = "${oc.app.archive.intervalMs:3600000}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archives every session older than the horizon, batch after batch, unless another node is
+     * already doing it. Returns the number of sessions archived.
+     */
+    public int archive() {
+        if (!jobLocks.tryAcquire(LOCK, lockLease)) {
+            skippedRuns.increment();
+            return 0;
+        }
+        int archived = 0;
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(horizonDays));
+            while (true) {
+                Batch batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                // Rows went around Hibernate: drop what this node caches about them, once for
+                // the batch; other nodes do the same from the records published with it
+                localCacheEvictor.evict(InvalidationType.SESSION, batch.ids());
+                archivedSessions.increment(batch.ids().size());
+                archivedParticipations.increment(batch.participations());
+                archived += batch.ids().size();
+                if (batch.ids().size() < batchSize) {
+                    break;
+                }
+                if (!jobLocks.extend(LOCK, lockLease)) {
+                    logger.warn("Lost the archival lease after {} sessions, stopping", archived);
+                    break;
+                }
+            }
+        } finally {
+            jobLocks.release(LOCK);
+        }
+        if (archived > 0) {
+            logger.info("Archived {} sessions older than {} days", archived, horizonDays);
+        }
+        return archived;
+    }
+
+    private Batch archiveBatch(Timestamp cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_SQL, Long.class, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return new Batch(ids, 0);
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        namedJdbcTemplate.update(ARCHIVE_SESSIONS_SQL, parameters);
+        int participations = namedJdbcTemplate.update(ARCHIVE_PARTICIPATIONS_SQL, parameters);
+        namedJdbcTemplate.update(DELETE_PARTICIPATIONS_SQL, parameters);
+        namedJdbcTemplate.update(DELETE_WAITLIST_SQL, parameters);
+        namedJdbcTemplate.update(DELETE_SESSIONS_SQL, parameters);
+        ids.forEach(id -> invalidationBus.publish(InvalidationType.SESSION, id));
+        return new Batch(ids, participations);
+    }
+}
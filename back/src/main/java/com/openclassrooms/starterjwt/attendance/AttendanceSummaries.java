@@ -0,0 +1,236 @@
+package com.openclassrooms.starterjwt.attendance;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.scheduling.JobLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps SESSION_ATTENDANCE and MONTHLY_ATTENDANCE up to date as sessions change, so attendance
+ * reports read a few summary rows instead of aggregating PARTICIPATE. Each change takes the
+ * session's previous contribution back and adds the new one, in the caller's transaction.
+ * Writers that go around SessionService must call {@link #record} or {@link #rebuild} themselves.
+ * Archiving a session leaves its contribution in place.
+ * <p>
+ * A participant counts as long as its PARTICIPATE row exists, whether the user is deleted or
+ * not, in {@link #record} and {@link #rebuild} alike. SessionService writes the whole roster
+ * back (Session.users is a bag), which drops the rows of deleted users it cannot see, so the
+ * roster it passes is what PARTICIPATE holds on commit. The UserPurger removes the other rows
+ * and takes them back through {@link #removeParticipants}.
+ */
+@Component
+public class AttendanceSummaries {
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceSummaries.class);
+
+    static final String REBUILD_LOCK = "attendance-rebuild";
+
+    static final String SELECT_SQL =
+            "SELECT month_start, weekday, teacher_id, participant_count FROM SESSION_ATTENDANCE WHERE session_id = ? FOR UPDATE";
+
+    static final String INSERT_SQL =
+            "INSERT INTO SESSION_ATTENDANCE (session_id, month_start, weekday, teacher_id, participant_count) VALUES (?, ?, ?, ?, ?)";
+
+    static final String UPDATE_SQL =
+            "UPDATE SESSION_ATTENDANCE SET month_start = ?, weekday = ?, teacher_id = ?, participant_count = ? WHERE session_id = ?";
+
+    static final String DELETE_SQL = "DELETE FROM SESSION_ATTENDANCE WHERE session_id = ?";
+
+    static final String UPDATE_PARTICIPANTS_SQL = "UPDATE SESSION_ATTENDANCE SET participant_count = ? WHERE session_id = ?";
+
+    static final String ADD_SQL =
+            "INSERT INTO MONTHLY_ATTENDANCE (month_start, weekday, teacher_id, session_count, participant_count) VALUES (?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE session_count = session_count + ?, participant_count = participant_count + ?";
+
+    // PARTICIPATE has no key of its own: a pair stored twice counts once. Deleted users count
+    // until the UserPurger removes their rows
+    static final String SOURCE_SQL =
+            "SELECT s.id, s.date, s.teacher_id, COUNT(DISTINCT p.user_id) AS participants "
+                    + "FROM SESSIONS s LEFT JOIN PARTICIPATE p ON p.session_id = s.id GROUP BY s.id, s.date, s.teacher_id "
+                    + "UNION ALL "
+                    + "SELECT s.id, s.date, s.teacher_id, COUNT(DISTINCT p.user_id) AS participants "
+                    + "FROM SESSIONS_ARCHIVE s LEFT JOIN PARTICIPATE_ARCHIVE p ON p.session_id = s.id GROUP BY s.id, s.date, s.teacher_id";
+
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM SESSION_ATTENDANCE";
+
+    static final String HAS_SESSIONS_SQL = "SELECT COUNT(*) FROM (SELECT id FROM SESSIONS UNION ALL SELECT id FROM SESSIONS_ARCHIVE) s";
+
+    private record Key(LocalDate monthStart, int weekday, long teacherId) {
+    }
+
+    private record Contribution(Key key, int participants) {
+    }
+
+    private static final RowMapper<Contribution> CONTRIBUTION = (rs, rowNum) -> new Contribution(
+            new Key(rs.getDate("month_start").toLocalDate(), rs.getInt("weekday"), rs.getLong("teacher_id")),
+            rs.getInt("participant_count"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLocks jobLocks;
+    private final int batchSize;
+
+    public AttendanceSummaries(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               JobLocks jobLocks,
+                               @Value("${oc.app.attendance.rebuildBatchSize:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobLocks = jobLocks;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Brings the summaries in line with {@code session} as the caller's transaction saves it.
+     */
+    public void record(Session session) {
+        if (session == null || session.getId() == null) {
+            return;
+        }
+        record(session.getId(), session.getDate(), session.getTeacher() != null ? session.getTeacher().getId() : null,
+                session.getUsers() != null ? session.getUsers().size() : 0);
+    }
+
+    public void record(long sessionId, java.util.Date date, Long teacherId, int participants) {
+        Contribution current = date != null ? new Contribution(keyOf(date, teacherId), participants) : null;
+        // Locks the row: concurrent changes to one session are applied one after the other
+        Contribution previous = jdbcTemplate.query(SELECT_SQL, CONTRIBUTION, sessionId).stream().findFirst().orElse(null);
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+
+        if (previous != null && current != null && previous.key().equals(current.key())) {
+            add(current.key(), 0, current.participants() - previous.participants());
+        } else {
+            if (previous != null) {
+                add(previous.key(), -1, -previous.participants());
+            }
+            if (current != null) {
+                add(current.key(), 1, current.participants());
+            }
+        }
+
+        if (current == null) {
+            jdbcTemplate.update(DELETE_SQL, sessionId);
+        } else if (previous == null) {
+            jdbcTemplate.update(INSERT_SQL, sessionId, Date.valueOf(current.key().monthStart()), current.key().weekday(),
+                    current.key().teacherId(), current.participants());
+        } else {
+            jdbcTemplate.update(UPDATE_SQL, Date.valueOf(current.key().monthStart()), current.key().weekday(),
+                    current.key().teacherId(), current.participants(), sessionId);
+        }
+    }
+
+    /**
+     * Takes back what a deleted session added to the summaries.
+     */
+    public void remove(long sessionId) {
+        record(sessionId, null, null, 0);
+    }
+
+    /**
+     * Takes one participant back from each of the sessions, in the caller's transaction, for
+     * participations deleted around SessionService. Sessions without a contribution are skipped.
+     */
+    public void removeParticipants(Collection<Long> sessionIds) {
+        Map<Key, Integer> months = new HashMap<>();
+        for (Long sessionId : sessionIds) {
+            Contribution previous = jdbcTemplate.query(SELECT_SQL, CONTRIBUTION, sessionId).stream().findFirst().orElse(null);
+            if (previous == null || previous.participants() == 0) {
+                continue;
+            }
+            jdbcTemplate.update(UPDATE_PARTICIPANTS_SQL, previous.participants() - 1, sessionId);
+            months.merge(previous.key(), 1, Integer::sum);
+        }
+        months.forEach((key, participants) -> add(key, 0, -participants));
+    }
+
+    /**
+     * Recomputes both tables from the live and archived sessions with one GROUP BY query.
+     * Returns the number of sessions counted.
+     */
+    public int rebuild() {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM MONTHLY_ATTENDANCE");
+            jdbcTemplate.update("DELETE FROM SESSION_ATTENDANCE");
+
+            List<Object[]> sessions = new ArrayList<>();
+            Map<Key, long[]> months = new HashMap<>();
+            jdbcTemplate.query(SOURCE_SQL, rs -> {
+                Timestamp date = rs.getTimestamp("date");
+                if (date == null) {
+                    return;
+                }
+                long teacherId = rs.getLong("teacher_id");
+                Key key = keyOf(date, rs.wasNull() ? null : teacherId);
+                int participants = rs.getInt("participants");
+                sessions.add(new Object[]{rs.getLong("id"), Date.valueOf(key.monthStart()), key.weekday(), key.teacherId(), participants});
+                long[] totals = months.computeIfAbsent(key, k -> new long[2]);
+                totals[0]++;
+                totals[1] += participants;
+            });
+
+            for (int from = 0; from < sessions.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, sessions.subList(from, Math.min(sessions.size(), from + batchSize)));
+            }
+            List<Object[]> rows = months.entrySet().stream()
+                    .map(month -> new Object[]{Date.valueOf(month.getKey().monthStart()), month.getKey().weekday(),
+                            month.getKey().teacherId(), month.getValue()[0], month.getValue()[1], 0, 0})
+                    .toList();
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(ADD_SQL, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+            }
+            return sessions.size();
+        });
+    }
+
+    /**
+     * Fills the summaries on the first start after they were introduced, or on an empty
+     * database that was loaded around the application. One node does it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (jdbcTemplate.queryForObject(COUNT_SQL, Long.class) > 0
+                || jdbcTemplate.queryForObject(HAS_SESSIONS_SQL, Long.class) == 0
+                || !jobLocks.tryAcquire(REBUILD_LOCK, Duration.ofMinutes(10))) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            int sessions = rebuild();
+            logger.info("Built attendance summaries of {} sessions in {} ms", sessions, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            jobLocks.release(REBUILD_LOCK);
+        }
+    }
+
+    private static Key keyOf(java.util.Date date, Long teacherId) {
+        LocalDate day = Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+        return new Key(day.withDayOfMonth(1), day.getDayOfWeek().getValue(), teacherId != null ? teacherId : 0);
+    }
+
+    private void add(Key key, int sessions, int participants) {
+        jdbcTemplate.update(ADD_SQL, Date.valueOf(key.monthStart()), key.weekday(), key.teacherId(),
+                sessions, participants, sessions, participants);
+    }
+}
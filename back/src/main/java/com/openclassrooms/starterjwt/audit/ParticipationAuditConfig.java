@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ParticipationAuditConfig {
+
+    @Bean
+    public ParticipationAuditLog participationAuditLog(JdbcTemplate jdbcTemplate,
+                                                       MeterRegistry meterRegistry,
+                                                       @Value("${oc.app.audit.queueCapacity:10000}") int queueCapacity,
+                                                       @Value("${oc.app.audit.batchSize:100}") int batchSize,
+                                                       @Value("${oc.app.audit.flushIntervalMs:500}") long flushIntervalMs) {
+        return new ParticipationAuditLog(jdbcTemplate, meterRegistry, queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    @Bean
+    public ParticipationAuditListener participationAuditListener(ParticipationAuditLog participationAuditLog) {
+        return new ParticipationAuditListener(participationAuditLog);
+    }
+
+    public static class ParticipationAuditListener {
+        private final ParticipationAuditLog participationAuditLog;
+
+        ParticipationAuditListener(ParticipationAuditLog participationAuditLog) {
+            this.participationAuditLog = participationAuditLog;
+        }
+
+        // Only committed participation changes are audited, and never on the booking thread's critical path
+        @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+        public void onParticipationChanged(ParticipationAuditEvent event) {
+            participationAuditLog.offer(event);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.audit;
+
+import java.time.LocalDateTime;
+
+import com.openclassrooms.starterjwt.models.ParticipationEvent.Action;
+
+/**
+ * Published by SessionService whenever a user joins or leaves a session.
+ */
+public record ParticipationAuditEvent(Long sessionId, Long userId, Action action, LocalDateTime occurredAt) {
+
+    public static ParticipationAuditEvent joined(Long sessionId, Long userId) {
+        return new ParticipationAuditEvent(sessionId, userId, Action.JOINED, LocalDateTime.now());
+    }
+
+    public static ParticipationAuditEvent left(Long sessionId, Long userId) {
+        return new ParticipationAuditEvent(sessionId, userId, Action.LEFT, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,186 @@
+package com.openclassrooms.starterjwt.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded in-memory buffer of participation events, flushed to PARTICIPATION_EVENTS in
+ * JDBC batches by a single background writer. When the buffer is full new events are
+ * dropped (and counted) rather than slowing bookings down. The log stops after the web
+ * server, once in-flight requests have finished, and writes whatever is still buffered;
+ * events offered after that are refused and counted.
+ */
+public class ParticipationAuditLog implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ParticipationAuditLog.class);
+
+    // Below the web server's phases: stopped only once graceful shutdown has drained requests
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    static final String INSERT_SQL =
+            "INSERT INTO PARTICIPATION_EVENTS (session_id, user_id, action, occurred_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<ParticipationAuditEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Counter droppedEvents;
+    private final Counter writtenEvents;
+    private final Counter failedEvents;
+    private final Counter lateEvents;
+
+    // Offers share the read lock; stopping takes the write lock, so no event slips in after
+    // the final flush
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private boolean stopped;
+    private Thread writer;
+
+    public ParticipationAuditLog(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 int queueCapacity,
+                                 int batchSize,
+                                 long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("yoga.audit.participation.queue.depth", queue, BlockingQueue::size)
+                .description("Participation events waiting to be written")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("yoga.audit.participation.dropped")
+                .description("Participation events dropped because the queue was full")
+                .register(meterRegistry);
+        this.writtenEvents = Counter.builder("yoga.audit.participation.written")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("yoga.audit.participation.failed")
+                .description("Participation events lost because their batch could not be written")
+                .register(meterRegistry);
+        this.lateEvents = Counter.builder("yoga.audit.participation.late")
+                .description("Participation events refused because the log had already stopped")
+                .register(meterRegistry);
+    }
+
+    public boolean offer(ParticipationAuditEvent event) {
+        stopLock.readLock().lock();
+        try {
+            if (stopped) {
+                lateEvents.increment();
+                logger.warn("Participation audit log is stopped, refusing {}", event);
+                return false;
+            }
+            if (queue.offer(event)) {
+                return true;
+            }
+        } finally {
+            stopLock.readLock().unlock();
+        }
+
+        droppedEvents.increment();
+        logger.warn("Participation audit queue is full, dropping {}", event);
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public void start() {
+        stopLock.writeLock().lock();
+        try {
+            stopped = false;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "participation-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        stopLock.writeLock().lock();
+        try {
+            stopped = true;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever the writer left, if it timed out or was never started
+        List<ParticipationAuditEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<ParticipationAuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ParticipationAuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ParticipationAuditEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                ps.setLong(1, event.sessionId());
+                ps.setLong(2, event.userId());
+                ps.setString(3, event.action().name());
+                ps.setTimestamp(4, Timestamp.valueOf(event.occurredAt()));
+            });
+            writtenEvents.increment(batch.size());
+        } catch (DataAccessException e) {
+            failedEvents.increment(batch.size());
+            logger.error("Could not write {} participation events: {}", batch.size(), e.getMessage());
+        }
+    }
+}
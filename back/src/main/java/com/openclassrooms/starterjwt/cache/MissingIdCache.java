@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers for a short while which entity ids were looked up and not found, so that
+ * clients polling for a missing id do not reach the database every time. Entries are
+ * dropped when their TTL expires or when an entity with that id is saved.
+ */
+@Component
+public class MissingIdCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private record Key(Class<?> type, Long id) {
+    }
+
+    private final ConcurrentMap<Key, Long> expiresAt = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+
+    public MissingIdCache(@Value("${oc.app.cache.missingIdTtlMs:2000}") long ttlMs) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    public boolean isMissing(Class<?> type, Long id) {
+        Key key = new Key(type, id);
+        Long expiry = expiresAt.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiry >= 0) {
+            expiresAt.remove(key, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    public void markMissing(Class<?> type, Long id) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        if (expiresAt.size() >= MAX_ENTRIES) {
+            long now = System.nanoTime();
+            expiresAt.values().removeIf(expiry -> now - expiry >= 0);
+            if (expiresAt.size() >= MAX_ENTRIES) {
+                expiresAt.clear();
+            }
+        }
+        expiresAt.put(new Key(type, id), System.nanoTime() + ttlNanos);
+    }
+
+    public void invalidate(Class<?> type, Long id) {
+        if (id != null) {
+            expiresAt.remove(new Key(type, id));
+        }
+    }
+}
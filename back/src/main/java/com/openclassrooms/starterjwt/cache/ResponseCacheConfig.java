@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.cache.responses", name = "enabled", havingValue = "true")
+public class ResponseCacheConfig {
+
+    // Right behind the security filter chain: a cached body must never reach an unauthenticated client
+    @Bean
+    public FilterRegistrationBean<SerializedResponseCacheFilter> serializedResponseCacheFilter(
+            SerializedResponseCache serializedResponseCache, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SerializedResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new SerializedResponseCacheFilter(serializedResponseCache, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.addUrlPatterns("/api/session", "/api/teacher");
+        return registration;
+    }
+}
@@ -0,0 +1,110 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the serialized body of the list responses, plain and gzip-compressed, so that a
+ * hit is a byte copy. Every entry carries a generation: a response computed while a write
+ * was going on is never stored, and writes invalidate both immediately and after commit.
+ * Entries also expire after a while, for changes made outside the services.
+ */
+@Component
+public class SerializedResponseCache {
+
+    public static final String SESSIONS = "sessions";
+
+    public static final String TEACHERS = "teachers";
+
+    public record CachedResponse(String contentType, byte[] body, byte[] gzipBody, long expiresAt) {
+    }
+
+    private final ConcurrentMap<String, CachedResponse> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final long maxAgeNanos;
+
+    private final boolean gzip;
+
+    public SerializedResponseCache(@Value("${oc.app.cache.responses.maxAgeMs:60000}") long maxAgeMs,
+                                   @Value("${oc.app.cache.responses.gzip:true}") boolean gzip) {
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        this.gzip = gzip;
+    }
+
+    public CachedResponse get(String name) {
+        CachedResponse cached = entries.get(name);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.expiresAt() >= 0) {
+            entries.remove(name, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * To be read before computing a response, and passed back to {@link #put}.
+     */
+    public long generation(String name) {
+        return generationOf(name).get();
+    }
+
+    public void put(String name, long generation, String contentType, byte[] body) {
+        if (maxAgeNanos <= 0) {
+            return;
+        }
+        CachedResponse cached = new CachedResponse(contentType, body, gzip ? gzip(body) : null,
+                System.nanoTime() + maxAgeNanos);
+        // Checked under the entry's lock: an invalidation either sees this entry and removes it, or wins
+        entries.compute(name, (key, current) -> generationOf(name).get() == generation ? cached : current);
+    }
+
+    public void invalidate(String name) {
+        generationOf(name).incrementAndGet();
+        entries.remove(name);
+    }
+
+    /**
+     * Invalidates now, and again once the current transaction commits: a response built
+     * from the data as it was before the commit may have been stored in between.
+     */
+    public void invalidateOnCommit(String name) {
+        invalidate(name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(name);
+                }
+            });
+        }
+    }
+
+    private AtomicLong generationOf(String name) {
+        return generations.computeIfAbsent(name, key -> new AtomicLong());
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
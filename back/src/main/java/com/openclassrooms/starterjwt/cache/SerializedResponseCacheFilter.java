@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serves GET /api/session and GET /api/teacher from {@link SerializedResponseCache}. A hit
+ * writes the stored bytes, gzip-compressed when the client accepts it, without touching
+ * the controller, the mapper or Jackson. A miss runs the request as usual and keeps a copy
+ * of a successful JSON body. Registered after the security filter chain, so only requests
+ * that passed authentication are ever served from the cache.
+ */
+public class SerializedResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Map<String, String> CACHED_PATHS = Map.of(
+            "/api/session", SerializedResponseCache.SESSIONS,
+            "/api/teacher", SerializedResponseCache.TEACHERS);
+
+    private static final String GZIP = "gzip";
+
+    private final SerializedResponseCache cache;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public SerializedResponseCacheFilter(SerializedResponseCache cache, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.hits = Counter.builder("yoga.responsecache.requests").tag("result", "hit")
+                .description("List requests answered by the serialized response cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("yoga.responsecache.requests").tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || request.getQueryString() != null
+                || !CACHED_PATHS.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String name = CACHED_PATHS.get(request.getRequestURI());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        SerializedResponseCache.CachedResponse cached = cache.get(name);
+        if (cached != null) {
+            hits.increment();
+            write(request, response, cached);
+            return;
+        }
+
+        misses.increment();
+        long generation = cache.generation(name);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (isCacheable(wrapper)) {
+                cache.put(name, generation, wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isCacheable(ContentCachingResponseWrapper response) {
+        return response.getStatus() == HttpServletResponse.SC_OK
+                && response.getContentType() != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType()))
+                && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+                              SerializedResponseCache.CachedResponse cached) throws IOException {
+        byte[] body = cached.body();
+        if (cached.gzipBody() != null && acceptsGzip(request)) {
+            body = cached.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+}
@@ -0,0 +1,188 @@
+package com.openclassrooms.starterjwt.cleanup;
+
+import com.openclassrooms.starterjwt.attendance.AttendanceSummaries;
+import com.openclassrooms.starterjwt.scheduling.JobLocks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Physically removes users deleted through UserService.delete, which only marks them.
+ * Their participations, live and archived, and waitlist entries go first, at most oc.app.users.purge.batchSize
+ * rows per transaction, so a user with a long history never holds locks on PARTICIPATE for
+ * long; the USERS row goes last, once nothing references it. Each batch of participations
+ * is taken out of the attendance summaries in the same transaction, one participant per
+ * affected session. One node runs the job at a time.
+ */
+@Component
+public class UserPurger {
+    private static final Logger logger = LoggerFactory.getLogger(UserPurger.class);
+
+    static final String LOCK = "user-purger";
+
+    static final String SELECT_SQL = "SELECT id FROM USERS WHERE deleted_at IS NOT NULL ORDER BY id LIMIT ?";
+
+    static final String SELECT_PARTICIPATIONS_SQL = "SELECT session_id FROM PARTICIPATE WHERE user_id = ? LIMIT ? FOR UPDATE";
+
+    // PARTICIPATE has no key of its own: a pair stored twice goes at once
+    static final String DELETE_PARTICIPATIONS_SQL = "DELETE FROM PARTICIPATE WHERE user_id = :userId AND session_id IN (:sessionIds)";
+
+    // Archived participations have no foreign key to USERS: nothing else would remove them
+    static final String SELECT_ARCHIVED_PARTICIPATIONS_SQL =
+            "SELECT session_id FROM PARTICIPATE_ARCHIVE WHERE user_id = ? LIMIT ? FOR UPDATE";
+
+    static final String DELETE_ARCHIVED_PARTICIPATIONS_SQL =
+            "DELETE FROM PARTICIPATE_ARCHIVE WHERE user_id = :userId AND session_id IN (:sessionIds)";
+
+    static final String DELETE_WAITLIST_SQL = "DELETE FROM WAITLIST WHERE user_id = ? LIMIT ?";
+
+    static final String DELETE_REFRESH_TOKENS_SQL = "DELETE FROM REFRESH_TOKENS WHERE user_id = ?";
+
+    static final String DELETE_USER_SQL = "DELETE FROM USERS WHERE id = ? AND deleted_at IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLocks jobLocks;
+    private final AttendanceSummaries attendanceSummaries;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration lockLease;
+    private final Counter purgedUsers;
+    private final Counter purgedParticipations;
+    private final Counter skippedRuns;
+
+    public UserPurger(JdbcTemplate jdbcTemplate,
+                      PlatformTransactionManager transactionManager,
+                      JobLocks jobLocks,
+                      AttendanceSummaries attendanceSummaries,
+                      MeterRegistry meterRegistry,
+                      @Value("${oc.app.users.purge.enabled:true}") boolean enabled,
+                      @Value("${oc.app.users.purge.batchSize:500}") int batchSize,
+                      @Value("${oc.app.users.purge.lockLeaseMs:300000}") long lockLeaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobLocks = jobLocks;
+        this.attendanceSummaries = attendanceSummaries;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lockLease = Duration.ofMillis(lockLeaseMs);
+
+        this.purgedUsers = Counter.builder("yoga.users.purged")
+                .description("Deleted users removed from USERS")
+                .register(meterRegistry);
+        this.purgedParticipations = Counter.builder("yoga.users.purged.participations")
+                .description("Participations of deleted users removed from PARTICIPATE and PARTICIPATE_ARCHIVE")
+                .register(meterRegistry);
+        this.skippedRuns = Counter.builder("yoga.users.purge.skipped")
+                .description("Purge runs skipped because another node held the job")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${oc.app.users.purge.initialDelayMs:30000}",
+            fixedDelayString = "${oc.app.users.purge.intervalMs:60000}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    /**
+     * Removes every user marked as deleted, unless another node is already doing it.
+     * Returns the number of users removed.
+     */
+    public int purge() {
+        if (!jobLocks.tryAcquire(LOCK, lockLease)) {
+            skippedRuns.increment();
+            return 0;
+        }
+        int purged = 0;
+        try {
+            List<Long> ids;
+            do {
+                ids = jdbcTemplate.queryForList(SELECT_SQL, Long.class, batchSize);
+                for (Long id : ids) {
+                    if (!purgeUser(id)) {
+                        logger.warn("Lost the purge lease after {} users, stopping", purged);
+                        return purged;
+                    }
+                    purged++;
+                    if (!jobLocks.extend(LOCK, lockLease)) {
+                        logger.warn("Lost the purge lease after {} users, stopping", purged);
+                        return purged;
+                    }
+                }
+            } while (ids.size() == batchSize);
+        } finally {
+            jobLocks.release(LOCK);
+        }
+        if (purged > 0) {
+            logger.info("Purged {} deleted users", purged);
+        }
+        return purged;
+    }
+
+    private boolean purgeUser(Long id) {
+        if (!deleteParticipationsInBatches(SELECT_PARTICIPATIONS_SQL, DELETE_PARTICIPATIONS_SQL, id)
+                || !deleteParticipationsInBatches(SELECT_ARCHIVED_PARTICIPATIONS_SQL, DELETE_ARCHIVED_PARTICIPATIONS_SQL, id)
+                || !deleteInBatches(DELETE_WAITLIST_SQL, id)) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_REFRESH_TOKENS_SQL, id);
+            if (jdbcTemplate.update(DELETE_USER_SQL, id) == 1) {
+                purgedUsers.increment();
+            }
+        });
+        return true;
+    }
+
+    // Archived sessions keep their contribution to the summaries, so it shrinks the same way
+    private boolean deleteParticipationsInBatches(String selectSql, String deleteSql, Long id) {
+        int selected;
+        do {
+            selected = transactionTemplate.execute(status -> {
+                List<Long> rows = jdbcTemplate.queryForList(selectSql, Long.class, id, batchSize);
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                Set<Long> sessionIds = new LinkedHashSet<>(rows);
+                int deleted = namedJdbcTemplate.update(deleteSql,
+                        new MapSqlParameterSource("userId", id).addValue("sessionIds", sessionIds));
+                attendanceSummaries.removeParticipants(sessionIds);
+                purgedParticipations.increment(deleted);
+                return rows.size();
+            });
+            if (selected == batchSize && !jobLocks.extend(LOCK, lockLease)) {
+                return false;
+            }
+        } while (selected == batchSize);
+        return true;
+    }
+
+    private boolean deleteInBatches(String sql, Long id) {
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> jdbcTemplate.update(sql, id, batchSize));
+            if (deleted == batchSize && !jobLocks.extend(LOCK, lockLease)) {
+                return false;
+            }
+        } while (deleted == batchSize);
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.services.AttendanceReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.function.BiFunction;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin/reports/attendance")
+public class AttendanceReportController {
+    // Without bounds, the whole history
+    static final YearMonth FIRST_MONTH = YearMonth.of(1970, 1);
+
+    static final YearMonth LAST_MONTH = YearMonth.of(9999, 12);
+
+    private final AttendanceReportService attendanceReportService;
+
+
+    public AttendanceReportController(AttendanceReportService attendanceReportService) {
+        this.attendanceReportService = attendanceReportService;
+    }
+
+    @GetMapping("/teachers")
+    public ResponseEntity<?> byTeacher(@RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                       @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return report(from, to, this.attendanceReportService::byTeacher);
+    }
+
+    @GetMapping("/months")
+    public ResponseEntity<?> byMonth(@RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                     @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return report(from, to, this.attendanceReportService::byMonth);
+    }
+
+    @GetMapping("/weekdays")
+    public ResponseEntity<?> byWeekday(@RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                       @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return report(from, to, this.attendanceReportService::byWeekday);
+    }
+
+    private static ResponseEntity<?> report(YearMonth from, YearMonth to, BiFunction<YearMonth, YearMonth, ?> query) {
+        YearMonth first = from != null ? from : FIRST_MONTH;
+        YearMonth last = to != null ? to : LAST_MONTH;
+        if (last.isBefore(first)) {
+            throw new BadRequestException();
+        }
+
+        return ResponseEntity.ok().body(query.apply(first, last));
+    }
+}
@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.controllers;
 
 import jakarta.validation.Valid;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -11,18 +13,27 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshTokenRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocations;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService.TokenPair;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
+import io.jsonwebtoken.Claims;
+
+import java.util.Optional;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
@@ -31,15 +42,21 @@ public class AuthController {
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocations tokenRevocations;
 
     AuthController(AuthenticationManager authenticationManager,
             PasswordEncoder passwordEncoder,
             JwtUtils jwtUtils,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            RefreshTokenService refreshTokenService,
+            TokenRevocations tokenRevocations) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocations = tokenRevocations;
     }
 
     @PostMapping("/login")
@@ -49,8 +66,8 @@ public class AuthController {
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        TokenPair tokens = refreshTokenService.issue(userDetails);
 
         boolean isAdmin = false;
         User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
@@ -58,12 +75,53 @@ public class AuthController {
             isAdmin = user.isAdmin();
         }
 
-        return ResponseEntity.ok(new JwtResponse(jwt,
+        JwtResponse response = new JwtResponse(tokens.accessToken(),
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                isAdmin));
+                isAdmin);
+        response.setRefreshToken(tokens.refreshToken());
+        response.setExpiresIn(tokens.expiresInMs() / 1000);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh token. Each
+     * refresh token works once; replaying one logs out every token issued from the same login.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        Optional<TokenPair> tokens = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        if (tokens.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Error: Refresh token is invalid or expired"));
+        }
+
+        JwtResponse response = new JwtResponse(tokens.get().accessToken(), null, null, null, null, null);
+        response.setRefreshToken(tokens.get().refreshToken());
+        response.setExpiresIn(tokens.get().expiresInMs() / 1000);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Revokes the bearer access token until it expires, and the refresh token's family if one is given.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest refreshRequest) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims claims = jwtUtils.parseAccessToken(authorization.substring(7));
+            if (claims != null && claims.getId() != null) {
+                tokenRevocations.revoke(claims.getId(), claims.getExpiration().toInstant());
+            }
+        }
+        if (refreshRequest != null && refreshRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        }
+
+        return ResponseEntity.ok(new MessageResponse("Logged out"));
     }
 
     @PostMapping("/register")
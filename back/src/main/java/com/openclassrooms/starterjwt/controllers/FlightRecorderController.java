@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.diagnostics.FlightRecordings;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.payload.response.FlightRecordingResponse;
+import jdk.jfr.Recording;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class FlightRecorderController {
+    private final FlightRecordings flightRecordings;
+
+
+    public FlightRecorderController(FlightRecordings flightRecordings) {
+        this.flightRecordings = flightRecordings;
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(name = "durationSeconds", defaultValue = "60") long durationSeconds) {
+        if (durationSeconds <= 0) {
+            throw new BadRequestException();
+        }
+        try {
+            Recording recording = this.flightRecordings.startRecording(Duration.ofSeconds(durationSeconds));
+
+            return ResponseEntity.ok().body(new FlightRecordingResponse(recording.getId(), recording.getName(),
+                    recording.getState().name(), recording.getDuration().toSeconds()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop() {
+        try {
+            return download(this.flightRecordings.stopRecording());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/recording")
+    public ResponseEntity<?> lastRecording() {
+
+        return this.flightRecordings.lastRecording()
+                .<ResponseEntity<?>>map(FlightRecorderController::download)
+                .orElseThrow(NotFoundException::new);
+    }
+
+    @GetMapping("/continuous")
+    public ResponseEntity<?> continuous() {
+        try {
+            return download(this.flightRecordings.dumpContinuous());
+        } catch (IllegalStateException e) {
+            throw new NotFoundException();
+        }
+    }
+
+    private static ResponseEntity<?> download(Path file) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.services.SessionArchiveService;
+import com.openclassrooms.starterjwt.web.PathId;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/session/archive")
+public class SessionArchiveController {
+    private final SessionArchiveService sessionArchiveService;
+
+
+    public SessionArchiveController(SessionArchiveService sessionArchiveService) {
+        this.sessionArchiveService = sessionArchiveService;
+    }
+
+    @GetMapping()
+    public ResponseEntity<?> findBetween(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException();
+        }
+
+        return ResponseEntity.ok().body(this.sessionArchiveService.findBetween(from, to));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> findById(@PathId("id") Long id) {
+        SessionDto session = this.sessionArchiveService.findById(id);
+
+        if (session == null) {
+            throw new NotFoundException();
+        }
+
+        return ResponseEntity.ok().body(session);
+    }
+}
@@ -1,12 +1,23 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.openclassrooms.starterjwt.dto.SessionDetailDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.WaitlistPositionResponse;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import com.openclassrooms.starterjwt.schedule.ScheduleSnapshot;
+import com.openclassrooms.starterjwt.schedule.ScheduledSession;
+import com.openclassrooms.starterjwt.services.SessionDetailService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import com.openclassrooms.starterjwt.web.PathId;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -19,92 +30,127 @@ import java.util.List;
 public class SessionController {
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final WaitlistService waitlistService;
+    private final SessionDetailService sessionDetailService;
+    private final ScheduleReadModel scheduleReadModel;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             WaitlistService waitlistService,
+                             SessionDetailService sessionDetailService,
+                             ScheduleReadModel scheduleReadModel) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.waitlistService = waitlistService;
+        this.sessionDetailService = sessionDetailService;
+        this.scheduleReadModel = scheduleReadModel;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
-        try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
-
-            if (session == null) {
-                return ResponseEntity.notFound().build();
+    public ResponseEntity<?> findById(@PathId("id") Long id) {
+        ScheduleSnapshot snapshot = this.scheduleReadModel.current();
+        if (snapshot != null) {
+            ScheduledSession scheduled = snapshot.get(id);
+            if (scheduled == null) {
+                throw new NotFoundException();
             }
+            return ResponseEntity.ok().body(scheduled.toDto());
+        }
+
+        SessionDto session = this.sessionService.getDtoById(id);
+
+        if (session == null) {
+            throw new NotFoundException();
+        }
+
+        return ResponseEntity.ok().body(session);
+    }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<?> findDetailById(@PathId("id") Long id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String callerEmail = authentication != null ? authentication.getName() : null;
+        SessionDetailDto sessionDetail = this.sessionDetailService.getDetail(id, callerEmail);
+
+        if (sessionDetail == null) {
+            throw new NotFoundException();
         }
+
+        return ResponseEntity.ok().body(sessionDetail);
     }
 
     @GetMapping()
     public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+        ScheduleSnapshot snapshot = this.scheduleReadModel.current();
+        if (snapshot != null) {
+            return ResponseEntity.ok().body(snapshot.all().stream().map(ScheduledSession::toDto).toList());
+        }
+
+        List<SessionDto> sessions = this.sessionService.findAllDtos();
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+        return ResponseEntity.ok().body(sessions);
     }
 
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
-        log.info(sessionDto);
-
         Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
 
-        log.info(session);
+        log.debug("Created session {}", session.getId());
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
     @PutMapping("{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
-        try {
-            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
+    public ResponseEntity<?> update(@PathId("id") Long id, @Valid @RequestBody SessionDto sessionDto) {
+        Session session = this.sessionService.update(id, this.sessionMapper.toEntity(sessionDto));
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
-        }
+        return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<?> save(@PathVariable("id") String id) {
-        try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+    public ResponseEntity<?> save(@PathId("id") Long id) {
+        Session session = this.sessionService.getById(id);
 
-            if (session == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            this.sessionService.delete(Long.parseLong(id));
-            return ResponseEntity.ok().build();
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+        if (session == null) {
+            throw new NotFoundException();
         }
+
+        this.sessionService.delete(id);
+        return ResponseEntity.ok().build();
     }
 
     @PostMapping("{id}/participate/{userId}")
-    public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
-        try {
-            this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+    public ResponseEntity<?> participate(@PathId("id") Long id, @PathId("userId") Long userId) {
+        this.sessionService.participate(id, userId);
 
-            return ResponseEntity.ok().build();
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
-        }
+        return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("{id}/participate/{userId}")
-    public ResponseEntity<?> noLongerParticipate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
-        try {
-            this.sessionService.noLongerParticipate(Long.parseLong(id), Long.parseLong(userId));
+    public ResponseEntity<?> noLongerParticipate(@PathId("id") Long id, @PathId("userId") Long userId) {
+        this.sessionService.noLongerParticipate(id, userId);
 
-            return ResponseEntity.ok().build();
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
-        }
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathId("id") Long id, @PathId("userId") Long userId) {
+        long position = this.waitlistService.join(id, userId);
+
+        return ResponseEntity.ok().body(new WaitlistPositionResponse(id, userId, position));
+    }
+
+    @GetMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> waitlistPosition(@PathId("id") Long id, @PathId("userId") Long userId) {
+        long position = this.waitlistService.getPosition(id, userId);
+
+        return ResponseEntity.ok().body(new WaitlistPositionResponse(id, userId, position));
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathId("id") Long id, @PathId("userId") Long userId) {
+        this.waitlistService.leave(id, userId);
+
+        return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.services.UserImportService;
+import com.openclassrooms.starterjwt.services.UserImportService.Format;
+import com.openclassrooms.starterjwt.services.UserImportService.Summary;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserImportController {
+    static final String TEXT_CSV = "text/csv";
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+
+
+    public UserImportController(UserImportService userImportService, ObjectMapper objectMapper) {
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registers the users of a CSV file or JSON array. The response is newline-delimited JSON:
+     * one line per rejected row, written as soon as the row is rejected, then the summary.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, MediaType.APPLICATION_JSON_VALUE})
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Format format = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? Format.JSON : Format.CSV;
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        try {
+            Summary summary = this.userImportService.importUsers(request.getInputStream(), format, error -> {
+                try {
+                    writeLine(out, error);
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writeLine(out, summary);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(this.objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+}
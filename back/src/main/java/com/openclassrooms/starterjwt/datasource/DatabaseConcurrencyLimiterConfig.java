@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Puts a {@link ConcurrencyLimitedDataSource} in front of each Hikari pool: the application
+ * pool, or the primary and replica pools behind the lazy routing proxy when the replica is
+ * enabled. Permits are then taken when a physical connection is fetched, so a transaction
+ * served from the caches holds none. The limit can be lowered below the pool size but never
+ * raised above it: more permits than connections would only move the queue back into the pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.datasource.limiter", name = "enabled", havingValue = "true")
+public class DatabaseConcurrencyLimiterConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConcurrencyLimiterConfig.class);
+
+    @Bean
+    public static BeanPostProcessor databaseConcurrencyLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // The routing proxy hands out connection handles without touching a pool: only physical pools are limited
+                if (!(bean instanceof HikariDataSource dataSource)) {
+                    return bean;
+                }
+
+                int poolSize = poolSize(dataSource, beanName, environment);
+                int maxConcurrency = environment.getProperty("oc.app.datasource.limiter.maxConcurrency", Integer.class, poolSize);
+                if (maxConcurrency > poolSize) {
+                    logger.warn("oc.app.datasource.limiter.maxConcurrency={} is above the size of pool {}, using {}",
+                            maxConcurrency, beanName, poolSize);
+                    maxConcurrency = poolSize;
+                }
+                long acquireTimeoutMs = environment.getProperty("oc.app.datasource.limiter.acquireTimeoutMs", Long.class, 30000L);
+
+                logger.info("Limiting concurrent access to pool {} to {} connections", beanName, maxConcurrency);
+                return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeoutMs);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder databaseConcurrencyLimiterMetrics(Map<String, DataSource> dataSources) {
+        return registry -> {
+            // The routing proxy unwraps to the primary limiter: register each limiter once
+            Set<ConcurrencyLimitedDataSource> limiters = Collections.newSetFromMap(new IdentityHashMap<>());
+            dataSources.forEach((name, dataSource) -> {
+                ConcurrencyLimitedDataSource limiter = unwrapLimiter(dataSource);
+                if (limiter == null || !limiters.add(limiter)) {
+                    return;
+                }
+                String pool = limiter.getTargetDataSource() instanceof HikariDataSource hikariDataSource
+                        && hikariDataSource.getPoolName() != null ? hikariDataSource.getPoolName() : name;
+                Gauge.builder("yoga.db.limiter.available", limiter, ConcurrencyLimitedDataSource::getAvailablePermits)
+                        .description("Database permits currently free")
+                        .tag("pool", pool)
+                        .register(registry);
+                Gauge.builder("yoga.db.limiter.waiting", limiter, ConcurrencyLimitedDataSource::getWaitingThreads)
+                        .description("Threads waiting for a database permit")
+                        .tag("pool", pool)
+                        .register(registry);
+            });
+        };
+    }
+
+    private static int poolSize(HikariDataSource dataSource, String beanName, Environment environment) {
+        // Hikari only applies its default size when the pool starts, an unset size reads as -1 here
+        if (dataSource.getMaximumPoolSize() > 0) {
+            return dataSource.getMaximumPoolSize();
+        }
+        String property = "replicaDataSource".equals(beanName)
+                ? "oc.app.datasource.replica.hikari.maximum-pool-size"
+                : "spring.datasource.hikari.maximum-pool-size";
+        return environment.getProperty(property, Integer.class, 10);
+    }
+
+    private static ConcurrencyLimitedDataSource unwrapLimiter(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)
+                    ? dataSource.unwrap(ConcurrencyLimitedDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+/**
+ * Remembers which users changed their own data recently so that their next reads
+ * are served by the primary instead of a replica that may still be lagging.
+ */
+@Component
+public class ReadYourWritesTracker {
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private static final ThreadLocal<Boolean> forcedPrimary = new ThreadLocal<>();
+
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(@Value("${oc.app.datasource.replica.readYourWritesMs:5000}") long windowMs) {
+        this.windowNanos = windowMs * 1_000_000L;
+    }
+
+    public void markWrite(Long userId) {
+        if (userId == null || windowNanos <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (pinnedUntil.size() > PURGE_THRESHOLD) {
+            pinnedUntil.values().removeIf(deadline -> deadline - now <= 0);
+        }
+        pinnedUntil.put(userId, now + windowNanos);
+    }
+
+    public boolean isPinnedToPrimary(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+
+        Long deadline = pinnedUntil.get(userId);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() <= 0) {
+            pinnedUntil.remove(userId, deadline);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs the action with every connection it opens routed to the primary, whoever the current user is.
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = forcedPrimary.get();
+        forcedPrimary.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                forcedPrimary.remove();
+            } else {
+                forcedPrimary.set(previous);
+            }
+        }
+    }
+
+    public boolean isCurrentUserPinnedToPrimary() {
+        if (Boolean.TRUE.equals(forcedPrimary.get())) {
+            return true;
+        }
+        if (pinnedUntil.isEmpty()) {
+            return false;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return isPinnedToPrimary(userDetails.getId());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.diagnostics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.jfr.events", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderConfig {
+
+    // Static: post-processors are created before any other bean of this configuration
+    @Bean
+    public static FlightRecorderInstrumentation flightRecorderInstrumentation() {
+        return new FlightRecorderInstrumentation();
+    }
+}
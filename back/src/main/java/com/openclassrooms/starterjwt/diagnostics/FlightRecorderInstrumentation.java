@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.diagnostics;
+
+import com.openclassrooms.starterjwt.diagnostics.events.RepositoryCallEvent;
+import com.openclassrooms.starterjwt.diagnostics.events.SessionMappingEvent;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.Collection;
+
+/**
+ * Records repository calls and SessionMapper conversions as JFR events. Both are proxied
+ * from here rather than edited: repositories are interfaces implemented by Spring Data and
+ * the mapper implementation is generated by MapStruct.
+ */
+public class FlightRecorderInstrumentation implements BeanPostProcessor {
+
+    static final MethodInterceptor REPOSITORY_CALLS = invocation -> {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = invocation.getMethod().getDeclaringClass().getSimpleName();
+                event.method = invocation.getMethod().getName();
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    };
+
+    static final MethodInterceptor SESSION_MAPPINGS = invocation -> {
+        String method = invocation.getMethod().getName();
+        if (!method.equals("toDto") && !method.equals("toEntity")) {
+            return invocation.proceed();
+        }
+        SessionMappingEvent event = new SessionMappingEvent();
+        event.begin();
+        try {
+            return invocation.proceed();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object argument = invocation.getArguments()[0];
+                event.method = method;
+                event.elements = argument instanceof Collection<?> collection ? collection.size() : argument != null ? 1 : 0;
+                event.commit();
+            }
+        }
+    };
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(REPOSITORY_CALLS)));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof SessionMapper) {
+            if (bean instanceof Advised advised && !advised.isFrozen()) {
+                advised.addAdvice(SESSION_MAPPINGS);
+                return bean;
+            }
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(SESSION_MAPPINGS);
+            return proxyFactory.getProxy(bean.getClass().getClassLoader());
+        }
+        return bean;
+    }
+}
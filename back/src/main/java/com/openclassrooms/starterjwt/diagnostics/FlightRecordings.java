@@ -0,0 +1,201 @@
+package com.openclassrooms.starterjwt.diagnostics;
+
+import com.openclassrooms.starterjwt.diagnostics.events.JwtVerificationEvent;
+import com.openclassrooms.starterjwt.diagnostics.events.ParticipationWriteEvent;
+import com.openclassrooms.starterjwt.diagnostics.events.PasswordHashEvent;
+import com.openclassrooms.starterjwt.diagnostics.events.RepositoryCallEvent;
+import com.openclassrooms.starterjwt.diagnostics.events.SessionMappingEvent;
+import com.openclassrooms.starterjwt.diagnostics.events.UserLoadEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Owns the application's flight recordings. A continuous recording with the JDK's
+ * low-overhead "default" settings keeps the last {@code maxAge} in a bounded on-disk
+ * buffer, with the application events above a duration threshold, and can be dumped at
+ * any time. An on-demand recording uses the "profile" settings with every application
+ * event, runs for at most the requested duration and is written to the recording
+ * directory when stopped.
+ */
+@Component
+public class FlightRecordings implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordings.class);
+
+    static final String CONTINUOUS = "yoga-continuous";
+
+    static final String ON_DEMAND = "yoga-on-demand";
+
+    static final List<Class<? extends Event>> APPLICATION_EVENTS = List.of(
+            JwtVerificationEvent.class,
+            UserLoadEvent.class,
+            PasswordHashEvent.class,
+            RepositoryCallEvent.class,
+            SessionMappingEvent.class,
+            ParticipationWriteEvent.class);
+
+    private final boolean continuousEnabled;
+
+    private final Duration continuousMaxAge;
+
+    private final long continuousMaxSizeBytes;
+
+    private final Duration continuousThreshold;
+
+    private final Duration onDemandMaxDuration;
+
+    private final Path directory;
+
+    // Guarded by this
+    private Recording continuous;
+    private Recording onDemand;
+    private Path lastRecording;
+
+    public FlightRecordings(@Value("${oc.app.jfr.continuous.enabled:false}") boolean continuousEnabled,
+                            @Value("${oc.app.jfr.continuous.maxAgeMinutes:30}") long continuousMaxAgeMinutes,
+                            @Value("${oc.app.jfr.continuous.maxSizeMb:100}") long continuousMaxSizeMb,
+                            @Value("${oc.app.jfr.continuous.thresholdMs:10}") long continuousThresholdMs,
+                            @Value("${oc.app.jfr.onDemand.maxDurationSeconds:600}") long onDemandMaxDurationSeconds,
+                            @Value("${oc.app.jfr.directory:}") String directory) {
+        this.continuousEnabled = continuousEnabled;
+        this.continuousMaxAge = Duration.ofMinutes(continuousMaxAgeMinutes);
+        this.continuousMaxSizeBytes = continuousMaxSizeMb * 1024 * 1024;
+        this.continuousThreshold = Duration.ofMillis(continuousThresholdMs);
+        this.onDemandMaxDuration = Duration.ofSeconds(onDemandMaxDurationSeconds);
+        this.directory = StringUtils.hasText(directory)
+                ? Path.of(directory)
+                : Path.of(System.getProperty("java.io.tmpdir"), "yoga-jfr");
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!continuousEnabled) {
+            return;
+        }
+        continuous = newRecording(CONTINUOUS, "default", continuousThreshold);
+        continuous.setMaxAge(continuousMaxAge);
+        continuous.setMaxSize(continuousMaxSizeBytes);
+        continuous.start();
+        logger.info("Continuous flight recording started, keeping the last {} minutes", continuousMaxAge.toMinutes());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (onDemand != null) {
+            onDemand.close();
+            onDemand = null;
+        }
+        if (continuous != null) {
+            continuous.close();
+            continuous = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return continuous != null;
+    }
+
+    /**
+     * Starts an on-demand recording that stops by itself after the duration, capped by the
+     * configured maximum. Only one runs at a time.
+     */
+    public synchronized Recording startRecording(Duration duration) {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        if (onDemand != null) {
+            onDemand.close();
+        }
+        onDemand = newRecording(ON_DEMAND, "profile", Duration.ZERO);
+        onDemand.setDuration(duration.compareTo(onDemandMaxDuration) > 0 ? onDemandMaxDuration : duration);
+        onDemand.start();
+        logger.info("On-demand flight recording {} started for {}s", onDemand.getId(), onDemand.getDuration().toSeconds());
+        return onDemand;
+    }
+
+    /**
+     * Stops the on-demand recording, or takes it as it is once its duration elapsed, and
+     * writes it to the recording directory.
+     */
+    public synchronized Path stopRecording() {
+        if (onDemand == null) {
+            throw new IllegalStateException("No recording was started");
+        }
+        try {
+            if (onDemand.getState() == RecordingState.RUNNING) {
+                onDemand.stop();
+            }
+            Path file = directory.resolve(ON_DEMAND + "-" + onDemand.getId() + ".jfr");
+            Files.createDirectories(directory);
+            onDemand.dump(file);
+            replaceLastRecording(file);
+            logger.info("On-demand flight recording {} written to {}", onDemand.getId(), file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            onDemand.close();
+            onDemand = null;
+        }
+    }
+
+    public synchronized Optional<Path> lastRecording() {
+        return Optional.ofNullable(lastRecording).filter(Files::exists);
+    }
+
+    /**
+     * Writes what the continuous recording currently holds to the recording directory.
+     */
+    public synchronized Path dumpContinuous() {
+        if (continuous == null) {
+            throw new IllegalStateException("Continuous recording is disabled");
+        }
+        try {
+            Path file = directory.resolve(CONTINUOUS + ".jfr");
+            Files.createDirectories(directory);
+            continuous.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replaceLastRecording(Path file) throws IOException {
+        if (lastRecording != null && !lastRecording.equals(file)) {
+            Files.deleteIfExists(lastRecording);
+        }
+        lastRecording = file;
+    }
+
+    private static Recording newRecording(String name, String settings, Duration threshold) {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot read the JFR " + settings + " settings", e);
+        }
+        recording.setName(name);
+        recording.setToDisk(true);
+        for (Class<? extends Event> eventType : APPLICATION_EVENTS) {
+            recording.enable(eventType).withThreshold(threshold);
+        }
+        return recording;
+    }
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.diagnostics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Parsing and signature check of a JWT.
+ */
+@Name("yoga.JwtVerification")
+@Label("JWT Verification")
+@Category({"Yoga", "Security"})
+@Description("Parse and signature verification of a bearer token")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Valid")
+    public boolean valid;
+}
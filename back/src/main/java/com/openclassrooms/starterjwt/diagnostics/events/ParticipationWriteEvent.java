@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.diagnostics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A participation change, from the session lookup to the roster save, before commit.
+ */
+@Name("yoga.ParticipationWrite")
+@Label("Participation Write")
+@Category({"Yoga", "Domain"})
+@Description("A user joining or leaving a session")
+@StackTrace(false)
+public class ParticipationWriteEvent extends Event {
+
+    @Label("Action")
+    public String action;
+
+    @Label("Session Id")
+    public long sessionId;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Outcome")
+    public String outcome;
+}
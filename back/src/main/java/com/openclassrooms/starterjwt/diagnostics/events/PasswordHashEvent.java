@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.diagnostics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A BCrypt hash or comparison, deliberately slow.
+ */
+@Name("yoga.PasswordHash")
+@Label("Password Hash")
+@Category({"Yoga", "Security"})
+@Description("Password encoding or verification")
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Matched")
+    public boolean matched;
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.diagnostics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A call to a Spring Data repository method: which one, how long it took and whether it threw.
+ */
+@Name("yoga.RepositoryCall")
+@Label("Repository Call")
+@Category({"Yoga", "Persistence"})
+@Description("Spring Data repository method invocation")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.diagnostics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A SessionMapper conversion. toEntity looks teachers and users up, so it may hit the database.
+ */
+@Name("yoga.SessionMapping")
+@Label("Session Mapping")
+@Category({"Yoga", "Mapping"})
+@Description("Conversion between Session and SessionDto")
+@StackTrace(false)
+public class SessionMappingEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Elements")
+    public int elements;
+}
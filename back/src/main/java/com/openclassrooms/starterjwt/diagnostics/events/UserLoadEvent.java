@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.diagnostics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Loading of the authenticated user's details, done on every authenticated request.
+ */
+@Name("yoga.UserLoad")
+@Label("User Load")
+@Category({"Yoga", "Security"})
+@Description("User details loaded by email for authentication")
+@StackTrace(false)
+public class UserLoadEvent extends Event {
+
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionDetailDto {
+    private Long id;
+
+    private String name;
+
+    private Date date;
+
+    private String description;
+
+    private Integer capacity;
+
+    private TeacherSummaryDto teacher;
+
+    private long participantCount;
+
+    private boolean participating;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // JPQL constructor expression: the roster fields are filled in by SessionDetailService
+    public SessionDetailDto(Long id, String name, Date date, String description, Integer capacity,
+                            Long teacherId, String teacherLastName, String teacherFirstName,
+                            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, date, description, capacity,
+                teacherId == null ? null : new TeacherSummaryDto(teacherId, teacherLastName, teacherFirstName),
+                0, false, createdAt, updatedAt);
+    }
+}
@@ -3,7 +3,9 @@ package com.openclassrooms.starterjwt.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -31,9 +33,18 @@ public class SessionDto {
     @Size(max = 2500)
     private String description;
 
+    @Min(1)
+    private Integer capacity;
+
+    @ToString.Exclude
     private List<Long> users;
 
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    @ToString.Include(name = "participants")
+    private Integer participantCountForToString() {
+        return users == null ? null : users.size();
+    }
 }
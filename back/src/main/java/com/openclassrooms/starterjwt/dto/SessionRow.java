@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL constructor expression for session reads: the session columns, repeated once per
+ * participant id (null for an empty roster), so a session and its roster come back in
+ * one query without loading any entity.
+ */
+public record SessionRow(Long id,
+                         String name,
+                         Date date,
+                         Long teacherId,
+                         String description,
+                         Integer capacity,
+                         LocalDateTime createdAt,
+                         LocalDateTime updatedAt,
+                         Long userId) {
+
+    /**
+     * Folds the rows into one SessionDto per session, in order of first appearance.
+     */
+    public static List<SessionDto> toSessionDtos(List<SessionRow> rows) {
+        Map<Long, SessionDto> sessions = new LinkedHashMap<>();
+        for (SessionRow row : rows) {
+            SessionDto session = sessions.computeIfAbsent(row.id(), id -> new SessionDto(
+                    id, row.name(), row.date(), row.teacherId(), row.description(), row.capacity(),
+                    new ArrayList<>(), row.createdAt(), row.updatedAt()));
+            if (row.userId() != null) {
+                session.getUsers().add(row.userId());
+            }
+        }
+        return new ArrayList<>(sessions.values());
+    }
+}
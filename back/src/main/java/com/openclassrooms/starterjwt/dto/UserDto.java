@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.ToString;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Size;
@@ -34,9 +35,16 @@ public class UserDto {
 
     @JsonIgnore
     @Size(max = 120)
+    @ToString.Exclude
     private String password;
 
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    // JPQL constructor expression: everything but the password
+    public UserDto(Long id, String email, String lastName, String firstName, boolean admin,
+                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, email, lastName, firstName, admin, null, createdAt, updatedAt);
+    }
 }
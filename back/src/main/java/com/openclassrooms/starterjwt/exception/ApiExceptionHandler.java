@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+/**
+ * Answers the common client errors with {@link ErrorBodies} instead of going through the
+ * container's error page, which would build and serialize a fresh map for each of them.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler({
+            InvalidIdException.class,
+            BadRequestException.class,
+            MethodArgumentTypeMismatchException.class,
+            MethodArgumentNotValidException.class,
+            HttpMessageNotReadableException.class
+    })
+    public ResponseEntity<byte[]> badRequest() {
+        return ErrorBodies.BAD_REQUEST;
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<byte[]> notFound() {
+        return ErrorBodies.NOT_FOUND;
+    }
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON bodies for the common error responses, serialized once. The responses themselves are
+ * shared: a ResponseEntity is immutable and only copied into the servlet response.
+ */
+public final class ErrorBodies {
+
+    public static final ResponseEntity<byte[]> BAD_REQUEST =
+            response(HttpStatus.BAD_REQUEST, "The request is malformed or has an invalid id");
+
+    public static final ResponseEntity<byte[]> NOT_FOUND =
+            response(HttpStatus.NOT_FOUND, "The requested resource does not exist");
+
+    public static final String UNAUTHORIZED_MESSAGE = "Full authentication is required to access this resource";
+
+    public static final String FORBIDDEN_MESSAGE = "Admin rights are required to access this resource";
+
+    private ErrorBodies() {
+    }
+
+    /**
+     * {@code {"status":...,"error":"...","message":"..."}} without the closing brace, for
+     * callers that append more fields. Messages are constants and need no escaping.
+     */
+    public static String prefix(HttpStatus status, String message) {
+        return "{\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + message + "\"";
+    }
+
+    private static ResponseEntity<byte[]> response(HttpStatus status, String message) {
+        byte[] body = (prefix(status, message) + "}").getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
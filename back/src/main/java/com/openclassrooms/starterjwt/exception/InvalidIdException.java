@@ -0,0 +1,14 @@
+package com.openclassrooms.starterjwt.exception;
+
+/**
+ * A path id that is not a number. Thrown for every garbage id a scanner sends, so there is
+ * a single shared instance without a stack trace.
+ */
+public final class InvalidIdException extends RuntimeException {
+
+    public static final InvalidIdException INSTANCE = new InvalidIdException();
+
+    private InvalidIdException() {
+        super("Invalid id", null, false, false);
+    }
+}
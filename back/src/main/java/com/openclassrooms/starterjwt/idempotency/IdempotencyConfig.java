@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.idempotency", name = "enabled", havingValue = "true")
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(@Value("${oc.app.idempotency.maxEntries:10000}") int maxEntries,
+                                             @Value("${oc.app.idempotency.ttlMs:3600000}") long ttlMs) {
+        return new IdempotencyStore(maxEntries, ttlMs);
+    }
+
+    // Behind the security filter chain: keys belong to the authenticated user, and a stored
+    // response must never reach anyone else
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore idempotencyStore,
+            MeterRegistry meterRegistry,
+            @Value("${oc.app.idempotency.waitTimeoutMs:10000}") long waitTimeoutMs,
+            @Value("${oc.app.idempotency.maxBodyBytes:65536}") int maxBodyBytes) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, meterRegistry, waitTimeoutMs, maxBodyBytes));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        registration.addUrlPatterns("/api/session", "/api/session/*");
+        return registration;
+    }
+}
@@ -0,0 +1,272 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import com.openclassrooms.starterjwt.exception.ErrorBodies;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Makes POST /api/session and POST /api/session/{id}/participate/{userId} safe to retry:
+ * a request carrying an {@code Idempotency-Key} header the same user already sent is
+ * answered with the stored response, status and body, without reaching the controller.
+ * A duplicate arriving while the first request runs waits for it. Reusing a key for a
+ * different request is refused with 422; server errors are not kept, so they can be retried.
+ * The body is buffered for the fingerprint, so bodies over {@code maxBodyBytes} get a 413.
+ * Registered after the security filter chain: keys are scoped to the authenticated user.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final Pattern IDEMPOTENT_PATHS = Pattern.compile("/api/session(/[^/]+/participate/[^/]+)?");
+
+    private static final byte[] KEY_REUSED = (ErrorBodies.prefix(HttpStatus.UNPROCESSABLE_ENTITY,
+            "The Idempotency-Key was already used for a different request") + "}").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] STILL_RUNNING = (ErrorBodies.prefix(HttpStatus.CONFLICT,
+            "A request with this Idempotency-Key is still being processed") + "}").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] INVALID_KEY = (ErrorBodies.prefix(HttpStatus.BAD_REQUEST,
+            "The Idempotency-Key header is too long") + "}").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] TOO_LARGE = (ErrorBodies.prefix(HttpStatus.PAYLOAD_TOO_LARGE,
+            "The request body is too large") + "}").getBytes(StandardCharsets.UTF_8);
+
+    private final IdempotencyStore store;
+
+    private final long waitTimeoutMs;
+
+    private final int maxBodyBytes;
+
+    private final Counter first;
+
+    private final Counter replayed;
+
+    private final Counter reused;
+
+    public IdempotencyFilter(IdempotencyStore store, MeterRegistry meterRegistry, long waitTimeoutMs, int maxBodyBytes) {
+        this.store = store;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.maxBodyBytes = maxBodyBytes;
+        this.first = requests(meterRegistry, "first");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.reused = requests(meterRegistry, "reused");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("yoga.idempotency.requests").tag("result", result)
+                .description("Requests sent with an Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY) == null
+                || !IDEMPOTENT_PATHS.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            write(response, HttpStatus.BAD_REQUEST.value(), MediaType.APPLICATION_JSON_VALUE, INVALID_KEY);
+            return;
+        }
+        byte[] body = readBody(request);
+        if (body == null) {
+            write(response, HttpStatus.PAYLOAD_TOO_LARGE.value(), MediaType.APPLICATION_JSON_VALUE, TOO_LARGE);
+            return;
+        }
+        BufferedRequest bufferedRequest = new BufferedRequest(request, body);
+        String fingerprint = fingerprint(request, bufferedRequest.body);
+        String key = principal() + '\n' + idempotencyKey;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(key);
+            if (claim.first()) {
+                first.increment();
+                execute(bufferedRequest, response, filterChain, key, claim, fingerprint);
+                return;
+            }
+            IdempotencyStore.StoredResponse stored;
+            try {
+                stored = claim.flight().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                write(response, HttpStatus.CONFLICT.value(), MediaType.APPLICATION_JSON_VALUE, STILL_RUNNING);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for a duplicate request", e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored == null) {
+                // The first request failed without a response to keep: run this one instead
+                continue;
+            }
+            if (!stored.fingerprint().equals(fingerprint)) {
+                reused.increment();
+                write(response, HttpStatus.UNPROCESSABLE_ENTITY.value(), MediaType.APPLICATION_JSON_VALUE, KEY_REUSED);
+                return;
+            }
+            replayed.increment();
+            response.setHeader(REPLAYED, "true");
+            write(response, stored.status(), stored.contentType(), stored.body());
+            return;
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String key, IdempotencyStore.Claim claim, String fingerprint)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() < HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+                store.complete(key, claim, new IdempotencyStore.StoredResponse(fingerprint, wrapper.getStatus(),
+                        wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                store.release(key, claim);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * The whole body, or null when it is over maxBodyBytes: the declared length is checked
+     * first, and at most one byte past the limit is read from a body sent without one.
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            return null;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        return body.length > maxBodyBytes ? null : body;
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void write(HttpServletResponse response, int status, String contentType, byte[] body)
+            throws IOException {
+        response.setStatus(status);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * The request with its body read up front, for the fingerprint, and served again to the controller.
+     */
+    private static final class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is in memory, so it is available as soon as the listener is set
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
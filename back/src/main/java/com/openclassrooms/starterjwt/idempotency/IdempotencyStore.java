@@ -0,0 +1,103 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responses of requests sent with an Idempotency-Key, kept for a while so that a retry
+ * gets the original response instead of running again. A key is claimed when its first
+ * request starts: duplicates arriving meanwhile wait for that request's outcome.
+ *
+ * <p>Bounded: entries all live for the same TTL, so the oldest ones are the first to
+ * expire, and once the store is full the oldest are dropped even if still valid. Held in
+ * memory, per node.
+ */
+public class IdempotencyStore {
+
+    /**
+     * What the first request answered. {@code fingerprint} identifies the request, so that a
+     * key reused for a different request can be told apart from a retry.
+     */
+    public record StoredResponse(String fingerprint, int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * Outcome of {@link #claim}: either this caller owns the key ({@code first}) and must
+     * {@link #complete} or {@link #release} it, or there is a response or flight to wait for.
+     */
+    public record Claim(boolean first, CompletableFuture<StoredResponse> flight) {
+    }
+
+    private record Entry(CompletableFuture<StoredResponse> flight, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    public IdempotencyStore(int maxEntries, long ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    public synchronized Claim claim(String key) {
+        long now = System.nanoTime();
+        purge(now);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return new Claim(false, entry.flight());
+        }
+        CompletableFuture<StoredResponse> flight = new CompletableFuture<>();
+        entries.put(key, new Entry(flight, now + ttlNanos));
+        return new Claim(true, flight);
+    }
+
+    /**
+     * Keeps the response for the TTL, counted from now, and hands it to the waiting duplicates.
+     */
+    public void complete(String key, Claim claim, StoredResponse response) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.flight() == claim.flight()) {
+                // Re-inserted at the tail: the map stays ordered by expiry
+                entries.remove(key);
+                entries.put(key, new Entry(claim.flight(), System.nanoTime() + ttlNanos));
+            }
+        }
+        claim.flight().complete(response);
+    }
+
+    /**
+     * Gives the key up without a response to keep (server error, exception): duplicates
+     * that were waiting, and later retries, run the request again.
+     */
+    public void release(String key, Claim claim) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.flight() == claim.flight()) {
+                entries.remove(key);
+            }
+        }
+        claim.flight().complete(null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void purge(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.expiresAt() < 0 && entries.size() < maxEntries) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+}
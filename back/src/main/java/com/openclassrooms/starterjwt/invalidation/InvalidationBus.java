@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.invalidation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Tells the other nodes that an entity changed, without a broker: a record is inserted
+ * into CACHE_INVALIDATIONS by the same transaction as the write, so it becomes visible
+ * exactly when the write does and disappears with it on rollback. Every node tails the
+ * table with an {@link InvalidationPoller} and evicts its own in-memory copies.
+ */
+@Component
+public class InvalidationBus {
+
+    static final String INSERT_SQL =
+            "INSERT INTO CACHE_INVALIDATIONS (type, entity_id, origin, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+
+    private final String nodeId;
+
+    public InvalidationBus(JdbcTemplate jdbcTemplate,
+                           @Value("${oc.app.invalidation.enabled:true}") boolean enabled,
+                           @Value("${oc.app.invalidation.nodeId:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+    }
+
+    /**
+     * Records the change in the current transaction. The local node evicts on its own and
+     * skips its records when polling.
+     */
+    public void publish(InvalidationType type, Long entityId) {
+        if (!enabled || entityId == null) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_SQL, type.name(), entityId, nodeId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.invalidation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnExpression("${oc.app.invalidation.enabled:true} and ${oc.app.invalidation.pollIntervalMs:1000} > 0")
+public class InvalidationConfig {
+
+    @Bean
+    public InvalidationPoller invalidationPoller(DataSource dataSource,
+                                                 LocalCacheEvictor localCacheEvictor,
+                                                 InvalidationBus invalidationBus,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${oc.app.invalidation.pollIntervalMs:1000}") long pollIntervalMs,
+                                                 @Value("${oc.app.invalidation.gapTimeoutMs:10000}") long gapTimeoutMs,
+                                                 @Value("${oc.app.invalidation.retentionMs:3600000}") long retentionMs) {
+        return new InvalidationPoller(dataSource, localCacheEvictor, meterRegistry, invalidationBus.getNodeId(),
+                pollIntervalMs, gapTimeoutMs, retentionMs);
+    }
+}
@@ -0,0 +1,198 @@
+package com.openclassrooms.starterjwt.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails CACHE_INVALIDATIONS every poll interval and hands the other nodes' records to
+ * {@link LocalCacheEvictor}, so a node serves data at most about one interval older than
+ * the last commit. Ids are allocated before commit, so a record can show up after a
+ * higher one: ids skipped by the scan are waited for up to the gap timeout (after which
+ * they are taken as rolled back) instead of being lost. Old records are purged after the
+ * retention period.
+ */
+public class InvalidationPoller implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationPoller.class);
+
+    static final String SELECT_SQL =
+            "SELECT id, type, entity_id, origin, created_at FROM CACHE_INVALIDATIONS WHERE id > ? ORDER BY id";
+
+    static final String PURGE_SQL = "DELETE FROM CACHE_INVALIDATIONS WHERE created_at < ?";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private record Invalidation(long id, InvalidationType type, long entityId, String origin, LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalCacheEvictor evictor;
+    private final String nodeId;
+    private final long pollIntervalMs;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+    private final Timer lag;
+    private final Counter applied;
+
+    // Only touched by the poller thread
+    private long watermark;
+    private final NavigableSet<Long> seenAboveWatermark = new TreeSet<>();
+    private final Map<Long, Long> gapsSince = new HashMap<>();
+    private long nextPurgeAt;
+
+    private volatile ScheduledExecutorService executor;
+
+    public InvalidationPoller(DataSource dataSource,
+                              LocalCacheEvictor evictor,
+                              MeterRegistry meterRegistry,
+                              String nodeId,
+                              long pollIntervalMs,
+                              long gapTimeoutMs,
+                              long retentionMs) {
+        // Own template: the row cap must not leak into the application's shared one
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setMaxRows(BATCH_SIZE);
+        this.evictor = evictor;
+        this.nodeId = nodeId;
+        this.pollIntervalMs = pollIntervalMs;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+        this.retention = Duration.ofMillis(retentionMs);
+        this.lag = Timer.builder("yoga.invalidation.lag")
+                .description("Time from a write on another node to the local eviction")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.applied = Counter.builder("yoga.invalidation.applied")
+                .description("Invalidations from other nodes applied locally")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM CACHE_INVALIDATIONS", Long.class);
+        // Caches start empty: older records have nothing left to evict
+        watermark = maxId != null ? maxId : 0;
+        nextPurgeAt = System.nanoTime();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Polling cache invalidations every {}ms as node {}", pollIntervalMs, nodeId);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = executor;
+        executor = null;
+        if (running != null) {
+            running.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (DataAccessException e) {
+            logger.warn("Could not poll cache invalidations: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Cache invalidation poll failed", e);
+        }
+    }
+
+    void poll() {
+        List<Invalidation> invalidations = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Invalidation(
+                rs.getLong("id"),
+                InvalidationType.valueOf(rs.getString("type")),
+                rs.getLong("entity_id"),
+                rs.getString("origin"),
+                rs.getTimestamp("created_at").toLocalDateTime()), watermark);
+
+        LocalDateTime now = LocalDateTime.now();
+        // One eviction per type: a batch of archived sessions drops the shared caches once
+        Map<InvalidationType, List<Long>> entityIds = new EnumMap<>(InvalidationType.class);
+        for (Invalidation invalidation : invalidations) {
+            if (!seenAboveWatermark.add(invalidation.id()) || nodeId.equals(invalidation.origin())) {
+                continue;
+            }
+            entityIds.computeIfAbsent(invalidation.type(), type -> new ArrayList<>()).add(invalidation.entityId());
+            applied.increment();
+            lag.record(Duration.between(invalidation.createdAt(), now).abs());
+        }
+        entityIds.forEach(evictor::evict);
+        advanceWatermark();
+        purgeIfDue(now);
+    }
+
+    private void advanceWatermark() {
+        if (seenAboveWatermark.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long highest = seenAboveWatermark.last();
+        if (highest - watermark > MAX_TRACKED_GAPS) {
+            logger.warn("Too many missing cache invalidation ids below {}, no longer waiting for them", highest);
+            gapsSince.clear();
+            seenAboveWatermark.clear();
+            watermark = highest;
+            return;
+        }
+        for (long id = watermark + 1; id < highest; id++) {
+            if (!seenAboveWatermark.contains(id)) {
+                gapsSince.putIfAbsent(id, now);
+            }
+        }
+        while (true) {
+            long next = watermark + 1;
+            Long gapSince = gapsSince.get(next);
+            if (seenAboveWatermark.remove(next)) {
+                watermark = next;
+            } else if (gapSince != null && now - gapSince >= gapTimeoutNanos) {
+                gapsSince.remove(next);
+                watermark = next;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void purgeIfDue(LocalDateTime now) {
+        long nowNanos = System.nanoTime();
+        if (nowNanos - nextPurgeAt < 0) {
+            return;
+        }
+        nextPurgeAt = nowNanos + retention.toNanos() / 10;
+        int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(now.minus(retention)));
+        if (purged > 0) {
+            logger.debug("Purged {} cache invalidations older than {}", purged, retention);
+        }
+    }
+}
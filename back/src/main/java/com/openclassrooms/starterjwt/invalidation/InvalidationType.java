@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.invalidation;
+
+/**
+ * What changed: each type names the entity whose id is carried by the invalidation record.
+ */
+public enum InvalidationType {
+    SESSION,
+    USER,
+    /** A REVOKED_TOKENS row: not a cache entry, the node adds it to its revocation set. */
+    REVOKED_TOKEN
+}
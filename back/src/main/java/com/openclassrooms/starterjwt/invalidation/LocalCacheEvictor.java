@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.invalidation;
+
+import com.openclassrooms.starterjwt.cache.MissingIdCache;
+import com.openclassrooms.starterjwt.cache.SerializedResponseCache;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocations;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Drops everything this node holds in memory about an entity changed on another node:
+ * second-level cache entries and query results, missing ids, serialized list responses
+ * and the schedule snapshot. Token revocations travel the same way and are added to the
+ * node's {@link TokenRevocations}.
+ */
+@Component
+public class LocalCacheEvictor {
+
+    static final String SESSION_USERS_REGION = Session.class.getName() + ".users";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final MissingIdCache missingIdCache;
+
+    private final SerializedResponseCache responseCache;
+
+    private final ScheduleReadModel scheduleReadModel;
+
+    private final TokenRevocations tokenRevocations;
+
+    public LocalCacheEvictor(EntityManagerFactory entityManagerFactory,
+                             MissingIdCache missingIdCache,
+                             SerializedResponseCache responseCache,
+                             ScheduleReadModel scheduleReadModel,
+                             TokenRevocations tokenRevocations) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.missingIdCache = missingIdCache;
+        this.responseCache = responseCache;
+        this.scheduleReadModel = scheduleReadModel;
+        this.tokenRevocations = tokenRevocations;
+    }
+
+    /**
+     * Evicts each entity's own entries, then drops query results and serialized responses and
+     * patches the schedule snapshot once for the whole batch.
+     */
+    public void evict(InvalidationType type, Collection<Long> entityIds) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        if (type == InvalidationType.REVOKED_TOKEN) {
+            entityIds.forEach(tokenRevocations::load);
+            return;
+        }
+        Cache secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        switch (type) {
+            case SESSION -> {
+                for (Long sessionId : entityIds) {
+                    secondLevelCache.evictEntityData(Session.class, sessionId);
+                    secondLevelCache.evictCollectionData(SESSION_USERS_REGION, sessionId);
+                    missingIdCache.invalidate(Session.class, sessionId);
+                }
+                scheduleReadModel.refreshOnCommit(entityIds);
+            }
+            case USER -> {
+                for (Long userId : entityIds) {
+                    secondLevelCache.evictEntityData(User.class, userId);
+                    scheduleReadModel.refreshParticipantOnCommit(userId);
+                }
+                // Any roster may have held the users
+                secondLevelCache.evictCollectionData(SESSION_USERS_REGION);
+            }
+            default -> throw new IllegalArgumentException("Not a cache invalidation: " + type);
+        }
+        // Update timestamps are per node too: cached query results cannot tell they are stale
+        secondLevelCache.evictQueryRegions();
+        responseCache.invalidate(SerializedResponseCache.SESSIONS);
+    }
+}
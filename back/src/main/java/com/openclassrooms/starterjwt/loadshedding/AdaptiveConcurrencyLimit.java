@@ -0,0 +1,119 @@
+package com.openclassrooms.starterjwt.loadshedding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD concurrency limit driven by latency. Every completed request is a sample, compared
+ * with the usual latency of its own route: a cached list read and a BCrypt login are each
+ * measured against themselves, so a mix of fast and slow routes is not mistaken for
+ * congestion. The usual latency is a long-window average of the route's log latency (about
+ * {@code BASELINE_WINDOW} samples); the short-window average of how far samples sit above
+ * it is the gradient. When the gradient exceeds {@code tolerance} times, or a request failed
+ * under load, the limit is multiplied by {@code backoffRatio}, at most once per limit's worth
+ * of samples. Otherwise, while the limit is actually being used, it grows by one per limit's
+ * worth of samples, about one per round trip.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final int BASELINE_WINDOW = 500;
+
+    // About twenty samples: one slow outlier among fast ones does not read as congestion
+    static final double SMOOTHING = 0.05;
+
+    // Routes are keyed by the filter; past this many, new ones share one baseline
+    static final int MAX_ROUTES = 100;
+
+    static final String OTHER_ROUTES = "*";
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double logTolerance;
+
+    private final Map<String, double[]> baselines = new HashMap<>();
+
+    private double limit;
+
+    private int inFlight;
+
+    private double gradient;
+
+    private int samplesSinceBackoff;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.logTolerance = Math.log(tolerance);
+    }
+
+    /**
+     * Admits the request if in-flight requests are below its priority's share of the limit.
+     */
+    public synchronized boolean tryAcquire(RequestPriority priority) {
+        if (inFlight >= Math.max(1, (int) (limit * priority.getLimitShare()))) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and feeds its latency, measured against {@code route}'s, into the limit.
+     */
+    public synchronized void release(String route, long latencyNanos, boolean overloaded) {
+        int inFlightAtCompletion = inFlight;
+        inFlight--;
+
+        // Log latencies: a ratio to the baseline, and a rare slow request weighs its order of magnitude, not its size
+        double sample = Math.log(Math.max(1, latencyNanos));
+        double[] baseline = baselineOf(route, sample);
+        double deviation = sample - baseline[0];
+        baseline[0] += deviation / BASELINE_WINDOW;
+
+        gradient += (deviation - gradient) * SMOOTHING;
+        samplesSinceBackoff++;
+
+        boolean congested = overloaded || gradient > logTolerance;
+        if (congested) {
+            if (samplesSinceBackoff >= limit) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                samplesSinceBackoff = 0;
+            }
+        } else if (inFlightAtCompletion * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Usual latency of {@code route}, 0 before its first sample.
+     */
+    public synchronized long getBaselineMillis(String route) {
+        double[] baseline = baselines.get(baselines.containsKey(route) ? route : OTHER_ROUTES);
+        return baseline == null ? 0 : TimeUnit.NANOSECONDS.toMillis(Math.round(Math.exp(baseline[0])));
+    }
+
+    // The first sample of a route is its baseline
+    private double[] baselineOf(String route, double sample) {
+        double[] baseline = baselines.get(route);
+        if (baseline == null) {
+            String key = baselines.size() < MAX_ROUTES ? route : OTHER_ROUTES;
+            baseline = baselines.computeIfAbsent(key, k -> new double[]{sample});
+        }
+        return baseline;
+    }
+}
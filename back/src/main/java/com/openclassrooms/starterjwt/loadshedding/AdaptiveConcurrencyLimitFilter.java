@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.loadshedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Sheds load before any authentication work is done: a request that does not fit under
+ * the adaptive limit gets an immediate 503 with Retry-After instead of waiting in the
+ * Tomcat and connection pool queues. Writes may use the whole limit, single reads most
+ * of it and list reads only half, so bookings keep going while bulk reads are shed.
+ *
+ * <p>Only a 503 or a timeout tells the limit that the server is overloaded; any other
+ * failure is the request's own problem and counts as a latency sample only.
+ */
+public class AdaptiveConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> BULK_READ_PATHS = Set.of("/api/session", "/api/teacher");
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/[0-9]+(?=/|$)");
+
+    private final AdaptiveConcurrencyLimit limit;
+
+    private final String retryAfterSeconds;
+
+    private final Map<RequestPriority, Counter> shedRequests = new EnumMap<>(RequestPriority.class);
+
+    public AdaptiveConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry, long retryAfterSeconds) {
+        this.limit = limit;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+
+        Gauge.builder("yoga.loadshedding.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("yoga.loadshedding.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            shedRequests.put(priority, Counter.builder("yoga.loadshedding.shed")
+                    .tag("priority", priority.name())
+                    .description("Requests rejected with 503 by the concurrency limit")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestPriority priority = priorityOf(request);
+        if (!limit.tryAcquire(priority)) {
+            shedRequests.get(priority).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            filterChain.doFilter(request, response);
+            overloaded = response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        } catch (IOException | ServletException | RuntimeException e) {
+            overloaded = isTimeout(e);
+            throw e;
+        } finally {
+            limit.release(routeOf(request), System.nanoTime() - start, overloaded);
+        }
+    }
+
+    // Waiting for a pooled connection ends in SQLTransientConnectionException, with Hikari as with
+    // ConcurrencyLimitedDataSource
+    static boolean isTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof SQLTimeoutException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof TransactionTimedOutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Method and path with numeric segments folded, so /api/session/1 and /api/session/2 share a baseline
+    static String routeOf(HttpServletRequest request) {
+        return request.getMethod() + " " + NUMERIC_SEGMENT.matcher(request.getRequestURI()).replaceAll("/{id}");
+    }
+
+    static RequestPriority priorityOf(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return RequestPriority.WRITE;
+        }
+        return BULK_READ_PATHS.contains(request.getRequestURI()) ? RequestPriority.BULK_READ : RequestPriority.READ;
+    }
+}
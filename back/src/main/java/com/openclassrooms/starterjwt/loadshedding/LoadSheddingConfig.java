@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.loadshedding;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.loadshedding", name = "enabled", havingValue = "true")
+public class LoadSheddingConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(@Value("${oc.app.loadshedding.initialLimit:50}") int initialLimit,
+                                                             @Value("${oc.app.loadshedding.minLimit:10}") int minLimit,
+                                                             @Value("${oc.app.loadshedding.maxLimit:500}") int maxLimit,
+                                                             @Value("${oc.app.loadshedding.backoffRatio:0.9}") double backoffRatio,
+                                                             @Value("${oc.app.loadshedding.latencyTolerance:2.0}") double latencyTolerance) {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimitFilter adaptiveConcurrencyLimitFilter(AdaptiveConcurrencyLimit adaptiveConcurrencyLimit,
+                                                                         MeterRegistry meterRegistry,
+                                                                         @Value("${oc.app.loadshedding.retryAfterSeconds:1}") long retryAfterSeconds) {
+        return new AdaptiveConcurrencyLimitFilter(adaptiveConcurrencyLimit, meterRegistry, retryAfterSeconds);
+    }
+
+    // Runs inside the security filter chain only, ahead of AuthTokenFilter
+    @Bean
+    public FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> adaptiveConcurrencyLimitFilterRegistration(
+            AdaptiveConcurrencyLimitFilter adaptiveConcurrencyLimitFilter) {
+        FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(adaptiveConcurrencyLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
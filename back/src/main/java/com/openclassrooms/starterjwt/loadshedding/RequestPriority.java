@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.loadshedding;
+
+/**
+ * Share of the concurrency limit each kind of request may use. Once in-flight requests
+ * pass a share, requests of that priority are shed while higher ones still get in.
+ */
+public enum RequestPriority {
+    WRITE(1.0),
+    READ(0.9),
+    BULK_READ(0.5);
+
+    private final double limitShare;
+
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    public double getLimitShare() {
+        return limitShare;
+    }
+}
@@ -0,0 +1,49 @@
+package com.openclassrooms.starterjwt.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes how much the logging configuration is holding back: events dropped by each
+ * {@link SamplingTurboFilter} and the room left in each asynchronous appender's queue.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext context)) {
+            return;
+        }
+        context.getTurboFilterList().forEach(filter -> {
+            if (filter instanceof SamplingTurboFilter sampling) {
+                FunctionCounter.builder("yoga.logging.sampled", sampling, SamplingTurboFilter::getSuppressed)
+                        .tag("filter", String.valueOf(sampling.getName()))
+                        .description("Log events dropped by sampling")
+                        .register(registry);
+            }
+        });
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof AsyncAppender async) {
+                Gauge.builder("yoga.logging.queue.remaining", async, AsyncAppender::getRemainingCapacity)
+                        .tag("appender", async.getName())
+                        .description("Free slots in the asynchronous logging queue")
+                        .register(registry);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples high-volume loggers before the event is even created: within each interval the
+ * first {@code burst} events pass, then one in every {@code everyNth}. Declared in
+ * logback-spring.xml; loggers are matched by name prefix and share one budget.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggers = new ArrayList<>();
+
+    private int burst = 10;
+
+    private int everyNth = 100;
+
+    private long intervalMs = 1000;
+
+    private final AtomicLong windowStart = new AtomicLong();
+
+    private final AtomicInteger inWindow = new AtomicInteger();
+
+    private final AtomicLong suppressed = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Not logger.isEnabledFor: it would run the turbo filters again
+        if (!isStarted() || level == null || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= intervalMs && windowStart.compareAndSet(start, now)) {
+            inWindow.set(0);
+        }
+        int count = inWindow.incrementAndGet();
+        if (count <= burst || (count - burst) % everyNth == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        for (String prefix : loggers) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Events dropped by sampling since startup.
+     */
+    public long getSuppressed() {
+        return suppressed.get();
+    }
+
+    public void addLogger(String logger) {
+        loggers.add(logger);
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public void setEveryNth(int everyNth) {
+        this.everyNth = Math.max(1, everyNth);
+    }
+
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+}
@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * A PARTICIPATE row of an archived session.
+ */
+@Entity
+@Immutable
+@IdClass(ArchivedParticipation.Key.class)
+@Table(name = "PARTICIPATE_ARCHIVE", indexes = {
+        @Index(name = "idx_participate_archive_user", columnList = "user_id")
+})
+@Getter
+@EqualsAndHashCode
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ArchivedParticipation {
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sessionId;
+        private Long userId;
+    }
+}
@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * A past session moved out of SESSIONS by the archiver, under the id it had there. The
+ * teacher is kept as an id only: the archive outlives teachers and users.
+ */
+@Entity
+@Immutable
+@Table(name = "SESSIONS_ARCHIVE", indexes = {
+        @Index(name = "idx_sessions_archive_date", columnList = "date")
+})
+@Getter
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ArchivedSession {
+    @Id
+    private Long id;
+
+    @Column(length = 50)
+    private String name;
+
+    @Column(length = 2500)
+    private String description;
+
+    private Date date;
+
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    private Integer capacity;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
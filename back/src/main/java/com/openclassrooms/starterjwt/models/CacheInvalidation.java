@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Immutable
+@Table(name = "CACHE_INVALIDATIONS", indexes = {
+        @Index(name = "idx_cache_invalidations_created", columnList = "created_at")
+})
+@Getter
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false, length = 64)
+    private String origin;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a scheduled job shared by every node: the job runs on the node named in
+ * {@code lockedBy} until {@code lockedUntil}.
+ */
+@Entity
+@Table(name = "JOB_LOCKS")
+@Getter
+@Setter
+@EqualsAndHashCode(of = {"name"})
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class JobLock {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_by", nullable = false, length = 64)
+    private String lockedBy;
+}
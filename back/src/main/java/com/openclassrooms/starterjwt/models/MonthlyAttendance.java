@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Sessions and participations per month, weekday and teacher: the attendance reports read
+ * this table only, a few rows per teacher and month however long the history. Maintained
+ * incrementally by AttendanceSummaries as sessions change.
+ */
+@Entity
+@IdClass(MonthlyAttendance.Key.class)
+@Table(name = "MONTHLY_ATTENDANCE", indexes = {
+        @Index(name = "idx_monthly_attendance_teacher", columnList = "teacher_id")
+})
+@Getter
+@EqualsAndHashCode(of = {"monthStart", "weekday", "teacherId"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class MonthlyAttendance {
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    @Id
+    private int weekday;
+
+    @Id
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    @Column(name = "session_count", nullable = false)
+    private long sessionCount;
+
+    @Column(name = "participant_count", nullable = false)
+    private long participantCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate monthStart;
+        private int weekday;
+        private Long teacherId;
+    }
+}
@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Immutable
+@Table(name = "PARTICIPATION_EVENTS", indexes = {
+        @Index(name = "idx_participation_events_session", columnList = "session_id"),
+        @Index(name = "idx_participation_events_user", columnList = "user_id")
+})
+@Getter
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ParticipationEvent {
+    public enum Action { JOINED, LEFT }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Action action;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -3,11 +3,15 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -16,7 +20,12 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(name = "SESSIONS", indexes = {
+        // Past sessions are found by date for archival
+        @Index(name = "idx_sessions_date", columnList = "date")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -41,15 +50,23 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
-    @OneToOne
+    // A teacher gives many sessions: no unique constraint on teacher_id, as in sql/script.sql
+    @ManyToOne
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
+    @ToString.Exclude
     private Teacher teacher;
 
+    // Maximum number of participants, no limit when null
+    @Min(1)
+    private Integer capacity;
+
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
             inverseJoinColumns = @JoinColumn( name = "user_id" ) )
+    @ToString.Exclude
     private List<User> users;
 
     @CreatedDate
@@ -59,4 +76,18 @@ public class Session {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // toString names the teacher and counts participants, never loading or walking either
+    @ToString.Include(name = "teacher")
+    private Long teacherIdForToString() {
+        return teacher == null ? null : teacher.getId();
+    }
+
+    @ToString.Include(name = "participants")
+    private String participantCountForToString() {
+        if (users == null) {
+            return null;
+        }
+        return Hibernate.isInitialized(users) ? String.valueOf(users.size()) : "?";
+    }
 }
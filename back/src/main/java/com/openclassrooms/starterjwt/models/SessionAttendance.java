@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * What one session currently adds to MONTHLY_ATTENDANCE, kept so that a change to the session
+ * can take its previous contribution back. Written by AttendanceSummaries only. Archived
+ * sessions keep their row: attendance history outlives the live tables.
+ */
+@Entity
+@Table(name = "SESSION_ATTENDANCE")
+@Getter
+@EqualsAndHashCode(of = {"sessionId"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class SessionAttendance {
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    // ISO day of week, Monday = 1
+    @Column(nullable = false)
+    private int weekday;
+
+    // 0 when the session has no teacher
+    @Column(name = "teacher_id", nullable = false)
+    private Long teacherId;
+
+    @Column(name = "participant_count", nullable = false)
+    private int participantCount;
+}
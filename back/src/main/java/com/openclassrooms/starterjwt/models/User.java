@@ -2,6 +2,9 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,7 +17,13 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "USERS", uniqueConstraints = {
     @UniqueConstraint(columnNames = "email")
+}, indexes = {
+    @Index(name = "idx_users_deleted_at", columnList = "deleted_at")
 })
+// Deleted users stay until the UserPurger removes them: every query, rosters included, skips them
+@SQLRestriction("deleted_at is null")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @Accessors(chain = true)
 @EntityListeners(AuditingEntityListener.class)
@@ -46,6 +55,7 @@ public class User {
 
   @NonNull
   @Size(max = 120)
+  @ToString.Exclude
   private String password;
 
   @NonNull
@@ -59,4 +69,7 @@ public class User {
   @Column(name = "updated_at")
   private LocalDateTime updatedAt;
 
+  @Column(name = "deleted_at")
+  private LocalDateTime deletedAt;
+
 }
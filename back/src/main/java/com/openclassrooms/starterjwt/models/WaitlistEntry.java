@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "WAITLIST",
+        uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_session_user", columnNames = {"session_id", "user_id"}),
+        indexes = @Index(name = "idx_waitlist_session_order", columnList = "session_id, id"))
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class WaitlistEntry {
+    // Identity order is queue order: the head of a session's waitlist is its lowest id
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
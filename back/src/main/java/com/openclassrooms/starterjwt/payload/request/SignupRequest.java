@@ -3,6 +3,7 @@ package com.openclassrooms.starterjwt.payload.request;
 import jakarta.validation.constraints.*;
 
 import lombok.Data;
+import lombok.ToString;
 
 @Data
 public class SignupRequest {
@@ -21,5 +22,6 @@ public class SignupRequest {
 
   @NotBlank
   @Size(min = 6, max = 40)
+  @ToString.Exclude
   private String password;
 }
@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+public class FlightRecordingResponse {
+  private long id;
+  private String name;
+  private String state;
+  private long durationSeconds;
+
+  public FlightRecordingResponse(long id, String name, String state, long durationSeconds) {
+    this.id = id;
+    this.name = name;
+    this.state = state;
+    this.durationSeconds = durationSeconds;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  public void setState(String state) {
+    this.state = state;
+  }
+
+  public long getDurationSeconds() {
+    return durationSeconds;
+  }
+
+  public void setDurationSeconds(long durationSeconds) {
+    this.durationSeconds = durationSeconds;
+  }
+}
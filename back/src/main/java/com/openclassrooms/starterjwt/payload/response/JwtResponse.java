@@ -15,6 +15,9 @@ public class JwtResponse {
 
   private Boolean admin;
 
+  private String refreshToken;
+  private Long expiresIn;
+
   public JwtResponse(String accessToken, Long id, String username,String firstName, String lastName, Boolean admin) {
     this.token = accessToken;
     this.id = id;
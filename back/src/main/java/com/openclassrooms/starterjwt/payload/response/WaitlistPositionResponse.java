@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+public class WaitlistPositionResponse {
+  private Long sessionId;
+  private Long userId;
+  private long position;
+
+  public WaitlistPositionResponse(Long sessionId, Long userId, long position) {
+    this.sessionId = sessionId;
+    this.userId = userId;
+    this.position = position;
+  }
+
+  public Long getSessionId() {
+    return sessionId;
+  }
+
+  public void setSessionId(Long sessionId) {
+    this.sessionId = sessionId;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  public long getPosition() {
+    return position;
+  }
+
+  public void setPosition(long position) {
+    this.position = position;
+  }
+}
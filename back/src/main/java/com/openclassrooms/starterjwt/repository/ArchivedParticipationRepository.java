@@ -0,0 +1,14 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.ArchivedParticipation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedParticipationRepository extends JpaRepository<ArchivedParticipation, ArchivedParticipation.Key> {
+
+    List<ArchivedParticipation> findBySessionIdIn(Collection<Long> sessionIds);
+}
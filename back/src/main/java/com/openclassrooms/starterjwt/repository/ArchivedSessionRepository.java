@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.ArchivedSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface ArchivedSessionRepository extends JpaRepository<ArchivedSession, Long> {
+
+    List<ArchivedSession> findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(Date from, Date to, Pageable pageable);
+}
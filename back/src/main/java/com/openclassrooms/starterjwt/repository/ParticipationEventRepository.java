@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.ParticipationEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ParticipationEventRepository extends JpaRepository<ParticipationEvent, Long> {
+    List<ParticipationEvent> findBySessionIdOrderByIdAsc(Long sessionId);
+}
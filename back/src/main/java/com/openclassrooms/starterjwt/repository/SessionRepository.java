@@ -1,9 +1,55 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.SessionDetailDto;
+import com.openclassrooms.starterjwt.dto.SessionRow;
 import com.openclassrooms.starterjwt.models.Session;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.sessions")
+    })
+    List<Session> findAll();
+
+    // Session and teacher summary in one row, without loading the roster
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionDetailDto(" +
+            "s.id, s.name, s.date, s.description, s.capacity, t.id, t.lastName, t.firstName, s.createdAt, s.updatedAt) " +
+            "from Session s left join s.teacher t where s.id = :id")
+    Optional<SessionDetailDto> findDetailById(@Param("id") Long id);
+
+    // Read-only projections for the read endpoints: no managed entity, no user columns beyond the id
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.sessions")
+    })
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionRow(" +
+            "s.id, s.name, s.date, s.teacher.id, s.description, s.capacity, s.createdAt, s.updatedAt, u.id) " +
+            "from Session s left join s.users u order by s.id, u.id")
+    List<SessionRow> findAllRows();
+
+    @Transactional(readOnly = true)
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionRow(" +
+            "s.id, s.name, s.date, s.teacher.id, s.description, s.capacity, s.createdAt, s.updatedAt, u.id) " +
+            "from Session s left join s.users u where s.id = :id order by u.id")
+    List<SessionRow> findRowsById(@Param("id") Long id);
+
+    @Query("select count(u) from Session s join s.users u where s.id = :id")
+    long countParticipants(@Param("id") Long id);
+
+    @Query("select count(u) > 0 from Session s join s.users u where s.id = :id and u.email = :email")
+    boolean isParticipant(@Param("id") Long id, @Param("email") String email);
 }
@@ -1,9 +1,40 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.models.Teacher;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.teachers")
+    })
+    List<Teacher> findAll();
+
+    // Read-only projections for the read endpoints: no managed entity
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.teachers")
+    })
+    @Query("select new com.openclassrooms.starterjwt.dto.TeacherDto(t.id, t.lastName, t.firstName, t.createdAt, t.updatedAt) " +
+            "from Teacher t order by t.id")
+    List<TeacherDto> findAllDtos();
+
+    @Transactional(readOnly = true)
+    @Query("select new com.openclassrooms.starterjwt.dto.TeacherDto(t.id, t.lastName, t.firstName, t.createdAt, t.updatedAt) " +
+            "from Teacher t where t.id = :id")
+    Optional<TeacherDto> findDtoById(@Param("id") Long id);
 }
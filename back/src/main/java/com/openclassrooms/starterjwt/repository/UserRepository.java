@@ -1,15 +1,44 @@
 package com.openclassrooms.starterjwt.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.openclassrooms.starterjwt.dto.UserDto;
 import com.openclassrooms.starterjwt.models.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
 
-  Boolean existsByEmail(String email); 
+  // Deleted users keep their email until they are purged: SQL, around the entity's restriction
+  default Boolean existsByEmail(String email) {
+    return countByEmailIncludingDeleted(email) > 0;
+  }
+
+  @Query(value = "select count(*) from USERS where email = :email", nativeQuery = true)
+  long countByEmailIncludingDeleted(@Param("email") String email);
+
+  // existsByEmail for a whole chunk of an import at once
+  @Query(value = "select email from USERS where email in (:emails)", nativeQuery = true)
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  // Hides the user at once; the UserPurger removes the row and its participations later
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update User u set u.deletedAt = :deletedAt where u.id = :id")
+  int softDelete(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+  // Read-only projection for the read endpoint: the password hash is never selected
+  @Transactional(readOnly = true)
+  @Query("select new com.openclassrooms.starterjwt.dto.UserDto(u.id, u.email, u.lastName, u.firstName, u.admin, u.createdAt, u.updatedAt) " +
+      "from User u where u.id = :id")
+  Optional<UserDto> findDtoById(@Param("id") Long id);
 }
@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable set of primitive longs kept as a sorted array: 8 bytes per element, no boxing,
+ * and membership by binary search.
+ */
+public final class LongSet {
+
+    private static final LongSet EMPTY = new LongSet(new long[0]);
+
+    private final long[] values;
+
+    private LongSet(long[] sortedDistinct) {
+        this.values = sortedDistinct;
+    }
+
+    public static LongSet empty() {
+        return EMPTY;
+    }
+
+    public static LongSet of(long... values) {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int distinct = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return new LongSet(distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct));
+    }
+
+    /**
+     * Copy of this set with {@code value}, or this set if it already holds it.
+     */
+    public LongSet with(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        long[] copy = new long[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, insertAt);
+        copy[insertAt] = value;
+        System.arraycopy(values, insertAt, copy, insertAt + 1, values.length - insertAt);
+        return new LongSet(copy);
+    }
+
+    /**
+     * Copy of this set without {@code value}, or this set if it does not hold it.
+     */
+    public LongSet without(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return this;
+        }
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        long[] copy = new long[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        System.arraycopy(values, index + 1, copy, index, values.length - index - 1);
+        return new LongSet(copy);
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(values);
+    }
+
+    public List<Long> toList() {
+        return stream().boxed().toList();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof LongSet other && Arrays.equals(values, other.values));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+
+    /**
+     * Collects values in any order, with duplicates, for a single {@link LongSet}.
+     */
+    public static final class Builder {
+        private long[] values = new long[4];
+        private int size;
+
+        public Builder add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            return this;
+        }
+
+        public LongSet build() {
+            return LongSet.of(Arrays.copyOf(values, size));
+        }
+    }
+}
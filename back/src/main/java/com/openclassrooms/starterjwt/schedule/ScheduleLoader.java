@@ -0,0 +1,113 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads sessions and participations straight from the tables with two plain queries,
+ * bypassing the persistence context and the second-level cache: the snapshot and its
+ * consistency check must both see what is actually committed.
+ */
+@Component
+public class ScheduleLoader {
+
+    static final String SESSIONS_SQL =
+            "SELECT id, name, date, teacher_id, description, capacity, created_at, updated_at FROM SESSIONS";
+
+    // Participations of deleted users linger until the UserPurger gets to them
+    static final String PARTICIPANTS_SQL = "SELECT p.session_id, p.user_id FROM PARTICIPATE p "
+            + "JOIN USERS u ON u.id = p.user_id WHERE u.deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ScheduleLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public List<ScheduledSession> loadAll() {
+        Map<Long, LongSet.Builder> participants = new HashMap<>();
+        jdbcTemplate.query(PARTICIPANTS_SQL, rs -> {
+            participants.computeIfAbsent(rs.getLong("session_id"), id -> new LongSet.Builder()).add(rs.getLong("user_id"));
+        });
+
+        List<ScheduledSession> sessions = new ArrayList<>();
+        jdbcTemplate.query(SESSIONS_SQL, rs -> {
+            LongSet.Builder roster = participants.get(rs.getLong("id"));
+            sessions.add(sessionRow(roster != null ? roster.build() : LongSet.empty()).mapRow(rs, 0));
+        });
+        return sessions;
+    }
+
+    public Optional<ScheduledSession> load(long sessionId) {
+        LongSet.Builder roster = new LongSet.Builder();
+        jdbcTemplate.query(PARTICIPANTS_SQL + " AND p.session_id = ?",
+                rs -> {
+                    roster.add(rs.getLong("user_id"));
+                },
+                sessionId);
+
+        List<ScheduledSession> sessions = jdbcTemplate.query(SESSIONS_SQL + " WHERE id = ?", sessionRow(roster.build()), sessionId);
+        return sessions.stream().findFirst();
+    }
+
+    /**
+     * The sessions among {@code sessionIds} that still exist, with the same two queries as
+     * {@link #load(long)} for the whole batch.
+     */
+    public List<ScheduledSession> load(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", sessionIds);
+        Map<Long, LongSet.Builder> participants = new HashMap<>();
+        namedJdbcTemplate.query(PARTICIPANTS_SQL + " AND p.session_id IN (:ids)", parameters, rs -> {
+            participants.computeIfAbsent(rs.getLong("session_id"), id -> new LongSet.Builder()).add(rs.getLong("user_id"));
+        });
+
+        List<ScheduledSession> sessions = new ArrayList<>();
+        namedJdbcTemplate.query(SESSIONS_SQL + " WHERE id IN (:ids)", parameters, rs -> {
+            LongSet.Builder roster = participants.get(rs.getLong("id"));
+            sessions.add(sessionRow(roster != null ? roster.build() : LongSet.empty()).mapRow(rs, 0));
+        });
+        return sessions;
+    }
+
+    private static RowMapper<ScheduledSession> sessionRow(LongSet participants) {
+        return (rs, rowNum) -> {
+            Timestamp date = rs.getTimestamp("date");
+            long teacherId = rs.getLong("teacher_id");
+            Long teacher = rs.wasNull() ? null : teacherId;
+            int capacityValue = rs.getInt("capacity");
+            Integer capacity = rs.wasNull() ? null : capacityValue;
+            return new ScheduledSession(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    date != null ? date.toInstant() : null,
+                    teacher,
+                    rs.getString("description"),
+                    capacity,
+                    participants,
+                    toLocalDateTime(rs.getTimestamp("created_at")),
+                    toLocalDateTime(rs.getTimestamp("updated_at")));
+        };
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
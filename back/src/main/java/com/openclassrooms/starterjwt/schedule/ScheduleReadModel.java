@@ -0,0 +1,227 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import com.openclassrooms.starterjwt.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves session reads from an in-memory {@link ScheduleSnapshot}. The snapshot is loaded
+ * once the application is ready, then patched after every committed session write: the
+ * touched session is re-read and a new snapshot replaces the old one. Readers only follow
+ * a volatile reference, writers are serialized. An index from participant to sessions,
+ * patched along, tells which sessions a user change touches. A periodic check compares the
+ * snapshot with the tables and replaces it when they drifted apart (writes made outside
+ * the services, a failed patch).
+ */
+@Component
+public class ScheduleReadModel {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleReadModel.class);
+
+    private final ScheduleLoader loader;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final boolean enabled;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Counter driftedSessions;
+
+    private volatile ScheduleSnapshot snapshot;
+
+    // Only written under writeLock; read without it by refreshParticipantOnCommit
+    private volatile Map<Long, LongSet> sessionsByParticipant = new ConcurrentHashMap<>();
+
+    public ScheduleReadModel(ScheduleLoader loader,
+                             ReadYourWritesTracker readYourWritesTracker,
+                             MeterRegistry meterRegistry,
+                             @Value("${oc.app.schedule.snapshot.enabled:true}") boolean enabled) {
+        this.loader = loader;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.enabled = enabled;
+
+        Gauge.builder("yoga.schedule.snapshot.sessions", this, model -> model.snapshot != null ? model.snapshot.size() : 0)
+                .description("Sessions held by the in-memory schedule snapshot")
+                .register(meterRegistry);
+        this.driftedSessions = Counter.builder("yoga.schedule.snapshot.drift")
+                .description("Sessions found different from the database by the consistency check")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The current snapshot, or null when reads must go to the database: before the first
+     * load, when disabled, and inside a transaction, whose own writes the snapshot cannot see.
+     */
+    public ScheduleSnapshot current() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            replace(ScheduleSnapshot.of(loadAll()));
+            logger.info("Schedule snapshot loaded with {} sessions", snapshot.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads the session once the current transaction has committed, or right away without one.
+     */
+    public void refreshOnCommit(Long sessionId) {
+        if (snapshot == null || sessionId == null) {
+            return;
+        }
+        afterCommit(() -> refresh(sessionId));
+    }
+
+    /**
+     * Re-reads the sessions once the current transaction has committed, with one load and one
+     * copy of the snapshot for the whole batch; sessions no longer in the table are dropped.
+     */
+    public void refreshOnCommit(Collection<Long> sessionIds) {
+        if (snapshot == null || sessionIds.isEmpty()) {
+            return;
+        }
+        List<Long> batch = List.copyOf(sessionIds);
+        afterCommit(() -> refresh(batch));
+    }
+
+    /**
+     * Re-reads every session the user takes part in once the current transaction has committed.
+     */
+    public void refreshParticipantOnCommit(Long userId) {
+        if (snapshot == null || userId == null) {
+            return;
+        }
+        LongSet sessionIds = sessionsByParticipant.getOrDefault(userId, LongSet.empty());
+        afterCommit(() -> sessionIds.stream().forEach(this::refresh));
+    }
+
+    /**
+     * Compares the snapshot with the tables and adopts the tables' version when they differ.
+     * Returns the differences found.
+     */
+    @Scheduled(initialDelayString = "${oc.app.schedule.snapshot.consistencyCheckMs:300000}",
+            fixedDelayString = "${oc.app.schedule.snapshot.consistencyCheckMs:300000}")
+    public List<String> checkConsistency() {
+        if (snapshot == null) {
+            return List.of();
+        }
+        writeLock.lock();
+        try {
+            ScheduleSnapshot expected = ScheduleSnapshot.of(loadAll());
+            List<String> differences = snapshot.differencesFrom(expected);
+            if (!differences.isEmpty()) {
+                driftedSessions.increment(differences.size());
+                logger.warn("Schedule snapshot drifted from the database on {} sessions, reloading: {}",
+                        differences.size(), differences);
+                replace(expected);
+            }
+            return differences;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void refresh(long sessionId) {
+        writeLock.lock();
+        try {
+            // Always the latest committed row: patches applied in any order converge
+            ScheduledSession previous = snapshot.get(sessionId);
+            ScheduledSession current = readYourWritesTracker.onPrimary(() -> loader.load(sessionId)).orElse(null);
+            snapshot = current != null ? snapshot.with(current) : snapshot.without(sessionId);
+            reindex(sessionId, participantsOf(previous), participantsOf(current));
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh session {} in the schedule snapshot, the consistency check will", sessionId, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void refresh(Collection<Long> sessionIds) {
+        writeLock.lock();
+        try {
+            Map<Long, ScheduledSession> current = new HashMap<>();
+            readYourWritesTracker.onPrimary(() -> loader.load(sessionIds)).forEach(session -> current.put(session.id(), session));
+            List<Long> removed = sessionIds.stream().filter(sessionId -> !current.containsKey(sessionId)).toList();
+            ScheduleSnapshot previous = snapshot;
+            snapshot = previous.patch(current.values(), removed);
+            for (long sessionId : sessionIds) {
+                reindex(sessionId, participantsOf(previous.get(sessionId)), participantsOf(current.get(sessionId)));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh {} sessions in the schedule snapshot, the consistency check will", sessionIds.size(), e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static LongSet participantsOf(ScheduledSession session) {
+        return session != null ? session.participants() : LongSet.empty();
+    }
+
+    private void replace(ScheduleSnapshot replacement) {
+        Map<Long, LongSet.Builder> builders = new HashMap<>();
+        for (ScheduledSession session : replacement.all()) {
+            session.participants().stream().forEach(userId ->
+                    builders.computeIfAbsent(userId, id -> new LongSet.Builder()).add(session.id()));
+        }
+        Map<Long, LongSet> index = new ConcurrentHashMap<>(Math.max(16, builders.size() * 2));
+        builders.forEach((userId, sessionIds) -> index.put(userId, sessionIds.build()));
+        sessionsByParticipant = index;
+        snapshot = replacement;
+    }
+
+    private void reindex(long sessionId, LongSet before, LongSet after) {
+        before.stream().filter(userId -> !after.contains(userId)).forEach(userId ->
+                sessionsByParticipant.computeIfPresent(userId, (id, sessionIds) -> {
+                    LongSet remaining = sessionIds.without(sessionId);
+                    return remaining.isEmpty() ? null : remaining;
+                }));
+        after.stream().filter(userId -> !before.contains(userId)).forEach(userId ->
+                sessionsByParticipant.merge(userId, LongSet.of(sessionId), (sessionIds, added) -> sessionIds.with(sessionId)));
+    }
+
+    private List<ScheduledSession> loadAll() {
+        return readYourWritesTracker.onPrimary(loader::loadAll);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
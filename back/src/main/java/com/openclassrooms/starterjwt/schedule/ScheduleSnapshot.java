@@ -0,0 +1,173 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable view of every session with its participants, kept as an array sorted by id:
+ * lookups are binary searches and {@link #all} is the array itself. Nothing in it changes
+ * after construction, so any number of readers can use it without locking; a write produces
+ * a new snapshot through {@link #with} or {@link #without}, which copy the array with one
+ * entry inserted, replaced or removed, or through {@link #patch} for many entries in one copy.
+ * The old snapshot stays valid for whoever still holds it.
+ */
+public final class ScheduleSnapshot {
+
+    private static final ScheduleSnapshot EMPTY = new ScheduleSnapshot(new long[0], new ScheduledSession[0]);
+
+    private final long[] ids;
+
+    private final ScheduledSession[] sessions;
+
+    private final List<ScheduledSession> all;
+
+    private ScheduleSnapshot(long[] ids, ScheduledSession[] sessions) {
+        this.ids = ids;
+        this.sessions = sessions;
+        this.all = Collections.unmodifiableList(Arrays.asList(sessions));
+    }
+
+    public static ScheduleSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Snapshot of {@code sessions}; of two sessions with the same id the last one wins.
+     */
+    public static ScheduleSnapshot of(Collection<ScheduledSession> sessions) {
+        ScheduledSession[] sorted = sessions.toArray(new ScheduledSession[0]);
+        // Stable: equal ids keep their order
+        Arrays.sort(sorted, Comparator.comparingLong(ScheduledSession::id));
+        int distinct = 0;
+        for (ScheduledSession session : sorted) {
+            if (distinct > 0 && sorted[distinct - 1].id() == session.id()) {
+                sorted[distinct - 1] = session;
+            } else {
+                sorted[distinct++] = session;
+            }
+        }
+        ScheduledSession[] unique = Arrays.copyOf(sorted, distinct);
+        long[] ids = new long[distinct];
+        for (int i = 0; i < distinct; i++) {
+            ids[i] = unique[i].id();
+        }
+        return new ScheduleSnapshot(ids, unique);
+    }
+
+    /**
+     * Copy of this snapshot with the session added or replaced.
+     */
+    public ScheduleSnapshot with(ScheduledSession session) {
+        int index = Arrays.binarySearch(ids, session.id());
+        if (index >= 0) {
+            ScheduledSession[] copy = sessions.clone();
+            copy[index] = session;
+            return new ScheduleSnapshot(ids, copy);
+        }
+
+        int insertAt = -index - 1;
+        long[] newIds = new long[ids.length + 1];
+        ScheduledSession[] newSessions = new ScheduledSession[sessions.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, insertAt);
+        System.arraycopy(sessions, 0, newSessions, 0, insertAt);
+        newIds[insertAt] = session.id();
+        newSessions[insertAt] = session;
+        System.arraycopy(ids, insertAt, newIds, insertAt + 1, ids.length - insertAt);
+        System.arraycopy(sessions, insertAt, newSessions, insertAt + 1, sessions.length - insertAt);
+        return new ScheduleSnapshot(newIds, newSessions);
+    }
+
+    /**
+     * Copy of this snapshot without the session, or this snapshot if it does not hold it.
+     */
+    public ScheduleSnapshot without(long sessionId) {
+        int index = Arrays.binarySearch(ids, sessionId);
+        if (index < 0) {
+            return this;
+        }
+        long[] newIds = new long[ids.length - 1];
+        ScheduledSession[] newSessions = new ScheduledSession[sessions.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(sessions, 0, newSessions, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        System.arraycopy(sessions, index + 1, newSessions, index, sessions.length - index - 1);
+        return new ScheduleSnapshot(newIds, newSessions);
+    }
+
+    /**
+     * Copy of this snapshot with {@code changed} added or replaced and {@code removed} taken
+     * out, merged in one pass over the array. An id in both is removed.
+     */
+    public ScheduleSnapshot patch(Collection<ScheduledSession> changed, Collection<Long> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return this;
+        }
+        ScheduleSnapshot upserts = of(changed);
+        long[] removals = removed.stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] newIds = new long[ids.length + upserts.ids.length];
+        ScheduledSession[] newSessions = new ScheduledSession[newIds.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < ids.length || j < upserts.ids.length) {
+            ScheduledSession session;
+            if (j == upserts.ids.length || (i < ids.length && ids[i] < upserts.ids[j])) {
+                session = sessions[i++];
+            } else {
+                if (i < ids.length && ids[i] == upserts.ids[j]) {
+                    i++;
+                }
+                session = upserts.sessions[j++];
+            }
+            if (Arrays.binarySearch(removals, session.id()) < 0) {
+                newIds[size] = session.id();
+                newSessions[size++] = session;
+            }
+        }
+        return new ScheduleSnapshot(Arrays.copyOf(newIds, size), Arrays.copyOf(newSessions, size));
+    }
+
+    public ScheduledSession get(long sessionId) {
+        int index = Arrays.binarySearch(ids, sessionId);
+        return index >= 0 ? sessions[index] : null;
+    }
+
+    /**
+     * All sessions, by ascending id.
+     */
+    public List<ScheduledSession> all() {
+        return all;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * One line per session that is missing from, extra in, or different in {@code expected}, by ascending id.
+     */
+    public List<String> differencesFrom(ScheduleSnapshot expected) {
+        List<String> differences = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < expected.ids.length) {
+            if (j == expected.ids.length || (i < ids.length && ids[i] < expected.ids[j])) {
+                differences.add("session " + ids[i++] + " no longer in the database");
+            } else if (i == ids.length || expected.ids[j] < ids[i]) {
+                differences.add("session " + expected.ids[j++] + " missing from the snapshot");
+            } else {
+                ScheduledSession actual = sessions[i++];
+                ScheduledSession wanted = expected.sessions[j++];
+                if (!Objects.equals(actual, wanted)) {
+                    differences.add("session " + actual.id() + " differs: snapshot " + actual + ", database " + wanted);
+                }
+            }
+        }
+        return differences;
+    }
+}
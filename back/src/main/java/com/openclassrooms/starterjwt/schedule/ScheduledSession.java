@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Immutable copy of one SESSIONS row and its participants, as held by {@link ScheduleSnapshot}.
+ */
+public record ScheduledSession(long id,
+                               String name,
+                               Instant date,
+                               Long teacherId,
+                               String description,
+                               Integer capacity,
+                               LongSet participants,
+                               LocalDateTime createdAt,
+                               LocalDateTime updatedAt) {
+
+    /**
+     * A new DTO on every call: SessionDto is mutable and must not share state with the snapshot.
+     * Participant ids come out in ascending order.
+     */
+    public SessionDto toDto() {
+        return new SessionDto(id, name, date != null ? Date.from(date) : null, teacherId, description, capacity,
+                participants.toList(), createdAt, updatedAt);
+    }
+}
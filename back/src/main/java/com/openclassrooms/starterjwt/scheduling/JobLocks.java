@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.scheduling;
+
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps a scheduled job to one node at a time with a lease in JOB_LOCKS. A node takes the
+ * lease only once the previous one has run out, and must extend it while it works: a node
+ * that dies without releasing holds the job for at most one lease. Leases are compared
+ * with each node's clock, so they should be much longer than the clock skew between nodes.
+ */
+@Component
+public class JobLocks {
+
+    static final String TAKE_SQL =
+            "UPDATE JOB_LOCKS SET locked_until = ?, locked_by = ? WHERE name = ? AND locked_until <= ?";
+
+    static final String CREATE_SQL = "INSERT INTO JOB_LOCKS (name, locked_until, locked_by) VALUES (?, ?, ?)";
+
+    static final String EXTEND_SQL = "UPDATE JOB_LOCKS SET locked_until = ? WHERE name = ? AND locked_by = ? AND locked_until > ?";
+
+    static final String RELEASE_SQL = "UPDATE JOB_LOCKS SET locked_until = ? WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String nodeId;
+
+    public JobLocks(JdbcTemplate jdbcTemplate, InvalidationBus invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = invalidationBus.getNodeId();
+    }
+
+    /**
+     * Takes the job for {@code lease}, or returns false when a node (this one included) holds it.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp until = Timestamp.valueOf(now.plus(lease));
+        if (jdbcTemplate.update(TAKE_SQL, until, nodeId, name, Timestamp.valueOf(now)) == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update(CREATE_SQL, name, until, nodeId);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Pushes the end of this node's lease {@code lease} from now; false if the lease was lost
+     * meanwhile, in which case the job must stop.
+     */
+    public boolean extend(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(EXTEND_SQL, Timestamp.valueOf(now.plus(lease)), name, nodeId, Timestamp.valueOf(now)) == 1;
+    }
+
+    /**
+     * Ends this node's lease now, so the next run does not wait for it to run out.
+     */
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE_SQL, Timestamp.valueOf(LocalDateTime.now()), name, nodeId);
+    }
+}
@@ -0,0 +1,27 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+/**
+ * Whether a caller is an admin. WebSecurityConfig restricts {@code /api/admin/**} with it,
+ * so admin controllers do not check again; other code asks {@link #isCurrentUserAdmin()}
+ * only to decide what it shows.
+ */
+public final class AdminAccess {
+
+    private AdminAccess() {
+    }
+
+    public static boolean isAdmin(Authentication authentication) {
+        return authentication != null
+                && authentication.getPrincipal() instanceof UserDetailsImpl userDetails
+                && Boolean.TRUE.equals(userDetails.getAdmin());
+    }
+
+    public static boolean isCurrentUserAdmin() {
+        return isAdmin(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.openclassrooms.starterjwt.exception.ErrorBodies;
+
+/**
+ * Answers an authenticated caller that lacks a permission, with the same body as
+ * {@link AuthEntryPointJwt}.
+ */
+@Component
+public class AccessDeniedHandlerJwt implements AccessDeniedHandler {
+
+  private static final byte[] BODY_START = (ErrorBodies.prefix(HttpStatus.FORBIDDEN, ErrorBodies.FORBIDDEN_MESSAGE)
+      + ",\"path\":\"").getBytes(StandardCharsets.UTF_8);
+
+  private static final byte[] BODY_END = "\"}".getBytes(StandardCharsets.UTF_8);
+
+  @Override
+  public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException accessDeniedException)
+      throws IOException, ServletException {
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+
+    ServletOutputStream body = response.getOutputStream();
+    body.write(BODY_START);
+    body.write(JsonStringEncoder.getInstance().quoteAsUTF8(request.getServletPath()));
+    body.write(BODY_END);
+  }
+
+}
@@ -18,6 +18,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.timing.ServerTiming;
+
+import io.jsonwebtoken.Claims;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
@@ -26,17 +29,27 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired
+  private TokenRevocations tokenRevocations;
+
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
+    ServerTiming timing = ServerTiming.current();
+    if (timing != null) {
+      timing.begin(ServerTiming.Phase.AUTH);
+    }
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      Claims claims = jwt != null ? jwtUtils.parseAccessToken(jwt) : null;
+      if (claims != null && !isRevoked(claims)) {
+        // Access tokens carry the user; only tokens issued before they did need a lookup
+        UserDetails userDetails = JwtUtils.toUserDetails(claims);
+        if (userDetails == null) {
+          userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        }
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -47,12 +60,26 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
       }
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      // The stack trace only at debug: a flood of bad tokens must not turn into a flood of traces
+      logger.error("Cannot set user authentication: {}", e.getMessage());
+      logger.debug("Cannot set user authentication", e);
+    } finally {
+      if (timing != null) {
+        timing.end(ServerTiming.Phase.AUTH);
+      }
     }
 
     filterChain.doFilter(request, response);
   }
 
+  private boolean isRevoked(Claims claims) {
+    if (tokenRevocations.isRevoked(claims.getId())) {
+      return true;
+    }
+    Number userId = claims.get(JwtUtils.USER_ID, Number.class);
+    return userId != null && tokenRevocations.isUserRevoked(userId.longValue());
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
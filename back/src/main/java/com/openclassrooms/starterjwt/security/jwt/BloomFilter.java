@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings, safe for concurrent readers and writers. A negative
+ * answer is exact; a positive one has to be confirmed. Entries cannot be removed: the owner
+ * rebuilds the filter once enough entries have expired.
+ */
+final class BloomFilter {
+
+  private final AtomicLongArray bits;
+
+  private final long bitCount;
+
+  private final int hashCount;
+
+  private BloomFilter(long bitCount, int hashCount) {
+    this.bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+    this.bitCount = bitCount;
+    this.hashCount = hashCount;
+  }
+
+  /**
+   * Sized for {@code expectedEntries} at the given false positive rate.
+   */
+  static BloomFilter create(int expectedEntries, double falsePositiveRate) {
+    int entries = Math.max(1, expectedEntries);
+    double ln2 = Math.log(2);
+    long bitCount = Math.max(64, (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (ln2 * ln2)));
+    int hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * ln2));
+    return new BloomFilter(bitCount, hashCount);
+  }
+
+  void put(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long index = index(h1 + i * h2);
+      int word = (int) (index >>> 6);
+      long mask = 1L << index;
+      long current;
+      do {
+        current = bits.get(word);
+      } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+    }
+  }
+
+  boolean mightContain(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long index = index(h1 + i * h2);
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  long bitCount() {
+    return bitCount;
+  }
+
+  int hashCount() {
+    return hashCount;
+  }
+
+  private long index(int combined) {
+    return (combined < 0 ? ~combined : combined) % bitCount;
+  }
+
+  // FNV-1a over the characters, finished with the MurmurHash3 mix so both halves are usable
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
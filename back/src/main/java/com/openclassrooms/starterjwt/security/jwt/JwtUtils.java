@@ -1,13 +1,16 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.util.Date;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.openclassrooms.starterjwt.diagnostics.events.JwtVerificationEvent;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
@@ -16,8 +19,13 @@ import io.jsonwebtoken.*;
 public class JwtUtils {
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-  @Value("${oc.app.jwtSecret}")
-  private String jwtSecret;
+  static final String USER_ID = "uid";
+  static final String FIRST_NAME = "fn";
+  static final String LAST_NAME = "ln";
+  static final String ADMIN = "adm";
+
+  @Autowired
+  private SigningKeyring keyring;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
@@ -26,21 +34,99 @@ public class JwtUtils {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+    return generateAccessToken(userPrincipal);
+  }
+
+  /**
+   * Short-lived access token carrying what requests need about the user, so that
+   * {@link AuthTokenFilter} does not load them. The id (jti) is what gets revoked.
+   */
+  public String generateAccessToken(UserDetailsImpl user) {
+    return generateAccessToken(user, UUID.randomUUID().toString(), new Date(System.currentTimeMillis() + jwtExpirationMs));
+  }
+
+  public String generateAccessToken(UserDetailsImpl user, String tokenId, Date expiresAt) {
+    SigningKeyring.SigningKey signingKey = keyring.signingKey();
     return Jwts.builder()
-        .setSubject((userPrincipal.getUsername()))
+        .setSubject((user.getUsername()))
+        .setId(tokenId)
+        .claim(USER_ID, user.getId())
+        .claim(FIRST_NAME, user.getFirstName())
+        .claim(LAST_NAME, user.getLastName())
+        .claim(ADMIN, Boolean.TRUE.equals(user.getAdmin()))
         .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .setExpiration(expiresAt)
+        .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+        .signWith(signingKey.key(), SignatureAlgorithm.HS512)
         .compact();
   }
 
+  public int getJwtExpirationMs() {
+    return jwtExpirationMs;
+  }
+
+  /**
+   * Verifies the token and returns its claims, or null (logged) when it is not valid.
+   */
+  public Claims parseAccessToken(String token) {
+    JwtVerificationEvent event = new JwtVerificationEvent();
+    event.begin();
+    try {
+      Claims claims = keyring.parser().parseClaimsJws(token).getBody();
+      event.valid = true;
+      return claims;
+    } catch (SignatureException e) {
+      logger.error("Invalid JWT signature: {}", e.getMessage());
+    } catch (MalformedJwtException e) {
+      logger.error("Invalid JWT token: {}", e.getMessage());
+    } catch (ExpiredJwtException e) {
+      logger.error("JWT token is expired: {}", e.getMessage());
+    } catch (UnsupportedJwtException e) {
+      logger.error("JWT token is unsupported: {}", e.getMessage());
+    } catch (IllegalArgumentException e) {
+      logger.error("JWT claims string is empty: {}", e.getMessage());
+    } finally {
+      commit(event, "verify");
+    }
+
+    return null;
+  }
+
+  /**
+   * The user as described by the token, or null for tokens issued without the user claims.
+   */
+  public static UserDetailsImpl toUserDetails(Claims claims) {
+    Number id = claims.get(USER_ID, Number.class);
+    if (id == null) {
+      return null;
+    }
+    return UserDetailsImpl.builder()
+        .id(id.longValue())
+        .username(claims.getSubject())
+        .firstName(claims.get(FIRST_NAME, String.class))
+        .lastName(claims.get(LAST_NAME, String.class))
+        .admin(claims.get(ADMIN, Boolean.class))
+        .build();
+  }
+
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    JwtVerificationEvent event = new JwtVerificationEvent();
+    event.begin();
+    try {
+      String subject = keyring.parser().parseClaimsJws(token).getBody().getSubject();
+      event.valid = true;
+      return subject;
+    } finally {
+      commit(event, "parse");
+    }
   }
 
   public boolean validateJwtToken(String authToken) {
+    JwtVerificationEvent event = new JwtVerificationEvent();
+    event.begin();
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
+      keyring.parser().parseClaimsJws(authToken);
+      event.valid = true;
       return true;
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
@@ -52,8 +138,18 @@ public class JwtUtils {
       logger.error("JWT token is unsupported: {}", e.getMessage());
     } catch (IllegalArgumentException e) {
       logger.error("JWT claims string is empty: {}", e.getMessage());
+    } finally {
+      commit(event, "validate");
     }
 
     return false;
   }
+
+  private static void commit(JwtVerificationEvent event, String operation) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.commit();
+    }
+  }
 }
@@ -0,0 +1,178 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * HS512 signing keys identified by the {@code kid} header. The key of each rotation period
+ * is derived from {@code oc.app.jwtSecret} (HMAC of the period number), so every node holds
+ * the same keys without exchanging them, and a leaked period key expires with its period.
+ *
+ * <p>Tokens are signed with the current period's key. The keys of every period that can
+ * still have unexpired tokens stay active for verification, plus the next one for nodes
+ * whose clock runs ahead; they are built once, and one shared parser picks the key from a
+ * map by {@code kid}. Tokens without a {@code kid}, signed with the raw secret before keys
+ * rotated, are accepted until they expire unless {@code acceptLegacyTokens} is off.
+ */
+@Component
+public class SigningKeyring {
+  private static final Logger logger = LoggerFactory.getLogger(SigningKeyring.class);
+
+  static final String KID_PREFIX = "p";
+
+  private static final String DERIVATION_LABEL = "yoga-jwt-signing-key:";
+
+  /**
+   * The key new tokens are signed with and its id, for the {@code kid} header.
+   */
+  public record SigningKey(String kid, SecretKey key) {
+  }
+
+  private record Keys(long period, SigningKey signing, Map<String, SecretKey> byKid) {
+  }
+
+  private final byte[] masterSecret;
+  private final SecretKey legacyKey;
+  private final long rotationMs;
+  private final long verificationWindowMs;
+  private final boolean acceptLegacyTokens;
+  private final JwtParser parser;
+
+  private volatile Keys keys;
+
+  public SigningKeyring(@Value("${oc.app.jwtSecret}") String jwtSecret,
+                        @Value("${oc.app.jwt.keyRotationMs:86400000}") long rotationMs,
+                        @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs,
+                        @Value("${oc.app.jwt.acceptLegacyTokens:true}") boolean acceptLegacyTokens,
+                        MeterRegistry meterRegistry) {
+    // Same bytes jjwt used for the string secret: it is read as base64
+    this.masterSecret = Decoders.BASE64.decode(jwtSecret);
+    this.legacyKey = new SecretKeySpec(masterSecret, SignatureAlgorithm.HS512.getJcaName());
+    this.rotationMs = rotationMs;
+    this.verificationWindowMs = jwtExpirationMs;
+    this.acceptLegacyTokens = acceptLegacyTokens;
+    this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+      @Override
+      public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        return verificationKey(header.getKeyId());
+      }
+    }).build();
+    this.keys = build(period(System.currentTimeMillis()));
+    Gauge.builder("yoga.jwt.keys.active", this, keyring -> keyring.keys.byKid().size())
+        .description("Signing keys accepted for verification")
+        .register(meterRegistry);
+  }
+
+  /**
+   * The parser for every token this node accepts, built once.
+   */
+  public JwtParser parser() {
+    return parser;
+  }
+
+  public SigningKey signingKey() {
+    return current().signing();
+  }
+
+  /**
+   * The key for {@code kid}: one map lookup, however many keys are active.
+   */
+  Key verificationKey(String kid) {
+    if (kid == null) {
+      if (acceptLegacyTokens) {
+        return legacyKey;
+      }
+      throw new UnsupportedJwtException("JWT has no key id");
+    }
+    SecretKey key = current().byKid().get(kid);
+    if (key == null) {
+      throw new SignatureException("Unknown or retired signing key: " + kid);
+    }
+    return key;
+  }
+
+  /**
+   * Moves to the period's key set when the period has changed. Called before signing, so
+   * a period's first token never waits for the scheduled check, and on a schedule so that
+   * retired keys leave memory on idle nodes too.
+   */
+  @Scheduled(initialDelayString = "${oc.app.jwt.keyRotationCheckMs:60000}",
+      fixedDelayString = "${oc.app.jwt.keyRotationCheckMs:60000}")
+  public void rotate() {
+    current();
+  }
+
+  private Keys current() {
+    Keys current = keys;
+    long period = period(System.currentTimeMillis());
+    if (current.period() == period) {
+      return current;
+    }
+    synchronized (this) {
+      if (keys.period() != period) {
+        keys = build(period);
+        logger.info("Signing with key {}, {} keys active for verification", keys.signing().kid(), keys.byKid().size());
+      }
+      return keys;
+    }
+  }
+
+  private Keys build(long period) {
+    long oldest = Math.max(0, period - (verificationWindowMs + rotationMs - 1) / rotationMs);
+    Keys previous = keys;
+    Map<String, SecretKey> byKid = new HashMap<>();
+    for (long p = oldest; p <= period + 1; p++) {
+      String kid = kid(p);
+      SecretKey key = previous != null ? previous.byKid().get(kid) : null;
+      byKid.put(kid, key != null ? key : derive(p));
+    }
+    String currentKid = kid(period);
+    return new Keys(period, new SigningKey(currentKid, byKid.get(currentKid)), Collections.unmodifiableMap(byKid));
+  }
+
+  private SecretKey derive(long period) {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA512");
+      mac.init(new SecretKeySpec(masterSecret, "HmacSHA512"));
+      byte[] keyBytes = mac.doFinal((DERIVATION_LABEL + period).getBytes(StandardCharsets.UTF_8));
+      return new SecretKeySpec(keyBytes, SignatureAlgorithm.HS512.getJcaName());
+    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+      throw new IllegalStateException("Cannot derive the JWT signing key", e);
+    }
+  }
+
+  private long period(long epochMillis) {
+    return epochMillis / rotationMs;
+  }
+
+  static String kid(long period) {
+    return KID_PREFIX + period;
+  }
+}
@@ -0,0 +1,203 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import com.openclassrooms.starterjwt.invalidation.InvalidationType;
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids of access tokens revoked before they expire, checked by {@link AuthTokenFilter} on
+ * every request instead of loading the user. A Bloom filter answers the common case (the
+ * token was never revoked) without touching the exact map, which only confirms hits.
+ *
+ * <p>Revocations are rows of REVOKED_TOKENS, announced to the other nodes through the
+ * {@link InvalidationBus} so they apply them within a poll interval. Every node also reloads
+ * the unexpired rows on a fixed interval: expired ids leave the map, the filter is rebuilt
+ * without them, and anything a node missed is picked up.
+ *
+ * <p>Besides token ids, a user can be revoked as a whole ({@code user:<id>}) until every
+ * access token issued to them has expired.
+ */
+@Component
+public class TokenRevocations implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+
+  static final String USER_PREFIX = "user:";
+
+  private record State(BloomFilter filter, Map<String, Long> expiries) {
+  }
+
+  private final RevokedTokenRepository repository;
+  private final InvalidationBus invalidationBus;
+  private final int expectedEntries;
+  private final double falsePositiveRate;
+  private final long reloadIntervalMs;
+  private final Counter falsePositives;
+
+  private volatile State state;
+
+  private volatile ScheduledExecutorService executor;
+
+  public TokenRevocations(RevokedTokenRepository repository,
+              InvalidationBus invalidationBus,
+              MeterRegistry meterRegistry,
+              @Value("${oc.app.jwt.revocation.expectedEntries:10000}") int expectedEntries,
+              @Value("${oc.app.jwt.revocation.falsePositiveRate:0.01}") double falsePositiveRate,
+              @Value("${oc.app.jwt.revocation.reloadIntervalMs:60000}") long reloadIntervalMs) {
+    this.repository = repository;
+    this.invalidationBus = invalidationBus;
+    this.expectedEntries = expectedEntries;
+    this.falsePositiveRate = falsePositiveRate;
+    this.reloadIntervalMs = reloadIntervalMs;
+    this.state = new State(BloomFilter.create(expectedEntries, falsePositiveRate), new ConcurrentHashMap<>());
+    this.falsePositives = Counter.builder("yoga.jwt.revocation.falsepositives")
+        .description("Token ids the Bloom filter could not rule out that were not revoked")
+        .register(meterRegistry);
+    Gauge.builder("yoga.jwt.revocations", this, revocations -> revocations.state.expiries().size())
+        .description("Unexpired revoked token ids held in memory")
+        .register(meterRegistry);
+  }
+
+  public boolean isRevoked(String tokenId) {
+    if (tokenId == null) {
+      return false;
+    }
+    State current = state;
+    if (!current.filter().mightContain(tokenId)) {
+      return false;
+    }
+    Long expiresAt = current.expiries().get(tokenId);
+    if (expiresAt == null) {
+      falsePositives.increment();
+      return false;
+    }
+    return expiresAt > System.currentTimeMillis();
+  }
+
+  public boolean isUserRevoked(Long userId) {
+    return userId != null && isRevoked(USER_PREFIX + userId);
+  }
+
+  /**
+   * Revokes the token id until it expires, in the caller's transaction if there is one.
+   */
+  @Transactional
+  public void revoke(String tokenId, Instant expiresAt) {
+    if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+      return;
+    }
+    RevokedToken revoked = repository.save(RevokedToken.builder()
+        .tokenId(tokenId)
+        .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+        .revokedAt(LocalDateTime.now())
+        .build());
+    invalidationBus.publish(InvalidationType.REVOKED_TOKEN, revoked.getId());
+    // Applied at once rather than on commit: a rollback at worst ends a session early
+    add(tokenId, expiresAt.toEpochMilli());
+  }
+
+  /**
+   * Revokes every access token of the user issued so far: none outlives {@code until}.
+   */
+  @Transactional
+  public void revokeUser(Long userId, Instant until) {
+    revoke(USER_PREFIX + userId, until);
+  }
+
+  /**
+   * Applies a revocation recorded by another node.
+   */
+  public void load(long revokedTokenId) {
+    repository.findById(revokedTokenId).ifPresent(this::add);
+  }
+
+  void reload() {
+    LocalDateTime now = LocalDateTime.now();
+    List<RevokedToken> live = repository.findByExpiresAtAfter(now);
+    long nowMillis = System.currentTimeMillis();
+    synchronized (this) {
+      Map<String, Long> expiries = new ConcurrentHashMap<>();
+      // Added since the query started, or not visible to it yet
+      state.expiries().forEach((id, expiresAt) -> {
+        if (expiresAt > nowMillis) {
+          expiries.put(id, expiresAt);
+        }
+      });
+      for (RevokedToken revoked : live) {
+        expiries.merge(revoked.getTokenId(), toMillis(revoked.getExpiresAt()), Math::max);
+      }
+      BloomFilter filter = BloomFilter.create(Math.max(expectedEntries, expiries.size() * 2), falsePositiveRate);
+      expiries.keySet().forEach(filter::put);
+      state = new State(filter, expiries);
+    }
+    repository.deleteExpired(now);
+  }
+
+  private void add(RevokedToken revoked) {
+    add(revoked.getTokenId(), toMillis(revoked.getExpiresAt()));
+  }
+
+  private synchronized void add(String tokenId, long expiresAt) {
+    State current = state;
+    // Map first: a reader that passes the filter must find the entry
+    current.expiries().merge(tokenId, expiresAt, Math::max);
+    current.filter().put(tokenId);
+  }
+
+  private static long toMillis(LocalDateTime dateTime) {
+    return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  @Override
+  public void start() {
+    reload();
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "token-revocation-reload");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::reloadSafely, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+    logger.info("Loaded {} revoked token ids", state.expiries().size());
+  }
+
+  private void reloadSafely() {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      logger.warn("Could not reload revoked tokens: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void stop() {
+    ScheduledExecutorService running = executor;
+    if (running != null) {
+      running.shutdownNow();
+      executor = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return executor != null;
+  }
+}
@@ -0,0 +1,192 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Issues access/refresh token pairs and rotates them. A refresh token is an opaque random
+ * string, stored only as its SHA-256, valid once: refreshing marks it used and issues the
+ * next pair of the same family. Presenting a used token again means it was copied, so the
+ * whole family is dropped and its live access token revoked.
+ */
+@Service
+public class RefreshTokenService {
+  private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+  private static final int TOKEN_BYTES = 32;
+
+  public record TokenPair(String accessToken, String refreshToken, long expiresInMs) {
+  }
+
+  private final RefreshTokenRepository refreshTokenRepository;
+  private final UserRepository userRepository;
+  private final JwtUtils jwtUtils;
+  private final TokenRevocations tokenRevocations;
+  private final long refreshExpirationMs;
+  private final SecureRandom random = new SecureRandom();
+
+  private final Counter rotated;
+  private final Counter reused;
+  private final Counter invalid;
+
+  public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                             UserRepository userRepository,
+                             JwtUtils jwtUtils,
+                             TokenRevocations tokenRevocations,
+                             MeterRegistry meterRegistry,
+                             @Value("${oc.app.jwt.refreshExpirationMs:1209600000}") long refreshExpirationMs) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.userRepository = userRepository;
+    this.jwtUtils = jwtUtils;
+    this.tokenRevocations = tokenRevocations;
+    this.refreshExpirationMs = refreshExpirationMs;
+    this.rotated = refreshCounter(meterRegistry, "rotated");
+    this.reused = refreshCounter(meterRegistry, "reused");
+    this.invalid = refreshCounter(meterRegistry, "invalid");
+  }
+
+  private static Counter refreshCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("yoga.jwt.refresh")
+        .description("Refresh token presentations by outcome")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts a new family, on login.
+   */
+  @Transactional
+  public TokenPair issue(UserDetailsImpl user) {
+    return issue(user, UUID.randomUUID().toString());
+  }
+
+  /**
+   * Exchanges a refresh token for the next pair, or nothing if the token is unknown,
+   * expired or already used.
+   */
+  @Transactional
+  public Optional<TokenPair> rotate(String refreshToken) {
+    RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken)).orElse(null);
+    LocalDateTime now = LocalDateTime.now();
+    if (current == null || current.getExpiresAt().isBefore(now)) {
+      invalid.increment();
+      return Optional.empty();
+    }
+    if (current.getUsedAt() != null) {
+      reused.increment();
+      logger.warn("Refresh token of family {} presented twice, revoking the family", current.getFamilyId());
+      revokeFamily(current.getFamilyId());
+      return Optional.empty();
+    }
+    User user = userRepository.findById(current.getUserId()).orElse(null);
+    if (user == null) {
+      invalid.increment();
+      return Optional.empty();
+    }
+    current.setUsedAt(now);
+    rotated.increment();
+    return Optional.of(issue(UserDetailsImpl.builder()
+        .id(user.getId())
+        .username(user.getEmail())
+        .firstName(user.getFirstName())
+        .lastName(user.getLastName())
+        .admin(user.isAdmin())
+        .build(), current.getFamilyId()));
+  }
+
+  /**
+   * Logs out the session the refresh token belongs to.
+   */
+  @Transactional
+  public void revoke(String refreshToken) {
+    refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+        .ifPresent(token -> revokeFamily(token.getFamilyId()));
+  }
+
+  /**
+   * Ends every session of the user, e.g. once the account is deleted.
+   */
+  @Transactional
+  public void revokeUser(Long userId) {
+    refreshTokenRepository.deleteByUserId(userId);
+    tokenRevocations.revokeUser(userId, Instant.now().plusMillis(jwtUtils.getJwtExpirationMs()));
+  }
+
+  @Scheduled(initialDelayString = "${oc.app.jwt.refreshPurgeIntervalMs:3600000}",
+      fixedDelayString = "${oc.app.jwt.refreshPurgeIntervalMs:3600000}")
+  @Transactional
+  public int purgeExpired() {
+    return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+  }
+
+  private void revokeFamily(String familyId) {
+    Instant now = Instant.now();
+    for (RefreshToken token : refreshTokenRepository.findByFamilyId(familyId)) {
+      if (token.getAccessTokenId() != null && token.getAccessExpiresAt() != null) {
+        Instant accessExpiresAt = token.getAccessExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+        if (accessExpiresAt.isAfter(now)) {
+          tokenRevocations.revoke(token.getAccessTokenId(), accessExpiresAt);
+        }
+      }
+    }
+    refreshTokenRepository.deleteByFamilyId(familyId);
+  }
+
+  private TokenPair issue(UserDetailsImpl user, String familyId) {
+    LocalDateTime now = LocalDateTime.now();
+    String accessTokenId = UUID.randomUUID().toString();
+    long accessExpirationMs = jwtUtils.getJwtExpirationMs();
+    Date accessExpiresAt = new Date(System.currentTimeMillis() + accessExpirationMs);
+    String accessToken = jwtUtils.generateAccessToken(user, accessTokenId, accessExpiresAt);
+
+    byte[] bytes = new byte[TOKEN_BYTES];
+    random.nextBytes(bytes);
+    String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    refreshTokenRepository.save(RefreshToken.builder()
+        .tokenHash(hash(refreshToken))
+        .familyId(familyId)
+        .userId(user.getId())
+        .accessTokenId(accessTokenId)
+        .accessExpiresAt(LocalDateTime.ofInstant(accessExpiresAt.toInstant(), ZoneId.systemDefault()))
+        .expiresAt(now.plusNanos(refreshExpirationMs * 1_000_000))
+        .createdAt(now)
+        .build());
+    return new TokenPair(accessToken, refreshToken, accessExpirationMs);
+  }
+
+  static String hash(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
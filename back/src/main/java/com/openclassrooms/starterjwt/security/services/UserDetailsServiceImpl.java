@@ -6,6 +6,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.openclassrooms.starterjwt.diagnostics.events.UserLoadEvent;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
@@ -20,8 +21,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
   @Override
   @Transactional
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    User user = userRepository.findByEmail(username)
-        .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
+    UserLoadEvent event = new UserLoadEvent();
+    event.begin();
+    User user;
+    try {
+      user = userRepository.findByEmail(username)
+          .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
+      event.found = true;
+    } finally {
+      event.commit();
+    }
 
     return UserDetailsImpl
             .builder()
@@ -29,6 +38,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             .username(user.getEmail())
             .lastName(user.getLastName())
             .firstName(user.getFirstName())
+            .admin(user.isAdmin())
             .password(user.getPassword())
             .build();
   }
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.seed;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rows planned from a {@link SyntheticDataSpec}, not yet written. Sessions and
+ * participations refer to teachers, users and sessions by their index in these lists.
+ */
+public record SyntheticData(List<UserRow> users,
+                            List<TeacherRow> teachers,
+                            List<SessionRow> sessions,
+                            List<Participation> participations) {
+
+    public record UserRow(String email, String firstName, String lastName) {
+    }
+
+    public record TeacherRow(String firstName, String lastName) {
+    }
+
+    public record SessionRow(String name, String description, LocalDateTime date, int teacher) {
+    }
+
+    public record Participation(int session, int user) {
+    }
+
+    /**
+     * Database ids of the rows once written, in the order of the plan.
+     */
+    public record Written(List<Long> userIds, List<Long> teacherIds, List<Long> sessionIds, int participations) {
+    }
+}
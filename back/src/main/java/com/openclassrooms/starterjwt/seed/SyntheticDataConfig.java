@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.seed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.seed", name = "enabled", havingValue = "true")
+public class SyntheticDataConfig {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataConfig.class);
+
+    // Runners are called before ApplicationReadyEvent: the schedule snapshot loads the generated sessions.
+    // The runner writes once per seed; later starts find the first user and leave the data alone
+    @Bean
+    public ApplicationRunner syntheticDataRunner(SyntheticDataGenerator generator,
+                                                 @Value("${oc.app.seed.users:10000}") int users,
+                                                 @Value("${oc.app.seed.teachers:50}") int teachers,
+                                                 @Value("${oc.app.seed.sessions:2000}") int sessions,
+                                                 @Value("${oc.app.seed.participations:100000}") long participations,
+                                                 @Value("${oc.app.seed.exponent:1.1}") double exponent,
+                                                 @Value("${oc.app.seed.seed:42}") long seed,
+                                                 @Value("${oc.app.seed.firstDay:}") String firstDay,
+                                                 @Value("${oc.app.seed.days:90}") int days,
+                                                 @Value("${oc.app.seed.password:password}") String password) {
+        return args -> {
+            SyntheticDataSpec spec = new SyntheticDataSpec(users, teachers, sessions, participations, exponent, seed,
+                    firstDay.isBlank() ? LocalDate.now() : LocalDate.parse(firstDay), days);
+            if (generator.isWritten(spec)) {
+                logger.info("Synthetic data for seed {} is already there, nothing generated", seed);
+                return;
+            }
+            long start = System.nanoTime();
+            SyntheticData.Written written = generator.generate(spec, password);
+            logger.info("Generated {} users, {} teachers, {} sessions and {} participations in {} ms",
+                    written.userIds().size(), written.teacherIds().size(), written.sessionIds().size(),
+                    written.participations(), (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+}
@@ -0,0 +1,267 @@
+package com.openclassrooms.starterjwt.seed;
+
+import com.openclassrooms.starterjwt.attendance.AttendanceSummaries;
+import com.openclassrooms.starterjwt.seed.SyntheticData.Participation;
+import com.openclassrooms.starterjwt.seed.SyntheticData.SessionRow;
+import com.openclassrooms.starterjwt.seed.SyntheticData.TeacherRow;
+import com.openclassrooms.starterjwt.seed.SyntheticData.UserRow;
+import com.openclassrooms.starterjwt.seed.SyntheticData.Written;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Realistic volumes for performance work: users, teachers, sessions and a power-law
+ * distribution of PARTICIPATE rows, planned from a seed and written with batched JDBC.
+ * Used by tests and benchmarks, and on startup when oc.app.seed.enabled is set.
+ *
+ * <p>Rows go straight to the tables, around the services: run it on a database the
+ * application is not serving yet, or reload what caches it.
+ */
+@Component
+public class SyntheticDataGenerator {
+
+    static final String TEACHER_SQL =
+            "INSERT INTO TEACHERS (first_name, last_name, created_at, updated_at) VALUES (?, ?, ?, ?)";
+
+    static final String USER_SQL =
+            "INSERT INTO USERS (email, first_name, last_name, password, admin, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, false, ?, ?)";
+
+    static final String SESSION_SQL =
+            "INSERT INTO SESSIONS (name, description, date, teacher_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    static final String PARTICIPATE_SQL = "INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)";
+
+    // Soft-deleted users too: they still hold their email
+    static final String USER_EXISTS_SQL = "SELECT COUNT(*) FROM USERS WHERE email = ?";
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bruno", "Chloe", "David", "Emma", "Farid", "Grace", "Hugo", "Ines", "Jules",
+            "Kenza", "Louis", "Manon", "Nathan", "Oceane", "Paul", "Quentin", "Rose", "Sami", "Theo"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau",
+            "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand", "Roux", "Vincent", "Fournier"
+    };
+
+    private static final String[] STYLES = {
+            "Hatha", "Vinyasa Flow", "Yin", "Ashtanga", "Kundalini", "Restorative", "Power Yoga", "Iyengar"
+    };
+
+    private static final int FIRST_HOUR = 7;
+
+    private static final int LAST_HOUR = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final AttendanceSummaries attendanceSummaries;
+
+    private final int batchSize;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  PasswordEncoder passwordEncoder,
+                                  AttendanceSummaries attendanceSummaries,
+                                  @Value("${oc.app.seed.batchSize:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.attendanceSummaries = attendanceSummaries;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Plans and writes {@code spec}; every generated user logs in with {@code password}.
+     */
+    public Written generate(SyntheticDataSpec spec, String password) {
+        return write(plan(spec), password);
+    }
+
+    /**
+     * Whether {@code spec} was already written to this database, judged by its first user.
+     * Generated emails depend on the seed only, so writing the same seed twice would fail on
+     * the unique email key. A spec without users cannot be recognized and is never reported.
+     */
+    public boolean isWritten(SyntheticDataSpec spec) {
+        if (spec.users() == 0) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(USER_EXISTS_SQL, Integer.class, email(spec.seed(), 0));
+        return count != null && count > 0;
+    }
+
+    /**
+     * The rows for {@code spec}, identical for identical specs. Nothing is written.
+     */
+    public static SyntheticData plan(SyntheticDataSpec spec) {
+        SplittableRandom random = new SplittableRandom(spec.seed());
+
+        List<TeacherRow> teachers = new ArrayList<>(spec.teachers());
+        for (int i = 0; i < spec.teachers(); i++) {
+            teachers.add(new TeacherRow(pick(random, FIRST_NAMES), pick(random, LAST_NAMES)));
+        }
+
+        List<UserRow> users = new ArrayList<>(spec.users());
+        for (int i = 0; i < spec.users(); i++) {
+            users.add(new UserRow(email(spec.seed(), i), pick(random, FIRST_NAMES), pick(random, LAST_NAMES)));
+        }
+
+        List<SessionRow> sessions = new ArrayList<>(spec.sessions());
+        for (int i = 0; i < spec.sessions(); i++) {
+            String style = pick(random, STYLES);
+            LocalDateTime date = spec.firstDay().plusDays(random.nextInt(spec.days()))
+                    .atTime(random.nextInt(FIRST_HOUR, LAST_HOUR + 1), random.nextBoolean() ? 0 : 30);
+            sessions.add(new SessionRow(style + " #" + (i + 1), "Synthetic " + style + " class",
+                    date, random.nextInt(spec.teachers())));
+        }
+
+        return new SyntheticData(users, teachers, sessions, participations(spec, random));
+    }
+
+    private static List<Participation> participations(SyntheticDataSpec spec, SplittableRandom random) {
+        if (spec.sessions() == 0 || spec.users() == 0 || spec.participations() == 0) {
+            return List.of();
+        }
+
+        // Popularity ranks are shuffled: the busiest sessions and members are not simply the first ones
+        double[] sessionWeights = zipfWeights(spec.sessions(), spec.exponent(), random);
+        double totalSessionWeight = Arrays.stream(sessionWeights).sum();
+        double[] userCumulative = zipfWeights(spec.users(), spec.exponent(), random);
+        Arrays.parallelPrefix(userCumulative, Double::sum);
+        double totalUserWeight = userCumulative[userCumulative.length - 1];
+
+        List<Participation> participations = new ArrayList<>((int) Math.min(spec.participations(), 1 << 20));
+        // taken[user] == session + 1 when the user already takes part in that session
+        int[] taken = new int[spec.users()];
+        for (int session = 0; session < spec.sessions(); session++) {
+            int participants = (int) Math.min(spec.users(),
+                    Math.round(spec.participations() * sessionWeights[session] / totalSessionWeight));
+            int added = 0;
+            // Sampling busy members again and again gets slow once most are taken: give up after a
+            // few tries per place and fill what is left with the next free users
+            for (int attempt = 0; added < participants && attempt < participants * 8; attempt++) {
+                int user = Arrays.binarySearch(userCumulative, random.nextDouble(totalUserWeight));
+                user = Math.min(user < 0 ? -user - 1 : user, spec.users() - 1);
+                if (taken[user] != session + 1) {
+                    taken[user] = session + 1;
+                    participations.add(new Participation(session, user));
+                    added++;
+                }
+            }
+            for (int user = random.nextInt(spec.users()), scanned = 0;
+                 added < participants && scanned < spec.users();
+                 user = (user + 1) % spec.users(), scanned++) {
+                if (taken[user] != session + 1) {
+                    taken[user] = session + 1;
+                    participations.add(new Participation(session, user));
+                    added++;
+                }
+            }
+        }
+        return participations;
+    }
+
+    private static double[] zipfWeights(int count, double exponent, SplittableRandom random) {
+        double[] weights = new double[count];
+        for (int i = 0; i < count; i++) {
+            weights[i] = 1 / Math.pow(i + 1, exponent);
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double swap = weights[i];
+            weights[i] = weights[j];
+            weights[j] = swap;
+        }
+        return weights;
+    }
+
+    // The seed keeps emails of two generations apart
+    private static String email(long seed, int user) {
+        return "user" + user + ".s" + Long.toHexString(seed) + "@synthetic.yoga";
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Writes {@code data} in batches of oc.app.seed.batchSize rows. The password is hashed
+     * once and shared by every user: hashing each one would take longer than all the inserts.
+     */
+    public Written write(SyntheticData data, String password) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String passwordHash = passwordEncoder.encode(password);
+
+        List<Long> teacherIds = insert(TEACHER_SQL, data.teachers(), (ps, teacher) -> {
+            ps.setString(1, teacher.firstName());
+            ps.setString(2, teacher.lastName());
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+        List<Long> userIds = insert(USER_SQL, data.users(), (ps, user) -> {
+            ps.setString(1, user.email());
+            ps.setString(2, user.firstName());
+            ps.setString(3, user.lastName());
+            ps.setString(4, passwordHash);
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+        List<Long> sessionIds = insert(SESSION_SQL, data.sessions(), (ps, session) -> {
+            ps.setString(1, session.name());
+            ps.setString(2, session.description());
+            ps.setTimestamp(3, Timestamp.valueOf(session.date()));
+            ps.setLong(4, teacherIds.get(session.teacher()));
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+        jdbcTemplate.batchUpdate(PARTICIPATE_SQL, data.participations(), batchSize, (ps, participation) -> {
+            ps.setLong(1, sessionIds.get(participation.session()));
+            ps.setLong(2, userIds.get(participation.user()));
+        });
+        // The rows went around SessionService
+        attendanceSummaries.rebuild();
+
+        return new Written(userIds, teacherIds, sessionIds, data.participations().size());
+    }
+
+    private <T> List<Long> insert(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<T> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            setter.setValues(ps, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keys);
+            // The key column is ID on H2 and GENERATED_KEY on MySQL
+            for (Map<String, Object> key : keys.getKeyList()) {
+                ids.add(((Number) key.values().iterator().next()).longValue());
+            }
+        }
+        return ids;
+    }
+}
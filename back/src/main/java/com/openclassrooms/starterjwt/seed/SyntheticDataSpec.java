@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.seed;
+
+import java.time.LocalDate;
+
+/**
+ * What to generate. The same spec always gives the same data: every random choice comes
+ * from {@code seed}. Session popularity and user activity both follow a power law with
+ * the given {@code exponent} (Zipf: the k-th most popular gets 1/k^exponent of the weight),
+ * so a few sessions are packed and a few members book most of the places.
+ *
+ * @param participations PARTICIPATE rows to aim for; fewer when a session would need more
+ *                       participants than there are users
+ * @param firstDay       sessions are spread over {@code days} days from this one
+ */
+public record SyntheticDataSpec(int users,
+                                int teachers,
+                                int sessions,
+                                long participations,
+                                double exponent,
+                                long seed,
+                                LocalDate firstDay,
+                                int days) {
+
+    public SyntheticDataSpec {
+        if (users < 0 || teachers < 0 || sessions < 0 || participations < 0) {
+            throw new IllegalArgumentException("Counts cannot be negative");
+        }
+        if (sessions > 0 && teachers == 0) {
+            throw new IllegalArgumentException("Sessions need at least one teacher");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("The power law exponent cannot be negative");
+        }
+        if (days < 1) {
+            throw new IllegalArgumentException("Sessions need at least one day");
+        }
+    }
+}
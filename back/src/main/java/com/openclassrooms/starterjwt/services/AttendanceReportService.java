@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Attendance per teacher, month and weekday, aggregated with GROUP BY over MONTHLY_ATTENDANCE,
+ * which AttendanceSummaries keeps up to date: the cost depends on the number of teachers and
+ * months in the range, not on the number of participations. No entity is loaded.
+ */
+@Service
+public class AttendanceReportService {
+
+    public record TeacherAttendance(long teacherId, String firstName, String lastName,
+                                    long sessions, long participations, double averageParticipants) {
+    }
+
+    public record MonthAttendance(YearMonth month, long sessions, long participations, double averageParticipants) {
+    }
+
+    public record WeekdayAttendance(DayOfWeek weekday, long sessions, long participations, double averageParticipants) {
+    }
+
+    // Teacher 0 stands for sessions without a teacher: no TEACHERS row, no name
+    static final String BY_TEACHER_SQL =
+            "SELECT a.teacher_id, t.first_name, t.last_name, SUM(a.session_count) AS sessions, SUM(a.participant_count) AS participations "
+                    + "FROM MONTHLY_ATTENDANCE a LEFT JOIN TEACHERS t ON t.id = a.teacher_id "
+                    + "WHERE a.month_start BETWEEN ? AND ? "
+                    + "GROUP BY a.teacher_id, t.first_name, t.last_name HAVING SUM(a.session_count) > 0 "
+                    + "ORDER BY participations DESC, a.teacher_id";
+
+    static final String BY_MONTH_SQL =
+            "SELECT month_start, SUM(session_count) AS sessions, SUM(participant_count) AS participations "
+                    + "FROM MONTHLY_ATTENDANCE WHERE month_start BETWEEN ? AND ? "
+                    + "GROUP BY month_start HAVING SUM(session_count) > 0 ORDER BY month_start";
+
+    static final String BY_WEEKDAY_SQL =
+            "SELECT weekday, SUM(session_count) AS sessions, SUM(participant_count) AS participations "
+                    + "FROM MONTHLY_ATTENDANCE WHERE month_start BETWEEN ? AND ? "
+                    + "GROUP BY weekday HAVING SUM(session_count) > 0 ORDER BY weekday";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttendanceReportService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sessions from month {@code from} to month {@code to}, both included, by teacher, most attended first.
+     */
+    @Transactional(readOnly = true)
+    public List<TeacherAttendance> byTeacher(YearMonth from, YearMonth to) {
+        return jdbcTemplate.query(BY_TEACHER_SQL, (rs, rowNum) -> new TeacherAttendance(
+                rs.getLong("teacher_id"), rs.getString("first_name"), rs.getString("last_name"),
+                rs.getLong("sessions"), rs.getLong("participations"), average(rs)), first(from), first(to));
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthAttendance> byMonth(YearMonth from, YearMonth to) {
+        return jdbcTemplate.query(BY_MONTH_SQL, (rs, rowNum) -> new MonthAttendance(
+                YearMonth.from(rs.getDate("month_start").toLocalDate()),
+                rs.getLong("sessions"), rs.getLong("participations"), average(rs)), first(from), first(to));
+    }
+
+    /**
+     * Sessions from month {@code from} to month {@code to}, both included, by day of the week, Monday first.
+     */
+    @Transactional(readOnly = true)
+    public List<WeekdayAttendance> byWeekday(YearMonth from, YearMonth to) {
+        return jdbcTemplate.query(BY_WEEKDAY_SQL, (rs, rowNum) -> new WeekdayAttendance(
+                DayOfWeek.of(rs.getInt("weekday")),
+                rs.getLong("sessions"), rs.getLong("participations"), average(rs)), first(from), first(to));
+    }
+
+    private static Date first(YearMonth month) {
+        return Date.valueOf(month.atDay(1));
+    }
+
+    private static double average(ResultSet rs) throws SQLException {
+        long sessions = rs.getLong("sessions");
+        return sessions == 0 ? 0 : Math.round(100.0 * rs.getLong("participations") / sessions) / 100.0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.ArchivedParticipation;
+import com.openclassrooms.starterjwt.models.ArchivedSession;
+import com.openclassrooms.starterjwt.repository.ArchivedParticipationRepository;
+import com.openclassrooms.starterjwt.repository.ArchivedSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historical reads: sessions moved to the archive by the SessionArchiver, in the same
+ * shape as live ones. Two queries whatever the number of sessions: the sessions, then
+ * the participations of all of them.
+ */
+@Service
+public class SessionArchiveService {
+    private final ArchivedSessionRepository archivedSessionRepository;
+
+    private final ArchivedParticipationRepository archivedParticipationRepository;
+
+    private final int maxResults;
+
+    public SessionArchiveService(ArchivedSessionRepository archivedSessionRepository,
+                                 ArchivedParticipationRepository archivedParticipationRepository,
+                                 @Value("${oc.app.archive.maxResults:1000}") int maxResults) {
+        this.archivedSessionRepository = archivedSessionRepository;
+        this.archivedParticipationRepository = archivedParticipationRepository;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Archived sessions held from {@code from} to {@code to}, both included, oldest first,
+     * at most oc.app.archive.maxResults of them.
+     */
+    @Transactional(readOnly = true)
+    public List<SessionDto> findBetween(LocalDate from, LocalDate to) {
+        List<ArchivedSession> sessions = this.archivedSessionRepository.findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()),
+                PageRequest.of(0, maxResults));
+        return toDtos(sessions);
+    }
+
+    @Transactional(readOnly = true)
+    public SessionDto findById(Long id) {
+        return this.archivedSessionRepository.findById(id)
+                .map(session -> toDtos(List.of(session)).get(0))
+                .orElse(null);
+    }
+
+    private List<SessionDto> toDtos(List<ArchivedSession> sessions) {
+        if (sessions.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Long>> participants = new HashMap<>();
+        for (ArchivedParticipation participation : this.archivedParticipationRepository.findBySessionIdIn(
+                sessions.stream().map(ArchivedSession::getId).toList())) {
+            participants.computeIfAbsent(participation.getSessionId(), id -> new ArrayList<>()).add(participation.getUserId());
+        }
+
+        return sessions.stream()
+                .map(session -> new SessionDto(session.getId(), session.getName(), session.getDate(),
+                        session.getTeacherId(), session.getDescription(), session.getCapacity(),
+                        participants.getOrDefault(session.getId(), new ArrayList<>()),
+                        session.getCreatedAt(), session.getUpdatedAt()))
+                .toList();
+    }
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.attendance.AttendanceSummaries;
+import com.openclassrooms.starterjwt.cache.SerializedResponseCache;
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import com.openclassrooms.starterjwt.invalidation.InvalidationType;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps everything derived from the SESSIONS table in line with a {@link SessionChangedEvent}.
+ * It runs in the publishing transaction: the summaries and the invalidation record are written
+ * with the change, and the caches and the schedule are refreshed once it commits.
+ */
+@Component
+public class SessionChangeListener {
+    private final SerializedResponseCache responseCache;
+
+    private final ScheduleReadModel scheduleReadModel;
+
+    private final InvalidationBus invalidationBus;
+
+    private final AttendanceSummaries attendanceSummaries;
+
+    public SessionChangeListener(SerializedResponseCache responseCache,
+                                 ScheduleReadModel scheduleReadModel,
+                                 InvalidationBus invalidationBus,
+                                 AttendanceSummaries attendanceSummaries) {
+        this.responseCache = responseCache;
+        this.scheduleReadModel = scheduleReadModel;
+        this.invalidationBus = invalidationBus;
+        this.attendanceSummaries = attendanceSummaries;
+    }
+
+    @EventListener
+    public void onSessionChanged(SessionChangedEvent event) {
+        this.responseCache.invalidateOnCommit(SerializedResponseCache.SESSIONS);
+        Long id = event.sessionId();
+        if (id == null) {
+            return;
+        }
+        this.scheduleReadModel.refreshOnCommit(id);
+        this.invalidationBus.publish(InvalidationType.SESSION, id);
+        if (event.session() != null) {
+            this.attendanceSummaries.record(event.session());
+        } else {
+            this.attendanceSummaries.remove(id);
+        }
+    }
+}
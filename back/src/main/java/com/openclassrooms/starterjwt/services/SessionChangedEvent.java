@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+/**
+ * Published by SessionService, inside its transaction, after it saved or deleted a session.
+ * {@code session} is the saved state, or null when the session was deleted.
+ */
+public record SessionChangedEvent(Long sessionId, Session session) {
+
+    public static SessionChangedEvent saved(Session session) {
+        return new SessionChangedEvent(session.getId(), session);
+    }
+
+    public static SessionChangedEvent deleted(Long sessionId) {
+        return new SessionChangedEvent(sessionId, null);
+    }
+}
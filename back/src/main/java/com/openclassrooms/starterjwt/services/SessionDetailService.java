@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDetailDto;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Assembles the session detail view with three independent queries run side by side,
+ * one virtual thread each. The executor is scoped to the call: it is closed, and so
+ * every lookup finished or cancelled, before the method returns.
+ */
+@Service
+public class SessionDetailService {
+    private final SessionRepository sessionRepository;
+
+    public SessionDetailService(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    public SessionDetailDto getDetail(Long id, String callerEmail) {
+        // The security context travels with each task so replica routing still sees the caller
+        try (ExecutorService scope = new DelegatingSecurityContextExecutorService(
+                Executors.newVirtualThreadPerTaskExecutor())) {
+            Future<Optional<SessionDetailDto>> detail = scope.submit(() -> this.sessionRepository.findDetailById(id));
+            Future<Long> participantCount = scope.submit(() -> this.sessionRepository.countParticipants(id));
+            Future<Boolean> participating = scope.submit(() -> this.sessionRepository.isParticipant(id, callerEmail));
+
+            try {
+                SessionDetailDto sessionDetail = detail.get().orElse(null);
+                if (sessionDetail == null) {
+                    scope.shutdownNow();
+                    return null;
+                }
+                sessionDetail.setParticipantCount(participantCount.get());
+                sessionDetail.setParticipating(participating.get());
+                return sessionDetail;
+            } catch (ExecutionException e) {
+                scope.shutdownNow();
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                scope.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
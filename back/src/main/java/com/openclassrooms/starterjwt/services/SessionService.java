@@ -1,15 +1,27 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.audit.ParticipationAuditEvent;
+import com.openclassrooms.starterjwt.cache.MissingIdCache;
+import com.openclassrooms.starterjwt.cache.SingleFlight;
+import com.openclassrooms.starterjwt.datasource.ReadYourWritesTracker;
+import com.openclassrooms.starterjwt.diagnostics.events.ParticipationWriteEvent;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionRow;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,60 +30,181 @@ public class SessionService {
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final WaitlistService waitlistService;
+
+    private final MissingIdCache missingIdCache;
+
+    private final SingleFlight<Long, Session> sessionLookups = new SingleFlight<>();
+
+    private final SingleFlight<Long, SessionDto> sessionDtoLookups = new SingleFlight<>();
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          ReadYourWritesTracker readYourWritesTracker,
+                          ApplicationEventPublisher eventPublisher,
+                          WaitlistService waitlistService,
+                          MissingIdCache missingIdCache) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.eventPublisher = eventPublisher;
+        this.waitlistService = waitlistService;
+        this.missingIdCache = missingIdCache;
     }
 
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        Session saved = this.sessionRepository.save(session);
+        if (saved != null) {
+            this.missingIdCache.invalidate(Session.class, saved.getId());
+            this.eventPublisher.publishEvent(SessionChangedEvent.saved(saved));
+        }
+        return saved;
     }
 
+    @Transactional
     public void delete(Long id) {
+        this.waitlistService.clear(id);
         this.sessionRepository.deleteById(id);
+        this.eventPublisher.publishEvent(SessionChangedEvent.deleted(id));
     }
 
+    @Transactional(readOnly = true)
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    /**
+     * Read-only projection of every session with its participant ids, without managed entities.
+     */
+    @Transactional(readOnly = true)
+    public List<SessionDto> findAllDtos() {
+        return SessionRow.toSessionDtos(this.sessionRepository.findAllRows());
+    }
+
+    /**
+     * Concurrent lookups of the same id share one query, and ids found missing are not
+     * looked up again for a short while. The returned session may be shared between
+     * callers and must not be modified. Inside a transaction the lookup runs as usual.
+     */
     public Session getById(Long id) {
-        return this.sessionRepository.findById(id).orElse(null);
+        return lookup(id, this.sessionLookups, () -> this.sessionRepository.findById(id).orElse(null));
+    }
+
+    /**
+     * Same as {@link #getById(Long)}, but reads the SessionDto columns only.
+     */
+    public SessionDto getDtoById(Long id) {
+        return lookup(id, this.sessionDtoLookups, () -> {
+            List<SessionDto> sessions = SessionRow.toSessionDtos(this.sessionRepository.findRowsById(id));
+            return sessions.isEmpty() ? null : sessions.get(0);
+        });
+    }
+
+    private <T> T lookup(Long id, SingleFlight<Long, T> lookups, Supplier<T> query) {
+        if (id == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        if (this.missingIdCache.isMissing(Session.class, id)) {
+            return null;
+        }
+
+        // The repository runs the lookup in its own read-only transaction
+        T found = lookups.execute(id, query);
+        if (found == null) {
+            this.missingIdCache.markMissing(Session.class, id);
+        }
+        return found;
     }
 
+    @Transactional
     public Session update(Long id, Session session) {
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session saved = this.sessionRepository.save(session);
+        this.missingIdCache.invalidate(Session.class, id);
+        this.eventPublisher.publishEvent(new SessionChangedEvent(id, saved));
+        return saved;
     }
 
+    @Transactional
     public void participate(Long id, Long userId) {
+        ParticipationWriteEvent event = new ParticipationWriteEvent();
+        event.begin();
+        String outcome = "failed";
+        try {
+            join(id, userId);
+            outcome = "ok";
+        } catch (NotFoundException | BadRequestException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            commit(event, "join", id, userId, outcome);
+        }
+    }
+
+    private void join(Long id, Long userId) {
         Session session = this.sessionRepository.findById(id).orElse(null);
         User user = this.userRepository.findById(userId).orElse(null);
         if (session == null || user == null) {
             throw new NotFoundException();
         }
 
+        if (session.getCapacity() != null) {
+            this.waitlistService.lockSession(session);
+        }
+
         // Initialize users list if null
         if (session.getUsers() == null) {
             session.setUsers(new ArrayList<>());
         }
 
         boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
+        if(alreadyParticipate || WaitlistService.isFull(session)) {
             throw new BadRequestException();
         }
 
         session.getUsers().add(user);
 
+        if (session.getCapacity() != null) {
+            this.waitlistService.removeFromWaitlist(id, userId);
+        }
         this.sessionRepository.save(session);
+        this.eventPublisher.publishEvent(SessionChangedEvent.saved(session));
+        this.readYourWritesTracker.markWrite(userId);
+        this.eventPublisher.publishEvent(ParticipationAuditEvent.joined(id, userId));
     }
 
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
+        ParticipationWriteEvent event = new ParticipationWriteEvent();
+        event.begin();
+        String outcome = "failed";
+        try {
+            leave(id, userId);
+            outcome = "ok";
+        } catch (NotFoundException | BadRequestException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            commit(event, "leave", id, userId, outcome);
+        }
+    }
+
+    private void leave(Long id, Long userId) {
         Session session = this.sessionRepository.findById(id).orElse(null);
         if (session == null) {
             throw new NotFoundException();
         }
 
+        // Cancellation and promotion must not interleave with another one on the same session
+        if (session.getCapacity() != null) {
+            this.waitlistService.lockSession(session);
+        }
+
         // Initialize users list if null
         if (session.getUsers() == null) {
             session.setUsers(new ArrayList<>());
@@ -84,6 +217,34 @@ public class SessionService {
 
         session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
 
+        List<User> promoted = new ArrayList<>();
+        while (session.getCapacity() != null && !WaitlistService.isFull(session)) {
+            Optional<User> next = this.waitlistService.promoteHead(session);
+            if (next.isEmpty()) {
+                break;
+            }
+            session.getUsers().add(next.get());
+            promoted.add(next.get());
+        }
+
         this.sessionRepository.save(session);
+        this.eventPublisher.publishEvent(SessionChangedEvent.saved(session));
+        this.readYourWritesTracker.markWrite(userId);
+        this.eventPublisher.publishEvent(ParticipationAuditEvent.left(id, userId));
+        for (User user : promoted) {
+            this.readYourWritesTracker.markWrite(user.getId());
+            this.eventPublisher.publishEvent(ParticipationAuditEvent.joined(id, user.getId()));
+        }
+    }
+
+    private static void commit(ParticipationWriteEvent event, String action, Long id, Long userId, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.sessionId = id != null ? id : 0;
+            event.userId = userId != null ? userId : 0;
+            event.outcome = outcome;
+            event.commit();
+        }
     }
 }
@@ -1,24 +1,71 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.MissingIdCache;
+import com.openclassrooms.starterjwt.cache.SingleFlight;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 public class TeacherService {
     private final TeacherRepository teacherRepository;
 
-    public TeacherService(TeacherRepository teacherRepository) {
+    private final MissingIdCache missingIdCache;
+
+    private final SingleFlight<Long, Teacher> teacherLookups = new SingleFlight<>();
+
+    private final SingleFlight<Long, TeacherDto> teacherDtoLookups = new SingleFlight<>();
+
+    public TeacherService(TeacherRepository teacherRepository, MissingIdCache missingIdCache) {
         this.teacherRepository = teacherRepository;
+        this.missingIdCache = missingIdCache;
     }
 
+    @Transactional(readOnly = true)
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    /**
+     * Read-only projection of every teacher, without managed entities.
+     */
+    @Transactional(readOnly = true)
+    public List<TeacherDto> findAllDtos() {
+        return this.teacherRepository.findAllDtos();
+    }
+
+    /**
+     * Same coalescing and missing-id caching as {@link SessionService#getById(Long)}.
+     */
     public Teacher findById(Long id) {
-        return this.teacherRepository.findById(id).orElse(null);
+        return lookup(id, this.teacherLookups, () -> this.teacherRepository.findById(id).orElse(null));
+    }
+
+    /**
+     * Same as {@link #findById(Long)}, but reads the TeacherDto columns only.
+     */
+    public TeacherDto findDtoById(Long id) {
+        return lookup(id, this.teacherDtoLookups, () -> this.teacherRepository.findDtoById(id).orElse(null));
+    }
+
+    private <T> T lookup(Long id, SingleFlight<Long, T> lookups, Supplier<T> query) {
+        if (id == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        if (this.missingIdCache.isMissing(Teacher.class, id)) {
+            return null;
+        }
+
+        T found = lookups.execute(id, query);
+        if (found == null) {
+            this.missingIdCache.markMissing(Teacher.class, id);
+        }
+        return found;
     }
 }
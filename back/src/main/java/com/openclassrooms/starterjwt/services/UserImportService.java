@@ -0,0 +1,265 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk registration for onboarding a studio. Rows are read one at a time from a CSV or JSON
+ * stream and handled in chunks: one query finds the emails already taken, passwords are
+ * hashed in parallel on a bounded pool, and the new users are inserted in a single JDBC batch.
+ * Rejected rows are reported as soon as they are known; the others are imported, as if each
+ * had been registered on its own.
+ */
+@Service
+public class UserImportService {
+
+    public enum Format { CSV, JSON }
+
+    /**
+     * A row that was not imported. {@code row} counts data rows from 1, the CSV header excluded.
+     */
+    public record RowError(long row, String email, String error) {
+    }
+
+    public record Summary(long rows, long imported, long rejected) {
+    }
+
+    static final String INSERT_SQL = "INSERT INTO USERS (email, first_name, last_name, password, admin, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, false, ?, ?)";
+
+    public static final String EMAIL_TAKEN = "Email is already taken";
+
+    public static final String EMAIL_REPEATED = "Email appears more than once in the import";
+
+    private record Row(long number, SignupRequest request) {
+    }
+
+    private record NewUser(Row row, String passwordHash) {
+    }
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final ThreadPoolExecutor hashPool;
+    private final int chunkSize;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public UserImportService(UserRepository userRepository,
+                             PasswordEncoder passwordEncoder,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${oc.app.users.import.chunkSize:500}") int chunkSize,
+                             @Value("${oc.app.users.import.hashThreads:4}") int hashThreads) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.jsonReader = objectMapper.readerFor(SignupRequest.class);
+        this.csvReader = CsvMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .build()
+                .readerFor(SignupRequest.class)
+                .with(CsvSchema.emptySchema().withHeader());
+
+        // BCrypt is the expensive part: a few threads shared by every import, and a caller
+        // that finds the queue full hashes the row itself instead of piling more work up
+        AtomicInteger threads = new AtomicInteger();
+        this.hashPool = new ThreadPoolExecutor(hashThreads, hashThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize), task -> {
+                    Thread thread = new Thread(task, "user-import-hash-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.importedRows = Counter.builder("yoga.users.import").tag("result", "imported")
+                .description("Rows of bulk user imports")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("yoga.users.import").tag("result", "rejected")
+                .description("Rows of bulk user imports")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdown();
+    }
+
+    /**
+     * Imports the users in {@code in}: a CSV file with an email,firstName,lastName,password
+     * header, or a JSON array of objects with those fields. Stops at the first malformed row,
+     * keeping the rows before it.
+     */
+    public Summary importUsers(InputStream in, Format format, Consumer<RowError> onError) throws IOException {
+        ObjectReader reader = format == Format.CSV ? csvReader : jsonReader;
+        Progress progress = new Progress(onError);
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<SignupRequest> rows = reader.readValues(in)) {
+            while (true) {
+                SignupRequest request;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    request = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    // Nothing after a syntax error can be trusted to line up with the rows
+                    progress.reject(new RowError(++progress.rows, null, "Malformed row: " + e.getOriginalMessage()));
+                    break;
+                }
+                long number = ++progress.rows;
+
+                String error = validate(request);
+                if (error != null) {
+                    progress.reject(new RowError(number, request.getEmail(), error));
+                } else if (!seen.add(request.getEmail())) {
+                    progress.reject(new RowError(number, request.getEmail(), EMAIL_REPEATED));
+                } else {
+                    chunk.add(new Row(number, request));
+                    if (chunk.size() == chunkSize) {
+                        importChunk(chunk, progress);
+                        chunk.clear();
+                    }
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
+        }
+
+        return new Summary(progress.rows, progress.imported, progress.rejected);
+    }
+
+    private String validate(SignupRequest request) {
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void importChunk(List<Row> chunk, Progress progress) {
+        Set<String> taken = new HashSet<>(userRepository.findExistingEmails(
+                chunk.stream().map(row -> row.request().getEmail()).toList()));
+
+        List<CompletableFuture<NewUser>> hashing = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (taken.contains(row.request().getEmail())) {
+                progress.reject(new RowError(row.number(), row.request().getEmail(), EMAIL_TAKEN));
+                continue;
+            }
+            hashing.add(CompletableFuture.supplyAsync(
+                    () -> new NewUser(row, passwordEncoder.encode(row.request().getPassword())), hashPool));
+        }
+        List<NewUser> users = hashing.stream().map(CompletableFuture::join).toList();
+        if (users.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(users));
+            progress.imported(users.size());
+        } catch (DataAccessException e) {
+            // Most likely someone registered one of these emails since the lookup: the batch was
+            // rolled back, so insert the rows one by one to tell which
+            for (NewUser user : users) {
+                try {
+                    insert(List.of(user));
+                    progress.imported(1);
+                } catch (DuplicateKeyException duplicate) {
+                    progress.reject(new RowError(user.row().number(), user.row().request().getEmail(), EMAIL_TAKEN));
+                } catch (DataAccessException failure) {
+                    progress.reject(new RowError(user.row().number(), user.row().request().getEmail(),
+                            "Could not be saved: " + failure.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    private void insert(List<NewUser> users) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), (ps, user) -> {
+            SignupRequest request = user.row().request();
+            ps.setString(1, request.getEmail());
+            ps.setString(2, request.getFirstName());
+            ps.setString(3, request.getLastName());
+            ps.setString(4, user.passwordHash());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    private final class Progress {
+        private final Consumer<RowError> onError;
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        private Progress(Consumer<RowError> onError) {
+            this.onError = onError;
+        }
+
+        private void imported(int count) {
+            imported += count;
+            importedRows.increment(count);
+        }
+
+        private void reject(RowError error) {
+            rejected++;
+            rejectedRows.increment();
+            onError.accept(error);
+        }
+    }
+}
@@ -1,22 +1,70 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.SerializedResponseCache;
+import com.openclassrooms.starterjwt.dto.UserDto;
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import com.openclassrooms.starterjwt.invalidation.InvalidationType;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.time.LocalDateTime;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final SerializedResponseCache responseCache;
+
+    private final ScheduleReadModel scheduleReadModel;
+
+    private final InvalidationBus invalidationBus;
+
+    private final RefreshTokenService refreshTokenService;
+
+    public UserService(UserRepository userRepository,
+                       SerializedResponseCache responseCache,
+                       ScheduleReadModel scheduleReadModel,
+                       InvalidationBus invalidationBus,
+                       RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
+        this.responseCache = responseCache;
+        this.scheduleReadModel = scheduleReadModel;
+        this.invalidationBus = invalidationBus;
+        this.refreshTokenService = refreshTokenService;
     }
 
+    /**
+     * Soft delete: the user can no longer log in and drops out of every roster when the
+     * transaction commits. The row and its participations are removed in batches by the
+     * UserPurger, outside the request.
+     */
+    @Transactional
     public void delete(Long id) {
-        this.userRepository.deleteById(id);
+        Assert.notNull(id, "The given id must not be null");
+        // Session lists carry participant ids
+        this.responseCache.invalidateOnCommit(SerializedResponseCache.SESSIONS);
+        this.scheduleReadModel.refreshParticipantOnCommit(id);
+        this.userRepository.softDelete(id, LocalDateTime.now());
+        this.invalidationBus.publish(InvalidationType.USER, id);
+        // Access tokens carry the user and are not checked against the table
+        this.refreshTokenService.revokeUser(id);
     }
 
+    @Transactional(readOnly = true)
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Read-only projection without the password hash, for the read endpoint.
+     */
+    @Transactional(readOnly = true)
+    public UserDto findDtoById(Long id) {
+        return this.userRepository.findDtoById(id).orElse(null);
+    }
 }
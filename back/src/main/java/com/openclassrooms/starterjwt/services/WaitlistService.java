@@ -0,0 +1,132 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * FIFO waitlist for sessions that have a capacity. Every change to the roster or the
+ * queue of such a session happens under a row lock on the session, so a cancellation
+ * and the promotion it triggers are seen by concurrent requests as one step.
+ */
+@Service
+public class WaitlistService {
+    private final WaitlistRepository waitlistRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           SessionRepository sessionRepository,
+                           UserRepository userRepository) {
+        this.waitlistRepository = waitlistRepository;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    public long join(Long sessionId, Long userId) {
+        Session session = this.sessionRepository.findById(sessionId).orElse(null);
+        User user = this.userRepository.findById(userId).orElse(null);
+        if (session == null || user == null) {
+            throw new NotFoundException();
+        }
+
+        // Sessions without a capacity are never full
+        if (session.getCapacity() == null) {
+            throw new BadRequestException();
+        }
+
+        lockSession(session);
+
+        boolean alreadyParticipate = session.getUsers() != null
+                && session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
+        if (alreadyParticipate || !isFull(session)) {
+            throw new BadRequestException();
+        }
+        if (this.waitlistRepository.findBySessionIdAndUserId(sessionId, userId).isPresent()) {
+            throw new BadRequestException();
+        }
+
+        WaitlistEntry entry = this.waitlistRepository.save(WaitlistEntry.builder()
+                .sessionId(sessionId)
+                .userId(userId)
+                .build());
+        return this.waitlistRepository.countBySessionIdAndIdLessThan(sessionId, entry.getId()) + 1;
+    }
+
+    @Transactional
+    public void leave(Long sessionId, Long userId) {
+        if (this.waitlistRepository.deleteBySessionIdAndUserId(sessionId, userId) == 0) {
+            throw new NotFoundException();
+        }
+    }
+
+    /**
+     * 1-based position of the user in the session's waitlist.
+     */
+    @Transactional(readOnly = true)
+    public long getPosition(Long sessionId, Long userId) {
+        WaitlistEntry entry = this.waitlistRepository.findBySessionIdAndUserId(sessionId, userId)
+                .orElseThrow(NotFoundException::new);
+        return this.waitlistRepository.countBySessionIdAndIdLessThan(sessionId, entry.getId()) + 1;
+    }
+
+    /**
+     * Takes a write lock on the session row and reloads it, so the roster seen afterwards
+     * is the committed one. Must be called inside the caller's transaction, before the
+     * session is modified.
+     */
+    public void lockSession(Session session) {
+        // Lock with a plain row lock first: some databases (H2) answer a locking join from the
+        // snapshot taken before the wait, so the roster is only reloaded once the lock is held
+        this.entityManager.lock(session, LockModeType.PESSIMISTIC_WRITE);
+        this.entityManager.refresh(session, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Removes the head of the session's waitlist and returns its user. Entries whose user
+     * no longer exists are discarded on the way.
+     */
+    public Optional<User> promoteHead(Session session) {
+        Optional<WaitlistEntry> head = this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(session.getId());
+        while (head.isPresent()) {
+            this.waitlistRepository.delete(head.get());
+            Optional<User> user = this.userRepository.findById(head.get().getUserId());
+            if (user.isPresent()) {
+                return user;
+            }
+            head = this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(session.getId());
+        }
+        return Optional.empty();
+    }
+
+    public void removeFromWaitlist(Long sessionId, Long userId) {
+        this.waitlistRepository.deleteBySessionIdAndUserId(sessionId, userId);
+    }
+
+    public void clear(Long sessionId) {
+        this.waitlistRepository.deleteBySessionId(sessionId);
+    }
+
+    public static boolean isFull(Session session) {
+        int participants = session.getUsers() == null ? 0 : session.getUsers().size();
+        return session.getCapacity() != null && participants >= session.getCapacity();
+    }
+}
@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.timing;
+
+import com.openclassrooms.starterjwt.security.AdminAccess;
+
+/**
+ * Per-request time spent in each {@link Phase}, reported by {@link ServerTimingFilter} as a
+ * {@code Server-Timing} header. One instance is kept per thread and reset between requests,
+ * so measuring allocates nothing; only the header value is built, once, at the end.
+ *
+ * <p>Phases nest: a nested call to the same phase is folded into the outer one, and phases
+ * overlap each other (repository time is also service time).
+ */
+public final class ServerTiming {
+
+    public enum Phase {
+        AUTH("auth"),
+        SERVICE("svc"),
+        DB("db"),
+        MAPPING("map"),
+        JSON("json");
+
+        private final String metric;
+
+        Phase(String metric) {
+            this.metric = metric;
+        }
+
+        public String metric() {
+            return metric;
+        }
+    }
+
+    /**
+     * Who gets the {@code Server-Timing} header; the access log always gets the timing.
+     */
+    public enum Audience {
+        NOBODY,
+        ADMINS,
+        EVERYONE
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final ThreadLocal<ServerTiming> PER_THREAD = ThreadLocal.withInitial(ServerTiming::new);
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long[] elapsed = new long[PHASES.length];
+
+    private final long[] started = new long[PHASES.length];
+
+    private final int[] depth = new int[PHASES.length];
+
+    private long requestStarted;
+
+    private Audience audience = Audience.NOBODY;
+
+    private ServerTiming() {
+    }
+
+    /**
+     * The timing of the request running on this thread, or null when it is not measured.
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    static ServerTiming start() {
+        return start(Audience.EVERYONE);
+    }
+
+    static ServerTiming start(Audience audience) {
+        ServerTiming timing = PER_THREAD.get();
+        timing.reset();
+        timing.audience = audience;
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    public void begin(Phase phase) {
+        int index = phase.ordinal();
+        if (depth[index]++ == 0) {
+            started[index] = System.nanoTime();
+        }
+    }
+
+    public void end(Phase phase) {
+        int index = phase.ordinal();
+        if (depth[index] > 0 && --depth[index] == 0) {
+            elapsed[index] += System.nanoTime() - started[index];
+        }
+    }
+
+    /**
+     * Whether the caller gets the header. Asked when the body is written, once the request is authenticated.
+     */
+    public boolean isReported() {
+        return audience == Audience.EVERYONE || (audience == Audience.ADMINS && AdminAccess.isCurrentUserAdmin());
+    }
+
+    long elapsedNanos(Phase phase) {
+        return elapsed[phase.ordinal()];
+    }
+
+    /**
+     * Header value for what has been measured so far, e.g.
+     * {@code auth;dur=1.2, db;dur=3.4, total;dur=6.0}. Phases that never ran are left out.
+     */
+    public String headerValue() {
+        StringBuilder value = new StringBuilder(96);
+        for (Phase phase : PHASES) {
+            if (elapsed[phase.ordinal()] > 0) {
+                append(value, phase.metric(), elapsed[phase.ordinal()]);
+            }
+        }
+        append(value, "total", System.nanoTime() - requestStarted);
+        return value.toString();
+    }
+
+    private static void append(StringBuilder value, String metric, long nanos) {
+        if (!value.isEmpty()) {
+            value.append(", ");
+        }
+        // Milliseconds with one decimal, without going through String.format
+        long tenths = (nanos + 50_000) / 100_000;
+        value.append(metric).append(";dur=").append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    private void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            elapsed[i] = 0;
+            depth[i] = 0;
+        }
+        requestStarted = System.nanoTime();
+    }
+}
@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(prefix = "oc.app.timing", name = "enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    // Static: post-processors are created before any other bean of this configuration
+    @Bean
+    public static ServerTimingInstrumentation serverTimingInstrumentation() {
+        return new ServerTimingInstrumentation();
+    }
+
+    // Replaces Boot's Jackson converter, which backs off when one is already defined
+    @Bean
+    public TimedJsonMessageConverter timedJsonMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJsonMessageConverter(objectMapper);
+    }
+
+    // Outermost filter: the total includes load shedding, the security chain and the response cache
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${oc.app.timing.enabledByDefault:false}") boolean enabledByDefault,
+            @Value("${oc.app.timing.accessLog:false}") boolean accessLog) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(enabledByDefault, accessLog));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,143 @@
+package com.openclassrooms.starterjwt.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Measures API requests with {@link ServerTiming} and adds the {@code Server-Timing} header.
+ * The header has to go out with the status line, so it is written when the response starts
+ * its body (or is committed some other way) and covers everything measured up to then;
+ * {@link TimedJsonMessageConverter} serializes ahead of that point so JSON time is included.
+ *
+ * <p>Phase timings describe the internals of the server, so by default only admins get the
+ * header, and only for requests sent with {@code X-Server-Timing: on}; enabledByDefault
+ * sends it to every caller (a staging setting). {@code X-Server-Timing: off} turns measuring
+ * off for one request. The complete timing can also be left in a request attribute for the
+ * access log, for every request.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    public static final String REQUEST_HEADER = "X-Server-Timing";
+
+    /** Request attribute for the access log, e.g. {@code %{serverTiming}r} in a Tomcat pattern. */
+    public static final String ATTRIBUTE = "serverTiming";
+
+    private final boolean enabledByDefault;
+
+    private final boolean accessLog;
+
+    public ServerTimingFilter(boolean enabledByDefault, boolean accessLog) {
+        this.enabledByDefault = enabledByDefault;
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String requested = request.getHeader(REQUEST_HEADER);
+        if (requested == null) {
+            return !enabledByDefault && !accessLog;
+        }
+        return !isOn(requested) && !accessLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.start(audienceOf(request));
+        TimedResponse timedResponse = new TimedResponse(response, timing);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            timedResponse.writeHeader();
+            if (accessLog) {
+                request.setAttribute(ATTRIBUTE, timing.headerValue());
+            }
+            ServerTiming.stop();
+        }
+    }
+
+    private ServerTiming.Audience audienceOf(HttpServletRequest request) {
+        String requested = request.getHeader(REQUEST_HEADER);
+        if (requested == null) {
+            return enabledByDefault ? ServerTiming.Audience.EVERYONE : ServerTiming.Audience.NOBODY;
+        }
+        if (!isOn(requested)) {
+            return ServerTiming.Audience.NOBODY;
+        }
+        return enabledByDefault ? ServerTiming.Audience.EVERYONE : ServerTiming.Audience.ADMINS;
+    }
+
+    private static boolean isOn(String requested) {
+        return "on".equalsIgnoreCase(requested) || "true".equalsIgnoreCase(requested);
+    }
+
+    /**
+     * Adds the header on the first call that may commit the response.
+     */
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+
+        private boolean headerWritten;
+
+        TimedResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void writeHeader() {
+            if (!headerWritten) {
+                headerWritten = true;
+                if (!isCommitted() && timing.isReported()) {
+                    setHeader(SERVER_TIMING, timing.headerValue());
+                }
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
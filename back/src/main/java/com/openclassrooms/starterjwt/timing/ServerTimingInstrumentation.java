@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.timing;
+
+import com.openclassrooms.starterjwt.mapper.EntityMapper;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Service;
+
+/**
+ * Times repository calls, {@code @Service} methods and {@link EntityMapper} conversions into
+ * the current {@link ServerTiming}. Beans that are already proxies (transactional services)
+ * get the advice added in front of their chain, so service time includes the commit.
+ */
+public class ServerTimingInstrumentation implements BeanPostProcessor {
+
+    static final MethodInterceptor REPOSITORY_CALLS = timed(ServerTiming.Phase.DB);
+
+    static final MethodInterceptor SERVICE_CALLS = timed(ServerTiming.Phase.SERVICE);
+
+    static final MethodInterceptor MAPPINGS = timed(ServerTiming.Phase.MAPPING);
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(REPOSITORY_CALLS)));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof EntityMapper<?, ?>) {
+            return advise(bean, MAPPINGS);
+        }
+        if (AnnotatedElementUtils.hasAnnotation(AopUtils.getTargetClass(bean), Service.class)) {
+            return advise(bean, SERVICE_CALLS);
+        }
+        return bean;
+    }
+
+    private static Object advise(Object bean, MethodInterceptor interceptor) {
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static MethodInterceptor timed(ServerTiming.Phase phase) {
+        return invocation -> {
+            ServerTiming timing = ServerTiming.current();
+            if (timing == null) {
+                return invocation.proceed();
+            }
+            timing.begin(phase);
+            try {
+                return invocation.proceed();
+            } finally {
+                timing.end(phase);
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that records serialization as the {@code json} phase. When the caller
+ * gets the Server-Timing header the body is written to a buffer first, so the time is known
+ * before the response (and its header) is committed. Every other request streams straight
+ * to the client as before, measured for the access log when it is on.
+ */
+public class TimedJsonMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private static final int INITIAL_BUFFER = 4 * 1024;
+
+    public TimedJsonMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        if (!timing.isReported()) {
+            timing.begin(ServerTiming.Phase.JSON);
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                timing.end(ServerTiming.Phase.JSON);
+            }
+            return;
+        }
+
+        // Sized for this response alone: nothing is held on to between requests
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER);
+        timing.begin(ServerTiming.Phase.JSON);
+        try {
+            super.writeInternal(object, type, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return buffer;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return outputMessage.getHeaders();
+                }
+            });
+        } finally {
+            timing.end(ServerTiming.Phase.JSON);
+        }
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
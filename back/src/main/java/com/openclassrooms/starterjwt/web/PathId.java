@@ -0,0 +1,23 @@
+package com.openclassrooms.starterjwt.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a numeric path variable to a {@code Long} through {@link PathIdArgumentResolver}.
+ * Unlike {@code @PathVariable Long}, a non-numeric value costs no exception stack trace:
+ * the request is answered with the shared 400 body.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PathId {
+
+    /**
+     * Name of the URI template variable.
+     */
+    String value();
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.web;
+
+import com.openclassrooms.starterjwt.exception.InvalidIdException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+public class PathIdArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(PathId.class)
+                && (parameter.getParameterType() == Long.class || parameter.getParameterType() == long.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) webRequest.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        String value = variables != null ? variables.get(parameter.getParameterAnnotation(PathId.class).value()) : null;
+        Long id = value != null ? parseId(value) : null;
+        if (id == null) {
+            throw InvalidIdException.INSTANCE;
+        }
+        return id;
+    }
+
+    /**
+     * Same values as {@link Long#valueOf(String)} accepts, but null instead of an exception.
+     */
+    static Long parseId(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return null;
+        }
+        int index = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            index = 1;
+            if (length == 1) {
+                return null;
+            }
+        }
+        // Accumulated negatively, like Long.parseLong, so Long.MIN_VALUE fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; index < length; index++) {
+            int digit = value.charAt(index) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+}
@@ -0,0 +1,229 @@
+package com.openclassrooms.starterjwt.archive;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.ArchivedParticipationRepository;
+import com.openclassrooms.starterjwt.repository.ArchivedSessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for SessionArchiver and the archive read path
+ * Archives in batches of two against H2, through the same JDBC statements as production
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archivedb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=archive",
+        "oc.app.audit.enabled=false",
+        "oc.app.archive.horizonDays=30",
+        "oc.app.archive.batchSize=2"
+})
+@ActiveProfiles("test")
+class SessionArchiverIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SessionArchiver sessionArchiver;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private ArchivedSessionRepository archivedSessionRepository;
+
+    @Autowired
+    private ArchivedParticipationRepository archivedParticipationRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private Teacher teacher;
+    private User alice;
+    private User bruno;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("Past").lastName("Teacher").createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build());
+        alice = userRepository.save(User.builder()
+                .email("alice" + System.nanoTime() + "@yoga.com").firstName("Alice").lastName("Archive")
+                .password("password123").admin(false).build());
+        bruno = userRepository.save(User.builder()
+                .email("bruno" + System.nanoTime() + "@yoga.com").firstName("Bruno").lastName("Archive")
+                .password("password123").admin(false).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM JOB_LOCKS");
+        jdbcTemplate.update("DELETE FROM PARTICIPATE_ARCHIVE");
+        jdbcTemplate.update("DELETE FROM SESSIONS_ARCHIVE");
+        waitlistRepository.deleteAll();
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private Session session(String name, int daysAgo, User... participants) {
+        return sessionRepository.save(Session.builder()
+                .name(name).description("Archival").teacher(teacher)
+                .date(Date.from(LocalDate.now().minusDays(daysAgo).atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant()))
+                .users(new ArrayList<>(List.of(participants)))
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build());
+    }
+
+    // ==================== ARCHIVAL TESTS ====================
+
+    @Test
+    void archive_ShouldMoveOnlySessionsPastTheHorizon_WithTheirParticipations() {
+        // Arrange
+        Session oldest = session("Oldest", 400, alice, bruno);
+        Session old = session("Old", 90, alice);
+        Session older = session("Older", 120);
+        Session recent = session("Recent", 5, bruno);
+        waitlistRepository.save(WaitlistEntry.builder().sessionId(old.getId()).userId(bruno.getId()).build());
+
+        // Act: three sessions in batches of two
+        int archived = sessionArchiver.archive();
+
+        // Assert
+        assertEquals(3, archived);
+        assertEquals(List.of(recent.getId()), sessionRepository.findAll().stream().map(Session::getId).toList());
+        assertEquals(3, archivedSessionRepository.count());
+        assertEquals("Oldest", archivedSessionRepository.findById(oldest.getId()).orElseThrow().getName());
+        assertEquals(teacher.getId(), archivedSessionRepository.findById(older.getId()).orElseThrow().getTeacherId());
+        assertEquals(3, archivedParticipationRepository.findBySessionIdIn(List.of(oldest.getId(), old.getId())).size());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class));
+        assertEquals(0, waitlistRepository.count());
+    }
+
+    @Test
+    void archive_ShouldDoNothing_WhenNothingIsOldEnough() {
+        // Arrange
+        session("Recent", 1, alice);
+
+        // Act & Assert
+        assertEquals(0, sessionArchiver.archive());
+        assertEquals(1, sessionRepository.count());
+        assertEquals(0, archivedSessionRepository.count());
+    }
+
+    @Test
+    void archive_ShouldEvictCachedSessions() {
+        // Arrange: the session sits in the second-level cache
+        Session old = session("Cached", 60, alice);
+        assertNotNull(sessionService.getById(old.getId()));
+
+        // Act
+        sessionArchiver.archive();
+
+        // Assert
+        assertNull(sessionService.getById(old.getId()));
+    }
+
+    // ==================== LOCK TESTS ====================
+
+    @Test
+    void archive_ShouldSkip_WhileAnotherNodeHoldsTheLease() {
+        // Arrange
+        session("Old", 90, alice);
+        jdbcTemplate.update("INSERT INTO JOB_LOCKS (name, locked_until, locked_by) VALUES (?, ?, ?)",
+                SessionArchiver.LOCK, Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)), "other-node");
+
+        // Act & Assert
+        assertEquals(0, sessionArchiver.archive());
+        assertEquals(1, sessionRepository.count());
+    }
+
+    @Test
+    void archive_ShouldRun_OnceTheOtherLeaseRanOut() {
+        // Arrange
+        session("Old", 90, alice);
+        jdbcTemplate.update("INSERT INTO JOB_LOCKS (name, locked_until, locked_by) VALUES (?, ?, ?)",
+                SessionArchiver.LOCK, Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), "crashed-node");
+
+        // Act & Assert
+        assertEquals(1, sessionArchiver.archive());
+        assertEquals(0, sessionRepository.count());
+    }
+
+    // ==================== HISTORICAL READ TESTS ====================
+
+    @Test
+    void archiveEndpoints_ShouldServeArchivedSessions() throws Exception {
+        // Arrange
+        Session old = session("Sun salutation", 90, alice, bruno);
+        session("Moon salutation", 200);
+        sessionArchiver.archive();
+        LocalDate day = LocalDate.now().minusDays(90);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/session/archive")
+                        .param("from", day.minusDays(1).toString())
+                        .param("to", day.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Sun salutation"))
+                .andExpect(jsonPath("$[0].users", hasSize(2)));
+        mockMvc.perform(get("/api/session/archive/{id}", old.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.teacher_id").value(teacher.getId()));
+        mockMvc.perform(get("/api/session/{id}", old.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void archiveEndpoints_ShouldRejectBadRanges_AndUnknownIds() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/session/archive").param("from", "2025-02-01").param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/session/archive").param("from", "yesterday").param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/session/archive/{id}", 987654))
+                .andExpect(status().isNotFound());
+    }
+}
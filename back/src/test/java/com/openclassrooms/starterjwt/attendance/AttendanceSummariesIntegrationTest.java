@@ -0,0 +1,289 @@
+package com.openclassrooms.starterjwt.attendance;
+
+import com.openclassrooms.starterjwt.archive.SessionArchiver;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.AttendanceReportService;
+import com.openclassrooms.starterjwt.services.AttendanceReportService.MonthAttendance;
+import com.openclassrooms.starterjwt.services.AttendanceReportService.TeacherAttendance;
+import com.openclassrooms.starterjwt.services.AttendanceReportService.WeekdayAttendance;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for AttendanceSummaries and the attendance reports
+ * Sessions change through SessionService and the archiver, as in production; the reports
+ * must match a rebuild from the tables after every change.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:attendancedb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=attendance",
+        "oc.app.audit.enabled=false",
+        "oc.app.attendance.rebuildBatchSize=2"
+})
+@ActiveProfiles("test")
+class AttendanceSummariesIntegrationTest {
+
+    private static final YearMonth FROM = YearMonth.of(1970, 1);
+    private static final YearMonth TO = YearMonth.of(9999, 12);
+
+    // Mondays and a Wednesday, long before any archival horizon
+    private static final LocalDate MARCH_MONDAY = LocalDate.of(2024, 3, 4);
+    private static final LocalDate MARCH_WEDNESDAY = LocalDate.of(2024, 3, 6);
+    private static final LocalDate APRIL_MONDAY = LocalDate.of(2024, 4, 1);
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private AttendanceSummaries attendanceSummaries;
+
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionArchiver sessionArchiver;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private Teacher alice;
+    private Teacher bruno;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        alice = teacherRepository.save(Teacher.builder().firstName("Alice").lastName("Asana").build());
+        bruno = teacherRepository.save(Teacher.builder().firstName("Bruno").lastName("Breath").build());
+        for (int i = 0; i < 3; i++) {
+            users.add(userRepository.save(User.builder()
+                    .email("attendee" + i + "-" + System.nanoTime() + "@yoga.com").firstName("Attendee").lastName("N" + i)
+                    .password("password123").admin(false).build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestSecurityContextHolder.clearContext();
+        jdbcTemplate.update("DELETE FROM JOB_LOCKS");
+        jdbcTemplate.update("DELETE FROM PARTICIPATE_ARCHIVE");
+        jdbcTemplate.update("DELETE FROM SESSIONS_ARCHIVE");
+        jdbcTemplate.update("DELETE FROM MONTHLY_ATTENDANCE");
+        jdbcTemplate.update("DELETE FROM SESSION_ATTENDANCE");
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        userRepository.deleteAll();
+        users.clear();
+    }
+
+    private Session create(LocalDate day, Teacher teacher, User... participants) {
+        return sessionService.create(Session.builder()
+                .name("Attendance " + day).description("Attendance").teacher(teacher)
+                .date(Date.from(day.atTime(18, 30).atZone(ZoneId.systemDefault()).toInstant()))
+                .users(new ArrayList<>(List.of(participants))).build());
+    }
+
+    private void loginAs(boolean admin) {
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L).username("owner@yoga.com").firstName("Studio").lastName("Owner").admin(admin).password("secret").build();
+        TestSecurityContextHolder.setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    private void assertMatchesRebuild() {
+        List<TeacherAttendance> teachers = attendanceReportService.byTeacher(FROM, TO);
+        List<MonthAttendance> months = attendanceReportService.byMonth(FROM, TO);
+        List<WeekdayAttendance> weekdays = attendanceReportService.byWeekday(FROM, TO);
+
+        attendanceSummaries.rebuild();
+
+        assertEquals(teachers, attendanceReportService.byTeacher(FROM, TO));
+        assertEquals(months, attendanceReportService.byMonth(FROM, TO));
+        assertEquals(weekdays, attendanceReportService.byWeekday(FROM, TO));
+    }
+
+    // ==================== INCREMENTAL MAINTENANCE TESTS ====================
+
+    @Test
+    void create_AndParticipate_ShouldAddToTheSummaries() {
+        // Arrange
+        Session march = create(MARCH_MONDAY, alice, users.get(0), users.get(1));
+        create(MARCH_WEDNESDAY, bruno, users.get(2));
+        create(APRIL_MONDAY, alice);
+
+        // Act
+        sessionService.participate(march.getId(), users.get(2).getId());
+
+        // Assert
+        assertEquals(List.of(
+                new TeacherAttendance(alice.getId(), "Alice", "Asana", 2, 3, 1.5),
+                new TeacherAttendance(bruno.getId(), "Bruno", "Breath", 1, 1, 1.0)),
+                attendanceReportService.byTeacher(FROM, TO));
+        assertEquals(List.of(
+                new MonthAttendance(YearMonth.of(2024, 3), 2, 4, 2.0),
+                new MonthAttendance(YearMonth.of(2024, 4), 1, 0, 0.0)),
+                attendanceReportService.byMonth(FROM, TO));
+        assertEquals(List.of(
+                new WeekdayAttendance(DayOfWeek.MONDAY, 2, 3, 1.5),
+                new WeekdayAttendance(DayOfWeek.WEDNESDAY, 1, 1, 1.0)),
+                attendanceReportService.byWeekday(FROM, TO));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void update_ShouldMoveTheContribution() {
+        // Arrange
+        Session session = create(MARCH_MONDAY, alice, users.get(0), users.get(1));
+
+        // Act: another teacher, another month, one participant fewer
+        sessionService.update(session.getId(), Session.builder()
+                .name(session.getName()).description(session.getDescription()).teacher(bruno)
+                .date(Date.from(APRIL_MONDAY.atTime(9, 0).atZone(ZoneId.systemDefault()).toInstant()))
+                .users(new ArrayList<>(List.of(users.get(0)))).build());
+
+        // Assert
+        assertEquals(List.of(new TeacherAttendance(bruno.getId(), "Bruno", "Breath", 1, 1, 1.0)),
+                attendanceReportService.byTeacher(FROM, TO));
+        assertEquals(List.of(new MonthAttendance(YearMonth.of(2024, 4), 1, 1, 1.0)),
+                attendanceReportService.byMonth(FROM, TO));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void leaveAndDelete_ShouldTakeTheContributionBack() {
+        // Arrange
+        Session kept = create(MARCH_MONDAY, alice, users.get(0), users.get(1));
+        Session deleted = create(MARCH_WEDNESDAY, bruno, users.get(2));
+
+        // Act
+        sessionService.noLongerParticipate(kept.getId(), users.get(1).getId());
+        sessionService.delete(deleted.getId());
+
+        // Assert
+        assertEquals(List.of(new WeekdayAttendance(DayOfWeek.MONDAY, 1, 1, 1.0)),
+                attendanceReportService.byWeekday(FROM, TO));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void archive_ShouldKeepTheHistory() {
+        // Arrange
+        create(MARCH_MONDAY, alice, users.get(0), users.get(1));
+        List<MonthAttendance> before = attendanceReportService.byMonth(FROM, TO);
+
+        // Act
+        assertEquals(1, sessionArchiver.archive());
+
+        // Assert
+        assertEquals(before, attendanceReportService.byMonth(FROM, TO));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void rebuildIfEmpty_ShouldFillTheSummaries_FromSessionsWrittenAroundTheService() {
+        // Arrange
+        create(MARCH_MONDAY, alice, users.get(0), users.get(1));
+        create(MARCH_WEDNESDAY, bruno);
+        create(APRIL_MONDAY, bruno, users.get(2));
+        jdbcTemplate.update("DELETE FROM MONTHLY_ATTENDANCE");
+        jdbcTemplate.update("DELETE FROM SESSION_ATTENDANCE");
+
+        // Act
+        attendanceSummaries.rebuildIfEmpty();
+
+        // Assert
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SESSION_ATTENDANCE", Integer.class));
+        assertEquals(List.of(
+                new TeacherAttendance(alice.getId(), "Alice", "Asana", 1, 2, 2.0),
+                new TeacherAttendance(bruno.getId(), "Bruno", "Breath", 2, 1, 0.5)),
+                attendanceReportService.byTeacher(FROM, TO));
+    }
+
+    // ==================== REPORT ENDPOINT TESTS ====================
+
+    @Test
+    void reports_ShouldServeAdmins_WithinTheMonthRange() throws Exception {
+        // Arrange
+        create(MARCH_MONDAY, alice, users.get(0), users.get(1));
+        create(APRIL_MONDAY, bruno, users.get(2));
+        loginAs(true);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/admin/reports/attendance/months").param("from", "2024-04").param("to", "2024-12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].month").value("2024-04"))
+                .andExpect(jsonPath("$[0].participations").value(1));
+        mockMvc.perform(get("/api/admin/reports/attendance/teachers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Asana"))
+                .andExpect(jsonPath("$[0].averageParticipants").value(2.0));
+        mockMvc.perform(get("/api/admin/reports/attendance/weekdays").param("to", "2024-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].weekday").value("MONDAY"))
+                .andExpect(jsonPath("$[0].sessions").value(1));
+    }
+
+    @Test
+    void reports_ShouldRejectBadRanges_AndNonAdmins() throws Exception {
+        // Arrange
+        loginAs(true);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/admin/reports/attendance/months").param("from", "2024-05").param("to", "2024-04"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/reports/attendance/months").param("from", "May"))
+                .andExpect(status().isBadRequest());
+        loginAs(false);
+        mockMvc.perform(get("/api/admin/reports/attendance/teachers"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403))
+                .andExpect(jsonPath("$.error").value("Forbidden"));
+        TestSecurityContextHolder.clearContext();
+        mockMvc.perform(get("/api/admin/reports/attendance/teachers"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,121 @@
+package com.openclassrooms.starterjwt.audit;
+
+import com.openclassrooms.starterjwt.models.ParticipationEvent;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationEventRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the participation audit log
+ * Committed participation changes must end up in PARTICIPATION_EVENTS, rolled back ones must not
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ParticipationAuditIntegrationTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ParticipationEventRepository participationEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Session testSession;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        cleanDatabase();
+
+        Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Audit").lastName("Teacher").build());
+        testUser = userRepository.save(User.builder()
+                .email("audit@yoga.com").firstName("Audit").lastName("User").password("password").admin(false).build());
+        testSession = sessionRepository.save(Session.builder()
+                .name("Audited session")
+                .description("Every booking is recorded")
+                .date(new Date())
+                .teacher(teacher)
+                .users(new ArrayList<>())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanDatabase();
+    }
+
+    @Test
+    void participationChanges_ShouldBeWrittenInOrder() throws InterruptedException {
+        sessionService.participate(testSession.getId(), testUser.getId());
+        sessionService.noLongerParticipate(testSession.getId(), testUser.getId());
+
+        List<ParticipationEvent> events = awaitEvents(2);
+
+        assertEquals(List.of(ParticipationEvent.Action.JOINED, ParticipationEvent.Action.LEFT),
+                events.stream().map(ParticipationEvent::getAction).collect(Collectors.toList()));
+        assertTrue(events.stream().allMatch(event -> event.getUserId().equals(testUser.getId())));
+        assertTrue(events.stream().allMatch(event -> event.getOccurredAt() != null));
+    }
+
+    @Test
+    void rolledBackParticipation_ShouldNotBeAudited() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            sessionService.participate(testSession.getId(), testUser.getId());
+            status.setRollbackOnly();
+        });
+        sessionService.participate(testSession.getId(), testUser.getId());
+
+        List<ParticipationEvent> events = awaitEvents(1);
+        Thread.sleep(200);
+
+        assertEquals(1, events.size());
+        assertEquals(1, participationEventRepository.findBySessionIdOrderByIdAsc(testSession.getId()).size());
+    }
+
+    private List<ParticipationEvent> awaitEvents(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<ParticipationEvent> events = participationEventRepository.findBySessionIdOrderByIdAsc(testSession.getId());
+        while (events.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            events = participationEventRepository.findBySessionIdOrderByIdAsc(testSession.getId());
+        }
+        return events;
+    }
+
+    private void cleanDatabase() {
+        participationEventRepository.deleteAll();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+}
@@ -0,0 +1,185 @@
+package com.openclassrooms.starterjwt.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ParticipationAuditLog
+ * Tests buffering, batching, overflow and shutdown draining with a mocked JdbcTemplate
+ */
+@ExtendWith(MockitoExtension.class)
+class ParticipationAuditLogTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private MeterRegistry meterRegistry;
+    private ParticipationAuditLog auditLog;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (auditLog != null && auditLog.isRunning()) {
+            auditLog.stop();
+        }
+    }
+
+    @Test
+    void offer_ShouldDropAndCountEvents_WhenQueueIsFull() {
+        auditLog = new ParticipationAuditLog(jdbcTemplate, meterRegistry, 2, 10, 50);
+
+        assertTrue(auditLog.offer(ParticipationAuditEvent.joined(1L, 1L)));
+        assertTrue(auditLog.offer(ParticipationAuditEvent.joined(1L, 2L)));
+        assertFalse(auditLog.offer(ParticipationAuditEvent.joined(1L, 3L)));
+
+        assertEquals(2, auditLog.getQueueDepth());
+        assertEquals(2.0, meterRegistry.get("yoga.audit.participation.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("yoga.audit.participation.dropped").counter().count());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stop_ShouldDrainQueuedEventsInBatches() {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(eq(ParticipationAuditLog.INSERT_SQL), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    batchSizes.add(((Collection<?>) invocation.getArgument(1)).size());
+                    return new int[0][];
+                });
+        auditLog = new ParticipationAuditLog(jdbcTemplate, meterRegistry, 100, 4, 50);
+        for (long userId = 1; userId <= 10; userId++) {
+            auditLog.offer(ParticipationAuditEvent.joined(1L, userId));
+        }
+
+        auditLog.start();
+        auditLog.stop();
+
+        assertEquals(0, auditLog.getQueueDepth());
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+        assertEquals(10.0, meterRegistry.get("yoga.audit.participation.written").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writer_ShouldCountFailedEvents_WhenBatchCannotBeWritten() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        auditLog = new ParticipationAuditLog(jdbcTemplate, meterRegistry, 100, 10, 50);
+        auditLog.offer(ParticipationAuditEvent.left(1L, 1L));
+        auditLog.offer(ParticipationAuditEvent.left(1L, 2L));
+
+        auditLog.start();
+        auditLog.stop();
+
+        assertEquals(2.0, meterRegistry.get("yoga.audit.participation.failed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writer_ShouldBindEventColumns() throws Exception {
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<ParticipationAuditEvent>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), setter.capture())).thenReturn(new int[0][]);
+        auditLog = new ParticipationAuditLog(jdbcTemplate, meterRegistry, 100, 10, 50);
+        ParticipationAuditEvent event = ParticipationAuditEvent.joined(3L, 7L);
+        auditLog.offer(event);
+
+        auditLog.start();
+        auditLog.stop();
+
+        java.sql.PreparedStatement ps = mock(java.sql.PreparedStatement.class);
+        setter.getValue().setValues(ps, event);
+        verify(ps).setLong(1, 3L);
+        verify(ps).setLong(2, 7L);
+        verify(ps).setString(3, "JOINED");
+        verify(ps).setTimestamp(eq(4), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stop_ShouldWriteOrCountEveryEventOfferedWhileStopping() throws Exception {
+        AtomicInteger written = new AtomicInteger();
+        when(jdbcTemplate.batchUpdate(eq(ParticipationAuditLog.INSERT_SQL), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    written.addAndGet(((Collection<?>) invocation.getArgument(1)).size());
+                    return new int[0][];
+                });
+        auditLog = new ParticipationAuditLog(jdbcTemplate, meterRegistry, 100_000, 50, 10);
+        auditLog.start();
+        CountDownLatch offering = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        Thread requests = new Thread(() -> {
+            for (long userId = 1; userId <= 20_000; userId++) {
+                if (auditLog.offer(ParticipationAuditEvent.joined(1L, userId))) {
+                    accepted.incrementAndGet();
+                }
+                if (userId == 100) {
+                    offering.countDown();
+                }
+            }
+        });
+        requests.start();
+
+        offering.await();
+        auditLog.stop();
+        requests.join();
+
+        assertEquals(accepted.get(), written.get());
+        assertEquals(0, auditLog.getQueueDepth());
+        assertEquals(20_000.0, accepted.get() + meterRegistry.get("yoga.audit.participation.late").counter().count());
+        assertFalse(auditLog.offer(ParticipationAuditEvent.left(1L, 1L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stop_ShouldFlushTheQueueItself_WhenTheWriterNeverRan() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[0][]);
+        auditLog = new ParticipationAuditLog(jdbcTemplate, meterRegistry, 100, 4, 50);
+        for (long userId = 1; userId <= 6; userId++) {
+            auditLog.offer(ParticipationAuditEvent.joined(1L, userId));
+        }
+
+        auditLog.stop();
+
+        assertEquals(0, auditLog.getQueueDepth());
+        assertEquals(6.0, meterRegistry.get("yoga.audit.participation.written").counter().count());
+    }
+
+    @Test
+    void getPhase_ShouldStopAfterTheWebServerDrainedRequests() {
+        auditLog = new ParticipationAuditLog(jdbcTemplate, meterRegistry, 10, 10, 50);
+
+        // Higher phases stop first: graceful shutdown, then the web server, then the log
+        assertTrue(auditLog.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+}
@@ -0,0 +1,120 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.jwt.SigningKeyring;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token verification as AuthTokenFilter does it on every request. {@code stringSecret}
+ * is the path before key rotation: a parser built per call from the base64 string secret.
+ * {@code keyring} is SigningKeyring's shared parser picking the key by kid, and
+ * {@code tryEachKey} the naive way to accept several keys, which gets slower with every
+ * active key. Signing is measured the same way. Run through JwtVerificationBenchmarkTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    static final String SECRET =
+            "openclassroomsSecretKeyThatIsLongEnoughForHS512AlgorithmWithMinimum512BitsOfSecurityForJSONWebTokens";
+
+    // One hour keys with tokens living four hours: five keys active, the current one last to try
+    private static final long ROTATION_MS = 3_600_000;
+    private static final long EXPIRATION_MS = 4 * ROTATION_MS;
+
+    private SigningKeyring keyring;
+    private List<SecretKey> activeKeys;
+    private String legacyToken;
+    private String keyedToken;
+
+    @Setup
+    public void setUp() {
+        keyring = new SigningKeyring(SECRET, ROTATION_MS, EXPIRATION_MS, true, new SimpleMeterRegistry());
+        Date expiration = new Date(System.currentTimeMillis() + EXPIRATION_MS);
+        legacyToken = Jwts.builder()
+                .setSubject("bench@yoga.com")
+                .setExpiration(expiration)
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+        SigningKeyring.SigningKey signingKey = keyring.signingKey();
+        keyedToken = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setSubject("bench@yoga.com")
+                .setExpiration(expiration)
+                .signWith(signingKey.key(), SignatureAlgorithm.HS512)
+                .compact();
+
+        activeKeys = new ArrayList<>();
+        byte[] master = Decoders.BASE64.decode(SECRET);
+        for (int i = 0; i < 4; i++) {
+            byte[] other = master.clone();
+            other[0] ^= (byte) (i + 1);
+            activeKeys.add(new SecretKeySpec(other, "HmacSHA512"));
+        }
+        activeKeys.add(signingKey.key());
+    }
+
+    @Benchmark
+    public Object verifyWithStringSecret() {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(legacyToken).getBody();
+    }
+
+    @Benchmark
+    public Object verifyWithKeyring() {
+        return keyring.parser().parseClaimsJws(keyedToken).getBody();
+    }
+
+    @Benchmark
+    public Object verifyTryingEachKey() {
+        for (SecretKey key : activeKeys) {
+            try {
+                return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(keyedToken).getBody();
+            } catch (io.jsonwebtoken.security.SignatureException e) {
+                // next key
+            }
+        }
+        throw new IllegalStateException("No key verified the token");
+    }
+
+    @Benchmark
+    public String signWithStringSecret() {
+        return Jwts.builder()
+                .setSubject("bench@yoga.com")
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String signWithKeyring() {
+        SigningKeyring.SigningKey signingKey = keyring.signingKey();
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setSubject("bench@yoga.com")
+                .signWith(signingKey.key(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
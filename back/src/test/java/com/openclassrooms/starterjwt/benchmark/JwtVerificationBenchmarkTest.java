@@ -0,0 +1,41 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs JwtVerificationBenchmark under JMH. Results go to target/benchmarks/jwt-verification.txt.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class JwtVerificationBenchmarkTest {
+
+    @Test
+    void jwtVerification() throws Exception {
+        // Arrange
+        Path directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getName())
+                .output(directory.resolve("jwt-verification.txt").toString())
+                .build();
+
+        // Act
+        Collection<RunResult> results = new Runner(options).run();
+
+        // Assert
+        assertEquals(5, results.size());
+        results.forEach(result -> System.out.printf("%s: %.2f us/op%n",
+                result.getParams().getBenchmark(), result.getPrimaryResult().getScore()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.seed.SyntheticData;
+import com.openclassrooms.starterjwt.seed.SyntheticDataGenerator;
+import com.openclassrooms.starterjwt.seed.SyntheticDataSpec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Session reads against production-like volumes from SyntheticDataGenerator: USERS users,
+ * SESSIONS sessions and about PARTICIPATIONS power-law distributed participations, with the
+ * response cache and schedule snapshot off so every request reaches the database.
+ * Results go to target/benchmarks/session-reads-at-scale.txt.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scalebenchdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=scalebench",
+        "oc.app.audit.enabled=false",
+        "oc.app.loadshedding.enabled=false",
+        "oc.app.cache.responses.enabled=false"
+})
+@ActiveProfiles("test")
+class SessionReadsAtScaleBenchmarkTest {
+
+    static final int USERS = 20_000;
+    static final int TEACHERS = 50;
+    static final int SESSIONS = 2_000;
+    static final long PARTICIPATIONS = 100_000;
+    static final int WARMUP_REQUESTS = 20;
+    static final int REQUESTS = 100;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Test
+    void sessionReadsAtScale() throws Exception {
+        // Arrange
+        SyntheticDataSpec spec = new SyntheticDataSpec(USERS, TEACHERS, SESSIONS, PARTICIPATIONS, 1.1, 42,
+                LocalDate.now(), 90);
+        long start = System.nanoTime();
+        SyntheticData.Written written = generator.generate(spec, "password");
+        long generationNanos = System.nanoTime() - start;
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        long sessionId = written.sessionIds().get(written.sessionIds().size() / 2);
+
+        // Act
+        long[] list = measure(mockMvc, get("/api/session"));
+        long[] detail = measure(mockMvc, get("/api/session/{id}/detail", sessionId));
+
+        // Assert
+        StringBuilder result = new StringBuilder(String.format(
+                "users=%d teachers=%d sessions=%d participations=%d generated in %.0fms%n",
+                USERS, TEACHERS, SESSIONS, written.participations(), generationNanos / 1e6));
+        result.append(line("GET /api/session", list)).append(line("GET /api/session/{id}/detail", detail));
+        Path directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("session-reads-at-scale.txt"), result);
+        System.out.print(result);
+        assertEquals(REQUESTS, list.length);
+    }
+
+    private static long[] measure(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            assertEquals(200, mockMvc.perform(request).andReturn().getResponse().getStatus());
+        }
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long sent = System.nanoTime();
+            mockMvc.perform(request);
+            latencies[i] = System.nanoTime() - sent;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static String line(String endpoint, long[] sorted) {
+        return String.format("%s: p50=%.2fms p95=%.2fms max=%.2fms%n", endpoint,
+                millis(sorted, 0.50), millis(sorted, 0.95), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,153 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Same load against the real HTTP stack for each thread mode: CLIENTS concurrent clients
+ * send REQUESTS authenticated GET /api/session/{id}/detail calls after a warm-up. Tomcat
+ * is capped at TOMCAT_THREADS platform threads in both runs, which only binds the
+ * platform mode. Results go to target/benchmarks/thread-mode-<mode>.txt.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+abstract class ThreadModeBenchmark {
+
+    static final int TOMCAT_THREADS = 32;
+    static final int CLIENTS = 200;
+    static final int WARMUP_REQUESTS = 500;
+    static final int REQUESTS = 5_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    abstract String mode();
+
+    @Test
+    void sessionDetailUnderLoad() throws Exception {
+        // Arrange
+        User user = userRepository.save(User.builder()
+                .email("bench@yoga.com").firstName("Bench").lastName("Mark")
+                .password(passwordEncoder.encode("password")).admin(false).build());
+        Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Bench").lastName("Teacher").build());
+        Session session = sessionRepository.save(Session.builder()
+                .name("Benchmark session").description("Under load").date(new Date())
+                .teacher(teacher).users(new ArrayList<>(List.of(user))).build());
+
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/session/" + session.getId() + "/detail"))
+                .header("Authorization", "Bearer " + login(client, user.getEmail(), "password"))
+                .GET()
+                .build();
+
+        // Act
+        run(client, request, WARMUP_REQUESTS);
+        long start = System.nanoTime();
+        long[] latencies = run(client, request, REQUESTS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        // Assert
+        report(latencies, elapsedNanos);
+        assertEquals(REQUESTS, latencies.length);
+    }
+
+    private long[] run(HttpClient client, HttpRequest request, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                running.add(clients.submit(() -> {
+                    for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[n] = System.nanoTime() - sent;
+                        assertEquals(200, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> clientRun : running) {
+                clientRun.get();
+            }
+        }
+        return latencies;
+    }
+
+    private String login(HttpClient client, String email, String password) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("email", email, "password", password));
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        JsonNode json = objectMapper.readTree(response.body());
+        return json.get("token").asText();
+    }
+
+    private void report(long[] latencies, long elapsedNanos) throws IOException {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        String result = String.format(
+                "mode=%s clients=%d requests=%d tomcatThreads=%d%nthroughput=%.0f req/s%np50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms%n",
+                mode(), CLIENTS, REQUESTS, TOMCAT_THREADS,
+                REQUESTS / (elapsedNanos / 1e9),
+                millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+
+        Path directory = Path.of("target", "benchmarks");
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("thread-mode-" + mode() + ".txt"), result);
+        System.out.print(result);
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+    }
+}
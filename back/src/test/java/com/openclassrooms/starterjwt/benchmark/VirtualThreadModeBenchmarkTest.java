@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtualbenchdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=virtualbench",
+        "spring.jpa.show-sql=false",
+        "oc.app.audit.enabled=false",
+        "oc.app.loadshedding.enabled=false",
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.threads.max=" + ThreadModeBenchmark.TOMCAT_THREADS
+})
+@ActiveProfiles("test")
+class VirtualThreadModeBenchmarkTest extends ThreadModeBenchmark {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
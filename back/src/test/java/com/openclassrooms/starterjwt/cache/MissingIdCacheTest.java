@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.cache;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MissingIdCache
+ */
+class MissingIdCacheTest {
+
+    @Test
+    void isMissing_ShouldReturnTrue_OnlyForMarkedIdsOfTheSameType() {
+        // Arrange
+        MissingIdCache cache = new MissingIdCache(60_000);
+
+        // Act
+        cache.markMissing(Session.class, 1L);
+
+        // Assert
+        assertTrue(cache.isMissing(Session.class, 1L));
+        assertFalse(cache.isMissing(Session.class, 2L));
+        assertFalse(cache.isMissing(Teacher.class, 1L));
+    }
+
+    @Test
+    void isMissing_ShouldReturnFalse_OnceTheTtlHasExpired() throws InterruptedException {
+        // Arrange
+        MissingIdCache cache = new MissingIdCache(20);
+        cache.markMissing(Session.class, 1L);
+
+        // Act
+        Thread.sleep(50);
+
+        // Assert
+        assertFalse(cache.isMissing(Session.class, 1L));
+    }
+
+    @Test
+    void invalidate_ShouldForgetMissingId() {
+        // Arrange
+        MissingIdCache cache = new MissingIdCache(60_000);
+        cache.markMissing(Session.class, 1L);
+
+        // Act
+        cache.invalidate(Session.class, 1L);
+
+        // Assert
+        assertFalse(cache.isMissing(Session.class, 1L));
+    }
+
+    @Test
+    void markMissing_ShouldDoNothing_WhenTtlIsZero() {
+        // Arrange
+        MissingIdCache cache = new MissingIdCache(0);
+
+        // Act
+        cache.markMissing(Session.class, 1L);
+
+        // Assert
+        assertFalse(cache.isMissing(Session.class, 1L));
+    }
+
+    @Test
+    void markMissing_ShouldStayBounded() {
+        // Arrange
+        MissingIdCache cache = new MissingIdCache(60_000);
+
+        // Act
+        for (long id = 0; id <= MissingIdCache.MAX_ENTRIES; id++) {
+            cache.markMissing(Session.class, id);
+        }
+
+        // Assert
+        assertTrue(cache.isMissing(Session.class, (long) MissingIdCache.MAX_ENTRIES));
+        assertFalse(cache.isMissing(Session.class, 0L));
+    }
+}
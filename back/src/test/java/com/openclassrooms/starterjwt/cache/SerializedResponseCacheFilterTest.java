@@ -0,0 +1,135 @@
+package com.openclassrooms.starterjwt.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SerializedResponseCacheFilter
+ */
+class SerializedResponseCacheFilterTest {
+
+    private static final String BODY = "[{\"id\":1}]";
+
+    private SerializedResponseCache cache;
+    private SimpleMeterRegistry meterRegistry;
+    private SerializedResponseCacheFilter filter;
+    private AtomicInteger controllerCalls;
+    private FilterChain controller;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SerializedResponseCache(60_000, true);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SerializedResponseCacheFilter(cache, meterRegistry);
+        controllerCalls = new AtomicInteger();
+        controller = (request, response) -> {
+            controllerCalls.incrementAndGet();
+            response.setContentType("application/json");
+            response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test
+    void doFilter_ShouldServeSecondRequestFromCache() throws Exception {
+        // Act
+        MockHttpServletResponse first = perform(get("/api/session"));
+        MockHttpServletResponse second = perform(get("/api/session"));
+
+        // Assert
+        assertEquals(1, controllerCalls.get());
+        assertEquals(BODY, first.getContentAsString());
+        assertEquals(BODY, second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertEquals(BODY.length(), second.getContentLength());
+        assertEquals(1.0, meterRegistry.get("yoga.responsecache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("yoga.responsecache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void doFilter_ShouldServeGzipBody_WhenClientAcceptsIt() throws Exception {
+        // Arrange
+        perform(get("/api/teacher"));
+        MockHttpServletRequest request = get("/api/teacher");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+
+        // Act
+        MockHttpServletResponse response = perform(request);
+
+        // Assert
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(BODY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void doFilter_ShouldRunController_AfterInvalidation() throws Exception {
+        // Arrange
+        perform(get("/api/session"));
+
+        // Act
+        cache.invalidate(SerializedResponseCache.SESSIONS);
+        perform(get("/api/session"));
+
+        // Assert
+        assertEquals(2, controllerCalls.get());
+    }
+
+    @Test
+    void doFilter_ShouldNotCacheErrorResponses() throws Exception {
+        // Arrange
+        controller = (request, response) -> {
+            controllerCalls.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        };
+
+        // Act
+        perform(get("/api/session"));
+        perform(get("/api/session"));
+
+        // Assert
+        assertEquals(2, controllerCalls.get());
+    }
+
+    @Test
+    void doFilter_ShouldBypassCache_ForOtherPathsMethodsAndQueries() throws Exception {
+        // Arrange
+        MockHttpServletRequest withQuery = get("/api/session");
+        withQuery.setQueryString("page=2");
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/session");
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            perform(get("/api/session/1"));
+            perform(withQuery);
+            perform(post);
+        }
+
+        // Assert
+        assertEquals(6, controllerCalls.get());
+        assertNull(cache.get(SerializedResponseCache.SESSIONS));
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
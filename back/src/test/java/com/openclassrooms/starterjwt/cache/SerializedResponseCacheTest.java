@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SerializedResponseCache
+ */
+class SerializedResponseCacheTest {
+
+    private static final String JSON = "application/json";
+
+    private static final byte[] BODY = "[{\"id\":1,\"name\":\"Yoga\"}]".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void get_ShouldReturnStoredBodyAndItsGzipForm() throws IOException {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(60_000, true);
+
+        // Act
+        cache.put(SerializedResponseCache.SESSIONS, cache.generation(SerializedResponseCache.SESSIONS), JSON, BODY);
+        SerializedResponseCache.CachedResponse cached = cache.get(SerializedResponseCache.SESSIONS);
+
+        // Assert
+        assertNotNull(cached);
+        assertEquals(JSON, cached.contentType());
+        assertArrayEquals(BODY, cached.body());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cached.gzipBody()))) {
+            assertArrayEquals(BODY, in.readAllBytes());
+        }
+        assertNull(cache.get(SerializedResponseCache.TEACHERS));
+    }
+
+    @Test
+    void put_ShouldNotCompress_WhenGzipIsDisabled() {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(60_000, false);
+
+        // Act
+        cache.put(SerializedResponseCache.SESSIONS, cache.generation(SerializedResponseCache.SESSIONS), JSON, BODY);
+
+        // Assert
+        assertNull(cache.get(SerializedResponseCache.SESSIONS).gzipBody());
+    }
+
+    @Test
+    void put_ShouldBeIgnored_WhenAnInvalidationHappenedWhileTheResponseWasBuilt() {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(60_000, true);
+        long generation = cache.generation(SerializedResponseCache.SESSIONS);
+
+        // Act
+        cache.invalidate(SerializedResponseCache.SESSIONS);
+        cache.put(SerializedResponseCache.SESSIONS, generation, JSON, BODY);
+
+        // Assert
+        assertNull(cache.get(SerializedResponseCache.SESSIONS));
+    }
+
+    @Test
+    void invalidate_ShouldOnlyDropTheNamedEntry() {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(60_000, true);
+        cache.put(SerializedResponseCache.SESSIONS, cache.generation(SerializedResponseCache.SESSIONS), JSON, BODY);
+        cache.put(SerializedResponseCache.TEACHERS, cache.generation(SerializedResponseCache.TEACHERS), JSON, BODY);
+
+        // Act
+        cache.invalidate(SerializedResponseCache.SESSIONS);
+
+        // Assert
+        assertNull(cache.get(SerializedResponseCache.SESSIONS));
+        assertNotNull(cache.get(SerializedResponseCache.TEACHERS));
+    }
+
+    @Test
+    void get_ShouldReturnNull_OnceMaxAgeHasPassed() throws InterruptedException {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(20, true);
+        cache.put(SerializedResponseCache.SESSIONS, cache.generation(SerializedResponseCache.SESSIONS), JSON, BODY);
+
+        // Act
+        Thread.sleep(50);
+
+        // Assert
+        assertNull(cache.get(SerializedResponseCache.SESSIONS));
+    }
+}
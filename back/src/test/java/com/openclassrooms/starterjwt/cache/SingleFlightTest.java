@@ -0,0 +1,130 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_ShouldRunLoaderOnce_ForConcurrentCallersOfTheSameKey() throws Exception {
+        // Arrange
+        int callers = 16;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(release);
+                return "session-1";
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            // Act
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            // Followers are blocked on the leader's future, let them all queue up before releasing it
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            for (Future<String> result : results) {
+                assertEquals("session-1", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_ShouldLoadAgain_OnceThePreviousFlightHasCompleted() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        singleFlight.execute(1L, () -> "first " + loads.incrementAndGet());
+        String second = singleFlight.execute(1L, () -> "second " + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("second 2", second);
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_ShouldNotCoalesceDifferentKeys() {
+        // Act
+        String one = singleFlight.execute(1L, () -> singleFlight.execute(2L, () -> "nested"));
+
+        // Assert
+        assertEquals("nested", one);
+    }
+
+    @Test
+    void execute_ShouldPropagateLoaderException_AndForgetTheFlight() {
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute(1L, () -> {
+                    throw new IllegalStateException("database down");
+                }));
+        assertEquals("database down", exception.getMessage());
+        assertEquals(0, singleFlight.inFlightCount());
+        assertEquals("recovered", singleFlight.execute(1L, () -> "recovered"));
+    }
+
+    @Test
+    void execute_ShouldShareLoaderException_WithWaitingCallers() throws Exception {
+        // Arrange
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+                loaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            // Act
+            Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> "not loaded"));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+            Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.openclassrooms.starterjwt.cleanup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.attendance.AttendanceSummaries;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.AttendanceReportService;
+import com.openclassrooms.starterjwt.services.AttendanceReportService.MonthAttendance;
+import com.openclassrooms.starterjwt.services.SessionArchiveService;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for soft user deletion and the UserPurger
+ * Purges in batches of two rows against H2, through the same JDBC statements as production
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:purgedb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=purge",
+        "oc.app.audit.enabled=false",
+        "oc.app.users.purge.batchSize=2"
+})
+@ActiveProfiles("test")
+class UserPurgerIntegrationTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private UserPurger userPurger;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private AttendanceSummaries attendanceSummaries;
+
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    @Autowired
+    private SessionArchiveService sessionArchiveService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private User leaving;
+    private User staying;
+    private final List<Session> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        leaving = userRepository.save(User.builder()
+                .email("leaving" + System.nanoTime() + "@yoga.com").firstName("Leaving").lastName("User")
+                .password(passwordEncoder.encode(PASSWORD)).admin(false).build());
+        staying = userRepository.save(User.builder()
+                .email("staying" + System.nanoTime() + "@yoga.com").firstName("Staying").lastName("User")
+                .password(passwordEncoder.encode(PASSWORD)).admin(false).build());
+        Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Purge").lastName("Teacher").build());
+        // Five participations: three purge batches
+        for (int i = 0; i < 5; i++) {
+            sessions.add(sessionRepository.save(Session.builder()
+                    .name("Purge session " + i).description("Purge").date(new Date()).teacher(teacher)
+                    .users(new ArrayList<>(List.of(leaving, staying))).build()));
+        }
+        waitlistRepository.save(WaitlistEntry.builder().sessionId(sessions.get(0).getId()).userId(leaving.getId()).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM JOB_LOCKS");
+        jdbcTemplate.update("DELETE FROM MONTHLY_ATTENDANCE");
+        jdbcTemplate.update("DELETE FROM SESSION_ATTENDANCE");
+        jdbcTemplate.update("DELETE FROM PARTICIPATE_ARCHIVE");
+        jdbcTemplate.update("DELETE FROM SESSIONS_ARCHIVE");
+        waitlistRepository.deleteAll();
+        sessionRepository.deleteAll();
+        sessions.clear();
+        teacherRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM REFRESH_TOKENS");
+        jdbcTemplate.update("DELETE FROM USERS");
+    }
+
+    private int participationsOf(User user) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE WHERE user_id = ?", Integer.class, user.getId());
+    }
+
+    // Moves the session to the archive tables as the SessionArchiver does
+    private void archive(Session session) {
+        jdbcTemplate.update("INSERT INTO SESSIONS_ARCHIVE (id, name, description, date, teacher_id, archived_at) "
+                + "SELECT id, name, description, date, teacher_id, CURRENT_TIMESTAMP FROM SESSIONS WHERE id = ?", session.getId());
+        jdbcTemplate.update("INSERT INTO PARTICIPATE_ARCHIVE (session_id, user_id) "
+                + "SELECT DISTINCT session_id, user_id FROM PARTICIPATE WHERE session_id = ?", session.getId());
+        jdbcTemplate.update("DELETE FROM PARTICIPATE WHERE session_id = ?", session.getId());
+        jdbcTemplate.update("DELETE FROM SESSIONS WHERE id = ?", session.getId());
+    }
+
+    // Both summary tables, which must agree
+    private long summarizedParticipants() {
+        long sessionTotal = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(participant_count), 0) FROM SESSION_ATTENDANCE", Long.class);
+        assertEquals(sessionTotal, jdbcTemplate.queryForObject("SELECT COALESCE(SUM(participant_count), 0) FROM MONTHLY_ATTENDANCE", Long.class));
+        return sessionTotal;
+    }
+
+    private void assertSummariesMatchRebuild() {
+        List<MonthAttendance> months = attendanceReportService.byMonth(YearMonth.of(1970, 1), YearMonth.of(9999, 12));
+        long participants = summarizedParticipants();
+
+        attendanceSummaries.rebuild();
+
+        assertEquals(months, attendanceReportService.byMonth(YearMonth.of(1970, 1), YearMonth.of(9999, 12)));
+        assertEquals(participants, summarizedParticipants());
+    }
+
+    private String loginBody(User user) {
+        return "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    // ==================== SOFT DELETE TESTS ====================
+
+    @Test
+    void delete_ShouldHideTheUserAtOnce_AndKeepTheRowsForThePurge() {
+        // Act
+        userService.delete(leaving.getId());
+
+        // Assert
+        assertTrue(userRepository.findById(leaving.getId()).isEmpty());
+        assertTrue(userRepository.findByEmail(leaving.getEmail()).isEmpty());
+        assertEquals(5, participationsOf(leaving));
+        assertEquals(1, sessionRepository.countParticipants(sessions.get(0).getId()));
+    }
+
+    @Test
+    void delete_ShouldStopTheUserFromLoggingIn() throws Exception {
+        // Arrange
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(loginBody(leaving)))
+                .andExpect(status().isOk());
+
+        // Act
+        userService.delete(leaving.getId());
+
+        // Assert
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(loginBody(leaving)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void delete_ShouldRemoveTheUserFromRosters() throws Exception {
+        // Arrange
+        String token = objectMapper.readTree(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON).content(loginBody(staying)))
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+
+        // Act
+        userService.delete(leaving.getId());
+
+        // Assert
+        mockMvc.perform(get("/api/session/{id}", sessions.get(0).getId()).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", contains(staying.getId().intValue())));
+        mockMvc.perform(get("/api/session").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].users[*]", everyItem(is(staying.getId().intValue()))));
+    }
+
+    @Test
+    void register_ShouldRefuseTheEmail_UntilTheUserIsPurged() throws Exception {
+        // Arrange
+        userService.delete(leaving.getId());
+        String body = "{\"email\":\"" + leaving.getEmail() + "\",\"firstName\":\"Back\",\"lastName\":\"Again\",\"password\":\"" + PASSWORD + "\"}";
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+        userPurger.purge();
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    // ==================== PURGE TESTS ====================
+
+    @Test
+    void purge_ShouldRemoveDeletedUsers_WithTheirParticipationsAndWaitlistEntries() {
+        // Arrange
+        userService.delete(leaving.getId());
+
+        // Act
+        int purged = userPurger.purge();
+
+        // Assert
+        assertEquals(1, purged);
+        assertEquals(0, participationsOf(leaving));
+        assertEquals(5, participationsOf(staying));
+        assertEquals(0, waitlistRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM USERS WHERE id = ?", Integer.class, leaving.getId()));
+        assertTrue(userRepository.findById(staying.getId()).isPresent());
+    }
+
+    // ==================== ATTENDANCE SUMMARY TESTS ====================
+
+    @Test
+    void purge_ShouldTakeThePurgedParticipationsOutOfTheAttendanceSummaries() {
+        // Arrange: a deleted user counts until the purge
+        attendanceSummaries.rebuild();
+        userService.delete(leaving.getId());
+        assertEquals(10, summarizedParticipants());
+        assertSummariesMatchRebuild();
+
+        // Act: three batches of participations
+        userPurger.purge();
+
+        // Assert
+        assertEquals(5, summarizedParticipants());
+        assertSummariesMatchRebuild();
+    }
+
+    @Test
+    void purge_ShouldRemoveArchivedParticipations_AndTakeThemOutOfTheSummaries() {
+        // Arrange: three of the five sessions are archived
+        archive(sessions.get(1));
+        archive(sessions.get(2));
+        archive(sessions.get(3));
+        attendanceSummaries.rebuild();
+        userService.delete(leaving.getId());
+
+        // Act: two batches of archived participations
+        userPurger.purge();
+
+        // Assert
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM PARTICIPATE_ARCHIVE WHERE user_id = ?", Integer.class, leaving.getId()));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM PARTICIPATE_ARCHIVE WHERE user_id = ?", Integer.class, staying.getId()));
+        assertEquals(List.of(staying.getId()), sessionArchiveService.findById(sessions.get(2).getId()).getUsers());
+        assertEquals(5, summarizedParticipants());
+        assertSummariesMatchRebuild();
+    }
+
+    @Test
+    void rosterRewrite_ShouldDropTheDeletedUsersRow_FromTheSummariesToo() {
+        // Arrange
+        attendanceSummaries.rebuild();
+        userService.delete(leaving.getId());
+
+        // Act: the roster is written back without the user it can no longer see
+        sessionService.noLongerParticipate(sessions.get(0).getId(), staying.getId());
+
+        // Assert
+        assertEquals(4, participationsOf(leaving));
+        assertEquals(8, summarizedParticipants());
+        assertSummariesMatchRebuild();
+        userPurger.purge();
+        assertEquals(4, summarizedParticipants());
+        assertSummariesMatchRebuild();
+    }
+
+    @Test
+    void purge_ShouldLeaveLiveUsersAlone() {
+        // Act & Assert
+        assertEquals(0, userPurger.purge());
+        assertEquals(5, participationsOf(leaving));
+    }
+
+    @Test
+    void purge_ShouldSkip_WhileAnotherNodeHoldsTheLease() {
+        // Arrange
+        userService.delete(leaving.getId());
+        jdbcTemplate.update("INSERT INTO JOB_LOCKS (name, locked_until, locked_by) VALUES (?, ?, ?)",
+                UserPurger.LOCK, Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)), "other-node");
+
+        // Act & Assert
+        assertEquals(0, userPurger.purge());
+        assertEquals(5, participationsOf(leaving));
+    }
+}
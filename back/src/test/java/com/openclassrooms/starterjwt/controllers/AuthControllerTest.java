@@ -6,8 +6,14 @@ import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.payload.request.RefreshTokenRequest;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocations;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService.TokenPair;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +29,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -51,6 +58,12 @@ class AuthControllerTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
     @InjectMocks
     private AuthController authController;
 
@@ -109,7 +122,7 @@ class AuthControllerTest {
         String testJwt = "test.jwt.token";
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtUtils.generateJwtToken(authentication)).thenReturn(testJwt);
+        when(refreshTokenService.issue(testUserDetails)).thenReturn(new TokenPair(testJwt, "refresh-token", 900000));
         when(authentication.getPrincipal()).thenReturn(testUserDetails);
         when(userRepository.findByEmail("test@yoga.com")).thenReturn(Optional.of(testUser));
 
@@ -128,10 +141,12 @@ class AuthControllerTest {
         assertEquals("John", jwtResponse.getFirstName());
         assertEquals("Doe", jwtResponse.getLastName());
         assertEquals(false, jwtResponse.getAdmin());
+        assertEquals("refresh-token", jwtResponse.getRefreshToken());
+        assertEquals(900L, jwtResponse.getExpiresIn());
 
         // Verify interactions
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils).generateJwtToken(authentication);
+        verify(refreshTokenService).issue(testUserDetails);
         verify(userRepository).findByEmail("test@yoga.com");
     }
 
@@ -150,7 +165,7 @@ class AuthControllerTest {
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtUtils.generateJwtToken(authentication)).thenReturn(testJwt);
+        when(refreshTokenService.issue(testUserDetails)).thenReturn(new TokenPair(testJwt, "refresh-token", 900000));
         when(authentication.getPrincipal()).thenReturn(testUserDetails);
         when(userRepository.findByEmail("test@yoga.com")).thenReturn(Optional.of(adminUser));
 
@@ -169,7 +184,7 @@ class AuthControllerTest {
         String testJwt = "test.jwt.token";
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtUtils.generateJwtToken(authentication)).thenReturn(testJwt);
+        when(refreshTokenService.issue(testUserDetails)).thenReturn(new TokenPair(testJwt, "refresh-token", 900000));
         when(authentication.getPrincipal()).thenReturn(testUserDetails);
         when(userRepository.findByEmail("test@yoga.com")).thenReturn(Optional.empty());
 
@@ -194,7 +209,7 @@ class AuthControllerTest {
         });
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verifyNoInteractions(jwtUtils);
+        verifyNoInteractions(refreshTokenService);
         verifyNoInteractions(userRepository);
     }
 
@@ -263,6 +278,76 @@ class AuthControllerTest {
         ));
     }
 
+    // ==================== REFRESH TESTS ====================
+
+    @Test
+    void refresh_ShouldReturnNextPair_WhenRefreshTokenValid() {
+        // Arrange
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("refresh-token");
+        when(refreshTokenService.rotate("refresh-token"))
+                .thenReturn(Optional.of(new TokenPair("next.jwt.token", "next-refresh-token", 900000)));
+
+        // Act
+        ResponseEntity<?> response = authController.refresh(request);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JwtResponse jwtResponse = (JwtResponse) response.getBody();
+        assertEquals("next.jwt.token", jwtResponse.getToken());
+        assertEquals("next-refresh-token", jwtResponse.getRefreshToken());
+        assertEquals(900L, jwtResponse.getExpiresIn());
+    }
+
+    @Test
+    void refresh_ShouldReturnUnauthorized_WhenRefreshTokenRejected() {
+        // Arrange
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("used-token");
+        when(refreshTokenService.rotate("used-token")).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<?> response = authController.refresh(request);
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertInstanceOf(MessageResponse.class, response.getBody());
+    }
+
+    // ==================== LOGOUT TESTS ====================
+
+    @Test
+    void logout_ShouldRevokeAccessTokenAndRefreshFamily() {
+        // Arrange
+        Date expiration = new Date((System.currentTimeMillis() / 1000 + 60) * 1000);
+        Claims claims = Jwts.claims().setSubject("test@yoga.com").setId("jti-1").setExpiration(expiration);
+        when(jwtUtils.parseAccessToken("access.jwt.token")).thenReturn(claims);
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("refresh-token");
+
+        // Act
+        ResponseEntity<?> response = authController.logout("Bearer access.jwt.token", request);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(tokenRevocations).revoke("jti-1", expiration.toInstant());
+        verify(refreshTokenService).revoke("refresh-token");
+    }
+
+    @Test
+    void logout_ShouldIgnoreInvalidAccessToken() {
+        // Arrange
+        when(jwtUtils.parseAccessToken("expired.jwt.token")).thenReturn(null);
+
+        // Act
+        ResponseEntity<?> response = authController.logout("Bearer expired.jwt.token", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyNoInteractions(tokenRevocations);
+        verifyNoInteractions(refreshTokenService);
+    }
+
     // ==================== ERROR HANDLING TESTS ====================
 
     @Test
@@ -270,7 +355,8 @@ class AuthControllerTest {
         // Arrange
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtUtils.generateJwtToken(authentication)).thenThrow(new RuntimeException("JWT generation failed"));
+        when(authentication.getPrincipal()).thenReturn(testUserDetails);
+        when(refreshTokenService.issue(testUserDetails)).thenThrow(new RuntimeException("JWT generation failed"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
@@ -335,7 +421,7 @@ class AuthControllerTest {
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtUtils.generateJwtToken(authentication)).thenReturn("new.jwt.token");
+        when(refreshTokenService.issue(newUserDetails)).thenReturn(new TokenPair("new.jwt.token", "refresh-token", 900000));
         when(authentication.getPrincipal()).thenReturn(newUserDetails);
         when(userRepository.findByEmail("newuser@yoga.com")).thenReturn(Optional.of(savedUser));
 
@@ -0,0 +1,305 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.attendance.AttendanceSummaries;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.support.ExplainPlans;
+import com.openclassrooms.starterjwt.support.SqlBudget;
+import com.openclassrooms.starterjwt.support.SqlStatementCountingConfiguration;
+import com.openclassrooms.starterjwt.support.SqlStatementRecorder;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * SQL statement budgets per endpoint
+ * Every request runs with cold Hibernate caches against a fixed fixture (4 teachers,
+ * 5 users, 3 sessions with 2 participants each), so an N+1 introduced in a mapper or
+ * an entity mapping shows up as a budget overrun. Plans of the key lookups are
+ * written to target/sql-explain.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:budgetdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=budget",
+        "oc.app.audit.enabled=false"
+})
+@ActiveProfiles("test")
+@Import(SqlStatementCountingConfiguration.class)
+@WithMockUser(username = "budget1@yoga.com")
+class EndpointSqlBudgetIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AttendanceSummaries attendanceSummaries;
+
+    private MockMvc mockMvc;
+    private Teacher spareTeacher;
+    private final List<Teacher> teachers = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private final List<Session> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        cleanDatabase();
+
+        // Session.teacher is a one-to-one: every session needs its own teacher
+        for (int i = 0; i < 3; i++) {
+            teachers.add(teacherRepository.save(Teacher.builder().firstName("Budget").lastName("Teacher" + i).build()));
+        }
+        spareTeacher = teacherRepository.save(Teacher.builder().firstName("Spare").lastName("Teacher").build());
+
+        for (int i = 1; i <= 5; i++) {
+            users.add(userRepository.save(User.builder()
+                    .email("budget" + i + "@yoga.com")
+                    .firstName("Budget")
+                    .lastName("User" + i)
+                    .password(passwordEncoder.encode("password" + i))
+                    .admin(false)
+                    .build()));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            sessions.add(sessionRepository.save(Session.builder()
+                    .name("Budget session " + i)
+                    .description("Session used to measure SQL statements")
+                    .date(new Date())
+                    .teacher(teachers.get(i))
+                    .users(new ArrayList<>(List.of(users.get(i + 1), users.get(i + 2))))
+                    .build()));
+        }
+
+        // The fixture went around SessionService
+        attendanceSummaries.rebuild();
+        entityManagerFactory.getCache().evictAll();
+        recorder.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanDatabase();
+    }
+
+    // ==================== SESSION ENDPOINTS ====================
+    // Every session and user write also inserts one CACHE_INVALIDATIONS record
+    // Every session write also locks its SESSION_ATTENDANCE row, adds to MONTHLY_ATTENDANCE and writes the row back
+
+    @Test
+    void getSessionById() throws Exception {
+        perform("GET /api/session/{id}", get("/api/session/{id}", sessions.get(0).getId()), SqlBudget.selects(1));
+
+        String plan = ExplainPlans.capture(new JdbcTemplate(dataSource), "session-by-id",
+                recorder.firstMatching(QueryType.SELECT, "from SESSIONS"));
+        assertFalse(plan.contains("SESSIONS.tableScan"), plan);
+    }
+
+    @Test
+    void getSessionDetail() throws Exception {
+        // Session with teacher, participant count and caller flag: one query each, no roster load
+        perform("GET /api/session/{id}/detail", get("/api/session/{id}/detail", sessions.get(0).getId()),
+                SqlBudget.selects(3));
+    }
+
+    @Test
+    void getAllSessions() throws Exception {
+        // Sessions, teacher ids and participant ids come back from one projection query
+        perform("GET /api/session", get("/api/session"), SqlBudget.selects(1));
+
+        String plan = ExplainPlans.capture(new JdbcTemplate(dataSource), "session-list",
+                recorder.firstMatching(QueryType.SELECT, "from SESSIONS"));
+        assertFalse(plan.contains("PARTICIPATE.tableScan"), plan);
+    }
+
+    @Test
+    void createSession() throws Exception {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("New budget session");
+        sessionDto.setDescription("Created through the API");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(spareTeacher.getId());
+        sessionDto.setUsers(List.of(users.get(0).getId(), users.get(1).getId()));
+
+        // SessionMapper.toEntity looks the teacher and every participant up one by one
+        perform("POST /api/session", post("/api/session")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)),
+                SqlBudget.selects(4).inserts(6));
+    }
+
+    @Test
+    void updateSession() throws Exception {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Updated budget session");
+        sessionDto.setDescription("Updated through the API");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(teachers.get(0).getId());
+        sessionDto.setUsers(List.of(users.get(1).getId()));
+
+        perform("PUT /api/session/{id}", put("/api/session/{id}", sessions.get(0).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)),
+                SqlBudget.selects(4).inserts(3).updates(2).deletes(1));
+    }
+
+    @Test
+    void deleteSession() throws Exception {
+        perform("DELETE /api/session/{id}", delete("/api/session/{id}", sessions.get(0).getId()),
+                SqlBudget.selects(2).inserts(2).deletes(4));
+    }
+
+    @Test
+    void participate() throws Exception {
+        // Session.users is a bag: the whole PARTICIPATE roster of the session is rewritten
+        perform("POST /api/session/{id}/participate/{userId}",
+                post("/api/session/{id}/participate/{userId}", sessions.get(0).getId(), users.get(0).getId()),
+                SqlBudget.selects(3).inserts(5).updates(1).deletes(1));
+    }
+
+    @Test
+    void noLongerParticipate() throws Exception {
+        perform("DELETE /api/session/{id}/participate/{userId}",
+                delete("/api/session/{id}/participate/{userId}", sessions.get(0).getId(), users.get(1).getId()),
+                SqlBudget.selects(2).inserts(3).updates(2).deletes(1));
+    }
+
+    // ==================== TEACHER ENDPOINTS ====================
+
+    @Test
+    void getTeacherById() throws Exception {
+        perform("GET /api/teacher/{id}", get("/api/teacher/{id}", teachers.get(0).getId()), SqlBudget.selects(1));
+
+        String plan = ExplainPlans.capture(new JdbcTemplate(dataSource), "teacher-by-id",
+                recorder.firstMatching(QueryType.SELECT, "from TEACHERS"));
+        assertFalse(plan.contains("TEACHERS.tableScan"), plan);
+    }
+
+    @Test
+    void getAllTeachers() throws Exception {
+        perform("GET /api/teacher", get("/api/teacher"), SqlBudget.selects(1));
+    }
+
+    // ==================== USER ENDPOINTS ====================
+
+    @Test
+    void getUserById() throws Exception {
+        perform("GET /api/user/{id}", get("/api/user/{id}", users.get(0).getId()), SqlBudget.selects(1));
+
+        // Read through a projection: the password hash never leaves the database
+        String select = recorder.firstMatching(QueryType.SELECT, "from USERS").sql();
+        assertFalse(select.contains("password"), select);
+    }
+
+    @Test
+    void deleteUser() throws Exception {
+        perform("DELETE /api/user/{id}", delete("/api/user/{id}", users.get(0).getId()),
+                // A soft delete, plus the user's refresh tokens and the revocation of their access tokens
+                SqlBudget.selects(1).inserts(3).updates(1).deletes(1));
+    }
+
+    // ==================== AUTH ENDPOINTS ====================
+
+    @Test
+    void login() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("budget1@yoga.com");
+        loginRequest.setPassword("password1");
+
+        perform("POST /api/auth/login", post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)),
+                // The refresh token is stored
+                SqlBudget.selects(2).inserts(1));
+
+        String plan = ExplainPlans.capture(new JdbcTemplate(dataSource), "user-by-email",
+                recorder.firstMatching(QueryType.SELECT, "from USERS"));
+        assertFalse(plan.contains("USERS.tableScan"), plan);
+    }
+
+    @Test
+    void register() throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("newcomer@yoga.com");
+        signupRequest.setFirstName("New");
+        signupRequest.setLastName("Comer");
+        signupRequest.setPassword("password");
+
+        perform("POST /api/auth/register", post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signupRequest)),
+                SqlBudget.selects(1).inserts(1));
+    }
+
+    private void perform(String endpoint, RequestBuilder request, SqlBudget budget) throws Exception {
+        recorder.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+        budget.assertRespectedBy(recorder, endpoint);
+    }
+
+    private void cleanDatabase() {
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        // Soft-deleted users are out of the repository's sight
+        new JdbcTemplate(dataSource).update("DELETE FROM USERS");
+        teacherRepository.deleteAll();
+        teachers.clear();
+        users.clear();
+        sessions.clear();
+    }
+}
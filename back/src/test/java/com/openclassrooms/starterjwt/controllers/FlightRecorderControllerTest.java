@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.diagnostics.FlightRecordings;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.payload.response.FlightRecordingResponse;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FlightRecorderController
+ * Tests the mapping of recording states to HTTP statuses
+ */
+@ExtendWith(MockitoExtension.class)
+class FlightRecorderControllerTest {
+
+    @Mock
+    private FlightRecordings flightRecordings;
+
+    @InjectMocks
+    private FlightRecorderController flightRecorderController;
+
+    @TempDir
+    Path tempDir;
+
+    // ==================== START / STOP TESTS ====================
+
+    @Test
+    void start_ShouldReturnRecording_WhenCallerIsAdmin() {
+        // Arrange
+        try (Recording recording = new Recording()) {
+            recording.setName("yoga-on-demand");
+            recording.setDuration(Duration.ofSeconds(30));
+            when(flightRecordings.startRecording(Duration.ofSeconds(30))).thenReturn(recording);
+
+            // Act
+            ResponseEntity<?> response = flightRecorderController.start(30);
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            FlightRecordingResponse body = (FlightRecordingResponse) response.getBody();
+            assertEquals("yoga-on-demand", body.getName());
+            assertEquals(30, body.getDurationSeconds());
+        }
+    }
+
+    @Test
+    void start_ShouldReturnBadRequest_WhenDurationIsInvalid() {
+        // Act & Assert
+        for (long duration : List.of(0L, -5L)) {
+            assertThrows(BadRequestException.class, () -> flightRecorderController.start(duration));
+        }
+        verifyNoInteractions(flightRecordings);
+    }
+
+    @Test
+    void start_ShouldReturnConflict_WhenRecordingAlreadyRunning() {
+        // Arrange
+        when(flightRecordings.startRecording(any())).thenThrow(new IllegalStateException("running"));
+
+        // Act
+        ResponseEntity<?> response = flightRecorderController.start(60);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void stop_ShouldDownloadRecording() throws Exception {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("yoga-on-demand-1.jfr"), "jfr");
+        when(flightRecordings.stopRecording()).thenReturn(file);
+
+        // Act
+        ResponseEntity<?> response = flightRecorderController.stop();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("yoga-on-demand-1.jfr"));
+    }
+
+    @Test
+    void stop_ShouldReturnConflict_WhenNothingWasStarted() {
+        // Arrange
+        when(flightRecordings.stopRecording()).thenThrow(new IllegalStateException("none"));
+
+        // Act & Assert
+        assertEquals(HttpStatus.CONFLICT, flightRecorderController.stop().getStatusCode());
+    }
+
+    // ==================== DOWNLOAD TESTS ====================
+
+    @Test
+    void lastRecording_ShouldReturnNotFound_WhenNoneWasWritten() {
+        // Arrange
+        when(flightRecordings.lastRecording()).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> flightRecorderController.lastRecording());
+    }
+
+    @Test
+    void continuous_ShouldReturnNotFound_WhenContinuousRecordingIsDisabled() {
+        // Arrange
+        when(flightRecordings.dumpContinuous()).thenThrow(new IllegalStateException("disabled"));
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> flightRecorderController.continuous());
+    }
+}
@@ -0,0 +1,191 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the serialized response cache of GET /api/session and GET /api/teacher
+ * Runs against the real HTTP stack so that the cache filter sits behind the actual security filter chain
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:responsecachedb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=responsecache",
+        "oc.app.audit.enabled=false",
+        "oc.app.cache.responses.enabled=true"
+})
+@ActiveProfiles("test")
+class ListResponseCacheIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private User testUser;
+    private Session testSession;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cleanDatabase();
+
+        testUser = userRepository.save(User.builder()
+                .email("cached@yoga.com").firstName("Cached").lastName("User")
+                .password(passwordEncoder.encode("password")).admin(false).build());
+        Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Cached").lastName("Teacher").build());
+        testSession = sessionService.create(Session.builder()
+                .name("Cached session").description("Served from bytes").date(new Date())
+                .teacher(teacher).users(new ArrayList<>()).build());
+        token = login(testUser.getEmail(), "password");
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanDatabase();
+    }
+
+    @Test
+    void findAll_ShouldBeServedFromCache_OnRepeatedRequests() throws Exception {
+        // Arrange
+        double hitsBefore = hits();
+        String first = get("/api/session", token).body();
+
+        // Act
+        String second = get("/api/session", token).body();
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals(hitsBefore + 1, hits());
+    }
+
+    @Test
+    void findAll_ShouldRequireAuthentication_EvenWhenCached() throws Exception {
+        // Arrange
+        get("/api/session", token);
+
+        // Act
+        HttpResponse<String> response = get("/api/session", null);
+
+        // Assert
+        assertEquals(401, response.statusCode());
+    }
+
+    @Test
+    void findAll_ShouldReflectParticipation_AfterItWasCached() throws Exception {
+        // Arrange
+        assertTrue(participants(get("/api/session", token).body()).isEmpty());
+
+        // Act
+        sessionService.participate(testSession.getId(), testUser.getId());
+
+        // Assert
+        JsonNode users = participants(get("/api/session", token).body());
+        assertEquals(1, users.size());
+        assertEquals(testUser.getId(), users.get(0).asLong());
+    }
+
+    @Test
+    void findAll_ShouldReturnGzipBody_WhenClientAcceptsIt() throws Exception {
+        // Arrange
+        String plain = get("/api/teacher", token).body();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/teacher"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+
+        // Act
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertEquals(plain, new String(in.readAllBytes()));
+        }
+    }
+
+    private JsonNode participants(String body) throws IOException {
+        return objectMapper.readTree(body).get(0).get("users");
+    }
+
+    private double hits() {
+        return meterRegistry.get("yoga.responsecache.requests").tag("result", "hit").counter().count();
+    }
+
+    private HttpResponse<String> get(String path, String bearer) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String login(String email, String password) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("email", email, "password", password));
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private void cleanDatabase() {
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+}
@@ -1,9 +1,19 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.SessionDetailDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.TeacherSummaryDto;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.response.WaitlistPositionResponse;
+import com.openclassrooms.starterjwt.schedule.LongSet;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import com.openclassrooms.starterjwt.schedule.ScheduleSnapshot;
+import com.openclassrooms.starterjwt.schedule.ScheduledSession;
+import com.openclassrooms.starterjwt.services.SessionDetailService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +23,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Date;
@@ -34,6 +45,15 @@ class SessionControllerTest {
     @Mock
     private SessionMapper sessionMapper;
 
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private SessionDetailService sessionDetailService;
+
+    @Mock
+    private ScheduleReadModel scheduleReadModel;
+
     @InjectMocks
     private SessionController sessionController;
 
@@ -73,9 +93,8 @@ class SessionControllerTest {
     @Test
     void findById_ShouldReturnSessionDto_WhenValidIdAndSessionExists() {
         // Arrange
-        String id = "1";
-        when(sessionService.getById(1L)).thenReturn(testSession);
-        when(sessionMapper.toDto(testSession)).thenReturn(testSessionDto);
+        Long id = 1L;
+        when(sessionService.getDtoById(1L)).thenReturn(testSessionDto);
 
         // Act
         ResponseEntity<?> response = sessionController.findById(id);
@@ -84,75 +103,30 @@ class SessionControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(testSessionDto, response.getBody());
 
-        verify(sessionService).getById(1L);
-        verify(sessionMapper).toDto(testSession);
+        verify(sessionService).getDtoById(1L);
         verifyNoMoreInteractions(sessionService);
-        verifyNoMoreInteractions(sessionMapper);
+        verifyNoInteractions(sessionMapper);
     }
 
     @Test
     void findById_ShouldReturnNotFound_WhenValidIdButSessionDoesNotExist() {
         // Arrange
-        String id = "999";
-        when(sessionService.getById(999L)).thenReturn(null);
+        Long id = 999L;
+        when(sessionService.getDtoById(999L)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = sessionController.findById(id);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> sessionController.findById(id));
 
-        verify(sessionService).getById(999L);
+        verify(sessionService).getDtoById(999L);
         verifyNoInteractions(sessionMapper);
         verifyNoMoreInteractions(sessionService);
     }
 
-    @Test
-    void findById_ShouldReturnBadRequest_WhenIdIsNotNumeric() {
-        // Arrange
-        String invalidId = "not-a-number";
-
-        // Act
-        ResponseEntity<?> response = sessionController.findById(invalidId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(sessionService);
-        verifyNoInteractions(sessionMapper);
-    }
-
-    @Test
-    void findById_ShouldReturnBadRequest_WhenIdIsEmpty() {
-        // Arrange
-        String emptyId = "";
-
-        // Act
-        ResponseEntity<?> response = sessionController.findById(emptyId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(sessionService);
-        verifyNoInteractions(sessionMapper);
-    }
-
     // ==================== FIND ALL TESTS ====================
 
     @Test
     void findAll_ShouldReturnListOfSessionDtos_WhenSessionsExist() {
         // Arrange
-        Session testSession2 = Session.builder()
-                .id(2L)
-                .name("Advanced Yoga")
-                .description("Advanced yoga session")
-                .build();
-
-        List<Session> sessions = Arrays.asList(testSession, testSession2);
-        
         SessionDto testSessionDto2 = new SessionDto();
         testSessionDto2.setId(2L);
         testSessionDto2.setName("Advanced Yoga");
@@ -160,8 +134,7 @@ class SessionControllerTest {
         
         List<SessionDto> sessionDtos = Arrays.asList(testSessionDto, testSessionDto2);
 
-        when(sessionService.findAll()).thenReturn(sessions);
-        when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+        when(sessionService.findAllDtos()).thenReturn(sessionDtos);
 
         // Act
         ResponseEntity<?> response = sessionController.findAll();
@@ -176,20 +149,17 @@ class SessionControllerTest {
         assertEquals(testSessionDto, responseBody.get(0));
         assertEquals(testSessionDto2, responseBody.get(1));
 
-        verify(sessionService).findAll();
-        verify(sessionMapper).toDto(sessions);
+        verify(sessionService).findAllDtos();
         verifyNoMoreInteractions(sessionService);
-        verifyNoMoreInteractions(sessionMapper);
+        verifyNoInteractions(sessionMapper);
     }
 
     @Test
     void findAll_ShouldReturnEmptyList_WhenNoSessionsExist() {
         // Arrange
-        List<Session> emptySessions = Arrays.asList();
         List<SessionDto> emptySessionDtos = Arrays.asList();
 
-        when(sessionService.findAll()).thenReturn(emptySessions);
-        when(sessionMapper.toDto(emptySessions)).thenReturn(emptySessionDtos);
+        when(sessionService.findAllDtos()).thenReturn(emptySessionDtos);
 
         // Act
         ResponseEntity<?> response = sessionController.findAll();
@@ -202,10 +172,9 @@ class SessionControllerTest {
         List<SessionDto> responseBody = (List<SessionDto>) response.getBody();
         assertTrue(responseBody.isEmpty());
 
-        verify(sessionService).findAll();
-        verify(sessionMapper).toDto(emptySessions);
+        verify(sessionService).findAllDtos();
         verifyNoMoreInteractions(sessionService);
-        verifyNoMoreInteractions(sessionMapper);
+        verifyNoInteractions(sessionMapper);
     }
 
     // ==================== CREATE TESTS ====================
@@ -245,7 +214,7 @@ class SessionControllerTest {
     @Test
     void update_ShouldReturnUpdatedSessionDto_WhenValidIdAndSessionDto() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
         Session updatedSession = Session.builder()
                 .id(1L)
                 .name("Updated Yoga Session")
@@ -273,28 +242,12 @@ class SessionControllerTest {
         verify(sessionMapper).toDto(updatedSession);
     }
 
-    @Test
-    void update_ShouldReturnBadRequest_WhenIdIsNotNumeric() {
-        // Arrange
-        String invalidId = "not-a-number";
-
-        // Act
-        ResponseEntity<?> response = sessionController.update(invalidId, testSessionDto);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(sessionService);
-        verifyNoInteractions(sessionMapper);
-    }
-
     // ==================== DELETE TESTS ====================
 
     @Test
     void save_ShouldReturnOk_WhenValidIdAndSessionExists() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
         when(sessionService.getById(1L)).thenReturn(testSession);
         doNothing().when(sessionService).delete(1L);
 
@@ -313,42 +266,23 @@ class SessionControllerTest {
     @Test
     void save_ShouldReturnNotFound_WhenValidIdButSessionDoesNotExist() {
         // Arrange
-        String id = "999";
+        Long id = 999L;
         when(sessionService.getById(999L)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = sessionController.save(id);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> sessionController.save(id));
 
         verify(sessionService).getById(999L);
         verify(sessionService, never()).delete(anyLong());
     }
 
-    @Test
-    void save_ShouldReturnBadRequest_WhenIdIsNotNumeric() {
-        // Arrange
-        String invalidId = "not-a-number";
-
-        // Act
-        ResponseEntity<?> response = sessionController.save(invalidId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(sessionService);
-    }
-
     // ==================== PARTICIPATE TESTS ====================
 
     @Test
     void participate_ShouldReturnOk_WhenValidIds() {
         // Arrange
-        String id = "1";
-        String userId = "2";
+        Long id = 1L;
+        Long userId = 2L;
         doNothing().when(sessionService).participate(1L, 2L);
 
         // Act
@@ -362,88 +296,92 @@ class SessionControllerTest {
         verifyNoMoreInteractions(sessionService);
     }
 
+    // ==================== NO LONGER PARTICIPATE TESTS ====================
+
     @Test
-    void participate_ShouldReturnBadRequest_WhenSessionIdIsNotNumeric() {
+    void noLongerParticipate_ShouldReturnOk_WhenValidIds() {
         // Arrange
-        String invalidId = "not-a-number";
-        String userId = "2";
+        Long id = 1L;
+        Long userId = 2L;
+        doNothing().when(sessionService).noLongerParticipate(1L, 2L);
 
         // Act
-        ResponseEntity<?> response = sessionController.participate(invalidId, userId);
+        ResponseEntity<?> response = sessionController.noLongerParticipate(id, userId);
 
         // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNull(response.getBody());
 
-        verifyNoInteractions(sessionService);
+        verify(sessionService).noLongerParticipate(1L, 2L);
+        verifyNoMoreInteractions(sessionService);
     }
 
+    // ==================== DETAIL TESTS ====================
+
     @Test
-    void participate_ShouldReturnBadRequest_WhenUserIdIsNotNumeric() {
+    void findDetailById_ShouldReturnDetail_WhenSessionExists() {
         // Arrange
-        String id = "1";
-        String invalidUserId = "not-a-number";
+        SessionDetailDto detail = new SessionDetailDto(1L, "Yoga Session", new Date(), "A relaxing yoga session", null,
+                new TeacherSummaryDto(3L, "Doe", "Jane"), 2L, true, null, null);
+        when(sessionDetailService.getDetail(1L, null)).thenReturn(detail);
 
         // Act
-        ResponseEntity<?> response = sessionController.participate(id, invalidUserId);
+        ResponseEntity<?> response = sessionController.findDetailById(1L);
 
         // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(detail, response.getBody());
+    }
 
-        verifyNoInteractions(sessionService);
+    @Test
+    void findDetailById_ShouldReturnNotFound_WhenSessionDoesNotExist() {
+        // Arrange
+        when(sessionDetailService.getDetail(1L, null)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> sessionController.findDetailById(1L));
     }
 
-    // ==================== NO LONGER PARTICIPATE TESTS ====================
+    // ==================== WAITLIST TESTS ====================
 
     @Test
-    void noLongerParticipate_ShouldReturnOk_WhenValidIds() {
+    void joinWaitlist_ShouldReturnPosition_WhenValidIds() {
         // Arrange
-        String id = "1";
-        String userId = "2";
-        doNothing().when(sessionService).noLongerParticipate(1L, 2L);
+        when(waitlistService.join(1L, 2L)).thenReturn(3L);
 
         // Act
-        ResponseEntity<?> response = sessionController.noLongerParticipate(id, userId);
+        ResponseEntity<?> response = sessionController.joinWaitlist(1L, 2L);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verify(sessionService).noLongerParticipate(1L, 2L);
-        verifyNoMoreInteractions(sessionService);
+        WaitlistPositionResponse body = (WaitlistPositionResponse) response.getBody();
+        assertNotNull(body);
+        assertEquals(1L, body.getSessionId());
+        assertEquals(2L, body.getUserId());
+        assertEquals(3L, body.getPosition());
     }
 
     @Test
-    void noLongerParticipate_ShouldReturnBadRequest_WhenSessionIdIsNotNumeric() {
+    void waitlistPosition_ShouldReturnPosition_WhenUserIsWaiting() {
         // Arrange
-        String invalidId = "not-a-number";
-        String userId = "2";
+        when(waitlistService.getPosition(1L, 2L)).thenReturn(1L);
 
         // Act
-        ResponseEntity<?> response = sessionController.noLongerParticipate(invalidId, userId);
+        ResponseEntity<?> response = sessionController.waitlistPosition(1L, 2L);
 
         // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(sessionService);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1L, ((WaitlistPositionResponse) response.getBody()).getPosition());
     }
 
     @Test
-    void noLongerParticipate_ShouldReturnBadRequest_WhenUserIdIsNotNumeric() {
-        // Arrange
-        String id = "1";
-        String invalidUserId = "not-a-number";
-
+    void leaveWaitlist_ShouldReturnOk_WhenValidIds() {
         // Act
-        ResponseEntity<?> response = sessionController.noLongerParticipate(id, invalidUserId);
+        ResponseEntity<?> response = sessionController.leaveWaitlist(1L, 2L);
 
         // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(sessionService);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(waitlistService).leave(1L, 2L);
     }
 
     // ==================== ERROR HANDLING TESTS ====================
@@ -451,15 +389,15 @@ class SessionControllerTest {
     @Test
     void findById_ShouldHandleServiceException() {
         // Arrange
-        String id = "1";
-        when(sessionService.getById(1L)).thenThrow(new RuntimeException("Database error"));
+        Long id = 1L;
+        when(sessionService.getDtoById(1L)).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             sessionController.findById(id);
         });
 
-        verify(sessionService).getById(1L);
+        verify(sessionService).getDtoById(1L);
         verifyNoInteractions(sessionMapper);
     }
 
@@ -481,8 +419,8 @@ class SessionControllerTest {
     @Test
     void participate_ShouldHandleServiceException() {
         // Arrange
-        String id = "1";
-        String userId = "2";
+        Long id = 1L;
+        Long userId = 2L;
         doThrow(new RuntimeException("Service error")).when(sessionService).participate(1L, 2L);
 
         // Act & Assert
@@ -511,12 +449,11 @@ class SessionControllerTest {
         when(sessionMapper.toDto(createdSession)).thenReturn(createdSessionDto);
 
         // Arrange - Find by ID
-        when(sessionService.getById(2L)).thenReturn(createdSession);
-        when(sessionMapper.toDto(createdSession)).thenReturn(createdSessionDto);
+        when(sessionService.getDtoById(2L)).thenReturn(createdSessionDto);
 
         // Act
         ResponseEntity<?> createResponse = sessionController.create(testSessionDto);
-        ResponseEntity<?> findResponse = sessionController.findById("2");
+        ResponseEntity<?> findResponse = sessionController.findById(2L);
 
         // Assert
         assertEquals(HttpStatus.OK, createResponse.getStatusCode());
@@ -545,8 +482,8 @@ class SessionControllerTest {
         doNothing().when(sessionService).delete(1L);
 
         // Act
-        ResponseEntity<?> updateResponse = sessionController.update("1", testSessionDto);
-        ResponseEntity<?> deleteResponse = sessionController.save("1");
+        ResponseEntity<?> updateResponse = sessionController.update(1L, testSessionDto);
+        ResponseEntity<?> deleteResponse = sessionController.save(1L);
 
         // Assert
         assertEquals(HttpStatus.OK, updateResponse.getStatusCode());
@@ -554,4 +491,54 @@ class SessionControllerTest {
         assertEquals(updatedSessionDto, updateResponse.getBody());
         assertNull(deleteResponse.getBody());
     }
-}
\ No newline at end of file
+
+    // ==================== SCHEDULE SNAPSHOT TESTS ====================
+
+    @Test
+    void findById_ShouldServeFromSnapshot_WhenAvailable() {
+        // Arrange
+        when(scheduleReadModel.current()).thenReturn(ScheduleSnapshot.of(List.of(scheduledSession())));
+
+        // Act
+        ResponseEntity<?> response = sessionController.findById(testSessionId);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SessionDto body = (SessionDto) response.getBody();
+        assertEquals(testSessionId, body.getId());
+        assertEquals(7L, body.getTeacher_id());
+        assertEquals(List.of(2L, 3L), body.getUsers());
+        verifyNoInteractions(sessionService, sessionMapper);
+    }
+
+    @Test
+    void findById_ShouldReturnNotFound_WhenSnapshotDoesNotHoldSession() {
+        // Arrange
+        when(scheduleReadModel.current()).thenReturn(ScheduleSnapshot.empty());
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> sessionController.findById(42L));
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void findAll_ShouldServeFromSnapshot_WhenAvailable() {
+        // Arrange
+        when(scheduleReadModel.current()).thenReturn(ScheduleSnapshot.of(List.of(scheduledSession())));
+
+        // Act
+        ResponseEntity<?> response = sessionController.findAll();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<?> body = (List<?>) response.getBody();
+        assertEquals(1, body.size());
+        assertEquals("Yoga Session", ((SessionDto) body.get(0)).getName());
+        verifyNoInteractions(sessionService, sessionMapper);
+    }
+
+    private ScheduledSession scheduledSession() {
+        return new ScheduledSession(testSessionId, "Yoga Session", Instant.now(), 7L, "A relaxing yoga session",
+                null, LongSet.of(3L, 2L), LocalDateTime.now(), LocalDateTime.now());
+    }
+}
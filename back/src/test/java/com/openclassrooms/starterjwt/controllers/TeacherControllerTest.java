@@ -1,8 +1,7 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.dto.TeacherDto;
-import com.openclassrooms.starterjwt.mapper.TeacherMapper;
-import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,7 +17,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
@@ -31,32 +30,22 @@ class TeacherControllerTest {
     @Mock
     private TeacherService teacherService;
 
-    @Mock
-    private TeacherMapper teacherMapper;
-
     @InjectMocks
     private TeacherController teacherController;
 
-    private Teacher testTeacher;
     private TeacherDto testTeacherDto;
     private Long testTeacherId;
 
     @BeforeEach
     void setUp() {
         testTeacherId = 1L;
-        
-        testTeacher = Teacher.builder()
-                .id(testTeacherId)
-                .firstName("John")
-                .lastName("YogaMaster")
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
 
         testTeacherDto = new TeacherDto();
         testTeacherDto.setId(testTeacherId);
         testTeacherDto.setFirstName("John");
         testTeacherDto.setLastName("YogaMaster");
+        testTeacherDto.setCreatedAt(LocalDateTime.now());
+        testTeacherDto.setUpdatedAt(LocalDateTime.now());
     }
 
     @Test
@@ -64,7 +53,6 @@ class TeacherControllerTest {
         // Verify that controller is properly instantiated
         assertNotNull(teacherController);
         assertNotNull(teacherService);
-        assertNotNull(teacherMapper);
     }
 
     // ==================== FIND BY ID TESTS ====================
@@ -72,9 +60,8 @@ class TeacherControllerTest {
     @Test
     void findById_ShouldReturnTeacherDto_WhenValidIdAndTeacherExists() {
         // Arrange
-        String id = "1";
-        when(teacherService.findById(1L)).thenReturn(testTeacher);
-        when(teacherMapper.toDto(testTeacher)).thenReturn(testTeacherDto);
+        Long id = 1L;
+        when(teacherService.findDtoById(1L)).thenReturn(testTeacherDto);
 
         // Act
         ResponseEntity<?> response = teacherController.findById(id);
@@ -84,136 +71,63 @@ class TeacherControllerTest {
         assertEquals(testTeacherDto, response.getBody());
 
         // Verify interactions
-        verify(teacherService).findById(1L);
-        verify(teacherMapper).toDto(testTeacher);
+        verify(teacherService).findDtoById(1L);
         verifyNoMoreInteractions(teacherService);
-        verifyNoMoreInteractions(teacherMapper);
     }
 
     @Test
     void findById_ShouldReturnNotFound_WhenValidIdButTeacherDoesNotExist() {
         // Arrange
-        String id = "999";
-        when(teacherService.findById(999L)).thenReturn(null);
+        Long id = 999L;
+        when(teacherService.findDtoById(999L)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = teacherController.findById(id);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> teacherController.findById(id));
 
         // Verify interactions
-        verify(teacherService).findById(999L);
-        verifyNoInteractions(teacherMapper);
+        verify(teacherService).findDtoById(999L);
         verifyNoMoreInteractions(teacherService);
     }
 
-    @Test
-    void findById_ShouldReturnBadRequest_WhenIdIsNotNumeric() {
-        // Arrange
-        String invalidId = "not-a-number";
-
-        // Act
-        ResponseEntity<?> response = teacherController.findById(invalidId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        // Verify no service interactions for invalid input
-        verifyNoInteractions(teacherService);
-        verifyNoInteractions(teacherMapper);
-    }
-
-    @Test
-    void findById_ShouldReturnBadRequest_WhenIdIsEmpty() {
-        // Arrange
-        String emptyId = "";
-
-        // Act
-        ResponseEntity<?> response = teacherController.findById(emptyId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        // Verify no service interactions
-        verifyNoInteractions(teacherService);
-        verifyNoInteractions(teacherMapper);
-    }
-
-    @Test
-    void findById_ShouldReturnBadRequest_WhenIdContainsNonNumericCharacters() {
-        // Arrange
-        String invalidId = "1a";
-
-        // Act
-        ResponseEntity<?> response = teacherController.findById(invalidId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        // Verify no service interactions
-        verifyNoInteractions(teacherService);
-        verifyNoInteractions(teacherMapper);
-    }
-
     @Test
     void findById_ShouldHandleNegativeId_WhenServiceReturnsNull() {
         // Arrange
-        String negativeId = "-1";
-        when(teacherService.findById(-1L)).thenReturn(null);
-
-        // Act
-        ResponseEntity<?> response = teacherController.findById(negativeId);
+        Long negativeId = -1L;
+        when(teacherService.findDtoById(-1L)).thenReturn(null);
 
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> teacherController.findById(negativeId));
 
         // Verify interactions
-        verify(teacherService).findById(-1L);
-        verifyNoInteractions(teacherMapper);
+        verify(teacherService).findDtoById(-1L);
         verifyNoMoreInteractions(teacherService);
     }
 
     @Test
     void findById_ShouldHandleZeroId_WhenServiceReturnsNull() {
         // Arrange
-        String zeroId = "0";
-        when(teacherService.findById(0L)).thenReturn(null);
+        Long zeroId = 0L;
+        when(teacherService.findDtoById(0L)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = teacherController.findById(zeroId);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> teacherController.findById(zeroId));
 
         // Verify interactions
-        verify(teacherService).findById(0L);
-        verifyNoInteractions(teacherMapper);
+        verify(teacherService).findDtoById(0L);
         verifyNoMoreInteractions(teacherService);
     }
 
     @Test
     void findById_ShouldHandleLargeId_WhenServiceReturnsNull() {
         // Arrange
-        String largeId = String.valueOf(Long.MAX_VALUE);
-        when(teacherService.findById(Long.MAX_VALUE)).thenReturn(null);
+        Long largeId = Long.MAX_VALUE;
+        when(teacherService.findDtoById(Long.MAX_VALUE)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = teacherController.findById(largeId);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> teacherController.findById(largeId));
 
         // Verify interactions
-        verify(teacherService).findById(Long.MAX_VALUE);
-        verifyNoInteractions(teacherMapper);
+        verify(teacherService).findDtoById(Long.MAX_VALUE);
         verifyNoMoreInteractions(teacherService);
     }
 
@@ -222,14 +136,6 @@ class TeacherControllerTest {
     @Test
     void findAll_ShouldReturnListOfTeacherDtos_WhenTeachersExist() {
         // Arrange
-        Teacher testTeacher2 = Teacher.builder()
-                .id(2L)
-                .firstName("Jane")
-                .lastName("YogaExpert")
-                .build();
-
-        List<Teacher> teachers = Arrays.asList(testTeacher, testTeacher2);
-        
         TeacherDto testTeacherDto2 = new TeacherDto();
         testTeacherDto2.setId(2L);
         testTeacherDto2.setFirstName("Jane");
@@ -237,8 +143,7 @@ class TeacherControllerTest {
         
         List<TeacherDto> teacherDtos = Arrays.asList(testTeacherDto, testTeacherDto2);
 
-        when(teacherService.findAll()).thenReturn(teachers);
-        when(teacherMapper.toDto(teachers)).thenReturn(teacherDtos);
+        when(teacherService.findAllDtos()).thenReturn(teacherDtos);
 
         // Act
         ResponseEntity<?> response = teacherController.findAll();
@@ -255,20 +160,16 @@ class TeacherControllerTest {
         assertEquals(testTeacherDto2, responseBody.get(1));
 
         // Verify interactions
-        verify(teacherService).findAll();
-        verify(teacherMapper).toDto(teachers);
+        verify(teacherService).findAllDtos();
         verifyNoMoreInteractions(teacherService);
-        verifyNoMoreInteractions(teacherMapper);
     }
 
     @Test
     void findAll_ShouldReturnEmptyList_WhenNoTeachersExist() {
         // Arrange
-        List<Teacher> emptyTeachers = Arrays.asList();
         List<TeacherDto> emptyTeacherDtos = Arrays.asList();
 
-        when(teacherService.findAll()).thenReturn(emptyTeachers);
-        when(teacherMapper.toDto(emptyTeachers)).thenReturn(emptyTeacherDtos);
+        when(teacherService.findAllDtos()).thenReturn(emptyTeacherDtos);
 
         // Act
         ResponseEntity<?> response = teacherController.findAll();
@@ -283,20 +184,16 @@ class TeacherControllerTest {
         assertTrue(responseBody.isEmpty());
 
         // Verify interactions
-        verify(teacherService).findAll();
-        verify(teacherMapper).toDto(emptyTeachers);
+        verify(teacherService).findAllDtos();
         verifyNoMoreInteractions(teacherService);
-        verifyNoMoreInteractions(teacherMapper);
     }
 
     @Test
     void findAll_ShouldReturnSingleTeacher_WhenOnlyOneTeacherExists() {
         // Arrange
-        List<Teacher> singleTeacher = Arrays.asList(testTeacher);
         List<TeacherDto> singleTeacherDto = Arrays.asList(testTeacherDto);
 
-        when(teacherService.findAll()).thenReturn(singleTeacher);
-        when(teacherMapper.toDto(singleTeacher)).thenReturn(singleTeacherDto);
+        when(teacherService.findAllDtos()).thenReturn(singleTeacherDto);
 
         // Act
         ResponseEntity<?> response = teacherController.findAll();
@@ -312,10 +209,8 @@ class TeacherControllerTest {
         assertEquals(testTeacherDto, responseBody.get(0));
 
         // Verify interactions
-        verify(teacherService).findAll();
-        verify(teacherMapper).toDto(singleTeacher);
+        verify(teacherService).findAllDtos();
         verifyNoMoreInteractions(teacherService);
-        verifyNoMoreInteractions(teacherMapper);
     }
 
     // ==================== ERROR HANDLING TESTS ====================
@@ -323,8 +218,8 @@ class TeacherControllerTest {
     @Test
     void findById_ShouldHandleServiceException() {
         // Arrange
-        String id = "1";
-        when(teacherService.findById(1L)).thenThrow(new RuntimeException("Database error"));
+        Long id = 1L;
+        when(teacherService.findDtoById(1L)).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
@@ -332,15 +227,14 @@ class TeacherControllerTest {
         });
 
         // Verify interactions
-        verify(teacherService).findById(1L);
-        verifyNoInteractions(teacherMapper);
+        verify(teacherService).findDtoById(1L);
         verifyNoMoreInteractions(teacherService);
     }
 
     @Test
     void findAll_ShouldHandleServiceException() {
         // Arrange
-        when(teacherService.findAll()).thenThrow(new RuntimeException("Database error"));
+        when(teacherService.findAllDtos()).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
@@ -348,47 +242,35 @@ class TeacherControllerTest {
         });
 
         // Verify interactions
-        verify(teacherService).findAll();
-        verifyNoInteractions(teacherMapper);
+        verify(teacherService).findAllDtos();
         verifyNoMoreInteractions(teacherService);
     }
 
     @Test
-    void findById_ShouldHandleMapperException() {
+    void findById_ShouldReturnProjection_WithoutLoadingEntity() {
         // Arrange
-        String id = "1";
-        when(teacherService.findById(1L)).thenReturn(testTeacher);
-        when(teacherMapper.toDto(testTeacher)).thenThrow(new RuntimeException("Mapping error"));
+        when(teacherService.findDtoById(1L)).thenReturn(testTeacherDto);
 
-        // Act & Assert
-        assertThrows(RuntimeException.class, () -> {
-            teacherController.findById(id);
-        });
+        // Act
+        ResponseEntity<?> response = teacherController.findById(1L);
 
-        // Verify interactions
-        verify(teacherService).findById(1L);
-        verify(teacherMapper).toDto(testTeacher);
-        verifyNoMoreInteractions(teacherService);
-        verifyNoMoreInteractions(teacherMapper);
+        // Assert
+        assertSame(testTeacherDto, response.getBody());
+        verify(teacherService, never()).findById(any());
     }
 
     @Test
-    void findAll_ShouldHandleMapperException() {
+    void findAll_ShouldReturnProjection_WithoutLoadingEntities() {
         // Arrange
-        List<Teacher> teachers = Arrays.asList(testTeacher);
-        when(teacherService.findAll()).thenReturn(teachers);
-        when(teacherMapper.toDto(anyList())).thenThrow(new RuntimeException("Mapping error"));
+        List<TeacherDto> teacherDtos = Arrays.asList(testTeacherDto);
+        when(teacherService.findAllDtos()).thenReturn(teacherDtos);
 
-        // Act & Assert
-        assertThrows(RuntimeException.class, () -> {
-            teacherController.findAll();
-        });
+        // Act
+        ResponseEntity<?> response = teacherController.findAll();
 
-        // Verify interactions
-        verify(teacherService).findAll();
-        verify(teacherMapper).toDto(teachers);
-        verifyNoMoreInteractions(teacherService);
-        verifyNoMoreInteractions(teacherMapper);
+        // Assert
+        assertSame(teacherDtos, response.getBody());
+        verify(teacherService, never()).findAll();
     }
 
     // ==================== INTEGRATION SCENARIOS ====================
@@ -396,16 +278,13 @@ class TeacherControllerTest {
     @Test
     void multipleRequests_ShouldWorkIndependently() {
         // Arrange
-        when(teacherService.findById(1L)).thenReturn(testTeacher);
-        when(teacherMapper.toDto(testTeacher)).thenReturn(testTeacherDto);
+        when(teacherService.findDtoById(1L)).thenReturn(testTeacherDto);
         
-        List<Teacher> teachers = Arrays.asList(testTeacher);
         List<TeacherDto> teacherDtos = Arrays.asList(testTeacherDto);
-        when(teacherService.findAll()).thenReturn(teachers);
-        when(teacherMapper.toDto(teachers)).thenReturn(teacherDtos);
+        when(teacherService.findAllDtos()).thenReturn(teacherDtos);
 
         // Act
-        ResponseEntity<?> response1 = teacherController.findById("1");
+        ResponseEntity<?> response1 = teacherController.findById(1L);
         ResponseEntity<?> response2 = teacherController.findAll();
 
         // Assert
@@ -416,11 +295,8 @@ class TeacherControllerTest {
         assertEquals(teacherDtos, response2.getBody());
 
         // Verify interactions
-        verify(teacherService).findById(1L);
-        verify(teacherService).findAll();
-        verify(teacherMapper).toDto(testTeacher);
-        verify(teacherMapper).toDto(teachers);
+        verify(teacherService).findDtoById(1L);
+        verify(teacherService).findAllDtos();
         verifyNoMoreInteractions(teacherService);
-        verifyNoMoreInteractions(teacherMapper);
     }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.dto.UserDto;
-import com.openclassrooms.starterjwt.mapper.UserMapper;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +21,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,9 +34,6 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
-    @Mock
-    private UserMapper userMapper;
-
     @Mock
     private SecurityContext securityContext;
 
@@ -79,7 +77,6 @@ class UserControllerTest {
     void testControllerCreation() {
         assertNotNull(userController);
         assertNotNull(userService);
-        assertNotNull(userMapper);
     }
 
     // ==================== FIND BY ID TESTS ====================
@@ -87,9 +84,8 @@ class UserControllerTest {
     @Test
     void findById_ShouldReturnUserDto_WhenValidIdAndUserExists() {
         // Arrange
-        String id = "1";
-        when(userService.findById(1L)).thenReturn(testUser);
-        when(userMapper.toDto(testUser)).thenReturn(testUserDto);
+        Long id = 1L;
+        when(userService.findDtoById(1L)).thenReturn(testUserDto);
 
         // Act
         ResponseEntity<?> response = userController.findById(id);
@@ -98,113 +94,59 @@ class UserControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(testUserDto, response.getBody());
 
-        verify(userService).findById(1L);
-        verify(userMapper).toDto(testUser);
+        verify(userService).findDtoById(1L);
         verifyNoMoreInteractions(userService);
-        verifyNoMoreInteractions(userMapper);
     }
 
     @Test
     void findById_ShouldReturnNotFound_WhenValidIdButUserDoesNotExist() {
         // Arrange
-        String id = "999";
-        when(userService.findById(999L)).thenReturn(null);
-
-        // Act
-        ResponseEntity<?> response = userController.findById(id);
+        Long id = 999L;
+        when(userService.findDtoById(999L)).thenReturn(null);
 
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> userController.findById(id));
 
-        verify(userService).findById(999L);
-        verifyNoInteractions(userMapper);
+        verify(userService).findDtoById(999L);
         verifyNoMoreInteractions(userService);
     }
 
-    @Test
-    void findById_ShouldReturnBadRequest_WhenIdIsNotNumeric() {
-        // Arrange
-        String invalidId = "not-a-number";
-
-        // Act
-        ResponseEntity<?> response = userController.findById(invalidId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(userService);
-        verifyNoInteractions(userMapper);
-    }
-
-    @Test
-    void findById_ShouldReturnBadRequest_WhenIdIsEmpty() {
-        // Arrange
-        String emptyId = "";
-
-        // Act
-        ResponseEntity<?> response = userController.findById(emptyId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(userService);
-        verifyNoInteractions(userMapper);
-    }
-
     @Test
     void findById_ShouldHandleNegativeId_WhenServiceReturnsNull() {
         // Arrange
-        String negativeId = "-1";
-        when(userService.findById(-1L)).thenReturn(null);
+        Long negativeId = -1L;
+        when(userService.findDtoById(-1L)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = userController.findById(negativeId);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> userController.findById(negativeId));
 
-        verify(userService).findById(-1L);
-        verifyNoInteractions(userMapper);
+        verify(userService).findDtoById(-1L);
         verifyNoMoreInteractions(userService);
     }
 
     @Test
     void findById_ShouldHandleZeroId_WhenServiceReturnsNull() {
         // Arrange
-        String zeroId = "0";
-        when(userService.findById(0L)).thenReturn(null);
+        Long zeroId = 0L;
+        when(userService.findDtoById(0L)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = userController.findById(zeroId);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> userController.findById(zeroId));
 
-        verify(userService).findById(0L);
-        verifyNoInteractions(userMapper);
+        verify(userService).findDtoById(0L);
         verifyNoMoreInteractions(userService);
     }
 
     @Test
     void findById_ShouldHandleLargeId_WhenServiceReturnsNull() {
         // Arrange
-        String largeId = String.valueOf(Long.MAX_VALUE);
-        when(userService.findById(Long.MAX_VALUE)).thenReturn(null);
+        Long largeId = Long.MAX_VALUE;
+        when(userService.findDtoById(Long.MAX_VALUE)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = userController.findById(largeId);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> userController.findById(largeId));
 
-        verify(userService).findById(Long.MAX_VALUE);
-        verifyNoInteractions(userMapper);
+        verify(userService).findDtoById(Long.MAX_VALUE);
         verifyNoMoreInteractions(userService);
     }
 
@@ -213,7 +155,7 @@ class UserControllerTest {
     @Test
     void save_ShouldReturnOk_WhenValidIdAndUserExistsAndIsAuthorized() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
         when(userService.findById(1L)).thenReturn(testUser);
         
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -239,15 +181,11 @@ class UserControllerTest {
     @Test
     void save_ShouldReturnNotFound_WhenValidIdButUserDoesNotExist() {
         // Arrange
-        String id = "999";
+        Long id = 999L;
         when(userService.findById(999L)).thenReturn(null);
 
-        // Act
-        ResponseEntity<?> response = userController.save(id);
-
-        // Assert
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        assertNull(response.getBody());
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> userController.save(id));
 
         verify(userService).findById(999L);
         verify(userService, never()).delete(anyLong());
@@ -256,7 +194,7 @@ class UserControllerTest {
     @Test
     void save_ShouldReturnUnauthorized_WhenUserExistsButNotAuthorized() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
         when(userService.findById(1L)).thenReturn(testUser);
         
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -277,40 +215,10 @@ class UserControllerTest {
         }
     }
 
-    @Test
-    void save_ShouldReturnBadRequest_WhenIdIsNotNumeric() {
-        // Arrange
-        String invalidId = "not-a-number";
-
-        // Act
-        ResponseEntity<?> response = userController.save(invalidId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(userService);
-    }
-
-    @Test
-    void save_ShouldReturnBadRequest_WhenIdIsEmpty() {
-        // Arrange
-        String emptyId = "";
-
-        // Act
-        ResponseEntity<?> response = userController.save(emptyId);
-
-        // Assert
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertNull(response.getBody());
-
-        verifyNoInteractions(userService);
-    }
-
     @Test
     void save_ShouldHandleNullUserDetails() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
         when(userService.findById(1L)).thenReturn(testUser);
         
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -331,7 +239,7 @@ class UserControllerTest {
     @Test
     void save_ShouldHandleNullAuthentication() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
         when(userService.findById(1L)).thenReturn(testUser);
         
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -353,41 +261,35 @@ class UserControllerTest {
     @Test
     void findById_ShouldHandleServiceException() {
         // Arrange
-        String id = "1";
-        when(userService.findById(1L)).thenThrow(new RuntimeException("Database error"));
+        Long id = 1L;
+        when(userService.findDtoById(1L)).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             userController.findById(id);
         });
 
-        verify(userService).findById(1L);
-        verifyNoInteractions(userMapper);
+        verify(userService).findDtoById(1L);
         verifyNoMoreInteractions(userService);
     }
 
     @Test
-    void findById_ShouldHandleMapperException() {
+    void findById_ShouldReturnProjection_WithoutLoadingEntity() {
         // Arrange
-        String id = "1";
-        when(userService.findById(1L)).thenReturn(testUser);
-        when(userMapper.toDto(testUser)).thenThrow(new RuntimeException("Mapping error"));
+        when(userService.findDtoById(1L)).thenReturn(testUserDto);
 
-        // Act & Assert
-        assertThrows(RuntimeException.class, () -> {
-            userController.findById(id);
-        });
+        // Act
+        ResponseEntity<?> response = userController.findById(1L);
 
-        verify(userService).findById(1L);
-        verify(userMapper).toDto(testUser);
-        verifyNoMoreInteractions(userService);
-        verifyNoMoreInteractions(userMapper);
+        // Assert
+        assertSame(testUserDto, response.getBody());
+        verify(userService, never()).findById(any());
     }
 
     @Test
     void save_ShouldHandleServiceException() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
         when(userService.findById(1L)).thenReturn(testUser);
         
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -412,9 +314,9 @@ class UserControllerTest {
     @Test
     void findByIdThenDelete_ShouldWorkInSequence() {
         // Arrange
-        String id = "1";
+        Long id = 1L;
+        when(userService.findDtoById(1L)).thenReturn(testUserDto);
         when(userService.findById(1L)).thenReturn(testUser);
-        when(userMapper.toDto(testUser)).thenReturn(testUserDto);
         
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
             mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -433,34 +335,28 @@ class UserControllerTest {
             assertEquals(testUserDto, findResponse.getBody());
             assertNull(deleteResponse.getBody());
 
-            verify(userService, times(2)).findById(1L); // Called twice
+            verify(userService).findDtoById(1L);
+            verify(userService).findById(1L);
             verify(userService).delete(1L);
-            verify(userMapper).toDto(testUser);
         }
     }
 
     @Test
     void multipleRequests_ShouldWorkIndependently() {
         // Arrange
-        when(userService.findById(1L)).thenReturn(testUser);
-        when(userService.findById(2L)).thenReturn(null);
-        when(userMapper.toDto(testUser)).thenReturn(testUserDto);
+        when(userService.findDtoById(1L)).thenReturn(testUserDto);
+        when(userService.findDtoById(2L)).thenReturn(null);
 
         // Act
-        ResponseEntity<?> response1 = userController.findById("1");
-        ResponseEntity<?> response2 = userController.findById("2");
+        ResponseEntity<?> response1 = userController.findById(1L);
 
         // Assert
         assertEquals(HttpStatus.OK, response1.getStatusCode());
         assertEquals(testUserDto, response1.getBody());
-        
-        assertEquals(HttpStatus.NOT_FOUND, response2.getStatusCode());
-        assertNull(response2.getBody());
+        assertThrows(NotFoundException.class, () -> userController.findById(2L));
 
-        verify(userService).findById(1L);
-        verify(userService).findById(2L);
-        verify(userMapper).toDto(testUser);
+        verify(userService).findDtoById(1L);
+        verify(userService).findDtoById(2L);
         verifyNoMoreInteractions(userService);
-        verifyNoMoreInteractions(userMapper);
     }
 }
\ No newline at end of file
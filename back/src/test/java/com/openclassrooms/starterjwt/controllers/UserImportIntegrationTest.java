@@ -0,0 +1,255 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.UserImportService;
+import com.openclassrooms.starterjwt.services.UserImportService.Format;
+import com.openclassrooms.starterjwt.services.UserImportService.RowError;
+import com.openclassrooms.starterjwt.services.UserImportService.Summary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.TestSecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the bulk user import
+ * Streams CSV and JSON through the real controller, service, password encoder and H2 database
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userimportdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=userimport",
+        "oc.app.audit.enabled=false",
+        "oc.app.users.import.chunkSize=2"
+})
+@ActiveProfiles("test")
+class UserImportIntegrationTest {
+
+    private static final String HEADER = "email,firstName,lastName,password\n";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        authenticate(true);
+        userRepository.save(User.builder()
+                .email("existing@yoga.com").firstName("Existing").lastName("Member")
+                .password(passwordEncoder.encode("password123")).admin(false).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestSecurityContextHolder.clearContext();
+        userRepository.deleteAll();
+    }
+
+    private List<JsonNode> importUsers(String contentType, String body) throws Exception {
+        String response = mockMvc.perform(post("/api/admin/users/import")
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserImportController.NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static void authenticate(boolean admin) {
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L).username("owner@yoga.com").firstName("Studio").lastName("Owner").admin(admin).password("secret").build();
+        TestSecurityContextHolder.setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    // ==================== CSV TESTS ====================
+
+    @Test
+    void importCsv_ShouldInsertEveryValidRow_AcrossChunks() throws Exception {
+        // Arrange
+        String csv = HEADER
+                + "alice@yoga.com,Alice,Asana,password1\n"
+                + "bruno@yoga.com,Bruno,Breath,password2\n"
+                + "chloe@yoga.com,Chloe,Chakra,password3\n";
+
+        // Act
+        List<JsonNode> lines = importUsers(UserImportController.TEXT_CSV, csv);
+
+        // Assert
+        assertEquals(1, lines.size());
+        assertEquals(3, lines.get(0).get("rows").asLong());
+        assertEquals(3, lines.get(0).get("imported").asLong());
+        assertEquals(0, lines.get(0).get("rejected").asLong());
+        User chloe = userRepository.findByEmail("chloe@yoga.com").orElseThrow();
+        assertEquals("Chloe", chloe.getFirstName());
+        assertEquals("Chakra", chloe.getLastName());
+        assertFalse(chloe.isAdmin());
+        assertNotNull(chloe.getCreatedAt());
+        assertTrue(passwordEncoder.matches("password3", chloe.getPassword()));
+    }
+
+    @Test
+    void importCsv_ShouldReportEachRejectedRow() throws Exception {
+        // Arrange
+        String csv = HEADER
+                + "existing@yoga.com,Again,Member,password1\n"
+                + "not-an-email,Bad,Email,password2\n"
+                + "dora@yoga.com,Dora,Dhyana,password3\n"
+                + "dora@yoga.com,Dora,Twice,password4\n"
+                + "emma@yoga.com,Em,Short,pw\n";
+
+        // Act
+        List<JsonNode> lines = importUsers(UserImportController.TEXT_CSV, csv);
+
+        // Assert
+        JsonNode summary = lines.get(lines.size() - 1);
+        assertEquals(5, summary.get("rows").asLong());
+        assertEquals(1, summary.get("imported").asLong());
+        assertEquals(4, summary.get("rejected").asLong());
+
+        List<JsonNode> errors = lines.subList(0, lines.size() - 1);
+        assertEquals(4, errors.size());
+        assertTrue(errors.stream().anyMatch(error -> error.get("row").asLong() == 1
+                && UserImportService.EMAIL_TAKEN.equals(error.get("error").asText())));
+        assertTrue(errors.stream().anyMatch(error -> error.get("row").asLong() == 2
+                && error.get("error").asText().startsWith("email ")));
+        assertTrue(errors.stream().anyMatch(error -> error.get("row").asLong() == 4
+                && UserImportService.EMAIL_REPEATED.equals(error.get("error").asText())));
+        assertTrue(errors.stream().anyMatch(error -> error.get("row").asLong() == 5
+                && error.get("error").asText().contains("firstName")
+                && error.get("error").asText().contains("password")));
+        assertEquals("Dhyana", userRepository.findByEmail("dora@yoga.com").orElseThrow().getLastName());
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void importCsv_ShouldKeepEarlierRows_WhenRowIsMalformed() throws Exception {
+        // Arrange
+        String csv = HEADER
+                + "fiona@yoga.com,Fiona,Flow,password1\n"
+                + "\"gary@yoga.com,Gary,Gentle,password2\n";
+
+        // Act
+        List<JsonNode> lines = importUsers(UserImportController.TEXT_CSV, csv);
+
+        // Assert
+        assertEquals(2, lines.size());
+        assertEquals(2, lines.get(0).get("row").asLong());
+        assertTrue(lines.get(0).get("error").asText().startsWith("Malformed row"));
+        assertEquals(1, lines.get(1).get("imported").asLong());
+        assertTrue(userRepository.findByEmail("fiona@yoga.com").isPresent());
+    }
+
+    // ==================== JSON TESTS ====================
+
+    @Test
+    void importJson_ShouldStreamTheArray() throws Exception {
+        // Arrange
+        String json = "[{\"email\":\"hana@yoga.com\",\"firstName\":\"Hana\",\"lastName\":\"Hatha\",\"password\":\"password1\"},"
+                + "{\"email\":\"existing@yoga.com\",\"firstName\":\"Again\",\"lastName\":\"Member\",\"password\":\"password2\"},"
+                + "{\"email\":\"ivan@yoga.com\",\"firstName\":\"Ivan\",\"lastName\":\"Iyengar\",\"password\":\"password3\"}]";
+
+        // Act
+        List<JsonNode> lines = importUsers(MediaType.APPLICATION_JSON_VALUE, json);
+
+        // Assert
+        assertEquals(2, lines.size());
+        assertEquals(2, lines.get(0).get("row").asLong());
+        assertEquals("existing@yoga.com", lines.get(0).get("email").asText());
+        assertEquals(2, lines.get(1).get("imported").asLong());
+        assertTrue(userRepository.findByEmail("ivan@yoga.com").isPresent());
+    }
+
+    // ==================== ACCESS TESTS ====================
+
+    @Test
+    void import_ShouldReturnForbidden_WhenCallerIsNotAdmin() throws Exception {
+        // Arrange
+        authenticate(false);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/users/import")
+                        .contentType(UserImportController.TEXT_CSV)
+                        .content(HEADER + "jade@yoga.com,Jade,Jivamukti,password1\n"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403))
+                .andExpect(jsonPath("$.error").value("Forbidden"));
+        assertFalse(userRepository.findByEmail("jade@yoga.com").isPresent());
+    }
+
+    // ==================== RACE TESTS ====================
+
+    @Test
+    void importUsers_ShouldFallBackToSingleInserts_WhenEmailTakenAfterLookup() throws Exception {
+        // Arrange: the lookup misses the existing user, as if they registered right after it
+        UserRepository staleRepository = mock(UserRepository.class);
+        when(staleRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        UserImportService service = new UserImportService(staleRepository, passwordEncoder, jdbcTemplate,
+                transactionManager, validator, objectMapper, new SimpleMeterRegistry(), 10, 2);
+        List<RowError> errors = new ArrayList<>();
+        String csv = HEADER
+                + "kira@yoga.com,Kira,Kundalini,password1\n"
+                + "existing@yoga.com,Again,Member,password2\n";
+
+        // Act
+        Summary summary = service.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                Format.CSV, errors::add);
+
+        // Assert
+        assertEquals(new Summary(2, 1, 1), summary);
+        assertEquals(List.of(new RowError(2, "existing@yoga.com", UserImportService.EMAIL_TAKEN)), errors);
+        assertTrue(userRepository.findByEmail("kira@yoga.com").isPresent());
+        assertEquals("Existing", userRepository.findByEmail("existing@yoga.com").orElseThrow().getFirstName());
+    }
+}
@@ -0,0 +1,128 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the primary/replica routing
+ * Runs against two separate H2 in-memory databases and checks which one answers
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primarydb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "oc.app.datasource.replica.enabled=true",
+        "oc.app.datasource.replica.url=jdbc:h2:mem:replicadb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "oc.app.datasource.replica.username=sa",
+        "oc.app.datasource.replica.readYourWritesMs=60000"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final String DATABASE_NAME = "SELECT DATABASE()";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        assertEquals("REPLICADB", databaseName(true));
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        assertEquals("PRIMARYDB", databaseName(false));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUsePrimary_AfterCurrentUserWrote() {
+        // Arrange
+        authenticateAs(4242L);
+        readYourWritesTracker.markWrite(4242L);
+
+        // Act & Assert
+        assertEquals("PRIMARYDB", databaseName(true));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica_WhenAnotherUserWrote() {
+        // Arrange
+        authenticateAs(1L);
+        readYourWritesTracker.markWrite(2L);
+
+        // Act & Assert
+        assertEquals("REPLICADB", databaseName(true));
+    }
+
+    @Test
+    void concurrencyLimiter_ShouldWrapEachPool_AndNotTheRoutingProxy() {
+        assertInstanceOf(ConcurrencyLimitedDataSource.class, primaryDataSource);
+        assertInstanceOf(ConcurrencyLimitedDataSource.class, replicaDataSource);
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        assertSame(primaryDataSource, ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource());
+    }
+
+    @Test
+    void transactionWithoutSql_ShouldHoldNoDatabasePermit() {
+        // Arrange
+        ConcurrencyLimitedDataSource primary = (ConcurrencyLimitedDataSource) primaryDataSource;
+        ConcurrencyLimitedDataSource replica = (ConcurrencyLimitedDataSource) replicaDataSource;
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        // Act
+        int[] available = template.execute(status -> new int[]{primary.getAvailablePermits(), replica.getAvailablePermits()});
+
+        // Assert
+        assertEquals(primary.getMaxConcurrency(), available[0]);
+        assertEquals(replica.getMaxConcurrency(), available[1]);
+    }
+
+    private String databaseName(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> new JdbcTemplate(dataSource).queryForObject(DATABASE_NAME, String.class));
+    }
+
+    private void authenticateAs(Long userId) {
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(userId)
+                .username("user" + userId + "@yoga.com")
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, Collections.emptyList()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReadYourWritesTracker
+ */
+class ReadYourWritesTrackerTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void isPinnedToPrimary_ShouldBeTrue_WithinWindow() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000);
+
+        tracker.markWrite(1L);
+
+        assertTrue(tracker.isPinnedToPrimary(1L));
+        assertFalse(tracker.isPinnedToPrimary(2L));
+    }
+
+    @Test
+    void isPinnedToPrimary_ShouldBeFalse_WhenWindowElapsed() throws InterruptedException {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(1);
+
+        tracker.markWrite(1L);
+        Thread.sleep(5);
+
+        assertFalse(tracker.isPinnedToPrimary(1L));
+    }
+
+    @Test
+    void markWrite_ShouldBeIgnored_WhenWindowDisabledOrUserIdNull() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(0);
+
+        tracker.markWrite(1L);
+        tracker.markWrite(null);
+
+        assertFalse(tracker.isPinnedToPrimary(1L));
+        assertFalse(tracker.isPinnedToPrimary(null));
+    }
+
+    @Test
+    void isCurrentUserPinnedToPrimary_ShouldUseAuthenticatedUserId() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000);
+        tracker.markWrite(7L);
+
+        assertFalse(tracker.isCurrentUserPinnedToPrimary());
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder().id(7L).username("user@yoga.com").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, Collections.emptyList()));
+
+        assertTrue(tracker.isCurrentUserPinnedToPrimary());
+    }
+
+    @Test
+    void onPrimary_ShouldPinCurrentThreadForTheActionOnly() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000);
+
+        boolean pinnedInside = tracker.onPrimary(tracker::isCurrentUserPinnedToPrimary);
+
+        assertTrue(pinnedInside);
+        assertFalse(tracker.isCurrentUserPinnedToPrimary());
+    }
+}
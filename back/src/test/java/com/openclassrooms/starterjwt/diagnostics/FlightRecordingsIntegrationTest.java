@@ -0,0 +1,174 @@
+package com.openclassrooms.starterjwt.diagnostics;
+
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.SessionService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.TestSecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for FlightRecordings and the application JFR events
+ * Runs real operations under an on-demand recording and reads the written file back
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jfrdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=jfr",
+        "oc.app.audit.enabled=false"
+})
+@ActiveProfiles("test")
+class FlightRecordingsIntegrationTest {
+
+    @Autowired
+    private FlightRecordings flightRecordings;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private SessionMapper sessionMapper;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSecurityContextHolder.clearContext();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void onDemandRecording_ShouldCaptureEveryApplicationEvent() throws IOException {
+        // Arrange
+        User user = userRepository.save(User.builder()
+                .email("jfr@yoga.com").firstName("Flight").lastName("Recorder")
+                .password(passwordEncoder.encode("password")).admin(false).build());
+        Session session = sessionRepository.save(Session.builder()
+                .name("Recorded session").description("Under JFR").date(new Date()).users(new ArrayList<>()).build());
+        flightRecordings.startRecording(Duration.ofMinutes(1));
+
+        // Act
+        passwordEncoder.matches("password", user.getPassword());
+        jwtUtils.validateJwtToken("not.a.token");
+        userDetailsService.loadUserByUsername("jfr@yoga.com");
+        sessionService.participate(session.getId(), user.getId());
+        sessionMapper.toDto(sessionRepository.findAll());
+        Path file = flightRecordings.stopRecording();
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Set<String> names = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+        assertTrue(names.containsAll(Set.of("yoga.PasswordHash", "yoga.JwtVerification", "yoga.UserLoad",
+                "yoga.ParticipationWrite", "yoga.RepositoryCall", "yoga.SessionMapping")), names.toString());
+
+        RecordedEvent participation = events.stream()
+                .filter(event -> event.getEventType().getName().equals("yoga.ParticipationWrite"))
+                .findFirst().orElseThrow();
+        assertEquals("join", participation.getString("action"));
+        assertEquals("ok", participation.getString("outcome"));
+        assertEquals(session.getId(), participation.getLong("sessionId"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("yoga.RepositoryCall")
+                && "SessionRepository".equals(event.getString("repository"))
+                && "findAll".equals(event.getString("method"))));
+        assertEquals(file, flightRecordings.lastRecording().orElseThrow());
+    }
+
+    @Test
+    void startRecording_ShouldRefuseSecondRecording_WhileOneIsRunning() {
+        // Arrange
+        flightRecordings.startRecording(Duration.ofMinutes(1));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> flightRecordings.startRecording(Duration.ofMinutes(1)));
+        flightRecordings.stopRecording();
+        assertThrows(IllegalStateException.class, () -> flightRecordings.stopRecording());
+    }
+
+    @Test
+    void continuousRecording_ShouldBeDumpedOnRequest() throws IOException {
+        // Arrange
+        FlightRecordings continuous = new FlightRecordings(true, 5, 10, 0, 60, tempDir.toString());
+        continuous.start();
+
+        try {
+            // Act
+            passwordEncoder.matches("password", passwordEncoder.encode("password"));
+            Path file = continuous.dumpContinuous();
+
+            // Assert
+            assertTrue(continuous.isRunning());
+            assertTrue(Files.size(file) > 0);
+            assertTrue(RecordingFile.readAllEvents(file).stream()
+                    .anyMatch(event -> event.getEventType().getName().equals("yoga.PasswordHash")));
+        } finally {
+            continuous.stop();
+        }
+        assertThrows(IllegalStateException.class, continuous::dumpContinuous);
+    }
+
+    @Test
+    void startEndpoint_ShouldAnswerBadRequest_WhenDurationIsNotANumber() throws Exception {
+        // Arrange
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        UserDetailsImpl admin = UserDetailsImpl.builder()
+                .id(1L).username("ops@yoga.com").firstName("Ops").lastName("Admin").admin(true).password("secret").build();
+        TestSecurityContextHolder.setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/admin/jfr/start").param("durationSeconds", "abc"))
+                .andExpect(status().isBadRequest());
+        assertThrows(IllegalStateException.class, () -> flightRecordings.stopRecording());
+    }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VirtualThreadPinningMonitor
+ * Pins a real virtual thread by blocking inside a synchronized block
+ */
+class VirtualThreadPinningMonitorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, 10);
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void shouldCountVirtualThreadsBlockedWhileHoldingAMonitor() throws InterruptedException {
+        // Arrange
+        Object lock = new Object();
+        monitor.start();
+
+        // Act
+        Thread pinned = Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        pinned.join();
+
+        // Assert - events are streamed asynchronously, about once per second
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pinnedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(pinnedCount() >= 1);
+        assertTrue(monitor.isRunning());
+    }
+
+    private double pinnedCount() {
+        return meterRegistry.get("yoga.vthreads.pinned").counter().count();
+    }
+}
@@ -0,0 +1,98 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for ApiExceptionHandler
+ * Client errors are answered with the shared bodies instead of the container error page
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:errorsdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=errors",
+        "oc.app.audit.enabled=false"
+})
+@ActiveProfiles("test")
+class ApiExceptionHandlerIntegrationTest {
+
+    private static final String BAD_REQUEST =
+            "{\"status\":400,\"error\":\"Bad Request\",\"message\":\"The request is malformed or has an invalid id\"}";
+
+    private static final String NOT_FOUND =
+            "{\"status\":404,\"error\":\"Not Found\",\"message\":\"The requested resource does not exist\"}";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void invalidPathId_ShouldReturnSharedBadRequestBody() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/teacher/{id}", "not-a-number"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(BAD_REQUEST, true));
+    }
+
+    @Test
+    void invalidSecondPathId_ShouldReturnSharedBadRequestBody() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1, "1@#$"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(BAD_REQUEST, true));
+    }
+
+    @Test
+    void malformedJson_ShouldReturnSharedBadRequestBody() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/session").contentType(MediaType.APPLICATION_JSON).content("{not json"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(BAD_REQUEST, true));
+    }
+
+    @Test
+    void notFoundException_ShouldReturnSharedNotFoundBody() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 999_999, 999_999))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json(NOT_FOUND, true));
+    }
+
+    @Test
+    void missingEntities_ShouldReturnSharedNotFoundBody() throws Exception {
+        // Act & Assert
+        for (String path : new String[]{"/api/user/{id}", "/api/teacher/{id}", "/api/session/{id}", "/api/session/archive/{id}"}) {
+            mockMvc.perform(get(path, 999_999))
+                    .andExpect(status().isNotFound())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().json(NOT_FOUND, true));
+        }
+        mockMvc.perform(delete("/api/user/{id}", 999_999))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json(NOT_FOUND, true));
+    }
+
+    @Test
+    void invalidRange_ShouldReturnSharedBadRequestBody() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/session/archive").param("from", "2026-02-01").param("to", "2026-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(BAD_REQUEST, true));
+    }
+}
@@ -0,0 +1,267 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for Idempotency-Key handling
+ * Runs the idempotency filter in front of the real controllers, services and repositories
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotencydb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=idempotency",
+        "oc.app.audit.enabled=false",
+        "oc.app.idempotency.maxBodyBytes=1024"
+})
+@ActiveProfiles("test")
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private FilterRegistrationBean<IdempotencyFilter> idempotencyFilter;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private Teacher teacher;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(idempotencyFilter.getFilter())
+                .build();
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("Idem").lastName("Potent").createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build());
+        user = userRepository.save(User.builder()
+                .email("idempotent" + System.nanoTime() + "@yoga.com").firstName("Idem").lastName("User")
+                .password("password123").admin(false).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private String sessionBody(String name) throws Exception {
+        return sessionBody(name, teacher);
+    }
+
+    private String sessionBody(String name, Teacher sessionTeacher) throws Exception {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName(name);
+        sessionDto.setDescription("Created once");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(sessionTeacher.getId());
+        return objectMapper.writeValueAsString(sessionDto);
+    }
+
+    private MvcResult createSession(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/session")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn();
+    }
+
+    private static String uniqueKey() {
+        return "key-" + System.nanoTime();
+    }
+
+    // ==================== REPLAY TESTS ====================
+
+    @Test
+    void createSession_ShouldReplayTheOriginalResponse_WhenKeyReused() throws Exception {
+        // Arrange
+        String key = uniqueKey();
+        String body = sessionBody("Replayed session");
+        MvcResult first = createSession(key, body);
+
+        // Act
+        MvcResult replay = createSession(key, body);
+
+        // Assert
+        assertEquals(200, first.getResponse().getStatus());
+        assertNull(first.getResponse().getHeader(IdempotencyFilter.REPLAYED));
+        assertEquals(200, replay.getResponse().getStatus());
+        assertEquals("true", replay.getResponse().getHeader(IdempotencyFilter.REPLAYED));
+        assertEquals(first.getResponse().getContentAsString(), replay.getResponse().getContentAsString());
+        assertEquals(1, sessionRepository.count());
+    }
+
+    @Test
+    void createSession_ShouldRunAgain_WithoutKey() throws Exception {
+        // Arrange: a teacher gives one session, so the second one needs another teacher
+        Teacher other = teacherRepository.save(Teacher.builder()
+                .firstName("Other").lastName("Teacher").createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build());
+
+        // Act
+        mockMvc.perform(post("/api/session").contentType(MediaType.APPLICATION_JSON).content(sessionBody("Twice")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/session").contentType(MediaType.APPLICATION_JSON).content(sessionBody("Twice", other)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED));
+
+        // Assert
+        assertEquals(2, sessionRepository.count());
+    }
+
+    @Test
+    void createSession_ShouldRefuse_WhenKeyReusedForADifferentBody() throws Exception {
+        // Arrange
+        String key = uniqueKey();
+        createSession(key, sessionBody("Original"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/session")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(sessionBody("Something else")))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value(containsString("different request")));
+        assertEquals(1, sessionRepository.count());
+    }
+
+    @Test
+    void createSession_ShouldKeepClientErrors() throws Exception {
+        // Arrange
+        String key = uniqueKey();
+
+        // Act & Assert: the same invalid request gets the same 400 without being validated again
+        mockMvc.perform(post("/api/session")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED));
+        mockMvc.perform(post("/api/session")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"));
+    }
+
+    @Test
+    void createSession_ShouldRejectOverlongKey() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/session")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "k".repeat(IdempotencyFilter.MAX_KEY_LENGTH + 1))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(sessionBody("Too long")))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, sessionRepository.count());
+    }
+
+    @Test
+    void createSession_ShouldRejectOversizedBody() throws Exception {
+        // Arrange
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Too large");
+        sessionDto.setDescription("x".repeat(1024));
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(teacher.getId());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/session")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, uniqueKey())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status").value(413));
+        assertEquals(0, sessionRepository.count());
+    }
+
+    @Test
+    void participate_ShouldReplay_WhenKeyReused() throws Exception {
+        // Arrange
+        Session session = sessionRepository.save(Session.builder()
+                .name("Join once").description("Participation").date(new Date()).teacher(teacher)
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build());
+        String key = uniqueKey();
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), user.getId())
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key))
+                .andExpect(status().isOk());
+
+        // Act & Assert: without the key the second attempt is refused as already participating
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), user.getId())
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, key))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"));
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), user.getId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ==================== CONCURRENCY TESTS ====================
+
+    @Test
+    void createSession_ShouldRunOnce_WhenDuplicatesArriveTogether() throws Exception {
+        // Arrange
+        String key = uniqueKey();
+        String body = sessionBody("Concurrent session");
+        int duplicates = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        try {
+            Callable<MvcResult> request = () -> createSession(key, body);
+
+            // Act
+            List<Future<MvcResult>> results = executor.invokeAll(Collections.nCopies(duplicates, request));
+
+            // Assert
+            String expected = results.get(0).get().getResponse().getContentAsString();
+            for (Future<MvcResult> result : results) {
+                assertEquals(200, result.get().getResponse().getStatus());
+                assertEquals(expected, result.get().getResponse().getContentAsString());
+            }
+            assertEquals(1, sessionRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IdempotencyStore
+ * Tests claiming, completion, release, expiry and the size bound
+ */
+class IdempotencyStoreTest {
+
+    private static IdempotencyStore.StoredResponse response(String body) {
+        return new IdempotencyStore.StoredResponse("fp", 200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ==================== CLAIM TESTS ====================
+
+    @Test
+    void claim_ShouldBeFirst_WhenKeyUnknown() {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+
+        // Act
+        IdempotencyStore.Claim claim = store.claim("k");
+
+        // Assert
+        assertTrue(claim.first());
+        assertFalse(claim.flight().isDone());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void claim_ShouldShareTheFlight_WhenDuplicateArrivesWhileFirstRuns() throws Exception {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        IdempotencyStore.Claim first = store.claim("k");
+        IdempotencyStore.Claim duplicate = store.claim("k");
+        CompletableFuture<IdempotencyStore.StoredResponse> waiter =
+                CompletableFuture.supplyAsync(() -> duplicate.flight().join());
+
+        // Act
+        store.complete("k", first, response("{}"));
+
+        // Assert
+        assertFalse(duplicate.first());
+        assertEquals("{}", new String(waiter.get(5, TimeUnit.SECONDS).body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void claim_ShouldReturnStoredResponse_WhenCompleted() {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        store.complete("k", store.claim("k"), response("{\"id\":1}"));
+
+        // Act
+        IdempotencyStore.Claim claim = store.claim("k");
+
+        // Assert
+        assertFalse(claim.first());
+        assertEquals(200, claim.flight().join().status());
+    }
+
+    // ==================== RELEASE TESTS ====================
+
+    @Test
+    void release_ShouldWakeWaitersWithNothing_AndLetTheKeyBeClaimedAgain() {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        IdempotencyStore.Claim first = store.claim("k");
+        IdempotencyStore.Claim duplicate = store.claim("k");
+
+        // Act
+        store.release("k", first);
+
+        // Assert
+        assertNull(duplicate.flight().join());
+        assertTrue(store.claim("k").first());
+    }
+
+    @Test
+    void release_ShouldLeaveANewerClaimAlone() {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        IdempotencyStore.Claim stale = store.claim("k");
+        store.release("k", stale);
+        IdempotencyStore.Claim current = store.claim("k");
+
+        // Act
+        store.release("k", stale);
+
+        // Assert
+        assertFalse(store.claim("k").first());
+        assertFalse(current.flight().isDone());
+    }
+
+    // ==================== BOUND TESTS ====================
+
+    @Test
+    void claim_ShouldForgetExpiredResponses() throws Exception {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(10, 20);
+        store.complete("k", store.claim("k"), response("{}"));
+
+        // Act
+        Thread.sleep(50);
+        IdempotencyStore.Claim claim = store.claim("k");
+
+        // Assert
+        assertTrue(claim.first());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void claim_ShouldEvictTheOldest_WhenFull() {
+        // Arrange
+        IdempotencyStore store = new IdempotencyStore(3, 60_000);
+        for (String key : new String[]{"a", "b", "c"}) {
+            store.complete(key, store.claim(key), response(key));
+        }
+
+        // Act
+        store.claim("d");
+
+        // Assert
+        assertEquals(3, store.size());
+        assertTrue(store.claim("a").first());
+        assertFalse(store.claim("d").first());
+    }
+}
@@ -0,0 +1,129 @@
+package com.openclassrooms.starterjwt.invalidation;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocations;
+import com.openclassrooms.starterjwt.services.SessionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the invalidation bus across two application nodes
+ * Both contexts share one database through an H2 TCP server but keep their own caches
+ */
+class ClusterInvalidationIntegrationTest {
+
+    private static final long DEADLINE_MS = 5_000;
+
+    private static Server server;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:clusterdb;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url, "clusterA", "always");
+        // The schema already exists once the first node is up
+        nodeB = startNode(url, "clusterB", "never");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void writeOnOneNode_ShouldReachTheOtherNodesCaches() {
+        // Arrange
+        SessionService serviceA = nodeA.getBean(SessionService.class);
+        SessionService serviceB = nodeB.getBean(SessionService.class);
+        ScheduleReadModel scheduleA = nodeA.getBean(ScheduleReadModel.class);
+        User user = nodeB.getBean(UserRepository.class).save(User.builder()
+                .email("cluster@yoga.com").firstName("Cluster").lastName("User").password("password").admin(false).build());
+        Session session = serviceB.create(Session.builder()
+                .name("Shared session").description("Seen from both nodes").date(new Date()).users(new ArrayList<>()).build());
+        awaitTrue(() -> scheduleA.current().get(session.getId()) != null);
+        // Warm node A's second-level cache with the empty roster
+        assertTrue(serviceA.getById(session.getId()).getUsers().isEmpty());
+
+        // Act
+        serviceB.participate(session.getId(), user.getId());
+
+        // Assert
+        awaitTrue(() -> serviceA.getById(session.getId()).getUsers().size() == 1);
+        awaitTrue(() -> scheduleA.current().get(session.getId()).participants().contains(user.getId()));
+        MeterRegistry registryA = nodeA.getBean(MeterRegistry.class);
+        assertTrue(registryA.get("yoga.invalidation.lag").timer().count() > 0);
+        assertTrue(registryA.get("yoga.invalidation.applied").counter().count() >= 2);
+    }
+
+    @Test
+    void revocationOnOneNode_ShouldReachTheOtherNode() {
+        // Arrange
+        TokenRevocations revocationsA = nodeA.getBean(TokenRevocations.class);
+        TokenRevocations revocationsB = nodeB.getBean(TokenRevocations.class);
+        assertFalse(revocationsA.isRevoked("cluster-jti"));
+
+        // Act
+        revocationsB.revoke("cluster-jti", Instant.now().plusSeconds(60));
+
+        // Assert
+        assertTrue(revocationsB.isRevoked("cluster-jti"));
+        awaitTrue(() -> revocationsA.isRevoked("cluster-jti"));
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String name, String sqlInitMode) {
+        // Command line arguments: they have to win over application-test.properties
+        return new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.sql.init.mode=" + sqlInitMode,
+                        // Both nodes own the schema: neither may drop it under the other
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.jpa.properties.hibernate.cache.region_prefix=" + name,
+                        "--oc.app.audit.enabled=false",
+                        "--oc.app.schedule.snapshot.enabled=true",
+                        "--oc.app.invalidation.nodeId=" + name,
+                        "--oc.app.invalidation.pollIntervalMs=100");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + DEADLINE_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Not invalidated within " + DEADLINE_MS + "ms");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted while waiting for invalidation");
+            }
+        }
+    }
+}
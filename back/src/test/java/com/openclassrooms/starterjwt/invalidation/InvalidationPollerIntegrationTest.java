@@ -0,0 +1,196 @@
+package com.openclassrooms.starterjwt.invalidation;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for InvalidationBus and InvalidationPoller
+ * The poller is driven by hand against the real table, with the local evictor mocked
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:invalidationdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=invalidation",
+        "oc.app.audit.enabled=false",
+        "oc.app.invalidation.nodeId=local-node"
+})
+@ActiveProfiles("test")
+class InvalidationPollerIntegrationTest {
+
+    private static final String OTHER_NODE = "other-node";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private LocalCacheEvictor evictor;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM CACHE_INVALIDATIONS");
+        evictor = mock(LocalCacheEvictor.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM CACHE_INVALIDATIONS");
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void sessionWrite_ShouldRecordInvalidation_InItsTransaction() {
+        // Arrange
+        User user = userRepository.save(User.builder()
+                .email("bus@yoga.com").firstName("Bus").lastName("User").password("password").admin(false).build());
+        Session session = sessionRepository.save(Session.builder()
+                .name("Bus session").description("Recorded").date(new Date()).users(new ArrayList<>()).build());
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            sessionService.participate(session.getId(), user.getId());
+            status.setRollbackOnly();
+        });
+        long afterRollback = count();
+        sessionService.participate(session.getId(), user.getId());
+
+        // Assert
+        assertEquals(0, afterRollback);
+        assertEquals(1, count());
+        assertEquals("local-node", jdbcTemplate.queryForObject("SELECT origin FROM CACHE_INVALIDATIONS", String.class));
+        assertEquals(session.getId(), jdbcTemplate.queryForObject("SELECT entity_id FROM CACHE_INVALIDATIONS", Long.class));
+    }
+
+    @Test
+    void poll_ShouldApplyOtherNodesRecords_AndSkipItsOwn() {
+        // Arrange
+        InvalidationPoller poller = poller(60_000);
+        insert(null, InvalidationType.SESSION, 1L, OTHER_NODE);
+        insert(null, InvalidationType.SESSION, 2L, "local-node");
+        insert(null, InvalidationType.USER, 3L, OTHER_NODE);
+
+        // Act
+        poller.poll();
+        poller.poll();
+
+        // Assert
+        verify(evictor).evict(InvalidationType.SESSION, List.of(1L));
+        verify(evictor).evict(InvalidationType.USER, List.of(3L));
+        verifyNoMoreInteractions(evictor);
+        assertEquals(2.0, meterRegistry.get("yoga.invalidation.applied").counter().count());
+        assertEquals(2, meterRegistry.get("yoga.invalidation.lag").timer().count());
+    }
+
+    @Test
+    void poll_ShouldEvictTheRecordsOfOnePollAsOneBatch() {
+        // Arrange: an archived batch publishes one record per session
+        InvalidationPoller poller = poller(60_000);
+        insert(null, InvalidationType.SESSION, 4L, OTHER_NODE);
+        insert(null, InvalidationType.SESSION, 5L, OTHER_NODE);
+        insert(null, InvalidationType.SESSION, 6L, OTHER_NODE);
+
+        // Act
+        poller.poll();
+
+        // Assert
+        verify(evictor).evict(InvalidationType.SESSION, List.of(4L, 5L, 6L));
+        verifyNoMoreInteractions(evictor);
+        assertEquals(3.0, meterRegistry.get("yoga.invalidation.applied").counter().count());
+    }
+
+    @Test
+    void poll_ShouldApplyRecordCommittedAfterAHigherOne() {
+        // Arrange
+        InvalidationPoller poller = poller(60_000);
+        long base = nextId();
+        insert(base + 2, InvalidationType.SESSION, 20L, OTHER_NODE);
+        poller.poll();
+
+        // Act
+        insert(base + 1, InvalidationType.SESSION, 10L, OTHER_NODE);
+        poller.poll();
+
+        // Assert
+        verify(evictor).evict(InvalidationType.SESSION, List.of(20L));
+        verify(evictor).evict(InvalidationType.SESSION, List.of(10L));
+    }
+
+    @Test
+    void poll_ShouldStopWaitingForGap_AfterTimeout() throws InterruptedException {
+        // Arrange
+        InvalidationPoller poller = poller(50);
+        long base = nextId();
+        insert(base + 2, InvalidationType.SESSION, 20L, OTHER_NODE);
+        poller.poll();
+        Thread.sleep(100);
+        poller.poll();
+
+        // Act: too late, the gap was given up as a rollback
+        insert(base + 1, InvalidationType.SESSION, 10L, OTHER_NODE);
+        poller.poll();
+
+        // Assert
+        verify(evictor).evict(InvalidationType.SESSION, List.of(20L));
+        verify(evictor, never()).evict(InvalidationType.SESSION, List.of(10L));
+    }
+
+    private InvalidationPoller poller(long gapTimeoutMs) {
+        return new InvalidationPoller(dataSource, evictor, meterRegistry, "local-node", 1000, gapTimeoutMs, 3_600_000);
+    }
+
+    private long nextId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM CACHE_INVALIDATIONS", Long.class);
+        return max + 1000;
+    }
+
+    private void insert(Long id, InvalidationType type, long entityId, String origin) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (id == null) {
+            jdbcTemplate.update(InvalidationBus.INSERT_SQL, type.name(), entityId, origin, now);
+        } else {
+            jdbcTemplate.update("INSERT INTO CACHE_INVALIDATIONS (id, type, entity_id, origin, created_at) VALUES (?, ?, ?, ?, ?)",
+                    id, type.name(), entityId, origin, now);
+        }
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CACHE_INVALIDATIONS", Long.class);
+    }
+}
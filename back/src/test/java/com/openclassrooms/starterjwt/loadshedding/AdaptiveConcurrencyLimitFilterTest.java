@@ -0,0 +1,137 @@
+package com.openclassrooms.starterjwt.loadshedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimitFilter
+ * Tests shedding, request classification and that every admitted request is released
+ */
+@ExtendWith(MockitoExtension.class)
+class AdaptiveConcurrencyLimitFilterTest {
+
+    @Mock
+    private AdaptiveConcurrencyLimit limit;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdaptiveConcurrencyLimitFilter(limit, meterRegistry, 2);
+    }
+
+    @Test
+    void doFilter_ShouldShedWith503AndRetryAfter_WhenOverLimit() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+        when(limit.tryAcquire(RequestPriority.BULK_READ)).thenReturn(false);
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        verifyNoInteractions(chain);
+        verify(limit, never()).release(anyString(), anyLong(), anyBoolean());
+        assertEquals(1.0, meterRegistry.get("yoga.loadshedding.shed").tag("priority", "BULK_READ").counter().count());
+    }
+
+    @Test
+    void doFilter_ShouldPassAndRelease_WhenUnderLimit() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/session/1/participate/2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        when(limit.tryAcquire(RequestPriority.WRITE)).thenReturn(true);
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertSame(request, chain.getRequest());
+        verify(limit).release(eq("POST /api/session/{id}/participate/{id}"), anyLong(), eq(false));
+    }
+
+    @Test
+    void doFilter_ShouldReleaseWithoutOverload_WhenChainFails() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new ServletException("boom")).when(chain).doFilter(any(), any());
+        when(limit.tryAcquire(RequestPriority.READ)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ServletException.class, () -> filter.doFilter(request, response, chain));
+        verify(limit).release(eq("GET /api/session/{id}"), anyLong(), eq(false));
+    }
+
+    @Test
+    void doFilter_ShouldReleaseAsOverloaded_WhenChainTimesOut() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new CannotGetJdbcConnectionException("pool",
+                new SQLTransientConnectionException("no connection available after 30000ms")))
+                .when(chain).doFilter(any(), any());
+        when(limit.tryAcquire(RequestPriority.READ)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(CannotGetJdbcConnectionException.class, () -> filter.doFilter(request, response, chain));
+        verify(limit).release(eq("GET /api/session/{id}"), anyLong(), eq(true));
+    }
+
+    @Test
+    void doFilter_ShouldReleaseAsOverloaded_WhenResponseIs503() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> ((MockHttpServletResponse) res).setStatus(503);
+        when(limit.tryAcquire(RequestPriority.READ)).thenReturn(true);
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        verify(limit).release(eq("GET /api/session/{id}"), anyLong(), eq(true));
+    }
+
+    @Test
+    void priorityOf_ShouldClassifyRequests() {
+        assertEquals(RequestPriority.WRITE, AdaptiveConcurrencyLimitFilter.priorityOf(new MockHttpServletRequest("POST", "/api/auth/login")));
+        assertEquals(RequestPriority.WRITE, AdaptiveConcurrencyLimitFilter.priorityOf(new MockHttpServletRequest("DELETE", "/api/session/1/participate/2")));
+        assertEquals(RequestPriority.READ, AdaptiveConcurrencyLimitFilter.priorityOf(new MockHttpServletRequest("GET", "/api/session/1")));
+        assertEquals(RequestPriority.BULK_READ, AdaptiveConcurrencyLimitFilter.priorityOf(new MockHttpServletRequest("GET", "/api/teacher")));
+    }
+
+    @Test
+    void routeOf_ShouldFoldNumericSegments() {
+        assertEquals("GET /api/session", AdaptiveConcurrencyLimitFilter.routeOf(new MockHttpServletRequest("GET", "/api/session")));
+        assertEquals("GET /api/session/{id}/detail", AdaptiveConcurrencyLimitFilter.routeOf(new MockHttpServletRequest("GET", "/api/session/42/detail")));
+        assertEquals("GET /api/user/abc", AdaptiveConcurrencyLimitFilter.routeOf(new MockHttpServletRequest("GET", "/api/user/abc")));
+    }
+}
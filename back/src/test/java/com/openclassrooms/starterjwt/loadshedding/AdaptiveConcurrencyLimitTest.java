@@ -0,0 +1,188 @@
+package com.openclassrooms.starterjwt.loadshedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimit
+ * Tests admission by priority and how latency samples move the limit
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final String ROUTE = "GET /api/session/{id}";
+
+    @Test
+    void tryAcquire_ShouldReserveHeadroomForWrites() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 0.9, 2.0);
+
+        // Act - bulk reads stop at half of the limit
+        int bulkReads = 0;
+        while (limit.tryAcquire(RequestPriority.BULK_READ)) {
+            bulkReads++;
+        }
+        int reads = 0;
+        while (limit.tryAcquire(RequestPriority.READ)) {
+            reads++;
+        }
+        int writes = 0;
+        while (limit.tryAcquire(RequestPriority.WRITE)) {
+            writes++;
+        }
+
+        // Assert
+        assertEquals(5, bulkReads);
+        assertEquals(4, reads);
+        assertEquals(1, writes);
+        assertEquals(10, limit.getInFlight());
+    }
+
+    @Test
+    void release_ShouldBackOff_WhenLatencyRisesAboveBaseline() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 0.5, 2.0);
+        acquireAndRelease(limit, FAST, 1);
+
+        // Act
+        acquireAndRelease(limit, SLOW, 40);
+
+        // Assert
+        assertTrue(limit.getLimit() < 20, "limit was " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 5);
+    }
+
+    @Test
+    void release_ShouldNotGoBelowMinimum() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 0.5, 2.0);
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            limit.tryAcquire(RequestPriority.WRITE);
+            limit.release(ROUTE, FAST, true);
+        }
+
+        // Assert
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void release_ShouldGrowAdditively_WhenLimitIsUsedAndLatencyIsStable() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 6, 0.9, 2.0);
+
+        // Act - keep the limit saturated with fast requests
+        for (int i = 0; i < 200; i++) {
+            while (limit.tryAcquire(RequestPriority.WRITE)) {
+                // fill up to the current limit
+            }
+            int inFlight = limit.getInFlight();
+            for (int n = 0; n < inFlight; n++) {
+                limit.release(ROUTE, FAST, false);
+            }
+        }
+
+        // Assert
+        assertEquals(6, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void release_ShouldKeepLimit_WhenLimitIsNotUsed() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 0.9, 2.0);
+
+        // Act - one request at a time never pushes against a limit of 20
+        acquireAndRelease(limit, FAST, 200);
+
+        // Assert
+        assertEquals(20, limit.getLimit());
+        assertEquals(10, limit.getBaselineMillis(ROUTE));
+    }
+
+    @Test
+    void release_ShouldKeepLimit_WhenFastAndSlowRoutesAreMixedAtSteadyLoad() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 10, 500, 0.9, 2.0);
+        MixedTraffic traffic = new MixedTraffic(1.0);
+
+        // Act - 30 requests in flight, cached lists next to BCrypt logins
+        traffic.run(limit, 30, 20_000);
+
+        // Assert
+        assertTrue(limit.getLimit() >= 50, "limit was " + limit.getLimit());
+        assertEquals(30, limit.getInFlight());
+        assertTrue(limit.getBaselineMillis("POST /api/auth/login") > 50 * limit.getBaselineMillis("GET /api/session"));
+    }
+
+    @Test
+    void release_ShouldBackOff_WhenEveryRouteSlowsDown() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 10, 500, 0.9, 2.0);
+        new MixedTraffic(1.0).run(limit, 30, 20_000);
+        int steadyLimit = limit.getLimit();
+
+        // Act
+        new MixedTraffic(5.0).run(limit, 0, 500);
+
+        // Assert
+        assertTrue(limit.getLimit() < steadyLimit, "limit stayed at " + limit.getLimit());
+    }
+
+    /**
+     * Requests drawn with a fixed seed: 60% cached list reads of about 0.5ms with some 30ms
+     * misses, 25% detail reads of 5ms, 10% logins of 150ms and 5% bookings of 20ms, each
+     * within +-50%, scaled by {@code slowdown}.
+     */
+    private static final class MixedTraffic {
+        private final Random random = new Random(42);
+        private final double slowdown;
+
+        MixedTraffic(double slowdown) {
+            this.slowdown = slowdown;
+        }
+
+        // Keeps inFlight requests admitted: each completion is followed by a new admission
+        void run(AdaptiveConcurrencyLimit limit, int inFlight, int requests) {
+            while (limit.getInFlight() < inFlight) {
+                assertTrue(limit.tryAcquire(RequestPriority.WRITE));
+            }
+            for (int i = 0; i < requests; i++) {
+                if (!limit.tryAcquire(RequestPriority.WRITE)) {
+                    continue; // shed
+                }
+                double draw = random.nextDouble();
+                String route;
+                double millis;
+                if (draw < 0.60) {
+                    route = "GET /api/session";
+                    millis = random.nextDouble() < 0.05 ? 30 : 0.5;
+                } else if (draw < 0.85) {
+                    route = "GET /api/session/{id}";
+                    millis = 5;
+                } else if (draw < 0.95) {
+                    route = "POST /api/auth/login";
+                    millis = 150;
+                } else {
+                    route = "POST /api/session/{id}/participate/{id}";
+                    millis = 20;
+                }
+                long latency = (long) (TimeUnit.MILLISECONDS.toNanos(1) * millis * slowdown * (0.5 + random.nextDouble()));
+                limit.release(route, latency, false);
+            }
+        }
+    }
+
+    private void acquireAndRelease(AdaptiveConcurrencyLimit limit, long latencyNanos, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(limit.tryAcquire(RequestPriority.WRITE));
+            limit.release(ROUTE, latencyNanos, false);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.loadshedding;
+
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the load shedding filter registration
+ * The filter must run inside the security chain, before the JWT is parsed
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LoadSheddingIntegrationTest {
+
+    @Autowired
+    private FilterChainProxy filterChainProxy;
+
+    @Test
+    void securityChain_ShouldShedBeforeAuthenticating() {
+        // Act
+        List<Filter> filters = filterChainProxy.getFilters("/api/session");
+
+        // Assert
+        int limitIndex = indexOf(filters, AdaptiveConcurrencyLimitFilter.class);
+        int authIndex = indexOf(filters, AuthTokenFilter.class);
+        assertTrue(limitIndex >= 0, "load shedding filter is missing");
+        assertTrue(limitIndex < authIndex, "load shedding filter must run before AuthTokenFilter");
+    }
+
+    private int indexOf(List<Filter> filters, Class<?> type) {
+        for (int i = 0; i < filters.size(); i++) {
+            if (type.isInstance(filters.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,92 @@
+package com.openclassrooms.starterjwt.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SamplingTurboFilter
+ */
+class SamplingTurboFilterTest {
+
+    private LoggerContext context;
+    private SamplingTurboFilter filter;
+    private Logger sampled;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        sampled = context.getLogger("com.openclassrooms.starterjwt.security.jwt.JwtUtils");
+        filter = new SamplingTurboFilter();
+        filter.addLogger("com.openclassrooms.starterjwt.security.jwt");
+        filter.setBurst(3);
+        filter.setEveryNth(5);
+        filter.setIntervalMs(60_000);
+        filter.start();
+    }
+
+    @Test
+    void decide_ShouldPassBurst_ThenOneInEveryNth() {
+        // Act
+        int passed = 0;
+        for (int i = 0; i < 23; i++) {
+            if (decide(sampled, Level.ERROR) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        // Assert: 3 from the burst, then the 5th, 10th, 15th and 20th after it
+        assertEquals(7, passed);
+        assertEquals(16, filter.getSuppressed());
+    }
+
+    @Test
+    void decide_ShouldStartNewBudget_AfterInterval() throws InterruptedException {
+        // Arrange
+        filter.setIntervalMs(20);
+        for (int i = 0; i < 4; i++) {
+            decide(sampled, Level.ERROR);
+        }
+        assertEquals(FilterReply.DENY, decide(sampled, Level.ERROR));
+
+        // Act
+        Thread.sleep(40);
+
+        // Assert
+        assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.ERROR));
+    }
+
+    @Test
+    void decide_ShouldIgnoreOtherLoggers() {
+        // Arrange
+        Logger other = context.getLogger("com.openclassrooms.starterjwt.services.SessionService");
+
+        // Act & Assert
+        for (int i = 0; i < 50; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(other, Level.WARN));
+        }
+        assertEquals(0, filter.getSuppressed());
+    }
+
+    @Test
+    void decide_ShouldNotSpendBudget_OnDisabledLevels() {
+        // Act
+        for (int i = 0; i < 50; i++) {
+            decide(sampled, Level.DEBUG);
+        }
+
+        // Assert
+        assertEquals(FilterReply.NEUTRAL, decide(sampled, Level.ERROR));
+        assertEquals(0, filter.getSuppressed());
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "Invalid JWT token: {}", new Object[]{"expired"}, null);
+    }
+}
@@ -0,0 +1,274 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.support.SqlStatementCountingConfiguration;
+import com.openclassrooms.starterjwt.support.SqlStatementRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for ScheduleReadModel
+ * Not transactional on purpose: the snapshot is only patched once a write has committed
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scheduledb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=schedule",
+        "oc.app.audit.enabled=false",
+        "oc.app.schedule.snapshot.enabled=true"
+})
+@ActiveProfiles("test")
+@Import(SqlStatementCountingConfiguration.class)
+@WithMockUser
+class ScheduleReadModelIntegrationTest {
+
+    @Autowired
+    private ScheduleReadModel scheduleReadModel;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private MockMvc mockMvc;
+    private Teacher testTeacher;
+    private User testUser;
+    private Session testSession;
+
+    @BeforeEach
+    void setUp() {
+        cleanDatabase();
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        testTeacher = teacherRepository.save(Teacher.builder().firstName("Snap").lastName("Shot").build());
+        testUser = userRepository.save(User.builder()
+                .email("snapshot@yoga.com").firstName("Snap").lastName("User").password("password").admin(false).build());
+        testSession = sessionRepository.save(Session.builder()
+                .name("Snapshot session")
+                .description("Read from memory")
+                .date(new Date())
+                .teacher(testTeacher)
+                .capacity(5)
+                .users(new ArrayList<>())
+                .build());
+        scheduleReadModel.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.reset();
+        cleanDatabase();
+    }
+
+    @Test
+    void load_ShouldHoldEveryCommittedSession() {
+        // Act
+        ScheduledSession scheduled = scheduleReadModel.current().get(testSession.getId());
+
+        // Assert
+        assertNotNull(scheduled);
+        assertEquals("Snapshot session", scheduled.name());
+        assertEquals(testTeacher.getId(), scheduled.teacherId());
+        assertEquals(5, scheduled.capacity());
+        assertEquals(testSession.getDate().getTime(), scheduled.date().toEpochMilli());
+        assertTrue(scheduled.participants().isEmpty());
+        assertEquals(List.of(), scheduleReadModel.checkConsistency());
+    }
+
+    @Test
+    void participate_ShouldPatchSnapshot_AfterCommit() {
+        // Arrange
+        ScheduleSnapshot before = scheduleReadModel.current();
+
+        // Act
+        sessionService.participate(testSession.getId(), testUser.getId());
+
+        // Assert
+        assertTrue(scheduleReadModel.current().get(testSession.getId()).participants().contains(testUser.getId()));
+        assertTrue(before.get(testSession.getId()).participants().isEmpty());
+
+        // Act
+        sessionService.noLongerParticipate(testSession.getId(), testUser.getId());
+
+        // Assert
+        assertTrue(scheduleReadModel.current().get(testSession.getId()).participants().isEmpty());
+    }
+
+    @Test
+    void createAndDelete_ShouldPatchSnapshot() {
+        // Act
+        Session created = sessionService.create(Session.builder()
+                .name("Created later")
+                .description("Patched in")
+                .date(new Date())
+                .users(new ArrayList<>())
+                .build());
+
+        // Assert
+        assertEquals("Created later", scheduleReadModel.current().get(created.getId()).name());
+
+        // Act
+        sessionService.delete(created.getId());
+
+        // Assert
+        assertNull(scheduleReadModel.current().get(created.getId()));
+        assertEquals(List.of(), scheduleReadModel.checkConsistency());
+    }
+
+    @Test
+    void refreshParticipant_ShouldRereadTheSessionsTheUserIsIn() {
+        // Arrange
+        sessionService.participate(testSession.getId(), testUser.getId());
+        rename(testSession, "Renamed while joined");
+
+        // Act
+        scheduleReadModel.refreshParticipantOnCommit(testUser.getId());
+
+        // Assert
+        assertEquals("Renamed while joined", scheduleReadModel.current().get(testSession.getId()).name());
+
+        // Arrange - once the user left, the session is no longer theirs
+        sessionService.noLongerParticipate(testSession.getId(), testUser.getId());
+        rename(testSession, "Renamed after leaving");
+
+        // Act
+        scheduleReadModel.refreshParticipantOnCommit(testUser.getId());
+
+        // Assert
+        assertEquals("Renamed while joined", scheduleReadModel.current().get(testSession.getId()).name());
+    }
+
+    @Test
+    void refreshBatch_ShouldPatchAndDropSessions_WithOneLoad() {
+        // Arrange: a second session the user is in, archived behind the snapshot's back
+        Session gone = sessionRepository.save(Session.builder()
+                .name("Archived").description("Gone").date(new Date()).teacher(testTeacher)
+                .users(new ArrayList<>(List.of(testUser))).build());
+        scheduleReadModel.load();
+        jdbcTemplate.update("DELETE FROM PARTICIPATE WHERE session_id = ?", gone.getId());
+        jdbcTemplate.update("DELETE FROM SESSIONS WHERE id = ?", gone.getId());
+        rename(testSession, "Renamed in the batch");
+        recorder.reset();
+
+        // Act
+        scheduleReadModel.refreshOnCommit(List.of(testSession.getId(), gone.getId()));
+
+        // Assert
+        assertEquals(2, recorder.getStatements().size());
+        assertEquals("Renamed in the batch", scheduleReadModel.current().get(testSession.getId()).name());
+        assertNull(scheduleReadModel.current().get(gone.getId()));
+        assertEquals(1, scheduleReadModel.current().size());
+        assertEquals(List.of(), scheduleReadModel.checkConsistency());
+    }
+
+    @Test
+    void rolledBackWrite_ShouldNotReachSnapshot() {
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            sessionService.participate(testSession.getId(), testUser.getId());
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertTrue(scheduleReadModel.current().get(testSession.getId()).participants().isEmpty());
+    }
+
+    @Test
+    void current_ShouldBeNull_InsideTransaction() {
+        // Act & Assert
+        transactionTemplate.executeWithoutResult(status -> assertNull(scheduleReadModel.current()));
+        assertNotNull(scheduleReadModel.current());
+    }
+
+    @Test
+    void checkConsistency_ShouldRepairSnapshot_AfterWriteOutsideServices() {
+        // Arrange
+        testSession.setName("Renamed behind our back");
+        sessionRepository.save(testSession);
+        assertEquals("Snapshot session", scheduleReadModel.current().get(testSession.getId()).name());
+
+        // Act
+        List<String> differences = scheduleReadModel.checkConsistency();
+
+        // Assert
+        assertEquals(1, differences.size());
+        assertEquals("Renamed behind our back", scheduleReadModel.current().get(testSession.getId()).name());
+        assertEquals(List.of(), scheduleReadModel.checkConsistency());
+    }
+
+    @Test
+    void sessionEndpoints_ShouldBeServedWithoutSql() throws Exception {
+        // Arrange
+        sessionService.participate(testSession.getId(), testUser.getId());
+        recorder.reset();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/session/{id}", testSession.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Snapshot session"))
+                .andExpect(jsonPath("$.teacher_id").value(testTeacher.getId()))
+                .andExpect(jsonPath("$.users", contains(testUser.getId().intValue())));
+        mockMvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/api/session/{id}", testSession.getId() + 1000))
+                .andExpect(status().isNotFound());
+        assertEquals(List.of(), recorder.getStatements());
+    }
+
+    // Outside the services, and without overwriting the participants with a stale entity
+    private void rename(Session session, String name) {
+        jdbcTemplate.update("UPDATE SESSIONS SET name = ? WHERE id = ?", name, session.getId());
+    }
+
+    private void cleanDatabase() {
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+}
@@ -0,0 +1,191 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScheduleSnapshot and LongSet
+ */
+class ScheduleSnapshotTest {
+
+    private static final Instant MONDAY = Instant.parse("2026-03-02T09:00:00Z");
+    private static final Instant TUESDAY = Instant.parse("2026-03-03T09:00:00Z");
+    private static final Instant WEDNESDAY = Instant.parse("2026-03-04T09:00:00Z");
+
+    // ==================== LONG SET TESTS ====================
+
+    @Test
+    void longSet_ShouldSortAndDeduplicate() {
+        // Act
+        LongSet set = new LongSet.Builder().add(5).add(1).add(5).add(3).add(1).build();
+
+        // Assert
+        assertEquals(3, set.size());
+        assertEquals(List.of(1L, 3L, 5L), set.toList());
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(4));
+        assertEquals(LongSet.of(3, 1, 5), set);
+    }
+
+    @Test
+    void longSet_ShouldBeEmpty_WhenNothingWasAdded() {
+        // Act
+        LongSet set = new LongSet.Builder().build();
+
+        // Assert
+        assertTrue(set.isEmpty());
+        assertSame(LongSet.empty(), set);
+    }
+
+    @Test
+    void longSet_WithAndWithout_ShouldCopyOnlyWhenChanged() {
+        // Arrange
+        LongSet set = LongSet.of(1, 5);
+
+        // Act & Assert
+        assertEquals(List.of(1L, 3L, 5L), set.with(3).toList());
+        assertSame(set, set.with(5));
+        assertEquals(List.of(5L), set.without(1).toList());
+        assertSame(set, set.without(4));
+        assertSame(LongSet.empty(), LongSet.of(7).without(7));
+        assertEquals(List.of(1L, 5L), set.toList());
+    }
+
+    // ==================== INDEX TESTS ====================
+
+    @Test
+    void of_ShouldIndexSessionsById() {
+        // Arrange
+        ScheduledSession first = session(1, WEDNESDAY, 10L, 100, 101);
+        ScheduledSession second = session(2, MONDAY, 10L, 101);
+        ScheduledSession third = session(3, null, null);
+
+        // Act
+        ScheduleSnapshot snapshot = ScheduleSnapshot.of(List.of(third, first, second));
+
+        // Assert
+        assertEquals(3, snapshot.size());
+        assertSame(second, snapshot.get(2));
+        assertSame(third, snapshot.get(3));
+        assertNull(snapshot.get(4));
+        assertEquals(List.of(first, second, third), snapshot.all());
+    }
+
+    @Test
+    void of_ShouldKeepTheLastOfDuplicateIds() {
+        // Arrange
+        ScheduledSession stale = session(1, MONDAY, 10L);
+        ScheduledSession fresh = session(1, TUESDAY, 10L, 100);
+
+        // Act
+        ScheduleSnapshot snapshot = ScheduleSnapshot.of(List.of(stale, session(2, MONDAY, 10L), fresh));
+
+        // Assert
+        assertEquals(2, snapshot.size());
+        assertSame(fresh, snapshot.get(1));
+    }
+
+    // ==================== COPY ON WRITE TESTS ====================
+
+    @Test
+    void with_ShouldReturnNewSnapshot_AndLeaveOriginalUntouched() {
+        // Arrange
+        ScheduledSession original = session(1, MONDAY, 10L);
+        ScheduleSnapshot before = ScheduleSnapshot.of(List.of(original));
+        ScheduledSession moved = session(1, TUESDAY, 20L, 100);
+
+        // Act
+        ScheduleSnapshot after = before.with(moved);
+
+        // Assert
+        assertSame(original, before.get(1));
+        assertEquals(List.of(original), before.all());
+        assertSame(moved, after.get(1));
+        assertEquals(List.of(moved), after.all());
+    }
+
+    @Test
+    void with_ShouldInsertNewSessionsInIdOrder() {
+        // Arrange
+        ScheduledSession first = session(1, MONDAY, 10L);
+        ScheduledSession third = session(3, MONDAY, 10L);
+        ScheduledSession fifth = session(5, MONDAY, 10L);
+        ScheduleSnapshot before = ScheduleSnapshot.of(List.of(first, fifth));
+
+        // Act
+        ScheduleSnapshot after = before.with(third).with(session(7, TUESDAY, null)).with(session(0, TUESDAY, null));
+
+        // Assert
+        assertEquals(List.of(0L, 1L, 3L, 5L, 7L), after.all().stream().map(ScheduledSession::id).toList());
+        assertSame(third, after.get(3));
+        assertEquals(List.of(first, fifth), before.all());
+    }
+
+    @Test
+    void without_ShouldRemoveSession_AndReturnSameSnapshotWhenAbsent() {
+        // Arrange
+        ScheduleSnapshot before = ScheduleSnapshot.of(List.of(session(1, MONDAY, 10L), session(2, TUESDAY, 10L), session(3, TUESDAY, 10L)));
+
+        // Act
+        ScheduleSnapshot after = before.without(2);
+
+        // Assert
+        assertEquals(3, before.size());
+        assertNull(after.get(2));
+        assertEquals(List.of(1L, 3L), after.all().stream().map(ScheduledSession::id).toList());
+        assertSame(after, after.without(2));
+        assertEquals(0, after.without(1).without(3).size());
+    }
+
+    @Test
+    void patch_ShouldApplyManyChangesInOneCopy() {
+        // Arrange
+        ScheduledSession first = session(1, MONDAY, 10L);
+        ScheduledSession third = session(3, MONDAY, 10L);
+        ScheduleSnapshot before = ScheduleSnapshot.of(List.of(first, session(2, MONDAY, 10L), third, session(5, MONDAY, 10L)));
+        ScheduledSession moved = session(3, TUESDAY, 20L, 100);
+        ScheduledSession added = session(4, WEDNESDAY, null);
+
+        // Act
+        ScheduleSnapshot after = before.patch(List.of(added, moved, session(6, MONDAY, 10L)), List.of(5L, 2L, 6L, 9L));
+
+        // Assert
+        assertEquals(List.of(1L, 3L, 4L), after.all().stream().map(ScheduledSession::id).toList());
+        assertSame(first, after.get(1));
+        assertSame(moved, after.get(3));
+        assertSame(added, after.get(4));
+        assertSame(third, before.get(3));
+        assertEquals(4, before.size());
+        assertSame(before, before.patch(List.of(), List.of()));
+    }
+
+    // ==================== CONSISTENCY TESTS ====================
+
+    @Test
+    void differencesFrom_ShouldReportMissingExtraAndChangedSessions() {
+        // Arrange
+        ScheduleSnapshot snapshot = ScheduleSnapshot.of(List.of(session(1, MONDAY, 10L, 100), session(2, MONDAY, 10L)));
+        ScheduleSnapshot database = ScheduleSnapshot.of(List.of(session(1, MONDAY, 10L, 100, 101), session(3, MONDAY, 10L)));
+
+        // Act
+        List<String> differences = snapshot.differencesFrom(database);
+
+        // Assert
+        assertEquals(3, differences.size());
+        assertTrue(differences.get(0).startsWith("session 1 differs"));
+        assertEquals("session 2 no longer in the database", differences.get(1));
+        assertEquals("session 3 missing from the snapshot", differences.get(2));
+        assertEquals(List.of(), database.differencesFrom(database));
+    }
+
+    private static ScheduledSession session(long id, Instant date, Long teacherId, long... participants) {
+        LocalDateTime created = LocalDateTime.of(2026, 1, 1, 0, 0);
+        return new ScheduledSession(id, "Session " + id, date, teacherId, "Description", null,
+                LongSet.of(participants), created, created);
+    }
+}
@@ -0,0 +1,99 @@
+package com.openclassrooms.starterjwt.scheduling;
+
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for JobLocks
+ * Two nodes share the JOB_LOCKS table of one database, as they would in production
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:joblocksdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=joblocks",
+        "oc.app.audit.enabled=false"
+})
+@ActiveProfiles("test")
+class JobLocksIntegrationTest {
+
+    private static final String JOB = "test-job";
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JobLocks nodeA;
+    private JobLocks nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM JOB_LOCKS");
+    }
+
+    private JobLocks node(String nodeId) {
+        InvalidationBus invalidationBus = mock(InvalidationBus.class);
+        when(invalidationBus.getNodeId()).thenReturn(nodeId);
+        return new JobLocks(jdbcTemplate, invalidationBus);
+    }
+
+    @Test
+    void tryAcquire_ShouldGiveTheJobToOneNodeOnly() {
+        // Act & Assert
+        assertTrue(nodeA.tryAcquire(JOB, LEASE));
+        assertFalse(nodeB.tryAcquire(JOB, LEASE));
+        assertFalse(nodeA.tryAcquire(JOB, LEASE));
+    }
+
+    @Test
+    void release_ShouldLetTheNextNodeTakeTheJob() {
+        // Arrange
+        nodeA.tryAcquire(JOB, LEASE);
+
+        // Act
+        nodeA.release(JOB);
+
+        // Assert
+        assertTrue(nodeB.tryAcquire(JOB, LEASE));
+    }
+
+    @Test
+    void release_ShouldNotEndAnotherNodesLease() {
+        // Arrange
+        nodeA.tryAcquire(JOB, LEASE);
+
+        // Act
+        nodeB.release(JOB);
+
+        // Assert
+        assertFalse(nodeB.tryAcquire(JOB, LEASE));
+    }
+
+    @Test
+    void tryAcquire_ShouldTakeOverAnExpiredLease() {
+        // Arrange: node A died holding a lease that has run out since
+        nodeA.tryAcquire(JOB, Duration.ofMillis(-1));
+
+        // Act & Assert
+        assertTrue(nodeB.tryAcquire(JOB, LEASE));
+        assertFalse(nodeA.extend(JOB, LEASE));
+        assertTrue(nodeB.extend(JOB, LEASE));
+    }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AuthEntryPointJwt
+ * Tests the pre-serialized 401 body
+ */
+class AuthEntryPointJwtTest {
+
+    private final AuthEntryPointJwt authEntryPointJwt = new AuthEntryPointJwt();
+
+    @Test
+    void commence_ShouldWriteUnauthorizedJson() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+        request.setServletPath("/api/session");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        authEntryPointJwt.commence(request, response, new InsufficientAuthenticationException("expired"));
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        JsonNode body = new ObjectMapper().readTree(response.getContentAsByteArray());
+        assertEquals(401, body.get("status").asInt());
+        assertEquals("Unauthorized", body.get("error").asText());
+        assertEquals("Full authentication is required to access this resource", body.get("message").asText());
+        assertEquals("/api/session", body.get("path").asText());
+    }
+
+    @Test
+    void commence_ShouldEscapePath() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServletPath("/api/\"quoted\"\\path");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        authEntryPointJwt.commence(request, response, new InsufficientAuthenticationException("missing"));
+
+        // Assert
+        JsonNode body = new ObjectMapper().readTree(response.getContentAsByteArray());
+        assertEquals("/api/\"quoted\"\\path", body.get("path").asText());
+    }
+}
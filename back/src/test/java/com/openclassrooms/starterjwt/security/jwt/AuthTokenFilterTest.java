@@ -2,9 +2,12 @@ package com.openclassrooms.starterjwt.security.jwt;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -19,8 +22,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,6 +39,9 @@ class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private TokenRevocations tokenRevocations;
+
     @Mock
     private HttpServletRequest request;
 
@@ -81,8 +87,7 @@ class AuthTokenFilterTest {
     void doFilterInternal_ShouldSetAuthentication_WhenValidJwtTokenProvided() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-        when(jwtUtils.validateJwtToken(validJwt)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(validJwt)).thenReturn("test@yoga.com");
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(legacyClaims("test@yoga.com"));
         when(userDetailsService.loadUserByUsername("test@yoga.com")).thenReturn(testUserDetails);
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -92,8 +97,7 @@ class AuthTokenFilterTest {
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(validJwt);
-            verify(jwtUtils).getUserNameFromJwtToken(validJwt);
+            verify(jwtUtils).parseAccessToken(validJwt);
             verify(userDetailsService).loadUserByUsername("test@yoga.com");
             verify(securityContext).setAuthentication(any(Authentication.class));
             verify(filterChain).doFilter(request, response);
@@ -104,8 +108,7 @@ class AuthTokenFilterTest {
     void doFilterInternal_ShouldSetAuthenticationWithCorrectDetails_WhenValidJwtToken() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-        when(jwtUtils.validateJwtToken(validJwt)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(validJwt)).thenReturn("test@yoga.com");
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(legacyClaims("test@yoga.com"));
         when(userDetailsService.loadUserByUsername("test@yoga.com")).thenReturn(testUserDetails);
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -126,7 +129,7 @@ class AuthTokenFilterTest {
         // Arrange
         String invalidJwt = "invalid.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + invalidJwt);
-        when(jwtUtils.validateJwtToken(invalidJwt)).thenReturn(false);
+        when(jwtUtils.parseAccessToken(invalidJwt)).thenReturn(null);
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
             mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -135,8 +138,7 @@ class AuthTokenFilterTest {
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(invalidJwt);
-            verify(jwtUtils, never()).getUserNameFromJwtToken(anyString());
+            verify(jwtUtils).parseAccessToken(invalidJwt);
             verifyNoInteractions(userDetailsService);
             verify(securityContext, never()).setAuthentication(any());
             verify(filterChain).doFilter(request, response);
@@ -234,7 +236,7 @@ class AuthTokenFilterTest {
 
             // Assert
             // Note: empty bearer token actually gets processed, so jwtUtils will be called
-            // but it should return false from validateJwtToken
+            // but it should return null from parseAccessToken
             verifyNoInteractions(userDetailsService);
             verify(securityContext, never()).setAuthentication(any());
             verify(filterChain).doFilter(request, response);
@@ -246,8 +248,7 @@ class AuthTokenFilterTest {
         // Arrange
         String token = "my.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateJwtToken(token)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(token)).thenReturn("test@yoga.com");
+        when(jwtUtils.parseAccessToken(token)).thenReturn(legacyClaims("test@yoga.com"));
         when(userDetailsService.loadUserByUsername("test@yoga.com")).thenReturn(testUserDetails);
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -257,8 +258,73 @@ class AuthTokenFilterTest {
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(token);
-            verify(jwtUtils).getUserNameFromJwtToken(token);
+            verify(jwtUtils).parseAccessToken(token);
+        }
+    }
+
+    // ==================== STATELESS TOKEN TESTS ====================
+
+    @Test
+    void doFilterInternal_ShouldTakeUserFromClaims_WithoutLoadingIt() throws ServletException, IOException {
+        // Arrange
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(accessClaims("jti-1", 1L));
+
+        try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+
+            // Act
+            authTokenFilter.doFilterInternal(request, response, filterChain);
+
+            // Assert
+            ArgumentCaptor<Authentication> captor = ArgumentCaptor.forClass(Authentication.class);
+            verify(securityContext).setAuthentication(captor.capture());
+            UserDetailsImpl principal = (UserDetailsImpl) captor.getValue().getPrincipal();
+            assertEquals(1L, principal.getId());
+            assertEquals("test@yoga.com", principal.getUsername());
+            assertEquals("John", principal.getFirstName());
+            assertEquals(Boolean.TRUE, principal.getAdmin());
+            verifyNoInteractions(userDetailsService);
+            verify(filterChain).doFilter(request, response);
+        }
+    }
+
+    @Test
+    void doFilterInternal_ShouldNotSetAuthentication_WhenTokenIdRevoked() throws ServletException, IOException {
+        // Arrange
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(accessClaims("jti-1", 1L));
+        when(tokenRevocations.isRevoked("jti-1")).thenReturn(true);
+
+        try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+
+            // Act
+            authTokenFilter.doFilterInternal(request, response, filterChain);
+
+            // Assert
+            verify(securityContext, never()).setAuthentication(any());
+            verify(filterChain).doFilter(request, response);
+        }
+    }
+
+    @Test
+    void doFilterInternal_ShouldNotSetAuthentication_WhenUserRevoked() throws ServletException, IOException {
+        // Arrange
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(accessClaims("jti-1", 7L));
+        when(tokenRevocations.isUserRevoked(7L)).thenReturn(true);
+
+        try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+
+            // Act
+            authTokenFilter.doFilterInternal(request, response, filterChain);
+
+            // Assert
+            verify(tokenRevocations).isRevoked("jti-1");
+            verify(securityContext, never()).setAuthentication(any());
+            verify(filterChain).doFilter(request, response);
         }
     }
 
@@ -268,7 +334,7 @@ class AuthTokenFilterTest {
     void doFilterInternal_ShouldContinueFilterChain_WhenJwtUtilsThrowsException() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-        when(jwtUtils.validateJwtToken(validJwt)).thenThrow(new RuntimeException("JWT validation error"));
+        when(jwtUtils.parseAccessToken(validJwt)).thenThrow(new RuntimeException("JWT validation error"));
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
             mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -277,7 +343,7 @@ class AuthTokenFilterTest {
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(validJwt);
+            verify(jwtUtils).parseAccessToken(validJwt);
             verifyNoInteractions(userDetailsService);
             verify(securityContext, never()).setAuthentication(any());
             verify(filterChain).doFilter(request, response);
@@ -288,8 +354,7 @@ class AuthTokenFilterTest {
     void doFilterInternal_ShouldContinueFilterChain_WhenUserDetailsServiceThrowsException() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-        when(jwtUtils.validateJwtToken(validJwt)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(validJwt)).thenReturn("test@yoga.com");
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(legacyClaims("test@yoga.com"));
         when(userDetailsService.loadUserByUsername("test@yoga.com")).thenThrow(new RuntimeException("User not found"));
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -299,8 +364,7 @@ class AuthTokenFilterTest {
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(validJwt);
-            verify(jwtUtils).getUserNameFromJwtToken(validJwt);
+            verify(jwtUtils).parseAccessToken(validJwt);
             verify(userDetailsService).loadUserByUsername("test@yoga.com");
             verify(securityContext, never()).setAuthentication(any());
             verify(filterChain).doFilter(request, response);
@@ -311,8 +375,7 @@ class AuthTokenFilterTest {
     void doFilterInternal_ShouldContinueFilterChain_WhenSecurityContextThrowsException() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-        when(jwtUtils.validateJwtToken(validJwt)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(validJwt)).thenReturn("test@yoga.com");
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(legacyClaims("test@yoga.com"));
         when(userDetailsService.loadUserByUsername("test@yoga.com")).thenReturn(testUserDetails);
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -323,8 +386,7 @@ class AuthTokenFilterTest {
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(validJwt);
-            verify(jwtUtils).getUserNameFromJwtToken(validJwt);
+            verify(jwtUtils).parseAccessToken(validJwt);
             verify(userDetailsService).loadUserByUsername("test@yoga.com");
             verify(securityContext).setAuthentication(any());
             verify(filterChain).doFilter(request, response);
@@ -337,8 +399,7 @@ class AuthTokenFilterTest {
     void doFilterInternal_ShouldAlwaysCallFilterChain_RegardlessOfTokenValidity() throws ServletException, IOException {
         // Test with valid token
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-        when(jwtUtils.validateJwtToken(validJwt)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(validJwt)).thenReturn("test@yoga.com");
+        when(jwtUtils.parseAccessToken(validJwt)).thenReturn(legacyClaims("test@yoga.com"));
         when(userDetailsService.loadUserByUsername("test@yoga.com")).thenReturn(testUserDetails);
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -352,7 +413,7 @@ class AuthTokenFilterTest {
 
         // Test with invalid token
         when(request.getHeader("Authorization")).thenReturn("Bearer invalid");
-        when(jwtUtils.validateJwtToken("invalid")).thenReturn(false);
+        when(jwtUtils.parseAccessToken("invalid")).thenReturn(null);
 
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
             mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
@@ -381,8 +442,7 @@ class AuthTokenFilterTest {
 
             // First request with valid token
             when(request.getHeader("Authorization")).thenReturn("Bearer " + validJwt);
-            when(jwtUtils.validateJwtToken(validJwt)).thenReturn(true);
-            when(jwtUtils.getUserNameFromJwtToken(validJwt)).thenReturn("user1@yoga.com");
+            when(jwtUtils.parseAccessToken(validJwt)).thenReturn(legacyClaims("user1@yoga.com"));
             when(userDetailsService.loadUserByUsername("user1@yoga.com")).thenReturn(testUserDetails);
 
             authTokenFilter.doFilterInternal(request, response, filterChain);
@@ -399,6 +459,20 @@ class AuthTokenFilterTest {
         }
     }
 
+    // Tokens issued before they carried the user: only a subject
+    private static Claims legacyClaims(String subject) {
+        return Jwts.claims().setSubject(subject);
+    }
+
+    private static Claims accessClaims(String tokenId, Long userId) {
+        Claims claims = Jwts.claims().setSubject("test@yoga.com").setId(tokenId);
+        claims.put(JwtUtils.USER_ID, userId);
+        claims.put(JwtUtils.FIRST_NAME, "John");
+        claims.put(JwtUtils.LAST_NAME, "Doe");
+        claims.put(JwtUtils.ADMIN, true);
+        return claims;
+    }
+
     // Helper method to use in tests (if needed)
     private void assertNotNull(Object object) {
         if (object == null) {
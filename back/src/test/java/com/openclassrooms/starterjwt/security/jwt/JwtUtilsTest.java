@@ -1,8 +1,10 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +34,7 @@ class JwtUtilsTest {
 
     private UserDetailsImpl testUserDetails;
     private String testJwtSecret;
+    private SigningKeyring keyring;
     private int testJwtExpirationMs;
 
     @BeforeEach
@@ -40,7 +43,8 @@ class JwtUtilsTest {
         testJwtExpirationMs = 86400000; // 24 hours in milliseconds
 
         // Set private fields using ReflectionTestUtils
-        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", testJwtSecret);
+        keyring = new SigningKeyring(testJwtSecret, 86400000, testJwtExpirationMs, true, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "keyring", keyring);
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", testJwtExpirationMs);
 
         testUserDetails = UserDetailsImpl.builder()
@@ -96,8 +100,7 @@ class JwtUtilsTest {
         assertNotNull(token);
 
         // Parse token to check expiration
-        Date expiration = Jwts.parser()
-                .setSigningKey(testJwtSecret)
+        Date expiration = keyring.parser()
                 .parseClaimsJws(token)
                 .getBody()
                 .getExpiration();
@@ -118,8 +121,7 @@ class JwtUtilsTest {
         String token = jwtUtils.generateJwtToken(authentication);
 
         // Assert
-        String subject = Jwts.parser()
-                .setSigningKey(testJwtSecret)
+        String subject = keyring.parser()
                 .parseClaimsJws(token)
                 .getBody()
                 .getSubject();
@@ -127,6 +129,18 @@ class JwtUtilsTest {
         assertEquals("test@yoga.com", subject);
     }
 
+    @Test
+    void generateJwtToken_ShouldNameTheSigningKey() {
+        // Arrange
+        when(authentication.getPrincipal()).thenReturn(testUserDetails);
+
+        // Act
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // Assert
+        assertEquals(keyring.signingKey().kid(), keyring.parser().parseClaimsJws(token).getHeader().getKeyId());
+    }
+
     @Test
     void generateJwtToken_ShouldThrowException_WhenAuthenticationIsNull() {
         // Arrange
@@ -281,6 +295,45 @@ class JwtUtilsTest {
         assertFalse(isValid);
     }
 
+    // ==================== ACCESS TOKEN CLAIMS TESTS ====================
+
+    @Test
+    void parseAccessToken_ShouldCarryTheUser_WhenGeneratedFromUserDetails() {
+        // Arrange
+        String token = jwtUtils.generateAccessToken(testUserDetails);
+
+        // Act
+        Claims claims = jwtUtils.parseAccessToken(token);
+        UserDetailsImpl user = JwtUtils.toUserDetails(claims);
+
+        // Assert
+        assertNotNull(claims.getId());
+        assertEquals(1L, user.getId());
+        assertEquals("test@yoga.com", user.getUsername());
+        assertEquals("John", user.getFirstName());
+        assertEquals("Doe", user.getLastName());
+        assertEquals(false, user.getAdmin());
+        assertNull(user.getPassword());
+    }
+
+    @Test
+    void parseAccessToken_ShouldReturnNull_WhenTokenExpired() {
+        // Arrange
+        String token = jwtUtils.generateAccessToken(testUserDetails, "jti-1", new Date(System.currentTimeMillis() - 1000));
+
+        // Act & Assert
+        assertNull(jwtUtils.parseAccessToken(token));
+    }
+
+    @Test
+    void toUserDetails_ShouldReturnNull_WhenTokenHasNoUserClaims() {
+        // Arrange
+        String token = createValidToken("test@yoga.com");
+
+        // Act & Assert
+        assertNull(JwtUtils.toUserDetails(jwtUtils.parseAccessToken(token)));
+    }
+
     // ==================== INTEGRATION TESTS ====================
 
     @Test
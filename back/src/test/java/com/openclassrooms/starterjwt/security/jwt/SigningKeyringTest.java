@@ -0,0 +1,136 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SigningKeyring
+ * Tests key derivation, key selection by kid and the verification window
+ */
+class SigningKeyringTest {
+
+    private static final String SECRET =
+            "testSecretKeyThatIsLongEnoughForHS512AlgorithmAndMeetsMinimumSecurityRequirementsAndHasAtLeast512Bits";
+
+    private static final long ROTATION_MS = 3_600_000;
+
+    private static final long EXPIRATION_MS = 900_000;
+
+    private SigningKeyring keyring;
+
+    @BeforeEach
+    void setUp() {
+        keyring = newKeyring(true);
+    }
+
+    // ==================== SIGNING KEY TESTS ====================
+
+    @Test
+    void signingKey_ShouldBeNamedAfterTheCurrentPeriod() {
+        // Act
+        SigningKeyring.SigningKey signingKey = keyring.signingKey();
+
+        // Assert
+        assertEquals(SigningKeyring.kid(System.currentTimeMillis() / ROTATION_MS), signingKey.kid());
+        assertEquals(64, signingKey.key().getEncoded().length);
+    }
+
+    @Test
+    void signingKey_ShouldBeTheSameOnEveryNode() {
+        // Arrange
+        SigningKeyring otherNode = newKeyring(true);
+
+        // Act
+        String token = sign(keyring.signingKey().kid(), keyring.signingKey().key().getEncoded());
+
+        // Assert
+        assertEquals(keyring.signingKey().kid(), otherNode.signingKey().kid());
+        assertEquals("test@yoga.com", otherNode.parser().parseClaimsJws(token).getBody().getSubject());
+    }
+
+    // ==================== VERIFICATION TESTS ====================
+
+    @Test
+    void parser_ShouldAcceptThePreviousPeriodsKey() {
+        // Arrange
+        long period = System.currentTimeMillis() / ROTATION_MS;
+        String previousKid = SigningKeyring.kid(period - 1);
+
+        // Act
+        byte[] previousKey = keyring.verificationKey(previousKid).getEncoded();
+
+        // Assert
+        assertFalse(Arrays.equals(previousKey, keyring.signingKey().key().getEncoded()));
+        Claims claims = keyring.parser().parseClaimsJws(sign(previousKid, previousKey)).getBody();
+        assertEquals("test@yoga.com", claims.getSubject());
+    }
+
+    @Test
+    void parser_ShouldAcceptTheNextPeriodsKey_ForNodesAhead() {
+        // Arrange
+        String nextKid = SigningKeyring.kid(System.currentTimeMillis() / ROTATION_MS + 1);
+
+        // Act & Assert
+        assertNotNull(keyring.verificationKey(nextKid));
+    }
+
+    @Test
+    void parser_ShouldRejectRetiredKey() {
+        // Arrange
+        String retiredKid = SigningKeyring.kid(System.currentTimeMillis() / ROTATION_MS - 2);
+
+        // Act & Assert
+        assertThrows(SignatureException.class, () -> keyring.verificationKey(retiredKid));
+    }
+
+    @Test
+    void parser_ShouldRejectTokenSignedForAnotherKid() {
+        // Arrange: a valid key under the wrong name
+        long period = System.currentTimeMillis() / ROTATION_MS;
+        String token = sign(SigningKeyring.kid(period - 1), keyring.signingKey().key().getEncoded());
+
+        // Act & Assert
+        assertThrows(SignatureException.class, () -> keyring.parser().parseClaimsJws(token));
+    }
+
+    @Test
+    void parser_ShouldAcceptLegacyTokenWithoutKid() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("test@yoga.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        // Act & Assert
+        assertEquals("test@yoga.com", keyring.parser().parseClaimsJws(token).getBody().getSubject());
+        SigningKeyring strict = newKeyring(false);
+        assertThrows(UnsupportedJwtException.class, () -> strict.parser().parseClaimsJws(token));
+    }
+
+    private static SigningKeyring newKeyring(boolean acceptLegacyTokens) {
+        return new SigningKeyring(SECRET, ROTATION_MS, EXPIRATION_MS, acceptLegacyTokens, new SimpleMeterRegistry());
+    }
+
+    private static String sign(String kid, byte[] key) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, kid)
+                .setSubject("test@yoga.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(new SecretKeySpec(key, "HmacSHA512"), SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
@@ -0,0 +1,170 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import com.openclassrooms.starterjwt.invalidation.InvalidationType;
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TokenRevocations and its BloomFilter
+ * Tests the in-memory revocation set with a mocked table
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationsTest {
+
+    @Mock
+    private RevokedTokenRepository repository;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TokenRevocations tokenRevocations;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenRevocations = new TokenRevocations(repository, invalidationBus, meterRegistry, 100, 0.01, 60000);
+    }
+
+    // ==================== BLOOM FILTER TESTS ====================
+
+    @Test
+    void bloomFilter_ShouldContainEveryAddedValue() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+
+        // Assert
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("token-" + i));
+        }
+    }
+
+    @Test
+    void bloomFilter_ShouldStayNearItsFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("live-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 3000, "False positives: " + falsePositives);
+    }
+
+    // ==================== REVOKE TESTS ====================
+
+    @Test
+    void revoke_ShouldRecordAndPublish() {
+        // Arrange
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> {
+            RevokedToken saved = invocation.getArgument(0);
+            return RevokedToken.builder().id(42L).tokenId(saved.getTokenId()).expiresAt(saved.getExpiresAt()).build();
+        });
+
+        // Act
+        tokenRevocations.revoke("jti-1", Instant.now().plusSeconds(60));
+
+        // Assert
+        assertTrue(tokenRevocations.isRevoked("jti-1"));
+        assertFalse(tokenRevocations.isRevoked("jti-2"));
+        verify(invalidationBus).publish(InvalidationType.REVOKED_TOKEN, 42L);
+        assertEquals(1.0, meterRegistry.get("yoga.jwt.revocations").gauge().value());
+    }
+
+    @Test
+    void revoke_ShouldIgnoreAlreadyExpiredToken() {
+        // Act
+        tokenRevocations.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        // Assert
+        assertFalse(tokenRevocations.isRevoked("jti-1"));
+        verifyNoInteractions(repository, invalidationBus);
+    }
+
+    @Test
+    void isUserRevoked_ShouldMatchUserMarkerOnly() {
+        // Arrange
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        tokenRevocations.revokeUser(7L, Instant.now().plusSeconds(60));
+
+        // Assert
+        assertTrue(tokenRevocations.isUserRevoked(7L));
+        assertFalse(tokenRevocations.isUserRevoked(8L));
+        assertFalse(tokenRevocations.isRevoked("7"));
+    }
+
+    // ==================== LOAD AND RELOAD TESTS ====================
+
+    @Test
+    void load_ShouldApplyRevocationFromAnotherNode() {
+        // Arrange
+        when(repository.findById(5L)).thenReturn(Optional.of(RevokedToken.builder()
+                .id(5L).tokenId("remote-jti").expiresAt(LocalDateTime.now().plusMinutes(5)).build()));
+
+        // Act
+        tokenRevocations.load(5L);
+
+        // Assert
+        assertTrue(tokenRevocations.isRevoked("remote-jti"));
+        verifyNoInteractions(invalidationBus);
+    }
+
+    @Test
+    void reload_ShouldDropExpiredAndPickUpMissedRevocations() {
+        // Arrange
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        tokenRevocations.revoke("short-lived", Instant.now().plusMillis(50));
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(RevokedToken.builder()
+                .tokenId("missed-jti").expiresAt(LocalDateTime.now().plusMinutes(5)).build()));
+
+        // Act
+        sleep(100);
+        tokenRevocations.reload();
+
+        // Assert
+        assertFalse(tokenRevocations.isRevoked("short-lived"));
+        assertTrue(tokenRevocations.isRevoked("missed-jti"));
+        assertEquals(1.0, meterRegistry.get("yoga.jwt.revocations").gauge().value());
+        verify(repository).deleteExpired(any());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
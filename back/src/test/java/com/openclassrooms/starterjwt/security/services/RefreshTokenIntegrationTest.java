@@ -0,0 +1,177 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for refresh token rotation and access token revocation
+ * Runs through the security filter chain, so revoked access tokens are rejected as clients see it
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:refreshdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=refresh",
+        "oc.app.audit.enabled=false"
+})
+@ActiveProfiles("test")
+class RefreshTokenIntegrationTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        String email = "refresh" + System.nanoTime() + "@yoga.com";
+        user = userRepository.save(User.builder()
+                .email(email).firstName("Refresh").lastName("User")
+                .password(passwordEncoder.encode(PASSWORD)).admin(false).build());
+    }
+
+    @Test
+    void login_ShouldReturnShortLivedAccessTokenAndRefreshToken() throws Exception {
+        // Act
+        JsonNode tokens = login();
+
+        // Assert
+        assertTrue(tokens.get("refreshToken").asText().length() >= 43);
+        assertTrue(tokens.get("expiresIn").asLong() > 0);
+        assertFalse(refreshTokenRepository.findByUserId(user.getId()).isEmpty());
+        authorized(tokens.get("token").asText());
+    }
+
+    @Test
+    void refresh_ShouldRotateTheRefreshToken() throws Exception {
+        // Arrange
+        JsonNode first = login();
+
+        // Act
+        JsonNode second = refresh(first.get("refreshToken").asText());
+
+        // Assert
+        assertNotEquals(first.get("refreshToken").asText(), second.get("refreshToken").asText());
+        assertNotEquals(first.get("token").asText(), second.get("token").asText());
+        authorized(second.get("token").asText());
+    }
+
+    @Test
+    void refresh_ShouldRevokeTheFamily_WhenUsedTokenReplayed() throws Exception {
+        // Arrange
+        JsonNode first = login();
+        JsonNode second = refresh(first.get("refreshToken").asText());
+
+        // Act: the first refresh token again, as a thief holding a copy would
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(first.get("refreshToken").asText())))
+                .andExpect(status().isUnauthorized());
+
+        // Assert
+        unauthorized(second.get("token").asText());
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(second.get("refreshToken").asText())))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_ShouldRevokeAccessAndRefreshTokens() throws Exception {
+        // Arrange
+        JsonNode tokens = login();
+        String accessToken = tokens.get("token").asText();
+
+        // Act
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(tokens.get("refreshToken").asText())))
+                .andExpect(status().isOk());
+
+        // Assert
+        unauthorized(accessToken);
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(tokens.get("refreshToken").asText())))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void deleteUser_ShouldRevokeTheirAccessTokens() throws Exception {
+        // Arrange
+        JsonNode tokens = login();
+
+        // Act
+        userService.delete(user.getId());
+
+        // Assert
+        unauthorized(tokens.get("token").asText());
+        assertTrue(refreshTokenRepository.findByUserId(user.getId()).isEmpty());
+    }
+
+    private JsonNode login() throws Exception {
+        String body = "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}";
+        String response = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode refresh(String refreshToken) throws Exception {
+        String response = mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(refreshBody(refreshToken)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private static String refreshBody(String refreshToken) {
+        return "{\"refreshToken\":\"" + refreshToken + "\"}";
+    }
+
+    private void authorized(String accessToken) throws Exception {
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+    }
+
+    private void unauthorized(String accessToken) throws Exception {
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -131,6 +131,7 @@ class UserDetailsServiceImplTest {
         assertEquals(adminUser.getFirstName(), userDetails.getFirstName());
         assertEquals(adminUser.getLastName(), userDetails.getLastName());
         assertEquals(adminUser.getPassword(), userDetails.getPassword());
+        assertTrue(userDetails.getAdmin());
     }
 
     @Test
@@ -0,0 +1,137 @@
+package com.openclassrooms.starterjwt.seed;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.seed.SyntheticData.Written;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for SyntheticDataGenerator
+ * Writes a plan to H2 in small batches and reads it back through the JPA mappings
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seeddb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=seed",
+        "oc.app.audit.enabled=false",
+        "oc.app.seed.batchSize=7"
+})
+@ActiveProfiles("test")
+class SyntheticDataGeneratorIntegrationTest {
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM PARTICIPATE");
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void generate_ShouldWriteEveryPlannedRow() {
+        // Arrange
+        SyntheticDataSpec spec = new SyntheticDataSpec(40, 3, 12, 150, 1.1, 42, LocalDate.of(2025, 1, 6), 14);
+        SyntheticData plan = SyntheticDataGenerator.plan(spec);
+
+        // Act
+        Written written = generator.generate(spec, "password123");
+
+        // Assert
+        assertEquals(40, written.userIds().size());
+        assertEquals(3, written.teacherIds().size());
+        assertEquals(12, written.sessionIds().size());
+        assertEquals(40, userRepository.count());
+        assertEquals(3, teacherRepository.count());
+        assertEquals(12, sessionRepository.count());
+        assertEquals(plan.participations().size(),
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class));
+
+        User user = userRepository.findById(written.userIds().get(5)).orElseThrow();
+        assertEquals(plan.users().get(5).email(), user.getEmail());
+        assertTrue(passwordEncoder.matches("password123", user.getPassword()));
+    }
+
+    @Test
+    @Transactional
+    void generate_ShouldLinkSessionsToTheirTeacherAndParticipants() {
+        // Arrange
+        SyntheticDataSpec spec = new SyntheticDataSpec(30, 2, 8, 60, 1.1, 7, LocalDate.of(2025, 1, 6), 14);
+        SyntheticData plan = SyntheticDataGenerator.plan(spec);
+
+        // Act
+        Written written = generator.generate(spec, "password123");
+
+        // Assert: teachers give several sessions each
+        for (int i = 0; i < plan.sessions().size(); i++) {
+            Session session = sessionRepository.findById(written.sessionIds().get(i)).orElseThrow();
+            int index = i;
+            assertEquals(plan.sessions().get(i).name(), session.getName());
+            assertEquals(written.teacherIds().get(plan.sessions().get(i).teacher()), session.getTeacher().getId());
+            assertEquals(plan.participations().stream().filter(p -> p.session() == index).count(),
+                    session.getUsers().size());
+        }
+    }
+
+    @Test
+    void isWritten_ShouldRecognizeTheSeedOfAnEarlierRun() {
+        // Arrange
+        SyntheticDataSpec spec = new SyntheticDataSpec(10, 1, 2, 5, 1.1, 42, LocalDate.of(2025, 1, 6), 14);
+        SyntheticDataSpec otherSeed = new SyntheticDataSpec(10, 1, 2, 5, 1.1, 43, LocalDate.of(2025, 1, 6), 14);
+        assertFalse(generator.isWritten(spec));
+
+        // Act
+        generator.generate(spec, "password123");
+
+        // Assert
+        assertTrue(generator.isWritten(spec));
+        assertFalse(generator.isWritten(otherSeed));
+    }
+
+    @Test
+    void syntheticDataRunner_ShouldWriteOnlyOnce_WhenStartedAgain() throws Exception {
+        // Arrange
+        ApplicationRunner runner = new SyntheticDataConfig().syntheticDataRunner(generator,
+                10, 1, 2, 5, 1.1, 42, "2025-01-06", 14, "password123");
+        runner.run(null);
+
+        // Act
+        runner.run(null);
+
+        // Assert
+        assertEquals(10, userRepository.count());
+        assertEquals(1, teacherRepository.count());
+        assertEquals(2, sessionRepository.count());
+    }
+}
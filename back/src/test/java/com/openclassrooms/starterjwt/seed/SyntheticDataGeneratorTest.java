@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.seed;
+
+import com.openclassrooms.starterjwt.seed.SyntheticData.Participation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SyntheticDataGenerator.plan
+ * Tests reproducibility, referential integrity and the shape of the participation distribution
+ */
+class SyntheticDataGeneratorTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 6);
+
+    private static SyntheticDataSpec spec(long seed) {
+        return new SyntheticDataSpec(1_000, 10, 200, 5_000, 1.1, seed, FIRST_DAY, 30);
+    }
+
+    // ==================== REPRODUCIBILITY TESTS ====================
+
+    @Test
+    void plan_ShouldBeIdentical_ForTheSameSpec() {
+        // Act
+        SyntheticData first = SyntheticDataGenerator.plan(spec(42));
+        SyntheticData second = SyntheticDataGenerator.plan(spec(42));
+
+        // Assert
+        assertEquals(first, second);
+    }
+
+    @Test
+    void plan_ShouldDiffer_ForAnotherSeed() {
+        // Act
+        SyntheticData first = SyntheticDataGenerator.plan(spec(42));
+        SyntheticData second = SyntheticDataGenerator.plan(spec(43));
+
+        // Assert
+        assertNotEquals(first.participations(), second.participations());
+        assertNotEquals(first.users().get(0).email(), second.users().get(0).email());
+    }
+
+    // ==================== SHAPE TESTS ====================
+
+    @Test
+    void plan_ShouldProduceTheRequestedCounts_WithinBounds() {
+        // Act
+        SyntheticData data = SyntheticDataGenerator.plan(spec(42));
+
+        // Assert
+        assertEquals(1_000, data.users().size());
+        assertEquals(10, data.teachers().size());
+        assertEquals(200, data.sessions().size());
+        assertEquals(1_000, data.users().stream().map(SyntheticData.UserRow::email).distinct().count());
+        assertTrue(data.participations().size() > 4_000, "participations: " + data.participations().size());
+        assertTrue(data.participations().size() <= 5_500, "participations: " + data.participations().size());
+        assertTrue(data.sessions().stream().allMatch(session -> session.teacher() >= 0 && session.teacher() < 10));
+        assertTrue(data.sessions().stream().allMatch(session -> !session.date().toLocalDate().isBefore(FIRST_DAY)
+                && session.date().toLocalDate().isBefore(FIRST_DAY.plusDays(30))));
+        assertTrue(data.sessions().stream().allMatch(session -> session.name().length() <= 50));
+    }
+
+    @Test
+    void plan_ShouldNeverRepeatAParticipant() {
+        // Act
+        SyntheticData data = SyntheticDataGenerator.plan(spec(42));
+
+        // Assert
+        Set<Participation> unique = new HashSet<>(data.participations());
+        assertEquals(data.participations().size(), unique.size());
+        assertTrue(unique.stream().allMatch(p -> p.user() >= 0 && p.user() < 1_000 && p.session() >= 0 && p.session() < 200));
+    }
+
+    @Test
+    void plan_ShouldConcentrateParticipations_OnFewSessionsAndMembers() {
+        // Act
+        SyntheticData data = SyntheticDataGenerator.plan(spec(42));
+
+        // Assert: the busiest 10% of sessions and of members hold far more than 10% of the rows
+        int rows = data.participations().size();
+        assertTrue(topShare(data, Participation::session, 20) > 0.4 * rows);
+        assertTrue(topShare(data, Participation::user, 100) > 0.3 * rows);
+    }
+
+    @Test
+    void plan_ShouldFillSessionsEntirely_WhenAskedForMoreThanThereAreUsers() {
+        // Act
+        SyntheticData data = SyntheticDataGenerator.plan(new SyntheticDataSpec(5, 1, 2, 100, 1.0, 7, FIRST_DAY, 1));
+
+        // Assert
+        assertEquals(10, data.participations().size());
+    }
+
+    @Test
+    void spec_ShouldRejectSessionsWithoutTeachers() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticDataSpec(10, 0, 1, 0, 1.0, 1, FIRST_DAY, 1));
+    }
+
+    private static long topShare(SyntheticData data, ToIntFunction<Participation> key, int top) {
+        return data.participations().stream()
+                .collect(Collectors.groupingBy(key::applyAsInt, Collectors.counting()))
+                .values().stream()
+                .sorted((a, b) -> Long.compare(b, a))
+                .limit(top)
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+}
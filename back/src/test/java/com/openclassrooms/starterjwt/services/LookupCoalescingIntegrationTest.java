@@ -0,0 +1,181 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.support.SqlStatementCountingConfiguration;
+import com.openclassrooms.starterjwt.support.SqlStatementRecorder;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for lookup coalescing and the missing-id cache in SessionService and TeacherService
+ * Not transactional on purpose: coalescing only applies to lookups made outside a transaction
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:coalescingdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=coalescing",
+        "oc.app.audit.enabled=false"
+})
+@ActiveProfiles("test")
+@Import(SqlStatementCountingConfiguration.class)
+class LookupCoalescingIntegrationTest {
+
+    private static final int CONCURRENT_CALLERS = 20;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Teacher testTeacher;
+    private Session testSession;
+
+    @BeforeEach
+    void setUp() {
+        cleanDatabase();
+
+        testTeacher = teacherRepository.save(Teacher.builder().firstName("Single").lastName("Flight").build());
+        testSession = sessionRepository.save(Session.builder()
+                .name("Coalesced session")
+                .description("Looked up by everyone at once")
+                .date(new Date())
+                .teacher(testTeacher)
+                .users(new ArrayList<>())
+                .build());
+
+        entityManagerFactory.getCache().evictAll();
+        recorder.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.reset();
+        cleanDatabase();
+    }
+
+    @Test
+    void getById_ShouldIssueOneQuery_ForConcurrentColdLookups() throws Exception {
+        // Arrange
+        recorder.setQueryDelayMs(300);
+
+        // Act
+        List<Session> results = concurrently(() -> sessionService.getById(testSession.getId()));
+
+        // Assert
+        results.forEach(session -> assertEquals(testSession.getId(), session.getId()));
+        assertEquals(1, countSelects("from SESSIONS"));
+    }
+
+    @Test
+    void findById_ShouldIssueOneQuery_ForConcurrentColdLookups() throws Exception {
+        // Arrange
+        recorder.setQueryDelayMs(300);
+
+        // Act
+        List<Teacher> results = concurrently(() -> teacherService.findById(testTeacher.getId()));
+
+        // Assert
+        results.forEach(teacher -> assertEquals(testTeacher.getId(), teacher.getId()));
+        assertEquals(1, countSelects("from TEACHERS"));
+    }
+
+    @Test
+    void getById_ShouldNotQueryAgain_ForRecentlyMissingId() {
+        // Arrange
+        Long missingId = testSession.getId() + 1000;
+        assertNull(sessionService.getById(missingId));
+        recorder.reset();
+
+        // Act
+        Session result = sessionService.getById(missingId);
+
+        // Assert
+        assertNull(result);
+        assertEquals(0, recorder.count(QueryType.SELECT));
+    }
+
+    @Test
+    void getById_ShouldFindSession_CreatedAfterItWasMissing() {
+        // Arrange
+        Long missingId = testSession.getId() + 1;
+        assertNull(sessionService.getById(missingId));
+
+        // Act
+        Session created = sessionService.create(Session.builder()
+                .name("Late session")
+                .description("Created after a failed lookup")
+                .date(new Date())
+                .users(new ArrayList<>())
+                .build());
+
+        // Assert
+        assertEquals(missingId, created.getId());
+        assertNotNull(sessionService.getById(missingId));
+    }
+
+    private <T> List<T> concurrently(Callable<T> lookup) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CALLERS)) {
+            for (int i = 0; i < CONCURRENT_CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return lookup.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+    }
+
+    private long countSelects(String sqlFragment) {
+        return recorder.getStatements().stream()
+                .filter(statement -> statement.type() == QueryType.SELECT)
+                .filter(statement -> statement.sql().toLowerCase().contains(sqlFragment.toLowerCase()))
+                .count();
+    }
+
+    private void cleanDatabase() {
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+}
@@ -0,0 +1,163 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the Hibernate second-level and query caches
+ * Not transactional on purpose: every service call runs in its own persistence context,
+ * so only the shared cache can spare the SQL round trip
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Teacher testTeacher;
+    private User testUser;
+    private User testUser2;
+    private Session testSession;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+
+        testTeacher = teacherRepository.save(Teacher.builder().firstName("John").lastName("Cache").build());
+        testUser = userRepository.save(User.builder()
+                .email("cache1@yoga.com").firstName("First").lastName("User").password("password").admin(false).build());
+        testUser2 = userRepository.save(User.builder()
+                .email("cache2@yoga.com").firstName("Second").lastName("User").password("password").admin(false).build());
+        testSession = sessionRepository.save(Session.builder()
+                .name("Cached session")
+                .description("Served from the second-level cache")
+                .date(new Date())
+                .teacher(testTeacher)
+                .users(new ArrayList<>(List.of(testUser)))
+                .build());
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+
+    @Test
+    void teacherFindById_ShouldNotIssueSql_WhenRepeated() {
+        teacherService.findById(testTeacher.getId());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+
+        statistics.clear();
+        Teacher teacher = teacherService.findById(testTeacher.getId());
+
+        assertEquals("Cache", teacher.getLastName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void teacherFindAll_ShouldNotIssueSql_WhenRepeated() {
+        teacherService.findAll();
+
+        statistics.clear();
+        List<Teacher> teachers = teacherService.findAll();
+
+        assertEquals(1, teachers.size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void sessionGetById_ShouldNotIssueSql_WhenRepeated() {
+        sessionService.getById(testSession.getId());
+
+        statistics.clear();
+        Session session = sessionService.getById(testSession.getId());
+
+        assertEquals(testTeacher.getId(), session.getTeacher().getId());
+        assertEquals(List.of(testUser.getId()), userIds(session));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void sessionFindAll_ShouldNotIssueSql_WhenRepeated() {
+        sessionService.findAll();
+
+        statistics.clear();
+        List<Session> sessions = sessionService.findAll();
+
+        assertEquals(1, sessions.size());
+        assertEquals(List.of(testUser.getId()), userIds(sessions.get(0)));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void participate_ShouldInvalidateCachedSessionAndQueries() {
+        sessionService.getById(testSession.getId());
+        sessionService.findAll();
+
+        sessionService.participate(testSession.getId(), testUser2.getId());
+
+        assertEquals(List.of(testUser.getId(), testUser2.getId()), userIds(sessionService.getById(testSession.getId())));
+        assertEquals(List.of(testUser.getId(), testUser2.getId()), userIds(sessionService.findAll().get(0)));
+    }
+
+    @Test
+    void noLongerParticipate_ShouldInvalidateCachedParticipants() {
+        sessionService.getById(testSession.getId());
+
+        sessionService.noLongerParticipate(testSession.getId(), testUser.getId());
+
+        assertTrue(sessionService.getById(testSession.getId()).getUsers().isEmpty());
+    }
+
+    private List<Long> userIds(Session session) {
+        return session.getUsers().stream().map(User::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.attendance.AttendanceSummaries;
+import com.openclassrooms.starterjwt.cache.SerializedResponseCache;
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import com.openclassrooms.starterjwt.invalidation.InvalidationType;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SessionChangeListener
+ * Tests that a session change reaches the response cache, the schedule, the other nodes and the summaries
+ */
+@ExtendWith(MockitoExtension.class)
+class SessionChangeListenerTest {
+
+    @Mock
+    private SerializedResponseCache responseCache;
+
+    @Mock
+    private ScheduleReadModel scheduleReadModel;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private AttendanceSummaries attendanceSummaries;
+
+    @InjectMocks
+    private SessionChangeListener sessionChangeListener;
+
+    @Test
+    void onSessionChanged_ShouldRefreshEverything_AndRecordAttendance_WhenSaved() {
+        // Arrange
+        Session session = Session.builder().id(7L).name("Yin").users(new ArrayList<>()).build();
+
+        // Act
+        sessionChangeListener.onSessionChanged(SessionChangedEvent.saved(session));
+
+        // Assert
+        verify(responseCache).invalidateOnCommit(SerializedResponseCache.SESSIONS);
+        verify(scheduleReadModel).refreshOnCommit(7L);
+        verify(invalidationBus).publish(InvalidationType.SESSION, 7L);
+        verify(attendanceSummaries).record(session);
+        verify(attendanceSummaries, never()).remove(anyLong());
+    }
+
+    @Test
+    void onSessionChanged_ShouldTakeBackAttendance_WhenDeleted() {
+        // Act
+        sessionChangeListener.onSessionChanged(SessionChangedEvent.deleted(7L));
+
+        // Assert
+        verify(responseCache).invalidateOnCommit(SerializedResponseCache.SESSIONS);
+        verify(scheduleReadModel).refreshOnCommit(7L);
+        verify(invalidationBus).publish(InvalidationType.SESSION, 7L);
+        verify(attendanceSummaries).remove(7L);
+        verifyNoMoreInteractions(attendanceSummaries);
+    }
+
+    @Test
+    void onSessionChanged_ShouldOnlyInvalidateResponses_WhenIdIsNull() {
+        // Act
+        sessionChangeListener.onSessionChanged(SessionChangedEvent.deleted(null));
+
+        // Assert
+        verify(responseCache).invalidateOnCommit(SerializedResponseCache.SESSIONS);
+        verifyNoInteractions(scheduleReadModel, invalidationBus, attendanceSummaries);
+    }
+}
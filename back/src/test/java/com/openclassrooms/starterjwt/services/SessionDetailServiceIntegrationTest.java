@@ -0,0 +1,129 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDetailDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for SessionDetailService
+ * Not transactional on purpose: the lookups run on their own virtual threads and connections,
+ * so the fixture has to be committed to be visible to them
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SessionDetailServiceIntegrationTest {
+
+    @Autowired
+    private SessionDetailService sessionDetailService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Teacher testTeacher;
+    private User testUser;
+    private User testUser2;
+    private Session testSession;
+
+    @BeforeEach
+    void setUp() {
+        cleanDatabase();
+
+        testTeacher = teacherRepository.save(Teacher.builder().firstName("Margot").lastName("Detail").build());
+        testUser = userRepository.save(User.builder()
+                .email("detail1@yoga.com").firstName("First").lastName("User").password("password").admin(false).build());
+        testUser2 = userRepository.save(User.builder()
+                .email("detail2@yoga.com").firstName("Second").lastName("User").password("password").admin(false).build());
+        testSession = sessionRepository.save(Session.builder()
+                .name("Detailed session")
+                .description("Everything on one screen")
+                .date(new Date())
+                .teacher(testTeacher)
+                .capacity(10)
+                .users(new ArrayList<>(List.of(testUser)))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanDatabase();
+    }
+
+    @Test
+    void getDetail_ShouldEmbedTeacherAndRosterSummary() {
+        // Act
+        SessionDetailDto detail = sessionDetailService.getDetail(testSession.getId(), testUser.getEmail());
+
+        // Assert
+        assertNotNull(detail);
+        assertEquals(testSession.getId(), detail.getId());
+        assertEquals("Detailed session", detail.getName());
+        assertEquals(10, detail.getCapacity());
+        assertEquals(testTeacher.getId(), detail.getTeacher().getId());
+        assertEquals("Margot", detail.getTeacher().getFirstName());
+        assertEquals("Detail", detail.getTeacher().getLastName());
+        assertEquals(1L, detail.getParticipantCount());
+        assertTrue(detail.isParticipating());
+    }
+
+    @Test
+    void getDetail_ShouldNotFlagParticipation_WhenCallerDoesNotParticipate() {
+        // Act
+        SessionDetailDto detail = sessionDetailService.getDetail(testSession.getId(), testUser2.getEmail());
+
+        // Assert
+        assertEquals(1L, detail.getParticipantCount());
+        assertFalse(detail.isParticipating());
+    }
+
+    @Test
+    void getDetail_ShouldReturnNull_WhenSessionDoesNotExist() {
+        assertNull(sessionDetailService.getDetail(testSession.getId() + 1000, testUser.getEmail()));
+    }
+
+    @Test
+    void getDetail_ShouldHandleSessionWithoutTeacherOrParticipants() {
+        // Arrange
+        Session emptySession = sessionRepository.save(Session.builder()
+                .name("Empty session")
+                .description("Nobody yet")
+                .date(new Date())
+                .users(new ArrayList<>())
+                .build());
+
+        // Act
+        SessionDetailDto detail = sessionDetailService.getDetail(emptySession.getId(), null);
+
+        // Assert
+        assertNull(detail.getTeacher());
+        assertEquals(0L, detail.getParticipantCount());
+        assertFalse(detail.isParticipating());
+    }
+
+    private void cleanDatabase() {
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+}
@@ -1,5 +1,9 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.MissingIdCache;
+import com.openclassrooms.starterjwt.datasource.ReadYourWritesTracker;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionRow;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
@@ -12,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -38,6 +43,18 @@ class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private MissingIdCache missingIdCache;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -404,4 +421,235 @@ class SessionServiceTest {
         verify(sessionRepository).findById(testSessionId);
         verify(sessionRepository).save(testSession);
     }
-}
\ No newline at end of file
+
+    // ==================== CAPACITY AND WAITLIST TESTS ====================
+
+    @Test
+    void participate_ShouldThrowBadRequestException_WhenSessionIsFull() {
+        // Arrange
+        testSession.setCapacity(1);
+        testSession.getUsers().add(testUser2);
+        when(sessionRepository.findById(testSessionId)).thenReturn(Optional.of(testSession));
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> {
+            sessionService.participate(testSessionId, testUserId);
+        });
+
+        verify(waitlistService).lockSession(testSession);
+        verify(sessionRepository).findById(testSessionId);
+        verifyNoMoreInteractions(sessionRepository);
+    }
+
+    @Test
+    void participate_ShouldLeaveWaitlist_WhenSessionHasRoom() {
+        // Arrange
+        testSession.setCapacity(2);
+        testSession.getUsers().add(testUser2);
+        when(sessionRepository.findById(testSessionId)).thenReturn(Optional.of(testSession));
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+
+        // Act
+        sessionService.participate(testSessionId, testUserId);
+
+        // Assert
+        assertTrue(testSession.getUsers().contains(testUser));
+        verify(waitlistService).lockSession(testSession);
+        verify(waitlistService).removeFromWaitlist(testSessionId, testUserId);
+        verify(sessionRepository).save(testSession);
+    }
+
+    @Test
+    void noLongerParticipate_ShouldPromoteHeadOfWaitlist_WhenSessionHasCapacity() {
+        // Arrange
+        testSession.setCapacity(1);
+        testSession.getUsers().add(testUser);
+        when(sessionRepository.findById(testSessionId)).thenReturn(Optional.of(testSession));
+        when(waitlistService.promoteHead(testSession)).thenReturn(Optional.of(testUser2));
+
+        // Act
+        sessionService.noLongerParticipate(testSessionId, testUserId);
+
+        // Assert
+        assertEquals(List.of(testUser2), testSession.getUsers());
+        verify(waitlistService).lockSession(testSession);
+        verify(waitlistService, times(1)).promoteHead(testSession);
+        verify(sessionRepository).save(testSession);
+        verify(readYourWritesTracker).markWrite(testUser2.getId());
+    }
+
+    @Test
+    void noLongerParticipate_ShouldNotPromote_WhenSessionHasNoCapacity() {
+        // Arrange
+        testSession.getUsers().add(testUser);
+        when(sessionRepository.findById(testSessionId)).thenReturn(Optional.of(testSession));
+
+        // Act
+        sessionService.noLongerParticipate(testSessionId, testUserId);
+
+        // Assert
+        assertTrue(testSession.getUsers().isEmpty());
+        verifyNoInteractions(waitlistService);
+    }
+
+    @Test
+    void delete_ShouldClearWaitlist() {
+        // Act
+        sessionService.delete(testSessionId);
+
+        // Assert
+        verify(waitlistService).clear(testSessionId);
+        verify(sessionRepository).deleteById(testSessionId);
+    }
+
+    // ==================== PROJECTION TESTS ====================
+
+    @Test
+    void getDtoById_ShouldFoldParticipantRows_IntoOneSession() {
+        // Arrange
+        Date date = new Date();
+        when(sessionRepository.findRowsById(testSessionId)).thenReturn(List.of(
+                new SessionRow(testSessionId, "Yoga", date, 7L, "Morning", 10, null, null, 2L),
+                new SessionRow(testSessionId, "Yoga", date, 7L, "Morning", 10, null, null, 3L)));
+
+        // Act
+        SessionDto result = sessionService.getDtoById(testSessionId);
+
+        // Assert
+        assertEquals(testSessionId, result.getId());
+        assertEquals("Yoga", result.getName());
+        assertEquals(7L, result.getTeacher_id());
+        assertEquals(List.of(2L, 3L), result.getUsers());
+        verify(sessionRepository, never()).findById(any());
+    }
+
+    @Test
+    void getDtoById_ShouldReturnNull_AndRememberMissingId_WhenNoRows() {
+        // Arrange
+        when(sessionRepository.findRowsById(testSessionId)).thenReturn(List.of());
+
+        // Act
+        SessionDto result = sessionService.getDtoById(testSessionId);
+
+        // Assert
+        assertNull(result);
+        verify(missingIdCache).markMissing(Session.class, testSessionId);
+    }
+
+    @Test
+    void findAllDtos_ShouldKeepSessionsWithoutParticipants() {
+        // Arrange
+        Date date = new Date();
+        when(sessionRepository.findAllRows()).thenReturn(List.of(
+                new SessionRow(1L, "Empty", date, null, "Nobody yet", null, null, null, null),
+                new SessionRow(2L, "Full", date, 8L, "Someone", 1, null, null, 4L)));
+
+        // Act
+        List<SessionDto> result = sessionService.findAllDtos();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(List.of(), result.get(0).getUsers());
+        assertNull(result.get(0).getTeacher_id());
+        assertEquals(List.of(4L), result.get(1).getUsers());
+    }
+
+    // ==================== MISSING ID CACHE TESTS ====================
+
+    @Test
+    void getById_ShouldRememberMissingId_WhenSessionDoesNotExist() {
+        // Arrange
+        when(sessionRepository.findById(testSessionId)).thenReturn(Optional.empty());
+
+        // Act
+        Session result = sessionService.getById(testSessionId);
+
+        // Assert
+        assertNull(result);
+        verify(missingIdCache).markMissing(Session.class, testSessionId);
+    }
+
+    @Test
+    void getById_ShouldNotQueryRepository_WhenIdIsKnownMissing() {
+        // Arrange
+        when(missingIdCache.isMissing(Session.class, testSessionId)).thenReturn(true);
+
+        // Act
+        Session result = sessionService.getById(testSessionId);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void create_ShouldForgetMissingId() {
+        // Arrange
+        when(sessionRepository.save(testSession)).thenReturn(testSession);
+
+        // Act
+        sessionService.create(testSession);
+
+        // Assert
+        verify(missingIdCache).invalidate(Session.class, testSessionId);
+    }
+
+    // ==================== SESSION CHANGE TESTS ====================
+
+    @Test
+    void create_ShouldPublishSessionChange() {
+        // Arrange
+        when(sessionRepository.save(testSession)).thenReturn(testSession);
+
+        // Act
+        sessionService.create(testSession);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(testSessionId, testSession));
+    }
+
+    @Test
+    void update_ShouldPublishSessionChange() {
+        // Arrange
+        when(sessionRepository.save(testSession)).thenReturn(testSession);
+
+        // Act
+        sessionService.update(testSessionId, testSession);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(testSessionId, testSession));
+    }
+
+    @Test
+    void participate_ShouldPublishSessionChange() {
+        // Arrange
+        when(sessionRepository.findById(testSessionId)).thenReturn(Optional.of(testSession));
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+
+        // Act
+        sessionService.participate(testSessionId, testUserId);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(testSessionId, testSession));
+    }
+
+    @Test
+    void participate_ShouldNotPublishSessionChange_WhenRejected() {
+        // Arrange
+        when(sessionRepository.findById(testSessionId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> sessionService.participate(testSessionId, testUserId));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void delete_ShouldPublishSessionChange() {
+        // Act
+        sessionService.delete(testSessionId);
+
+        // Assert
+        verify(eventPublisher).publishEvent(SessionChangedEvent.deleted(testSessionId));
+    }
+}
@@ -1,5 +1,7 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.MissingIdCache;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +18,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +31,9 @@ class TeacherServiceTest {
     @Mock
     private TeacherRepository teacherRepository;
 
+    @Mock
+    private MissingIdCache missingIdCache;
+
     @InjectMocks
     private TeacherService teacherService;
 
@@ -362,4 +368,75 @@ class TeacherServiceTest {
         verify(teacherRepository).findById(testTeacherId);
         verifyNoMoreInteractions(teacherRepository);
     }
-}
\ No newline at end of file
+
+    // ==================== MISSING ID CACHE TESTS ====================
+
+    @Test
+    void findById_ShouldRememberMissingId_WhenTeacherDoesNotExist() {
+        // Arrange
+        when(teacherRepository.findById(testTeacherId)).thenReturn(Optional.empty());
+
+        // Act
+        Teacher result = teacherService.findById(testTeacherId);
+
+        // Assert
+        assertNull(result);
+        verify(missingIdCache).markMissing(Teacher.class, testTeacherId);
+    }
+
+    @Test
+    void findById_ShouldNotQueryRepository_WhenIdIsKnownMissing() {
+        // Arrange
+        when(missingIdCache.isMissing(Teacher.class, testTeacherId)).thenReturn(true);
+
+        // Act
+        Teacher result = teacherService.findById(testTeacherId);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(teacherRepository);
+    }
+
+    @Test
+    void findDtoById_ShouldNotQueryRepository_WhenIdIsKnownMissing() {
+        // Arrange
+        when(missingIdCache.isMissing(Teacher.class, testTeacherId)).thenReturn(true);
+
+        // Act
+        TeacherDto result = teacherService.findDtoById(testTeacherId);
+
+        // Assert
+        assertNull(result);
+        verifyNoInteractions(teacherRepository);
+    }
+
+    // ==================== PROJECTION TESTS ====================
+
+    @Test
+    void findDtoById_ShouldReturnProjection_WithoutLoadingEntity() {
+        // Arrange
+        TeacherDto teacherDto = new TeacherDto(testTeacherId, "Doe", "John", null, null);
+        when(teacherRepository.findDtoById(testTeacherId)).thenReturn(Optional.of(teacherDto));
+
+        // Act
+        TeacherDto result = teacherService.findDtoById(testTeacherId);
+
+        // Assert
+        assertSame(teacherDto, result);
+        verify(teacherRepository, never()).findById(any());
+    }
+
+    @Test
+    void findAllDtos_ShouldReturnProjections() {
+        // Arrange
+        List<TeacherDto> teacherDtos = List.of(new TeacherDto(testTeacherId, "Doe", "John", null, null));
+        when(teacherRepository.findAllDtos()).thenReturn(teacherDtos);
+
+        // Act
+        List<TeacherDto> result = teacherService.findAllDtos();
+
+        // Assert
+        assertSame(teacherDtos, result);
+        verify(teacherRepository, never()).findAll();
+    }
+}
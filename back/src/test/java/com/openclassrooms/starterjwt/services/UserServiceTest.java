@@ -1,7 +1,13 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.SerializedResponseCache;
+import com.openclassrooms.starterjwt.dto.UserDto;
+import com.openclassrooms.starterjwt.invalidation.InvalidationBus;
+import com.openclassrooms.starterjwt.invalidation.InvalidationType;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.schedule.ScheduleReadModel;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +19,9 @@ import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -26,6 +34,18 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SerializedResponseCache responseCache;
+
+    @Mock
+    private ScheduleReadModel scheduleReadModel;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private UserService userService;
 
@@ -126,36 +146,54 @@ class UserServiceTest {
     // ==================== DELETE TESTS ====================
 
     @Test
-    void delete_ShouldCallRepositoryDeleteById_WhenIdIsValid() {
-        // Arrange
-        doNothing().when(userRepository).deleteById(testUserId);
+    void delete_ShouldSoftDeleteUser_WhenIdIsValid() {
+        // Act
+        userService.delete(testUserId);
 
+        // Assert: the row stays for the UserPurger
+        verify(userRepository).softDelete(eq(testUserId), any(LocalDateTime.class));
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void delete_ShouldInvalidateCachedSessionList() {
         // Act
         userService.delete(testUserId);
 
         // Assert
-        verify(userRepository).deleteById(testUserId);
-        verifyNoMoreInteractions(userRepository);
+        verify(responseCache).invalidateOnCommit(SerializedResponseCache.SESSIONS);
     }
 
     @Test
-    void delete_ShouldCallRepositoryDeleteById_WhenIdIsNull() {
-        // Arrange
-        doNothing().when(userRepository).deleteById(null);
+    void delete_ShouldPublishInvalidationToOtherNodes() {
+        // Act
+        userService.delete(testUserId);
+
+        // Assert
+        verify(invalidationBus).publish(InvalidationType.USER, testUserId);
+    }
 
+    @Test
+    void delete_ShouldRevokeTheUsersTokens() {
         // Act
-        userService.delete(null);
+        userService.delete(testUserId);
 
         // Assert
-        verify(userRepository).deleteById(null);
-        verifyNoMoreInteractions(userRepository);
+        verify(refreshTokenService).revokeUser(testUserId);
+    }
+
+    @Test
+    void delete_ShouldThrow_WhenIdIsNull() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.delete(null));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void delete_ShouldPropagateRepositoryException() {
         // Arrange
-        doThrow(new RuntimeException("Database constraint violation"))
-                .when(userRepository).deleteById(testUserId);
+        doThrow(new RuntimeException("Database error"))
+                .when(userRepository).softDelete(eq(testUserId), any(LocalDateTime.class));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
@@ -163,20 +201,19 @@ class UserServiceTest {
         });
 
         // Verify repository was called
-        verify(userRepository).deleteById(testUserId);
+        verify(userRepository).softDelete(eq(testUserId), any(LocalDateTime.class));
     }
 
     @Test
-    void delete_ShouldCallRepositoryDeleteById_WithNonExistentId() {
-        // Arrange - Repository won't throw exception for non-existent ID (JPA behavior)
+    void delete_ShouldCallRepositorySoftDelete_WithNonExistentId() {
+        // Arrange - The update simply matches no row
         Long nonExistentId = 999L;
-        doNothing().when(userRepository).deleteById(nonExistentId);
 
         // Act
         userService.delete(nonExistentId);
 
         // Assert
-        verify(userRepository).deleteById(nonExistentId);
+        verify(userRepository).softDelete(eq(nonExistentId), any(LocalDateTime.class));
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -186,7 +223,6 @@ class UserServiceTest {
     void findById_ThenDelete_ShouldWorkInSequence() {
         // Arrange
         when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        doNothing().when(userRepository).deleteById(testUserId);
 
         // Act
         User foundUser = userService.findById(testUserId);
@@ -198,7 +234,7 @@ class UserServiceTest {
 
         // Verify both operations were called
         verify(userRepository).findById(testUserId);
-        verify(userRepository).deleteById(testUserId);
+        verify(userRepository).softDelete(eq(testUserId), any(LocalDateTime.class));
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -241,10 +277,35 @@ class UserServiceTest {
     void delete_ShouldHandleLargeId() {
         // Arrange
         Long largeId = Long.MAX_VALUE;
-        doNothing().when(userRepository).deleteById(largeId);
 
         // Act & Assert - Should not throw exception
         assertDoesNotThrow(() -> userService.delete(largeId));
-        verify(userRepository).deleteById(largeId);
+        verify(userRepository).softDelete(eq(largeId), any(LocalDateTime.class));
+    }
+
+    // ==================== PROJECTION TESTS ====================
+
+    @Test
+    void findDtoById_ShouldReturnProjection_WithoutPassword() {
+        // Arrange
+        UserDto userDto = new UserDto(testUserId, "test@yoga.com", "Doe", "John", false, null, null);
+        when(userRepository.findDtoById(testUserId)).thenReturn(Optional.of(userDto));
+
+        // Act
+        UserDto result = userService.findDtoById(testUserId);
+
+        // Assert
+        assertSame(userDto, result);
+        assertNull(result.getPassword());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findDtoById_ShouldReturnNull_WhenUserDoesNotExist() {
+        // Arrange
+        when(userRepository.findDtoById(testUserId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertNull(userService.findDtoById(testUserId));
     }
-}
\ No newline at end of file
+}
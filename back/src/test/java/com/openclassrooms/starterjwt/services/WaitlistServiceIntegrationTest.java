@@ -0,0 +1,241 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for WaitlistService
+ * Not transactional on purpose: the concurrency test needs every cancellation to commit on its own
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WaitlistServiceIntegrationTest {
+
+    private static final int CAPACITY = 6;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    private Session testSession;
+    private List<User> participants;
+    private List<User> waiting;
+
+    @BeforeEach
+    void setUp() {
+        cleanDatabase();
+
+        Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Wait").lastName("List").build());
+        participants = new ArrayList<>();
+        waiting = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            participants.add(saveUser("participant" + i + "@yoga.com"));
+            waiting.add(saveUser("waiting" + i + "@yoga.com"));
+        }
+        testSession = sessionRepository.save(Session.builder()
+                .name("Popular session")
+                .description("Always full")
+                .date(new Date())
+                .teacher(teacher)
+                .capacity(CAPACITY)
+                .users(new ArrayList<>(participants))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanDatabase();
+    }
+
+    // ==================== JOIN TESTS ====================
+
+    @Test
+    void join_ShouldAssignFifoPositions() {
+        // Act
+        long first = waitlistService.join(testSession.getId(), waiting.get(0).getId());
+        long second = waitlistService.join(testSession.getId(), waiting.get(1).getId());
+        long third = waitlistService.join(testSession.getId(), waiting.get(2).getId());
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), List.of(first, second, third));
+        assertEquals(2L, waitlistService.getPosition(testSession.getId(), waiting.get(1).getId()));
+    }
+
+    @Test
+    void getPosition_ShouldMoveUp_WhenSomeoneAheadLeaves() {
+        // Arrange
+        waitlistService.join(testSession.getId(), waiting.get(0).getId());
+        waitlistService.join(testSession.getId(), waiting.get(1).getId());
+        waitlistService.join(testSession.getId(), waiting.get(2).getId());
+
+        // Act
+        waitlistService.leave(testSession.getId(), waiting.get(0).getId());
+
+        // Assert
+        assertEquals(1L, waitlistService.getPosition(testSession.getId(), waiting.get(1).getId()));
+        assertEquals(2L, waitlistService.getPosition(testSession.getId(), waiting.get(2).getId()));
+    }
+
+    @Test
+    void join_ShouldThrowBadRequestException_WhenSessionHasRoom() {
+        // Arrange
+        sessionService.noLongerParticipate(testSession.getId(), participants.get(0).getId());
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> waitlistService.join(testSession.getId(), waiting.get(0).getId()));
+    }
+
+    @Test
+    void join_ShouldThrowBadRequestException_WhenAlreadyWaiting() {
+        // Arrange
+        waitlistService.join(testSession.getId(), waiting.get(0).getId());
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> waitlistService.join(testSession.getId(), waiting.get(0).getId()));
+    }
+
+    @Test
+    void join_ShouldThrowBadRequestException_WhenAlreadyParticipating() {
+        assertThrows(BadRequestException.class,
+                () -> waitlistService.join(testSession.getId(), participants.get(0).getId()));
+    }
+
+    @Test
+    void getPosition_ShouldThrowNotFoundException_WhenNotWaiting() {
+        assertThrows(NotFoundException.class,
+                () -> waitlistService.getPosition(testSession.getId(), waiting.get(0).getId()));
+    }
+
+    // ==================== PROMOTION TESTS ====================
+
+    @Test
+    void participate_ShouldThrowBadRequestException_WhenSessionIsFull() {
+        assertThrows(BadRequestException.class,
+                () -> sessionService.participate(testSession.getId(), waiting.get(0).getId()));
+    }
+
+    @Test
+    void noLongerParticipate_ShouldPromoteHeadOfWaitlist() {
+        // Arrange
+        waitlistService.join(testSession.getId(), waiting.get(0).getId());
+        waitlistService.join(testSession.getId(), waiting.get(1).getId());
+
+        // Act
+        sessionService.noLongerParticipate(testSession.getId(), participants.get(0).getId());
+
+        // Assert
+        List<Long> roster = rosterIds();
+        assertEquals(CAPACITY, roster.size());
+        assertTrue(roster.contains(waiting.get(0).getId()));
+        assertFalse(roster.contains(participants.get(0).getId()));
+        assertEquals(1L, waitlistService.getPosition(testSession.getId(), waiting.get(1).getId()));
+    }
+
+    @Test
+    void noLongerParticipate_ShouldSkipDeletedUsers_WhenPromoting() {
+        // Arrange
+        waitlistService.join(testSession.getId(), waiting.get(0).getId());
+        waitlistService.join(testSession.getId(), waiting.get(1).getId());
+        userRepository.deleteById(waiting.get(0).getId());
+
+        // Act
+        sessionService.noLongerParticipate(testSession.getId(), participants.get(0).getId());
+
+        // Assert
+        assertTrue(rosterIds().contains(waiting.get(1).getId()));
+        assertEquals(0, waitlistRepository.count());
+    }
+
+    @Test
+    void parallelCancellations_ShouldPromoteEachWaitingUserExactlyOnce() throws Exception {
+        // Arrange
+        int waitingCount = CAPACITY - 2;
+        for (int i = 0; i < waitingCount; i++) {
+            waitlistService.join(testSession.getId(), waiting.get(i).getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(CAPACITY);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> cancellations = new ArrayList<>();
+
+        // Act - every participant cancels at the same time
+        for (User participant : participants) {
+            cancellations.add(executor.submit(() -> {
+                start.await();
+                sessionService.noLongerParticipate(testSession.getId(), participant.getId());
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> cancellation : cancellations) {
+            cancellation.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert - the freed places went to the waiting users, each of them once
+        List<Long> roster = rosterIds();
+        List<Long> expected = waiting.subList(0, waitingCount).stream().map(User::getId).collect(Collectors.toList());
+        assertEquals(waitingCount, roster.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(roster));
+        assertEquals(0, waitlistRepository.count());
+    }
+
+    private List<Long> rosterIds() {
+        return sessionService.getById(testSession.getId()).getUsers().stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .email(email).firstName("Wait").lastName("User").password("password").admin(false).build());
+    }
+
+    private void cleanDatabase() {
+        waitlistRepository.deleteAll();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+}
@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+
+/**
+ * Runs H2's EXPLAIN for a recorded statement and keeps the plan under target/sql-explain
+ */
+public final class ExplainPlans {
+
+    private static final Path OUTPUT_DIRECTORY = Paths.get("target", "sql-explain");
+
+    private ExplainPlans() {
+    }
+
+    public static String capture(JdbcTemplate jdbcTemplate, String name, SqlStatementRecorder.RecordedStatement statement) {
+        String plan = jdbcTemplate.queryForList("EXPLAIN " + statement.sql(), String.class, statement.parameters().toArray())
+                .stream()
+                .collect(Collectors.joining(System.lineSeparator()));
+
+        try {
+            Files.createDirectories(OUTPUT_DIRECTORY);
+            Files.writeString(OUTPUT_DIRECTORY.resolve(name + ".txt"),
+                    statement.sql() + System.lineSeparator() + System.lineSeparator() + plan + System.lineSeparator());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return plan;
+    }
+}
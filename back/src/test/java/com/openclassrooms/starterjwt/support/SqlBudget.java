@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.support;
+
+import net.ttddyy.dsproxy.QueryType;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Maximum number of statements per type an endpoint may issue for one request
+ */
+public record SqlBudget(int select, int insert, int update, int delete) {
+
+    public static SqlBudget selects(int select) {
+        return new SqlBudget(select, 0, 0, 0);
+    }
+
+    public SqlBudget inserts(int insert) {
+        return new SqlBudget(select, insert, update, delete);
+    }
+
+    public SqlBudget updates(int update) {
+        return new SqlBudget(select, insert, update, delete);
+    }
+
+    public SqlBudget deletes(int delete) {
+        return new SqlBudget(select, insert, update, delete);
+    }
+
+    public void assertRespectedBy(SqlStatementRecorder recorder, String endpoint) {
+        long selects = recorder.count(QueryType.SELECT);
+        long inserts = recorder.count(QueryType.INSERT);
+        long updates = recorder.count(QueryType.UPDATE);
+        long deletes = recorder.count(QueryType.DELETE);
+
+        if (selects > select || inserts > insert || updates > update || deletes > delete) {
+            fail(String.format("%s went over its SQL budget: select %d/%d, insert %d/%d, update %d/%d, delete %d/%d%n%s",
+                    endpoint, selects, select, inserts, insert, updates, update, deletes, delete,
+                    recorder.getStatements().stream()
+                            .map(statement -> "  " + statement.sql())
+                            .collect(Collectors.joining(System.lineSeparator()))));
+        }
+    }
+}
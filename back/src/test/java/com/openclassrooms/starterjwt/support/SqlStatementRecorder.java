@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * datasource-proxy listener keeping every statement executed since the last reset,
+ * with its type and first set of bound parameters
+ */
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    public record RecordedStatement(QueryType type, String sql, List<Object> parameters) {
+    }
+
+    private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+    private volatile long queryDelayMs;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryDelayMs > 0) {
+            try {
+                Thread.sleep(queryDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            statements.add(new RecordedStatement(QueryUtils.getQueryType(sql), sql, firstParameters(queryInfo)));
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+        queryDelayMs = 0;
+    }
+
+    /**
+     * Slows every statement down until the next reset, to widen race windows in concurrency tests
+     */
+    public void setQueryDelayMs(long queryDelayMs) {
+        this.queryDelayMs = queryDelayMs;
+    }
+
+    public List<RecordedStatement> getStatements() {
+        return Collections.unmodifiableList(new ArrayList<>(statements));
+    }
+
+    public long count(QueryType type) {
+        return statements.stream().filter(statement -> statement.type() == type).count();
+    }
+
+    public RecordedStatement firstMatching(QueryType type, String sqlFragment) {
+        return statements.stream()
+                .filter(statement -> statement.type() == type)
+                .filter(statement -> statement.sql().toLowerCase().contains(sqlFragment.toLowerCase()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + type + " statement containing '" + sqlFragment + "' was recorded"));
+    }
+
+    private static List<Object> firstParameters(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Object> byIndex = new TreeMap<>();
+        for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+            Object[] args = operation.getArgs();
+            if (args.length > 0 && args[0] instanceof Integer index) {
+                byIndex.put(index, ParameterSetOperation.isSetNullParameterOperation(operation) ? null : args[1]);
+            }
+        }
+        return new ArrayList<>(byIndex.values());
+    }
+}
@@ -0,0 +1,176 @@
+package com.openclassrooms.starterjwt.timing;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ServerTimingFilter
+ */
+class ServerTimingFilterTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static final FilterChain MEASURED_CONTROLLER = (request, response) -> {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null) {
+            timing.begin(ServerTiming.Phase.DB);
+            timing.end(ServerTiming.Phase.DB);
+            timing.begin(ServerTiming.Phase.JSON);
+            sleep();
+            timing.end(ServerTiming.Phase.JSON);
+        }
+        response.setContentType("application/json");
+        response.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void doFilter_ShouldAddHeader_BeforeTheBodyIsWritten() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(get(), response, MEASURED_CONTROLLER);
+
+        // Assert
+        String header = response.getHeader(ServerTimingFilter.SERVER_TIMING);
+        assertNotNull(header);
+        assertTrue(header.matches("db;dur=\\d+\\.\\d, json;dur=\\d+\\.\\d, total;dur=\\d+\\.\\d"), header);
+        assertEquals("{}", response.getContentAsString());
+        assertNull(ServerTiming.current());
+    }
+
+    @Test
+    void doFilter_ShouldAddHeader_WhenResponseHasNoBody() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(get(), response, (req, res) -> ((HttpServletResponse) res).setStatus(204));
+
+        // Assert
+        assertTrue(response.getHeader(ServerTimingFilter.SERVER_TIMING).startsWith("total;dur="));
+    }
+
+    @Test
+    void doFilter_ShouldSkipMeasuring_WhenClientTurnsItOff() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, false);
+        MockHttpServletRequest request = get();
+        request.addHeader(ServerTimingFilter.REQUEST_HEADER, "off");
+        AtomicReference<ServerTiming> seen = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> seen.set(ServerTiming.current()));
+
+        // Assert
+        assertNull(seen.get());
+        assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    void doFilter_ShouldAddHeaderForAdmins_WhenTheyTurnItOnAndDefaultIsOff() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(false, false);
+        MockHttpServletResponse unrequested = new MockHttpServletResponse();
+        MockHttpServletResponse requested = new MockHttpServletResponse();
+        authenticate(true);
+
+        // Act
+        filter.doFilter(get(), unrequested, MEASURED_CONTROLLER);
+        filter.doFilter(requestingTiming(), requested, MEASURED_CONTROLLER);
+
+        // Assert
+        assertNull(unrequested.getHeader(ServerTimingFilter.SERVER_TIMING));
+        assertNotNull(requested.getHeader(ServerTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    void doFilter_ShouldNotAddHeader_WhenAnotherCallerTurnsItOn() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(false, false);
+        MockHttpServletResponse anonymous = new MockHttpServletResponse();
+        MockHttpServletResponse user = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(requestingTiming(), anonymous, MEASURED_CONTROLLER);
+        authenticate(false);
+        filter.doFilter(requestingTiming(), user, MEASURED_CONTROLLER);
+
+        // Assert
+        assertNull(anonymous.getHeader(ServerTimingFilter.SERVER_TIMING));
+        assertNull(user.getHeader(ServerTimingFilter.SERVER_TIMING));
+        assertEquals("{}", user.getContentAsString());
+    }
+
+    @Test
+    void doFilter_ShouldMeasureForAccessLogOnly_WhenDefaultIsOff() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(false, true);
+        MockHttpServletRequest request = get();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, MEASURED_CONTROLLER);
+
+        // Assert
+        assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING));
+        assertTrue(((String) request.getAttribute(ServerTimingFilter.ATTRIBUTE)).contains("db;dur="));
+    }
+
+    @Test
+    void doFilter_ShouldLeaveCompleteTimingForAccessLog() throws Exception {
+        // Arrange
+        ServerTimingFilter filter = new ServerTimingFilter(true, true);
+        MockHttpServletRequest request = get();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), MEASURED_CONTROLLER);
+
+        // Assert
+        String logged = (String) request.getAttribute(ServerTimingFilter.ATTRIBUTE);
+        assertTrue(logged.contains("db;dur=") && logged.contains("json;dur=") && logged.contains("total;dur="), logged);
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/session");
+    }
+
+    private static MockHttpServletRequest requestingTiming() {
+        MockHttpServletRequest request = get();
+        request.addHeader(ServerTimingFilter.REQUEST_HEADER, "on");
+        return request;
+    }
+
+    private static void authenticate(boolean admin) {
+        UserDetailsImpl user = UserDetailsImpl.builder().id(1L).username("timing@yoga.com").admin(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
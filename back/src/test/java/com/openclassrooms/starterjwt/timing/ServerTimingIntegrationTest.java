@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.timing;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the Server-Timing header
+ * Runs the timing filter and AuthTokenFilter in front of the real controllers, services and repositories,
+ * as an admin asking for the header unless a test says otherwise
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:timingdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.region_prefix=timing",
+        "oc.app.audit.enabled=false"
+})
+@ActiveProfiles("test")
+class ServerTimingIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private FilterRegistrationBean<ServerTimingFilter> serverTimingFilter;
+
+    @Autowired
+    private AuthTokenFilter authTokenFilter;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    private MockMvc mockMvc;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(serverTimingFilter.getFilter(), authTokenFilter)
+                .build();
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("Timed").lastName("Teacher").createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build());
+        authenticate(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+
+    @Test
+    void getTeacher_ShouldBreakDownAuthServiceDatabaseAndJson() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/teacher/{id}", teacher.getId())
+                        .header("Authorization", "Bearer not-a-valid-token")
+                        .header(ServerTimingFilter.REQUEST_HEADER, "on"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Timed"))
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING, allOf(
+                        containsString("auth;dur="),
+                        containsString("svc;dur="),
+                        containsString("db;dur="),
+                        containsString("json;dur="),
+                        containsString("total;dur="))));
+    }
+
+    @Test
+    void createSession_ShouldReportMapping() throws Exception {
+        // Arrange
+        String body = "{\"name\":\"Timed session\",\"date\":\"2026-01-01\",\"teacher_id\":" + teacher.getId()
+                + ",\"description\":\"Measured\",\"users\":[]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/api/session").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header(ServerTimingFilter.REQUEST_HEADER, "on"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Timed session"))
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING, containsString("map;dur=")));
+    }
+
+    @Test
+    void request_ShouldHaveNoHeader_WhenClientTurnsTimingOff() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/teacher/{id}", teacher.getId()).header(ServerTimingFilter.REQUEST_HEADER, "off"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ServerTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    void request_ShouldHaveNoHeader_WhenClientDoesNotAsk() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/teacher/{id}", teacher.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ServerTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    void request_ShouldHaveNoHeader_WhenCallerIsNotAdmin() throws Exception {
+        // Arrange
+        authenticate(false);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/teacher/{id}", teacher.getId()).header(ServerTimingFilter.REQUEST_HEADER, "on"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Timed"))
+                .andExpect(header().doesNotExist(ServerTimingFilter.SERVER_TIMING));
+    }
+
+    private static void authenticate(boolean admin) {
+        UserDetailsImpl user = UserDetailsImpl.builder().id(1L).username("timing@yoga.com").admin(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+    }
+}
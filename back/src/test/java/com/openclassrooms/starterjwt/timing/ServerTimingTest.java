@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.timing;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ServerTiming
+ */
+class ServerTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerTiming.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void current_ShouldBeNull_OutsideAMeasuredRequest() {
+        // Act & Assert
+        assertNull(ServerTiming.current());
+        ServerTiming timing = ServerTiming.start();
+        assertSame(timing, ServerTiming.current());
+        ServerTiming.stop();
+        assertNull(ServerTiming.current());
+    }
+
+    @Test
+    void start_ShouldReuseThreadInstance_AndResetIt() throws InterruptedException {
+        // Arrange
+        ServerTiming first = ServerTiming.start();
+        first.begin(ServerTiming.Phase.DB);
+        Thread.sleep(2);
+        first.end(ServerTiming.Phase.DB);
+        ServerTiming.stop();
+
+        // Act
+        ServerTiming second = ServerTiming.start();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(0, second.elapsedNanos(ServerTiming.Phase.DB));
+    }
+
+    @Test
+    void nestedCalls_ShouldBeCountedOnce() throws InterruptedException {
+        // Arrange
+        ServerTiming timing = ServerTiming.start();
+
+        // Act
+        timing.begin(ServerTiming.Phase.SERVICE);
+        timing.begin(ServerTiming.Phase.SERVICE);
+        Thread.sleep(5);
+        timing.end(ServerTiming.Phase.SERVICE);
+        long afterInner = timing.elapsedNanos(ServerTiming.Phase.SERVICE);
+        timing.end(ServerTiming.Phase.SERVICE);
+
+        // Assert
+        assertEquals(0, afterInner);
+        long elapsed = timing.elapsedNanos(ServerTiming.Phase.SERVICE);
+        assertTrue(elapsed >= 5_000_000 && elapsed < 1_000_000_000, "elapsed " + elapsed);
+    }
+
+    @Test
+    void end_ShouldIgnoreUnbalancedCall() {
+        // Arrange
+        ServerTiming timing = ServerTiming.start();
+
+        // Act
+        timing.end(ServerTiming.Phase.AUTH);
+
+        // Assert
+        assertEquals(0, timing.elapsedNanos(ServerTiming.Phase.AUTH));
+    }
+
+    @Test
+    void headerValue_ShouldListPhasesThatRan_ThenTotal() throws InterruptedException {
+        // Arrange
+        ServerTiming timing = ServerTiming.start();
+        timing.begin(ServerTiming.Phase.DB);
+        Thread.sleep(2);
+        timing.end(ServerTiming.Phase.DB);
+        timing.begin(ServerTiming.Phase.AUTH);
+        timing.end(ServerTiming.Phase.AUTH);
+
+        // Act
+        String value = timing.headerValue();
+
+        // Assert
+        assertTrue(value.matches("auth;dur=\\d+\\.\\d, db;dur=\\d+\\.\\d, total;dur=\\d+\\.\\d"), value);
+        assertFalse(value.contains("json"));
+    }
+
+    @Test
+    void isReported_ShouldOnlyShowAdmins_TheTimingTheyAskedFor() {
+        // Act & Assert
+        assertTrue(ServerTiming.start().isReported());
+        assertFalse(ServerTiming.start(ServerTiming.Audience.NOBODY).isReported());
+        ServerTiming timing = ServerTiming.start(ServerTiming.Audience.ADMINS);
+        assertFalse(timing.isReported());
+        authenticate(false);
+        assertFalse(timing.isReported());
+        authenticate(true);
+        assertTrue(timing.isReported());
+    }
+
+    private static void authenticate(boolean admin) {
+        UserDetailsImpl user = UserDetailsImpl.builder().id(1L).username("timing@yoga.com").admin(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+    }
+}
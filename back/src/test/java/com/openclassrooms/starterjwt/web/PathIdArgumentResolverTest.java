@@ -0,0 +1,98 @@
+package com.openclassrooms.starterjwt.web;
+
+import com.openclassrooms.starterjwt.exception.InvalidIdException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PathIdArgumentResolver
+ * Tests id parsing without exceptions and the shared failure for unparsable ids
+ */
+class PathIdArgumentResolverTest {
+
+    private PathIdArgumentResolver resolver;
+    private MethodParameter sessionId;
+    private MethodParameter userId;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        resolver = new PathIdArgumentResolver();
+        Method handler = Handler.class.getDeclaredMethod("participate", Long.class, long.class, String.class);
+        sessionId = new MethodParameter(handler, 0);
+        userId = new MethodParameter(handler, 1);
+    }
+
+    // ==================== PARSE TESTS ====================
+
+    @Test
+    void parseId_ShouldAcceptWhatLongValueOfAccepts() {
+        // Act & Assert
+        for (String value : new String[]{"0", "1", "-1", "+7", "007", "9223372036854775807", "-9223372036854775808"}) {
+            assertEquals(Long.valueOf(value), PathIdArgumentResolver.parseId(value), value);
+        }
+    }
+
+    @Test
+    void parseId_ShouldReturnNull_ForWhatLongValueOfRejects() {
+        // Act & Assert
+        for (String value : new String[]{"", "-", "+", "not-a-number", "1a", "1@#$", " 1", "1.5",
+                "9223372036854775808", "-9223372036854775809", "99999999999999999999"}) {
+            assertNull(PathIdArgumentResolver.parseId(value), value);
+        }
+    }
+
+    // ==================== RESOLVE TESTS ====================
+
+    @Test
+    void supportsParameter_ShouldRequireAnnotatedLong() throws NoSuchMethodException {
+        // Arrange
+        MethodParameter plain = new MethodParameter(
+                Handler.class.getDeclaredMethod("participate", Long.class, long.class, String.class), 2);
+
+        // Act & Assert
+        assertTrue(resolver.supportsParameter(sessionId));
+        assertTrue(resolver.supportsParameter(userId));
+        assertFalse(resolver.supportsParameter(plain));
+    }
+
+    @Test
+    void resolveArgument_ShouldBindNamedVariable() {
+        // Act
+        Object resolved = resolver.resolveArgument(userId, null, request(Map.of("id", "3", "userId", "42")), null);
+
+        // Assert
+        assertEquals(42L, resolved);
+    }
+
+    @Test
+    void resolveArgument_ShouldThrowSharedStacklessException_WhenIdIsInvalid() {
+        // Act
+        InvalidIdException thrown = assertThrows(InvalidIdException.class,
+                () -> resolver.resolveArgument(sessionId, null, request(Map.of("id", "abc", "userId", "42")), null));
+
+        // Assert
+        assertSame(InvalidIdException.INSTANCE, thrown);
+        assertEquals(0, thrown.getStackTrace().length);
+    }
+
+    private static ServletWebRequest request(Map<String, String> variables) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, variables);
+        return new ServletWebRequest(request);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handler {
+        void participate(@PathId("id") Long id, @PathId("userId") long userId, String other) {
+        }
+    }
+}
@@ -12,6 +12,7 @@ CREATE TABLE `SESSIONS` (
   `description` VARCHAR(2000),
   `date` TIMESTAMP,
   `teacher_id` int,
+  `capacity` INT,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
@@ -24,14 +25,121 @@ CREATE TABLE `USERS` (
   `email` VARCHAR(255),
   `password` VARCHAR(255),
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `deleted_at` DATETIME NULL
 );
 
+CREATE INDEX `idx_users_deleted_at` ON `USERS` (`deleted_at`);
+
 CREATE TABLE `PARTICIPATE` (
   `user_id` INT, 
   `session_id` INT
 );
 
+CREATE TABLE `PARTICIPATION_EVENTS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `session_id` BIGINT NOT NULL,
+  `user_id` BIGINT NOT NULL,
+  `action` VARCHAR(20) NOT NULL,
+  `occurred_at` DATETIME NOT NULL
+);
+
+CREATE INDEX `idx_participation_events_session` ON `PARTICIPATION_EVENTS` (`session_id`);
+CREATE INDEX `idx_participation_events_user` ON `PARTICIPATION_EVENTS` (`user_id`);
+
+CREATE TABLE `WAITLIST` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `session_id` BIGINT NOT NULL,
+  `user_id` BIGINT NOT NULL,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT `uk_waitlist_session_user` UNIQUE (`session_id`, `user_id`)
+);
+
+CREATE INDEX `idx_waitlist_session_order` ON `WAITLIST` (`session_id`, `id`);
+
+CREATE TABLE `CACHE_INVALIDATIONS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `type` VARCHAR(20) NOT NULL,
+  `entity_id` BIGINT NOT NULL,
+  `origin` VARCHAR(64) NOT NULL,
+  `created_at` DATETIME NOT NULL
+);
+
+CREATE INDEX `idx_cache_invalidations_created` ON `CACHE_INVALIDATIONS` (`created_at`);
+
+CREATE TABLE `REFRESH_TOKENS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `token_hash` VARCHAR(64) NOT NULL UNIQUE,
+  `family_id` VARCHAR(36) NOT NULL,
+  `user_id` BIGINT NOT NULL,
+  `access_token_id` VARCHAR(36),
+  `access_expires_at` DATETIME,
+  `expires_at` DATETIME NOT NULL,
+  `created_at` DATETIME NOT NULL,
+  `used_at` DATETIME
+);
+
+CREATE INDEX `idx_refresh_tokens_family` ON `REFRESH_TOKENS` (`family_id`);
+CREATE INDEX `idx_refresh_tokens_user` ON `REFRESH_TOKENS` (`user_id`);
+
+CREATE TABLE `REVOKED_TOKENS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `token_id` VARCHAR(64) NOT NULL,
+  `expires_at` DATETIME NOT NULL,
+  `revoked_at` DATETIME NOT NULL
+);
+
+CREATE INDEX `idx_revoked_tokens_expires` ON `REVOKED_TOKENS` (`expires_at`);
+
+CREATE INDEX `idx_sessions_date` ON `SESSIONS` (`date`);
+
+CREATE TABLE `SESSIONS_ARCHIVE` (
+  `id` INT PRIMARY KEY,
+  `name` VARCHAR(50),
+  `description` VARCHAR(2000),
+  `date` TIMESTAMP,
+  `teacher_id` int,
+  `capacity` INT,
+  `created_at` TIMESTAMP NULL,
+  `updated_at` DATETIME,
+  `archived_at` DATETIME NOT NULL
+);
+
+CREATE INDEX `idx_sessions_archive_date` ON `SESSIONS_ARCHIVE` (`date`);
+
+CREATE TABLE `PARTICIPATE_ARCHIVE` (
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  PRIMARY KEY (`session_id`, `user_id`)
+);
+
+CREATE INDEX `idx_participate_archive_user` ON `PARTICIPATE_ARCHIVE` (`user_id`);
+
+CREATE TABLE `JOB_LOCKS` (
+  `name` VARCHAR(64) PRIMARY KEY,
+  `locked_until` DATETIME NOT NULL,
+  `locked_by` VARCHAR(64) NOT NULL
+);
+
+CREATE TABLE `SESSION_ATTENDANCE` (
+  `session_id` BIGINT PRIMARY KEY,
+  `month_start` DATE NOT NULL,
+  `weekday` INT NOT NULL,
+  `teacher_id` BIGINT NOT NULL,
+  `participant_count` INT NOT NULL
+);
+
+CREATE TABLE `MONTHLY_ATTENDANCE` (
+  `month_start` DATE NOT NULL,
+  `weekday` INT NOT NULL,
+  `teacher_id` BIGINT NOT NULL,
+  `session_count` BIGINT NOT NULL,
+  `participant_count` BIGINT NOT NULL,
+  PRIMARY KEY (`month_start`, `weekday`, `teacher_id`)
+);
+
+CREATE INDEX `idx_monthly_attendance_teacher` ON `MONTHLY_ATTENDANCE` (`teacher_id`);
+
 ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
\ No newline at end of file
@@ -1,7 +1,7 @@
 import { TestBed } from '@angular/core/testing';
-import { HttpRequest, HttpHandler } from '@angular/common/http';
+import { HttpRequest, HttpHandler, HttpErrorResponse, HttpResponse } from '@angular/common/http';
 import { expect } from '@jest/globals';
-import { of } from 'rxjs';
+import { of, throwError } from 'rxjs';
 
 import { JwtInterceptor } from './jwt.interceptor';
 import { SessionService } from '../services/session.service';
@@ -259,4 +259,85 @@ describe('JwtInterceptor', () => {
       expect(capturedRequest.headers.get('Authorization')).toBe('Bearer test-jwt-token-123');
     });
   });
-});
\ No newline at end of file
+
+  // ==================== REFRESH TESTS ====================
+
+  describe('Access token refresh', () => {
+    const unauthorized = () => throwError(() => new HttpErrorResponse({ status: 401 }));
+    const renewed = new HttpResponse({ body: { token: 'new-jwt-token', refreshToken: 'new-refresh-token', expiresIn: 900 } });
+
+    beforeEach(() => {
+      mockSessionService.isLogged = true;
+      mockSessionService.sessionInformation.refreshToken = 'refresh-token-123';
+      mockSessionService.renew = jest.fn((token: string) => mockSessionService.sessionInformation.token = token);
+      mockSessionService.logOut = jest.fn();
+    });
+
+    it('should refresh the token on a 401 and replay the request with it', () => {
+      // Arrange
+      const mockHandler = jest.fn()
+        .mockReturnValueOnce(unauthorized())
+        .mockReturnValueOnce(of(renewed))
+        .mockReturnValueOnce(of(new HttpResponse({ body: 'replayed' })));
+      const events: any[] = [];
+
+      // Act
+      interceptor.intercept(mockRequest, { handle: mockHandler } as any).subscribe(event => events.push(event));
+
+      // Assert
+      expect(mockHandler).toHaveBeenCalledTimes(3);
+      const refreshRequest = mockHandler.mock.calls[1][0];
+      expect(refreshRequest.url).toBe(JwtInterceptor.REFRESH_URL);
+      expect(refreshRequest.body).toEqual({ refreshToken: 'refresh-token-123' });
+      expect(mockSessionService.renew).toHaveBeenCalledWith('new-jwt-token', 'new-refresh-token', 900);
+      expect(mockHandler.mock.calls[2][0].headers.get('Authorization')).toBe('Bearer new-jwt-token');
+      expect(events[0].body).toBe('replayed');
+    });
+
+    it('should log out and pass the error on when the refresh is refused', () => {
+      // Arrange
+      const mockHandler = jest.fn()
+        .mockReturnValueOnce(unauthorized())
+        .mockReturnValueOnce(unauthorized());
+      let error: any;
+
+      // Act
+      interceptor.intercept(mockRequest, { handle: mockHandler } as any).subscribe({ error: e => error = e });
+
+      // Assert
+      expect(mockHandler).toHaveBeenCalledTimes(2);
+      expect(mockSessionService.logOut).toHaveBeenCalled();
+      expect(error.status).toBe(401);
+    });
+
+    it('should not refresh auth requests or other errors', () => {
+      const cases: [HttpRequest<any>, number][] = [
+        [new HttpRequest('POST', 'api/auth/login', {}), 401],
+        [mockRequest, 403],
+      ];
+
+      cases.forEach(([request, status]) => {
+        const mockHandler = jest.fn().mockReturnValue(throwError(() => new HttpErrorResponse({ status })));
+        let error: any;
+
+        interceptor.intercept(request, { handle: mockHandler } as any).subscribe({ error: e => error = e });
+
+        expect(mockHandler).toHaveBeenCalledTimes(1);
+        expect(error.status).toBe(status);
+      });
+      expect(mockSessionService.logOut).not.toHaveBeenCalled();
+    });
+
+    it('should not refresh without a refresh token', () => {
+      // Arrange
+      mockSessionService.sessionInformation.refreshToken = undefined;
+      const mockHandler = jest.fn().mockReturnValue(unauthorized());
+
+      // Act
+      interceptor.intercept(mockRequest, { handle: mockHandler } as any).subscribe({ error: () => undefined });
+
+      // Assert
+      expect(mockHandler).toHaveBeenCalledTimes(1);
+    });
+  });
+});
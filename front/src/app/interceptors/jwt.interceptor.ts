@@ -1,19 +1,76 @@
-import { HttpHandler, HttpInterceptor, HttpRequest } from "@angular/common/http";
+import { HttpErrorResponse, HttpEvent, HttpHandler, HttpInterceptor, HttpRequest, HttpResponse } from "@angular/common/http";
 import { Injectable } from "@angular/core";
+import { Observable, throwError } from 'rxjs';
+import { catchError, filter, finalize, map, shareReplay, switchMap, take } from 'rxjs/operators';
 import { SessionService } from '../services/session.service';
 
+interface RefreshResponse {
+  token: string;
+  refreshToken: string;
+  expiresIn: number;
+}
+
+/**
+ * Adds the access token to every request. Access tokens are short-lived: on a 401 the
+ * interceptor trades the refresh token for a new pair once, however many requests failed
+ * together, and replays them. When the refresh is refused the session is over.
+ */
 @Injectable({ providedIn: 'root' })
 export class JwtInterceptor implements HttpInterceptor {
+  public static readonly REFRESH_URL = 'api/auth/refresh';
+
+  private refreshing: Observable<string> | null = null;
+
   constructor(private sessionService: SessionService) {}
 
-  public intercept(request: HttpRequest<any>, next: HttpHandler) {
-    if (this.sessionService.isLogged) {
-      request = request.clone({
-        setHeaders: {
-          Authorization: `Bearer ${this.sessionService.sessionInformation!.token}`,
-        },
-      });
+  public intercept(request: HttpRequest<any>, next: HttpHandler): Observable<HttpEvent<any>> {
+    if (!this.sessionService.isLogged) {
+      return next.handle(request);
+    }
+    return next.handle(this.withToken(request, this.sessionService.sessionInformation!.token)).pipe(
+      catchError((error) => {
+        if (!this.canRefresh(request, error)) {
+          return throwError(() => error);
+        }
+        return this.refresh(next).pipe(
+          switchMap((token) => next.handle(this.withToken(request, token))));
+      }));
+  }
+
+  private withToken(request: HttpRequest<any>, token: string): HttpRequest<any> {
+    return request.clone({
+      setHeaders: {
+        Authorization: `Bearer ${token}`,
+      },
+    });
+  }
+
+  private canRefresh(request: HttpRequest<any>, error: any): boolean {
+    return error instanceof HttpErrorResponse
+      && error.status === 401
+      && !request.url.includes('api/auth/')
+      && !!this.sessionService.sessionInformation?.refreshToken;
+  }
+
+  // Goes straight to the next handler: HttpClient would run this interceptor again
+  private refresh(next: HttpHandler): Observable<string> {
+    if (!this.refreshing) {
+      const refreshToken = this.sessionService.sessionInformation!.refreshToken;
+      this.refreshing = next.handle(new HttpRequest<any>('POST', JwtInterceptor.REFRESH_URL, { refreshToken })).pipe(
+        filter((event): event is HttpResponse<RefreshResponse> => event instanceof HttpResponse),
+        take(1),
+        map((response) => {
+          const body = response.body!;
+          this.sessionService.renew(body.token, body.refreshToken, body.expiresIn);
+          return body.token;
+        }),
+        catchError((error) => {
+          this.sessionService.logOut();
+          return throwError(() => error);
+        }),
+        finalize(() => this.refreshing = null),
+        shareReplay(1));
     }
-    return next.handle(request);
+    return this.refreshing;
   }
 }
@@ -7,4 +7,6 @@ export interface SessionInformation {
   firstName: string;
   lastName: string;
   admin: boolean;
+  refreshToken?: string;
+  expiresIn?: number;
 }
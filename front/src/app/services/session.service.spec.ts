@@ -134,6 +134,26 @@ describe('SessionService', () => {
     });
   });
 
+  describe('renew', () => {
+    it('should swap the tokens and keep the rest of the session', () => {
+      service.logIn({ ...mockUser, refreshToken: 'old-refresh', expiresIn: 900 });
+
+      service.renew('new-token', 'new-refresh', 900);
+
+      expect(service.isLogged).toBe(true);
+      expect(service.sessionInformation?.token).toBe('new-token');
+      expect(service.sessionInformation?.refreshToken).toBe('new-refresh');
+      expect(service.sessionInformation?.username).toBe('testuser');
+    });
+
+    it('should not log in when already logged out', () => {
+      service.renew('new-token', 'new-refresh', 900);
+
+      expect(service.isLogged).toBe(false);
+      expect(service.sessionInformation).toBeUndefined();
+    });
+  });
+
   describe('$isLogged Observable', () => {
     it('should emit current state to new subscribers', (done) => {
       // Login first
@@ -22,6 +22,16 @@ export class SessionService {
     this.next();
   }
 
+  /**
+   * Swaps in the tokens of a refresh without touching the rest of the session.
+   */
+  public renew(token: string, refreshToken: string, expiresIn: number): void {
+    if (!this.sessionInformation) {
+      return;
+    }
+    this.sessionInformation = { ...this.sessionInformation, token, refreshToken, expiresIn };
+  }
+
   public logOut(): void {
     this.sessionInformation = undefined;
     this.isLogged = false;